@@ -0,0 +1,126 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.impl.io.ChunkedInputStream;
+import com.epam.reportportal.apache.http.impl.io.ChunkedOutputStream;
+import com.epam.reportportal.apache.http.impl.io.HttpTransportMetricsImpl;
+import com.epam.reportportal.apache.http.impl.io.SessionInputBufferImpl;
+import com.epam.reportportal.apache.http.impl.io.SessionOutputBufferImpl;
+
+/**
+ * Throughput of chunk coding and decoding of in-memory content through
+ * {@link ChunkedOutputStream} and {@link ChunkedInputStream}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ChunkCodingBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    public int size;
+
+    private byte[] content;
+    private byte[] tmp;
+    private ByteArrayInputStream instream;
+    private SessionInputBufferImpl inbuffer;
+    private SessionOutputBufferImpl outbuffer;
+
+    @Setup
+    public void setup() throws IOException {
+        this.content = new byte[this.size];
+        new Random(42).nextBytes(this.content);
+        this.tmp = new byte[4096];
+
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        final SessionOutputBufferImpl buffer = new SessionOutputBufferImpl(new HttpTransportMetricsImpl(), 8 * 1024);
+        buffer.bind(encoded);
+        final ChunkedOutputStream out = new ChunkedOutputStream(2048, buffer);
+        out.write(this.content);
+        out.close();
+
+        this.instream = new ByteArrayInputStream(encoded.toByteArray());
+        this.inbuffer = new SessionInputBufferImpl(new HttpTransportMetricsImpl(), 8 * 1024);
+        this.inbuffer.bind(this.instream);
+        this.outbuffer = new SessionOutputBufferImpl(new HttpTransportMetricsImpl(), 8 * 1024);
+        this.outbuffer.bind(new NullOutputStream());
+    }
+
+    @Benchmark
+    public int decode() throws IOException {
+        this.instream.reset();
+        final ChunkedInputStream in = new ChunkedInputStream(this.inbuffer);
+        int total = 0;
+        int n;
+        while ((n = in.read(this.tmp)) != -1) {
+            total += n;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        final ChunkedOutputStream out = new ChunkedOutputStream(2048, this.outbuffer);
+        out.write(this.content);
+        out.close();
+    }
+
+    static class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(final int b) {
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+        }
+
+    }
+
+}
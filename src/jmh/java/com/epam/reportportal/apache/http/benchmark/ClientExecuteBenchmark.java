@@ -0,0 +1,128 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
+import com.epam.reportportal.apache.http.client.methods.HttpGet;
+import com.epam.reportportal.apache.http.client.methods.HttpPost;
+import com.epam.reportportal.apache.http.client.methods.HttpUriRequest;
+import com.epam.reportportal.apache.http.entity.ByteArrayEntity;
+import com.epam.reportportal.apache.http.impl.client.CloseableHttpClient;
+import com.epam.reportportal.apache.http.impl.client.HttpClients;
+import com.epam.reportportal.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import com.epam.reportportal.apache.http.localserver.LocalTestServer;
+import com.epam.reportportal.apache.http.util.EntityUtils;
+
+/**
+ * Full request / response round-trips through
+ * {@link CloseableHttpClient#execute(HttpHost, com.epam.reportportal.apache.http.HttpRequest)}
+ * against an in-process {@link LocalTestServer} over pooled persistent connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(4)
+public class ClientExecuteBenchmark {
+
+    @Param({"128", "16384"})
+    public int size;
+
+    private LocalTestServer server;
+    private CloseableHttpClient client;
+    private HttpHost target;
+    private byte[] content;
+
+    @Setup
+    public void setup() throws Exception {
+        this.server = new LocalTestServer(null, null);
+        this.server.registerDefaultHandlers();
+        this.server.start();
+        final InetSocketAddress address = this.server.getServiceAddress();
+        this.target = new HttpHost(address.getHostName(), address.getPort(), "http");
+        this.content = new byte[this.size];
+        new Random(42).nextBytes(this.content);
+
+        final PoolingHttpClientConnectionManager connManager = new PoolingHttpClientConnectionManager();
+        connManager.setDefaultMaxPerRoute(8);
+        connManager.setMaxTotal(8);
+        this.client = HttpClients.custom()
+                .setConnectionManager(connManager)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.client.close();
+        this.server.stop();
+    }
+
+    @Benchmark
+    public int get() throws IOException {
+        return execute(new HttpGet("/random/" + this.size));
+    }
+
+    @Benchmark
+    public int post() throws IOException {
+        final HttpPost post = new HttpPost("/echo/");
+        post.setEntity(new ByteArrayEntity(this.content));
+        return execute(post);
+    }
+
+    private int execute(final HttpUriRequest request) throws IOException {
+        final CloseableHttpResponse response = this.client.execute(this.target, request);
+        try {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode();
+        } finally {
+            response.close();
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.pool.AbstractConnPool;
+import com.epam.reportportal.apache.http.pool.ConnFactory;
+import com.epam.reportportal.apache.http.pool.ManagedConnPool;
+import com.epam.reportportal.apache.http.pool.PoolConcurrencyPolicy;
+import com.epam.reportportal.apache.http.pool.PoolEntry;
+import com.epam.reportportal.apache.http.pool.StripedConnPool;
+
+/**
+ * Lease / release round-trips on a connection pool shared by several threads.
+ * <p/>
+ * The pool is pre-populated with <code>poolSize</code> idle connections spread
+ * evenly over <code>routes</code> routes, so that the cost of pool operations
+ * can be compared across locking policies, route counts and pool sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(8)
+public class ConnPoolBenchmark {
+
+    @Param({"GLOBAL_LOCK", "PER_ROUTE_LOCK"})
+    public PoolConcurrencyPolicy policy;
+
+    @Param({"1", "16"})
+    public int routes;
+
+    @Param({"16", "256", "1024"})
+    public int poolSize;
+
+    private ManagedConnPool<String, DummyPoolEntry> pool;
+    private String[] routeNames;
+
+    @Setup
+    public void setup() throws Exception {
+        final DummyConnFactory connFactory = new DummyConnFactory();
+        if (this.policy == PoolConcurrencyPolicy.PER_ROUTE_LOCK) {
+            this.pool = new StripedDummyConnPool(connFactory, this.poolSize, this.poolSize);
+        } else {
+            this.pool = new DummyConnPool(connFactory, this.poolSize, this.poolSize);
+        }
+        this.routeNames = new String[this.routes];
+        for (int i = 0; i < this.routes; i++) {
+            this.routeNames[i] = "route-" + i;
+        }
+        final List<DummyPoolEntry> entries = new ArrayList<DummyPoolEntry>(this.poolSize);
+        for (int i = 0; i < this.poolSize; i++) {
+            entries.add(this.pool.lease(this.routeNames[i % this.routes], null, null).get());
+        }
+        for (final DummyPoolEntry entry: entries) {
+            this.pool.release(entry, true);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.pool.shutdown();
+    }
+
+    @Benchmark
+    public DummyPoolEntry leaseRelease() throws Exception {
+        final String route = this.routeNames[ThreadLocalRandom.current().nextInt(this.routes)];
+        final DummyPoolEntry entry = this.pool.lease(route, null, null).get();
+        this.pool.release(entry, true);
+        return entry;
+    }
+
+    static class DummyConnection {
+
+        private volatile boolean closed;
+
+        public void close() {
+            this.closed = true;
+        }
+
+        public boolean isClosed() {
+            return this.closed;
+        }
+
+    }
+
+    static class DummyPoolEntry extends PoolEntry<String, DummyConnection> {
+
+        public DummyPoolEntry(final String id, final String route, final DummyConnection conn) {
+            super(id, route, conn);
+        }
+
+        @Override
+        public void close() {
+            getConnection().close();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return getConnection().isClosed();
+        }
+
+    }
+
+    static class DummyConnFactory implements ConnFactory<String, DummyConnection> {
+
+        public DummyConnection create(final String route) {
+            return new DummyConnection();
+        }
+
+    }
+
+    static class DummyConnPool extends AbstractConnPool<String, DummyConnection, DummyPoolEntry> {
+
+        private static final AtomicLong COUNTER = new AtomicLong();
+
+        public DummyConnPool(
+                final DummyConnFactory connFactory, final int defaultMaxPerRoute, final int maxTotal) {
+            super(connFactory, defaultMaxPerRoute, maxTotal);
+        }
+
+        @Override
+        protected DummyPoolEntry createEntry(final String route, final DummyConnection conn) {
+            return new DummyPoolEntry(Long.toString(COUNTER.getAndIncrement()), route, conn);
+        }
+
+    }
+
+    static class StripedDummyConnPool extends StripedConnPool<String, DummyConnection, DummyPoolEntry> {
+
+        private static final AtomicLong COUNTER = new AtomicLong();
+
+        public StripedDummyConnPool(
+                final DummyConnFactory connFactory, final int defaultMaxPerRoute, final int maxTotal) {
+            super(connFactory, defaultMaxPerRoute, maxTotal);
+        }
+
+        @Override
+        protected DummyPoolEntry createEntry(final String route, final DummyConnection conn) {
+            return new DummyPoolEntry(Long.toString(COUNTER.getAndIncrement()), route, conn);
+        }
+
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.benchmark.ConnPoolBenchmark.DummyConnFactory;
+import com.epam.reportportal.apache.http.benchmark.ConnPoolBenchmark.DummyConnPool;
+import com.epam.reportportal.apache.http.benchmark.ConnPoolBenchmark.DummyPoolEntry;
+import com.epam.reportportal.apache.http.benchmark.ConnPoolBenchmark.StripedDummyConnPool;
+import com.epam.reportportal.apache.http.pool.ManagedConnPool;
+import com.epam.reportportal.apache.http.pool.PoolConcurrencyPolicy;
+
+/**
+ * Latency of pool operations as the pool grows from 10 to 10000 entries.
+ * <p/>
+ * Entries are spread over <code>poolSize / ROUTE_SIZE</code> routes and each
+ * entry of a route carries a distinct state. Leasing a random route with
+ * a random state removes the entry from the middle of both the per-route and
+ * the pool-wide list of available entries. Cancelling a random pending
+ * request of a fully leased pool removes it from the middle of both lists
+ * of pending requests. Requests wait for the limit of their route rather than
+ * the total limit, so that reclaiming idle connections of other routes is not
+ * part of the measurement. The cost of either operation is expected to stay
+ * flat across pool sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ConnPoolScalingBenchmark {
+
+    private static final int ROUTE_SIZE = 5;
+
+    @Param({"GLOBAL_LOCK", "PER_ROUTE_LOCK"})
+    public PoolConcurrencyPolicy policy;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int poolSize;
+
+    private ManagedConnPool<String, DummyPoolEntry> availablePool;
+    private ManagedConnPool<String, DummyPoolEntry> pendingPool;
+    private String[] routeNames;
+    private String[] states;
+    private List<Future<DummyPoolEntry>> pending;
+
+    @Setup
+    public void setup() throws Exception {
+        final int routes = this.poolSize / ROUTE_SIZE;
+        this.routeNames = new String[routes];
+        for (int i = 0; i < routes; i++) {
+            this.routeNames[i] = "route-" + i;
+        }
+        this.states = new String[ROUTE_SIZE];
+        for (int i = 0; i < ROUTE_SIZE; i++) {
+            this.states[i] = "state-" + i;
+        }
+
+        this.availablePool = createPool();
+        final List<DummyPoolEntry> entries = new ArrayList<DummyPoolEntry>(this.poolSize);
+        for (int i = 0; i < this.poolSize; i++) {
+            final DummyPoolEntry entry = this.availablePool.lease(this.routeNames[i % routes], null, null).get();
+            entry.setState(this.states[i / routes]);
+            entries.add(entry);
+        }
+        for (final DummyPoolEntry entry: entries) {
+            this.availablePool.release(entry, true);
+        }
+
+        this.pendingPool = createPool();
+        for (int i = 0; i < this.poolSize; i++) {
+            this.pendingPool.lease(this.routeNames[i % routes], null, null).get();
+        }
+        this.pending = new ArrayList<Future<DummyPoolEntry>>(this.poolSize);
+        for (int i = 0; i < this.poolSize; i++) {
+            this.pending.add(this.pendingPool.leaseAsync(this.routeNames[i % routes], null, null));
+        }
+    }
+
+    private ManagedConnPool<String, DummyPoolEntry> createPool() {
+        final DummyConnFactory connFactory = new DummyConnFactory();
+        if (this.policy == PoolConcurrencyPolicy.PER_ROUTE_LOCK) {
+            return new StripedDummyConnPool(connFactory, ROUTE_SIZE, this.poolSize);
+        } else {
+            return new DummyConnPool(connFactory, ROUTE_SIZE, this.poolSize);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.availablePool.shutdown();
+        this.pendingPool.shutdown();
+    }
+
+    @Benchmark
+    public DummyPoolEntry leaseReleaseWithState() throws Exception {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final String route = this.routeNames[random.nextInt(this.routeNames.length)];
+        final String state = this.states[random.nextInt(this.states.length)];
+        final DummyPoolEntry entry = this.availablePool.lease(route, state, null).get();
+        this.availablePool.release(entry, true);
+        return entry;
+    }
+
+    @Benchmark
+    public Future<DummyPoolEntry> cancelPending() {
+        final int i = ThreadLocalRandom.current().nextInt(this.poolSize);
+        this.pending.get(i).cancel(true);
+        final Future<DummyPoolEntry> future = this.pendingPool.leaseAsync(
+                this.routeNames[i % this.routeNames.length], null, null);
+        this.pending.set(i, future);
+        return future;
+    }
+
+}
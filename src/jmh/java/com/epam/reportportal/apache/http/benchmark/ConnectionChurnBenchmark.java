@@ -0,0 +1,234 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.HttpClientConnection;
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.HttpResponse;
+import com.epam.reportportal.apache.http.config.ConnectionConfig;
+import com.epam.reportportal.apache.http.config.RegistryBuilder;
+import com.epam.reportportal.apache.http.conn.DnsResolver;
+import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
+import com.epam.reportportal.apache.http.conn.socket.ConnectionSocketFactory;
+import com.epam.reportportal.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import com.epam.reportportal.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import com.epam.reportportal.apache.http.impl.io.BoundedBufferRecycler;
+import com.epam.reportportal.apache.http.message.BasicHttpRequest;
+import com.epam.reportportal.apache.http.protocol.BasicHttpContext;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.apache.http.util.EntityUtils;
+
+/**
+ * Cost of opening a pooled connection, executing a single request and having
+ * the pool evict the connection once idle, with session buffers allocated
+ * per connection and with session buffers recycled through
+ * a {@link BoundedBufferRecycler}. The socket is replaced with an in-memory
+ * stub so that only client side allocation is measured; run with
+ * <code>-prof gc</code> to compare <code>gc.alloc.rate.norm</code> of both
+ * modes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ConnectionChurnBenchmark {
+
+    private static final byte[] RESPONSE = (
+            "HTTP/1.1 200 OK\r\n" +
+            "Content-Type: text/plain\r\n" +
+            "Content-Length: 5\r\n" +
+            "\r\n" +
+            "hello").getBytes();
+
+    @Param({"none", "bounded"})
+    public String recycler;
+
+    @Param({"8192", "65536"})
+    public int bufferSize;
+
+    private PoolingHttpClientConnectionManager connManager;
+    private HttpRoute route;
+    private HttpContext context;
+    private BasicHttpRequest request;
+
+    @Setup
+    public void setup() {
+        final ManagedHttpClientConnectionFactory connFactory = "bounded".equals(this.recycler) ?
+                new ManagedHttpClientConnectionFactory(null, null, new BoundedBufferRecycler(16)) :
+                new ManagedHttpClientConnectionFactory();
+        this.connManager = new PoolingHttpClientConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", new StubSocketFactory())
+                        .build(),
+                connFactory,
+                new DnsResolver() {
+
+                    public InetAddress[] resolve(final String host) {
+                        return new InetAddress[] { InetAddress.getLoopbackAddress() };
+                    }
+
+                });
+        this.connManager.setDefaultConnectionConfig(
+                ConnectionConfig.custom().setBufferSize(this.bufferSize).build());
+        this.route = new HttpRoute(new HttpHost("localhost", 80));
+        this.context = new BasicHttpContext();
+        this.request = new BasicHttpRequest("GET", "/");
+        this.request.addHeader("Host", "localhost");
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.connManager.shutdown();
+    }
+
+    @Benchmark
+    public int churn() throws Exception {
+        final HttpClientConnection conn = this.connManager.requestConnection(
+                this.route, null).get(0, TimeUnit.MILLISECONDS);
+        final HttpResponse response;
+        try {
+            this.connManager.connect(conn, this.route, 0, this.context);
+            this.connManager.routeComplete(conn, this.route, this.context);
+            conn.sendRequestHeader(this.request);
+            conn.flush();
+            response = conn.receiveResponseHeader();
+            conn.receiveResponseEntity(response);
+            EntityUtils.consume(response.getEntity());
+        } finally {
+            this.connManager.releaseConnection(conn, null, 0, TimeUnit.MILLISECONDS);
+        }
+        // Evicted while idle, the way stale and expired connections are
+        this.connManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        return response.getStatusLine().getStatusCode();
+    }
+
+    static class StubSocketFactory implements ConnectionSocketFactory {
+
+        public Socket createSocket(final HttpContext context) {
+            return new StubSocket();
+        }
+
+        public Socket connectSocket(
+                final int connectTimeout,
+                final Socket socket,
+                final HttpHost host,
+                final InetSocketAddress remoteAddress,
+                final InetSocketAddress localAddress,
+                final HttpContext context) {
+            return socket;
+        }
+
+    }
+
+    static class StubSocket extends Socket {
+
+        private final InputStream in = new ByteArrayInputStream(RESPONSE);
+        private final OutputStream out = new NullOutputStream();
+
+        @Override
+        public InputStream getInputStream() {
+            return this.in;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return this.out;
+        }
+
+        @Override
+        public void shutdownInput() {
+        }
+
+        @Override
+        public void shutdownOutput() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void setSoTimeout(final int timeout) throws SocketException {
+        }
+
+        @Override
+        public void setReuseAddress(final boolean on) throws SocketException {
+        }
+
+        @Override
+        public void setTcpNoDelay(final boolean on) throws SocketException {
+        }
+
+        @Override
+        public void setKeepAlive(final boolean on) throws SocketException {
+        }
+
+        @Override
+        public void setSoLinger(final boolean on, final int linger) throws SocketException {
+        }
+
+    }
+
+    static class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(final int b) throws IOException {
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+        }
+
+    }
+
+}
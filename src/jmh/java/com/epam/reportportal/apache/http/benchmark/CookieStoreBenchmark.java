@@ -0,0 +1,114 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.HttpException;
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.client.CookieStore;
+import com.epam.reportportal.apache.http.client.config.CookieSpecs;
+import com.epam.reportportal.apache.http.client.protocol.HttpClientContext;
+import com.epam.reportportal.apache.http.client.protocol.RequestAddCookies;
+import com.epam.reportportal.apache.http.config.Lookup;
+import com.epam.reportportal.apache.http.config.RegistryBuilder;
+import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
+import com.epam.reportportal.apache.http.cookie.CookieSpecProvider;
+import com.epam.reportportal.apache.http.impl.client.BasicCookieStore;
+import com.epam.reportportal.apache.http.impl.client.ConcurrentCookieStore;
+import com.epam.reportportal.apache.http.impl.cookie.BasicClientCookie;
+import com.epam.reportportal.apache.http.impl.cookie.BestMatchSpecFactory;
+import com.epam.reportportal.apache.http.message.BasicHttpRequest;
+
+/**
+ * Time {@link RequestAddCookies} takes to pick the cookies of one host out of
+ * a store shared by 10 and 1000 hosts holding 4 cookies each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CookieStoreBenchmark {
+
+    @Param({"10", "1000"})
+    public int hosts;
+
+    @Param({"basic", "concurrent"})
+    public String store;
+
+    private HttpClientContext context;
+    private RequestAddCookies interceptor;
+
+    @Setup
+    public void setup() {
+        final CookieStore cookieStore = "concurrent".equals(this.store) ?
+                new ConcurrentCookieStore() : new BasicCookieStore();
+        for (int i = 0; i < this.hosts; i++) {
+            for (int j = 0; j < 4; j++) {
+                final BasicClientCookie cookie = new BasicClientCookie("cookie" + j, "value" + j);
+                cookie.setDomain("host" + i + ".example" + (i % 10) + ".com");
+                cookie.setPath("/");
+                cookieStore.addCookie(cookie);
+            }
+        }
+        final Lookup<CookieSpecProvider> registry = RegistryBuilder.<CookieSpecProvider>create()
+                .register(CookieSpecs.BEST_MATCH, new BestMatchSpecFactory())
+                .build();
+        final HttpHost target = new HttpHost("host0.example0.com", 80);
+        this.context = HttpClientContext.create();
+        this.context.setAttribute(HttpClientContext.HTTP_TARGET_HOST, target);
+        this.context.setAttribute(HttpClientContext.HTTP_ROUTE, new HttpRoute(target, null, false));
+        this.context.setCookieStore(cookieStore);
+        this.context.setCookieSpecRegistry(registry);
+        this.interceptor = new RequestAddCookies();
+    }
+
+    @Benchmark
+    public HttpRequest addCookies() throws HttpException, IOException {
+        final HttpRequest request = new BasicHttpRequest("GET", "/index.html");
+        this.interceptor.process(request, this.context);
+        return request;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.Consts;
+import com.epam.reportportal.apache.http.entity.BasicHttpEntity;
+import com.epam.reportportal.apache.http.util.EntityUtils;
+
+/**
+ * Time to consume a response entity of 1 KB, 64 KB and 10 MB into a byte
+ * array or a string with the <code>Content-Length</code> known upfront and
+ * with the content length unknown (chunk coded or connection delimited).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EntityUtilsBenchmark {
+
+    @Param({"1024", "65536", "10485760"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean knownLength;
+
+    private byte[] content;
+
+    @Setup
+    public void setup() {
+        this.content = new byte[this.size];
+        final Random random = new Random(42);
+        for (int i = 0; i < this.content.length; i++) {
+            this.content[i] = (byte) ('a' + random.nextInt(26));
+        }
+    }
+
+    private BasicHttpEntity createEntity() {
+        final BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(new ByteArrayInputStream(this.content));
+        entity.setContentLength(this.knownLength ? this.content.length : -1);
+        return entity;
+    }
+
+    @Benchmark
+    public byte[] toByteArray() throws IOException {
+        return EntityUtils.toByteArray(createEntity());
+    }
+
+    @Benchmark
+    public String toStringUTF8() throws IOException {
+        return EntityUtils.toString(createEntity(), Consts.UTF_8);
+    }
+
+}
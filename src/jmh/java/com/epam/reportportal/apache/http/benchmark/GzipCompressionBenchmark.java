@@ -0,0 +1,104 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.client.entity.GzipCompressingEntity;
+import com.epam.reportportal.apache.http.entity.ByteArrayEntity;
+
+/**
+ * Time to gzip compress a request body of text-like content at the fastest
+ * and the default compression level, by the writing thread and in parallel
+ * blocks on a fork-join pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class GzipCompressionBenchmark {
+
+    @Param({"65536", "4194304"})
+    public int size;
+
+    @Param({"1", "6"})
+    public int level;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private final OutputStream out = new ConnectionChurnBenchmark.NullOutputStream();
+    private byte[] content;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        this.content = new byte[this.size];
+        final Random random = new Random(42);
+        for (int i = 0; i < this.content.length; i++) {
+            this.content[i] = (byte) ('a' + random.nextInt(8));
+        }
+        this.pool = this.parallel ? new ForkJoinPool() : null;
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (this.pool != null) {
+            this.pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void compress() throws IOException {
+        final GzipCompressingEntity entity = new GzipCompressingEntity(
+                new ByteArrayEntity(this.content), this.level,
+                GzipCompressingEntity.DEFAULT_BUFFER_SIZE, this.pool,
+                GzipCompressingEntity.DEFAULT_BLOCK_SIZE);
+        entity.writeTo(this.out);
+    }
+
+}
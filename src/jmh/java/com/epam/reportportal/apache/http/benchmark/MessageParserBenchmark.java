@@ -0,0 +1,106 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.Header;
+import com.epam.reportportal.apache.http.HeaderElement;
+import com.epam.reportportal.apache.http.StatusLine;
+import com.epam.reportportal.apache.http.message.BasicHeaderValueParser;
+import com.epam.reportportal.apache.http.message.BasicLineParser;
+import com.epam.reportportal.apache.http.message.InterningLineParser;
+import com.epam.reportportal.apache.http.message.LineParser;
+import com.epam.reportportal.apache.http.message.ParserCursor;
+import com.epam.reportportal.apache.http.util.CharArrayBuffer;
+
+/**
+ * Cost of parsing status lines, header lines and header values with
+ * {@link BasicLineParser} and {@link BasicHeaderValueParser}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MessageParserBenchmark {
+
+    @Param({"basic", "interning"})
+    public String parser;
+
+    private LineParser lineParser;
+    private CharArrayBuffer statusLine;
+    private CharArrayBuffer headerLine;
+    private CharArrayBuffer headerValue;
+
+    @Setup
+    public void setup() {
+        this.lineParser = "interning".equals(this.parser) ? InterningLineParser.INSTANCE : BasicLineParser.INSTANCE;
+        this.statusLine = toBuffer("HTTP/1.1 200 OK");
+        this.headerLine = toBuffer("Content-Type: application/json; charset=UTF-8");
+        this.headerValue = toBuffer(
+                "text/html, application/xhtml+xml, application/xml;q=0.9, image/webp, */*;q=0.8");
+    }
+
+    private static CharArrayBuffer toBuffer(final String s) {
+        final CharArrayBuffer buffer = new CharArrayBuffer(s.length());
+        buffer.append(s);
+        return buffer;
+    }
+
+    @Benchmark
+    public StatusLine parseStatusLine() {
+        final ParserCursor cursor = new ParserCursor(0, this.statusLine.length());
+        return this.lineParser.parseStatusLine(this.statusLine, cursor);
+    }
+
+    @Benchmark
+    public String parseHeader() {
+        final Header header = this.lineParser.parseHeader(this.headerLine);
+        return header.getValue();
+    }
+
+    @Benchmark
+    public HeaderElement[] parseHeaderElements() {
+        final ParserCursor cursor = new ParserCursor(0, this.headerValue.length());
+        return BasicHeaderValueParser.INSTANCE.parseElements(this.headerValue, cursor);
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.entity.ContentType;
+import com.epam.reportportal.apache.http.entity.mime.HttpMultipartMode;
+import com.epam.reportportal.apache.http.entity.mime.MultipartEntityBuilder;
+
+/**
+ * Time to build a multipart entity of small text and binary parts, determine
+ * its length and write it out, with and without the streaming multipart engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MultipartBenchmark {
+
+    @Param({"10", "500"})
+    public int parts;
+
+    @Param({"STRICT", "BROWSER_COMPATIBLE"})
+    public HttpMultipartMode mode;
+
+    @Param({"false", "true"})
+    public boolean streaming;
+
+    private final OutputStream out = new ConnectionChurnBenchmark.NullOutputStream();
+    private byte[] attachment;
+
+    @Setup
+    public void setup() {
+        this.attachment = new byte[256];
+    }
+
+    @Benchmark
+    public long buildAndWrite() throws IOException {
+        final MultipartEntityBuilder builder = MultipartEntityBuilder.create()
+                .setMode(this.mode)
+                .setStreaming(this.streaming);
+        for (int i = 0; i < this.parts; i++) {
+            builder.addTextBody("json_request_part", "{\"message\":\"log message " + i + "\"}",
+                    ContentType.APPLICATION_JSON);
+            builder.addBinaryBody("file", this.attachment, ContentType.DEFAULT_BINARY, "attachment.bin");
+        }
+        final HttpEntity entity = builder.build();
+        entity.writeTo(this.out);
+        return entity.getContentLength();
+    }
+
+}
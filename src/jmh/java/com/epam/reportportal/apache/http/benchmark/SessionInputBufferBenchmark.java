@@ -0,0 +1,102 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.Consts;
+import com.epam.reportportal.apache.http.impl.io.HttpTransportMetricsImpl;
+import com.epam.reportportal.apache.http.impl.io.SessionInputBufferImpl;
+import com.epam.reportportal.apache.http.util.CharArrayBuffer;
+
+/**
+ * Time to read a typical response head line by line through
+ * {@link SessionInputBufferImpl#readLine(CharArrayBuffer)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SessionInputBufferBenchmark {
+
+    static final String RESPONSE_HEAD =
+            "HTTP/1.1 200 OK\r\n" +
+            "Date: Mon, 12 Oct 2015 08:30:00 GMT\r\n" +
+            "Server: Apache/2.4.7 (Ubuntu)\r\n" +
+            "Last-Modified: Thu, 08 Oct 2015 14:23:11 GMT\r\n" +
+            "ETag: \"2cf6-5219876a8b2c0\"\r\n" +
+            "Cache-Control: private, max-age=0, must-revalidate\r\n" +
+            "Vary: Accept-Encoding\r\n" +
+            "Content-Type: application/json; charset=UTF-8\r\n" +
+            "Content-Length: 11510\r\n" +
+            "Keep-Alive: timeout=5, max=100\r\n" +
+            "Connection: Keep-Alive\r\n" +
+            "\r\n";
+
+    private ByteArrayInputStream instream;
+    private SessionInputBufferImpl inbuffer;
+    private CharArrayBuffer line;
+
+    @Setup
+    public void setup() {
+        this.instream = new ByteArrayInputStream(RESPONSE_HEAD.getBytes(Consts.ASCII));
+        this.inbuffer = new SessionInputBufferImpl(new HttpTransportMetricsImpl(), 8 * 1024);
+        this.inbuffer.bind(this.instream);
+        this.line = new CharArrayBuffer(128);
+    }
+
+    @Benchmark
+    public int readHead() throws IOException {
+        this.instream.reset();
+        int total = 0;
+        for (;;) {
+            this.line.clear();
+            final int n = this.inbuffer.readLine(this.line);
+            if (n <= 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+}
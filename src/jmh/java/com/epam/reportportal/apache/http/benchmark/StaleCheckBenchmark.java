@@ -0,0 +1,114 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.client.config.RequestConfig;
+import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
+import com.epam.reportportal.apache.http.client.methods.HttpGet;
+import com.epam.reportportal.apache.http.impl.client.CloseableHttpClient;
+import com.epam.reportportal.apache.http.impl.client.HttpClients;
+import com.epam.reportportal.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import com.epam.reportportal.apache.http.localserver.LocalTestServer;
+import com.epam.reportportal.apache.http.util.EntityUtils;
+
+/**
+ * Requests per second over persistent connections with the stale connection
+ * check performed on every request, never performed, and performed only
+ * after a period of inactivity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class StaleCheckBenchmark {
+
+    @Param({"always", "never", "inactivity"})
+    public String mode;
+
+    private LocalTestServer server;
+    private CloseableHttpClient client;
+    private HttpHost target;
+
+    @Setup
+    public void setup() throws Exception {
+        this.server = new LocalTestServer(null, null);
+        this.server.registerDefaultHandlers();
+        this.server.start();
+        final InetSocketAddress address = this.server.getServiceAddress();
+        this.target = new HttpHost(address.getHostName(), address.getPort(), "http");
+
+        final PoolingHttpClientConnectionManager connManager = new PoolingHttpClientConnectionManager();
+        if ("inactivity".equals(this.mode)) {
+            connManager.setValidateAfterInactivity(2000);
+        }
+        final RequestConfig config = RequestConfig.custom()
+                .setStaleConnectionCheckEnabled("always".equals(this.mode))
+                .build();
+        this.client = HttpClients.custom()
+                .setConnectionManager(connManager)
+                .setDefaultRequestConfig(config)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.client.close();
+        this.server.stop();
+    }
+
+    @Benchmark
+    public int execute() throws IOException {
+        final CloseableHttpResponse response = this.client.execute(this.target, new HttpGet("/random/128"));
+        try {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode();
+        } finally {
+            response.close();
+        }
+    }
+
+}
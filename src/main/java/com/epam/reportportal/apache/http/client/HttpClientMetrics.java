@@ -0,0 +1,92 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.client;
+
+import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
+import com.epam.reportportal.apache.http.pool.ConnPoolControl;
+
+/**
+ * Receives timings and events of request execution from the client,
+ * broken down by route.
+ * <p/>
+ * Methods of this interface are called on the request execution path
+ * and therefore must be thread safe, must not block and should not
+ * allocate. All durations are given in nanoseconds.
+ *
+ * @since 4.4
+ */
+public interface HttpClientMetrics {
+
+    /**
+     * Called once by the client builder if the connection manager of
+     * the client exposes connection pool statistics, so that they can be
+     * reported as gauges.
+     */
+    void bindPool(ConnPoolControl<HttpRoute> pool);
+
+    /**
+     * Records the time a request has spent waiting for a connection
+     * to be leased from the connection manager.
+     */
+    void leaseCompleted(HttpRoute route, long waitTime);
+
+    /**
+     * Records the time taken to open a connection to the target or the
+     * first proxy. For routes that are secured on connect this includes
+     * the TLS handshake, which is also recorded separately.
+     */
+    void connectCompleted(HttpRoute route, long duration);
+
+    /**
+     * Records the time taken by a TLS handshake.
+     */
+    void handshakeCompleted(HttpRoute route, long duration);
+
+    /**
+     * Records the time from the start of sending a request until
+     * its response head has been received, that is, the time to first byte.
+     */
+    void responseHeadReceived(HttpRoute route, long duration);
+
+    /**
+     * Records the time from the receipt of a response head until
+     * its body has been fully consumed.
+     */
+    void responseBodyCompleted(HttpRoute route, long duration);
+
+    /**
+     * Counts a request being re-executed after an I/O error or a service
+     * unavailable response.
+     */
+    void requestRetried(HttpRoute route);
+
+    /**
+     * Counts a request being redirected.
+     */
+    void requestRedirected(HttpRoute route);
+
+}
@@ -0,0 +1,55 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.client;
+
+import java.util.List;
+
+import com.epam.reportportal.apache.http.cookie.Cookie;
+import com.epam.reportportal.apache.http.cookie.CookieOrigin;
+
+/**
+ * Extended {@link CookieStore} capable of narrowing down the cookies
+ * that may match a given origin without examining every cookie it holds.
+ *
+ * @since 4.4
+ */
+public interface IndexedCookieStore extends CookieStore {
+
+    /**
+     * Returns cookies that may match the given origin. The result contains
+     * every cookie the store holds for the origin's host and path, but may
+     * contain others as well; it is up to the
+     * {@link com.epam.reportportal.apache.http.cookie.CookieSpec} to make
+     * the final decision.
+     *
+     * @param origin the cookie origin.
+     * @return candidate cookies
+     */
+    List<Cookie> getCookies(CookieOrigin origin);
+
+}
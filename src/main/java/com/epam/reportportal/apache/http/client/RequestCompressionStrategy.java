@@ -0,0 +1,62 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.client;
+
+import java.io.IOException;
+
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+
+/**
+ * Strategy interface that allows API users to plug in their own logic to
+ * control which request entities are compressed automatically and how.
+ *
+ * @since 4.4
+ */
+public interface RequestCompressionStrategy {
+
+    /**
+     * Determines if the entity of the given request should be compressed.
+     *
+     * @param request the request to be sent; its entity is not <code>null</code>
+     *   and has no content encoding.
+     * @param context the context for the request execution
+     *
+     * @return <code>true</code> if the entity should be compressed,
+     * <code>false</code> otherwise
+     */
+    boolean shouldCompress(HttpRequest request, HttpContext context);
+
+    /**
+     * Creates an entity that compresses the content of the given entity
+     * and declares the content encoding it applies.
+     */
+    HttpEntity compress(HttpEntity entity) throws IOException;
+
+}
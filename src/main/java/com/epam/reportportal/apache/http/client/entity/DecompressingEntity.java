@@ -31,20 +31,25 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 import com.epam.reportportal.apache.http.entity.HttpEntityWrapper;
+import com.epam.reportportal.apache.http.Header;
 import com.epam.reportportal.apache.http.HttpEntity;
 import com.epam.reportportal.apache.http.util.Args;
 
 /**
  * Common base class for decompressing {@link HttpEntity} implementations.
+ * The content is decoded by the stream created by the given
+ * {@link InputStreamFactory}.
  *
  * @since 4.1
  */
-abstract class DecompressingEntity extends HttpEntityWrapper {
+public class DecompressingEntity extends HttpEntityWrapper {
 
     /**
      * Default buffer size.
      */
-    private static final int BUFFER_SIZE = 1024 * 2;
+    private static final int BUFFER_SIZE = 1024 * 8;
+
+    private final InputStreamFactory inputStreamFactory;
 
     /**
      * {@link #getContent()} method must return the same {@link InputStream}
@@ -57,12 +62,28 @@ abstract class DecompressingEntity extends HttpEntityWrapper {
      *
      * @param wrapped
      *            the non-null {@link HttpEntity} to be wrapped
+     * @param inputStreamFactory
+     *            factory of the streams decoding the wrapped content
+     *
+     * @since 4.4
+     */
+    public DecompressingEntity(final HttpEntity wrapped, final InputStreamFactory inputStreamFactory) {
+        super(wrapped);
+        this.inputStreamFactory = Args.notNull(inputStreamFactory, "Input stream factory");
+    }
+
+    /**
+     * Creates a new {@link DecompressingEntity} that decodes its content
+     * by overriding {@link #decorate(InputStream)}.
      */
-    public DecompressingEntity(final HttpEntity wrapped) {
+    DecompressingEntity(final HttpEntity wrapped) {
         super(wrapped);
+        this.inputStreamFactory = null;
     }
 
-    abstract InputStream decorate(final InputStream wrapped) throws IOException;
+    InputStream decorate(final InputStream wrapped) throws IOException {
+        return this.inputStreamFactory.create(wrapped);
+    }
 
     private InputStream getDecompressingStream() throws IOException {
         final InputStream in = wrappedEntity.getContent();
@@ -102,4 +123,22 @@ abstract class DecompressingEntity extends HttpEntityWrapper {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Header getContentEncoding() {
+        /* This HttpEntityWrapper has dealt with the Content-Encoding. */
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getContentLength() {
+        /* length of decoded content is not known */
+        return -1;
+    }
+
 }
@@ -26,9 +26,6 @@
  */
 package com.epam.reportportal.apache.http.client.entity;
 
-import java.io.IOException;
-import java.io.InputStream;
-
 import com.epam.reportportal.apache.http.Header;
 import com.epam.reportportal.apache.http.entity.HttpEntityWrapper;
 import com.epam.reportportal.apache.http.HttpEntity;
@@ -59,19 +56,7 @@ public class DeflateDecompressingEntity extends DecompressingEntity {
      *            a non-null {@link HttpEntity} to be wrapped
      */
     public DeflateDecompressingEntity(final HttpEntity entity) {
-        super(entity);
-    }
-
-    /**
-     * Returns the non-null InputStream that should be returned to by all requests to
-     * {@link #getContent()}.
-     *
-     * @return a non-null InputStream
-     * @throws IOException if there was a problem
-     */
-    @Override
-    InputStream decorate(final InputStream wrapped) throws IOException {
-        return new DeflateInputStream(wrapped);
+        super(entity, DeflateInputStreamFactory.INSTANCE);
     }
 
     /**
@@ -53,9 +53,13 @@ package com.epam.reportportal.apache.http.client.entity;
  *
  */
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 
 import com.epam.reportportal.apache.http.Header;
@@ -67,7 +71,15 @@ import com.epam.reportportal.apache.http.protocol.HTTP;
 
 /**
  * Wrapping entity that compresses content when {@link #writeTo writing}.
- *
+ * <p/>
+ * The compression level and the size of the compression buffer can be
+ * set. If a {@link ForkJoinPool} is given, the content is split into blocks
+ * which are compressed in parallel and written out as a single gzip stream.
+ * <p/>
+ * Compressed content is by default streamed using the chunk coding. Content
+ * whose length is known and does not exceed a given threshold can instead be
+ * compressed up front, so that it is sent with a <code>Content-Length</code>
+ * header; such an entity is repeatable.
  *
  * @since 4.0
  */
@@ -75,8 +87,119 @@ public class GzipCompressingEntity extends HttpEntityWrapper {
 
     private static final String GZIP_CODEC = "gzip";
 
-    public GzipCompressingEntity(final HttpEntity entity) {
+    /**
+     * Default size of the compression buffer.
+     *
+     * @since 4.4
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 512;
+
+    /**
+     * Default size of the blocks compressed in parallel.
+     *
+     * @since 4.4
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private final int level;
+    private final int bufferSize;
+    private final ForkJoinPool pool;
+    private final int blockSize;
+    private final byte[] compressed;
+
+    /**
+     * Creates an entity that compresses the content of the wrapped entity.
+     *
+     * @param entity the entity to compress.
+     * @param level the compression level from <code>0</code> to <code>9</code>,
+     *   or <code>-1</code> for the default level.
+     * @param bufferSize the size of the compression buffer.
+     * @param pool the pool to compress blocks of content on in parallel.
+     *   If <code>null</code> the content is compressed by the writing thread.
+     * @param blockSize the size of the blocks compressed in parallel.
+     * @param maxBufferedLength the maximum length of content to compress up
+     *   front. If the content length of the wrapped entity is known and does
+     *   not exceed this value the content is compressed by this constructor
+     *   and sent with a <code>Content-Length</code> header; otherwise it is
+     *   compressed when written and sent chunk coded. Use <code>0</code> to
+     *   always compress when written.
+     * @throws IOException if an I/O error occurs while compressing the content
+     *   up front.
+     *
+     * @since 4.4
+     */
+    public GzipCompressingEntity(
+            final HttpEntity entity,
+            final int level,
+            final int bufferSize,
+            final ForkJoinPool pool,
+            final int blockSize,
+            final long maxBufferedLength) throws IOException {
         super(entity);
+        Args.check(level >= Deflater.DEFAULT_COMPRESSION && level <= Deflater.BEST_COMPRESSION,
+                "Invalid compression level: %d", level);
+        this.level = level;
+        this.bufferSize = Args.positive(bufferSize, "Buffer size");
+        this.pool = pool;
+        this.blockSize = Args.positive(blockSize, "Block size");
+        final long len = entity.getContentLength();
+        if (len >= 0 && len <= maxBufferedLength) {
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+                    (int) Math.min(len / 2 + 32, DEFAULT_BLOCK_SIZE));
+            compress(buffer);
+            this.compressed = buffer.toByteArray();
+        } else {
+            this.compressed = null;
+        }
+    }
+
+    /**
+     * Creates an entity that compresses the content of the wrapped entity
+     * when written.
+     *
+     * @param entity the entity to compress.
+     * @param level the compression level from <code>0</code> to <code>9</code>,
+     *   or <code>-1</code> for the default level.
+     * @param bufferSize the size of the compression buffer.
+     * @param pool the pool to compress blocks of content on in parallel.
+     *   If <code>null</code> the content is compressed by the writing thread.
+     * @param blockSize the size of the blocks compressed in parallel.
+     *
+     * @since 4.4
+     */
+    public GzipCompressingEntity(
+            final HttpEntity entity,
+            final int level,
+            final int bufferSize,
+            final ForkJoinPool pool,
+            final int blockSize) {
+        super(entity);
+        Args.check(level >= Deflater.DEFAULT_COMPRESSION && level <= Deflater.BEST_COMPRESSION,
+                "Invalid compression level: %d", level);
+        this.level = level;
+        this.bufferSize = Args.positive(bufferSize, "Buffer size");
+        this.pool = pool;
+        this.blockSize = Args.positive(blockSize, "Block size");
+        this.compressed = null;
+    }
+
+    /**
+     * Creates an entity that compresses the content of the wrapped entity
+     * by the writing thread when written.
+     *
+     * @param entity the entity to compress.
+     * @param level the compression level from <code>0</code> to <code>9</code>,
+     *   or <code>-1</code> for the default level.
+     * @param bufferSize the size of the compression buffer.
+     *
+     * @since 4.4
+     */
+    public GzipCompressingEntity(final HttpEntity entity, final int level, final int bufferSize) {
+        this(entity, level, bufferSize, null, DEFAULT_BLOCK_SIZE);
+    }
+
+    public GzipCompressingEntity(final HttpEntity entity) {
+        this(entity, Deflater.DEFAULT_COMPRESSION, DEFAULT_BUFFER_SIZE);
     }
 
     @Override
@@ -86,24 +209,56 @@ public class GzipCompressingEntity extends HttpEntityWrapper {
 
     @Override
     public long getContentLength() {
-        return -1;
+        return this.compressed != null ? this.compressed.length : -1;
     }
 
     @Override
     public boolean isChunked() {
-        // force content chunking
-        return true;
+        // force content chunking unless compressed up front
+        return this.compressed == null;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return this.compressed != null || super.isRepeatable();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return this.compressed == null && super.isStreaming();
     }
 
     @Override
     public InputStream getContent() throws IOException {
+        if (this.compressed != null) {
+            return new ByteArrayInputStream(this.compressed);
+        }
         throw new UnsupportedOperationException();
     }
 
     @Override
     public void writeTo(final OutputStream outstream) throws IOException {
         Args.notNull(outstream, "Output stream");
-        final GZIPOutputStream gzip = new GZIPOutputStream(outstream);
+        if (this.compressed != null) {
+            outstream.write(this.compressed);
+            outstream.flush();
+            return;
+        }
+        compress(outstream);
+    }
+
+    private void compress(final OutputStream outstream) throws IOException {
+        final OutputStream gzip;
+        if (this.pool != null) {
+            gzip = new ParallelGzipOutputStream(outstream, this.pool,
+                    this.level, this.bufferSize, this.blockSize);
+        } else {
+            gzip = new GZIPOutputStream(outstream, this.bufferSize) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
         try {
             wrappedEntity.writeTo(gzip);
         } finally {
@@ -26,10 +26,6 @@
  */
 package com.epam.reportportal.apache.http.client.entity;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.zip.GZIPInputStream;
-
 import com.epam.reportportal.apache.http.Header;
 import com.epam.reportportal.apache.http.entity.HttpEntityWrapper;
 import com.epam.reportportal.apache.http.HttpEntity;
@@ -50,12 +46,7 @@ public class GzipDecompressingEntity extends DecompressingEntity {
      *            the non-null {@link HttpEntity} to be wrapped
      */
     public GzipDecompressingEntity(final HttpEntity entity) {
-        super(entity);
-    }
-
-    @Override
-    InputStream decorate(final InputStream wrapped) throws IOException {
-        return new GZIPInputStream(wrapped);
+        super(entity, GzipInputStreamFactory.INSTANCE);
     }
 
     /**
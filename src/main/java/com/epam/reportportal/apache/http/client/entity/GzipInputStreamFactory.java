@@ -0,0 +1,73 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.client.entity;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.epam.reportportal.apache.http.annotation.Immutable;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * {@link InputStreamFactory} for the gzip content coding that decodes
+ * content using pooled {@link java.util.zip.Inflater}s.
+ *
+ * @since 4.4
+ */
+@Immutable
+public class GzipInputStreamFactory implements InputStreamFactory {
+
+    /**
+     * Default size of the buffer holding compressed content.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    public static final GzipInputStreamFactory INSTANCE = new GzipInputStreamFactory();
+
+    private final InflaterPool pool;
+    private final int bufferSize;
+
+    /**
+     * @param pool the pool to obtain inflaters from.
+     * @param bufferSize the size of the buffer holding compressed content.
+     */
+    public GzipInputStreamFactory(final InflaterPool pool, final int bufferSize) {
+        super();
+        this.pool = Args.notNull(pool, "Inflater pool");
+        this.bufferSize = Args.positive(bufferSize, "Buffer size");
+    }
+
+    public GzipInputStreamFactory() {
+        this(InflaterPool.DEFAULT, DEFAULT_BUFFER_SIZE);
+    }
+
+    public InputStream create(final InputStream instream) throws IOException {
+        return new InflatingInputStream(instream, this.pool, this.bufferSize, true);
+    }
+
+}
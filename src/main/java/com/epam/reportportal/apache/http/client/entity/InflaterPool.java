@@ -0,0 +1,104 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.client.entity;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Inflater;
+
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * Pool that keeps up to a fixed number of {@link Inflater}s of each kind
+ * (zlib wrapped and raw) for reuse. Released inflaters are reset before
+ * they are pooled; inflaters released while the pool is full are ended
+ * immediately so that their native memory does not have to wait for
+ * finalization.
+ *
+ * @since 4.4
+ */
+@ThreadSafe
+public class InflaterPool {
+
+    /**
+     * Pool shared by the default content decoders.
+     */
+    public static final InflaterPool DEFAULT = new InflaterPool(64);
+
+    private final BlockingQueue<Inflater> wrapped;
+    private final BlockingQueue<Inflater> raw;
+
+    /**
+     * Creates new instance of InflaterPool.
+     *
+     * @param maxPooled maximum number of inflaters of each kind kept for reuse.
+     *   Must be a positive number.
+     */
+    public InflaterPool(final int maxPooled) {
+        super();
+        Args.positive(maxPooled, "Max pooled inflaters");
+        this.wrapped = new ArrayBlockingQueue<Inflater>(maxPooled);
+        this.raw = new ArrayBlockingQueue<Inflater>(maxPooled);
+    }
+
+    /**
+     * Obtains an inflater from the pool or creates a new one.
+     *
+     * @param nowrap if <code>true</code> the inflater decodes raw deflate
+     *   data as used by gzip; otherwise it decodes the zlib format.
+     */
+    public Inflater acquire(final boolean nowrap) {
+        final Inflater inflater = (nowrap ? this.raw : this.wrapped).poll();
+        return inflater != null ? inflater : new Inflater(nowrap);
+    }
+
+    /**
+     * Returns the inflater to the pool.
+     *
+     * @param inflater the inflater.
+     * @param nowrap the kind of inflater as passed to {@link #acquire(boolean)}.
+     */
+    public void release(final Inflater inflater, final boolean nowrap) {
+        if (inflater == null) {
+            return;
+        }
+        inflater.reset();
+        if (!(nowrap ? this.raw : this.wrapped).offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Returns the number of inflaters currently available for reuse.
+     */
+    public int getPooled() {
+        return this.wrapped.size() + this.raw.size();
+    }
+
+}
@@ -0,0 +1,294 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.client.entity;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * Input stream that decodes the gzip or the deflate content coding using
+ * an {@link Inflater} obtained from an {@link InflaterPool}. The inflater is
+ * returned to the pool as soon as the end of the compressed data has been
+ * reached or the stream has been closed.
+ * <p/>
+ * The gzip decoder accepts concatenated gzip members and verifies the CRC-32
+ * and the size of every member. The deflate decoder accepts both the zlib
+ * format prescribed by RFC 2616 and raw deflate data sent by some servers,
+ * telling them apart by the zlib header check bits rather than by trial
+ * decompression.
+ *
+ * @since 4.4
+ */
+@NotThreadSafe
+class InflatingInputStream extends InputStream {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final InputStream in;
+    private final InflaterPool pool;
+    private final boolean gzip;
+    private final boolean nowrap;
+    private final byte[] buf;
+    private final CRC32 crc;
+    private final byte[] single;
+
+    private Inflater inflater;
+    private int pos;
+    private int len;
+    private boolean eof;
+    private boolean closed;
+
+    InflatingInputStream(
+            final InputStream in,
+            final InflaterPool pool,
+            final int bufferSize,
+            final boolean gzip) throws IOException {
+        super();
+        this.in = Args.notNull(in, "Input stream");
+        this.pool = Args.notNull(pool, "Inflater pool");
+        this.buf = new byte[Args.positive(bufferSize, "Buffer size")];
+        this.gzip = gzip;
+        this.single = new byte[1];
+        if (gzip) {
+            readHeader();
+            this.nowrap = true;
+            this.crc = new CRC32();
+        } else {
+            while (this.len < 2) {
+                final int n = in.read(this.buf, this.len, this.buf.length - this.len);
+                if (n == -1) {
+                    break;
+                }
+                this.len += n;
+            }
+            if (this.len == 0) {
+                throw new IOException("Unable to read the response");
+            }
+            this.nowrap = this.len < 2 || !isZlibHeader(this.buf[0] & 0xff, this.buf[1] & 0xff);
+            this.crc = null;
+        }
+        this.inflater = pool.acquire(this.nowrap);
+        setInput();
+    }
+
+    /**
+     * Checks the compression method, the window size and the check bits
+     * of a zlib header (RFC 1950, section 2.2).
+     */
+    private static boolean isZlibHeader(final int cmf, final int flg) {
+        return (cmf & 0x0f) == 8 && (cmf >> 4) <= 7 && ((cmf << 8) | flg) % 31 == 0;
+    }
+
+    private void setInput() {
+        if (this.pos < this.len) {
+            this.inflater.setInput(this.buf, this.pos, this.len - this.pos);
+            this.pos = this.len;
+        }
+    }
+
+    private int readByte() throws IOException {
+        if (this.pos == this.len) {
+            final int n = this.in.read(this.buf, 0, this.buf.length);
+            if (n == -1) {
+                return -1;
+            }
+            this.pos = 0;
+            this.len = n;
+        }
+        return this.buf[this.pos++] & 0xff;
+    }
+
+    private int readUByte() throws IOException {
+        final int b = readByte();
+        if (b == -1) {
+            throw new EOFException("Unexpected end of GZIP stream");
+        }
+        return b;
+    }
+
+    private int readUShort() throws IOException {
+        return readUByte() | (readUByte() << 8);
+    }
+
+    private long readUInt() throws IOException {
+        return ((long) readUShort()) | ((long) readUShort() << 16);
+    }
+
+    private void skipBytes(final int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            readUByte();
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (readUByte() != 0) {
+        }
+    }
+
+    /**
+     * Reads a gzip member header (RFC 1952, section 2.3).
+     */
+    private void readHeader() throws IOException {
+        if (readUByte() != 0x1f || readUByte() != 0x8b) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (readUByte() != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+        final int flg = readUByte();
+        // MTIME, XFL, OS
+        skipBytes(6);
+        if ((flg & FEXTRA) == FEXTRA) {
+            skipBytes(readUShort());
+        }
+        if ((flg & FNAME) == FNAME) {
+            skipString();
+        }
+        if ((flg & FCOMMENT) == FCOMMENT) {
+            skipString();
+        }
+        if ((flg & FHCRC) == FHCRC) {
+            skipBytes(2);
+        }
+    }
+
+    /**
+     * Verifies the trailer of the current gzip member and starts decoding
+     * the next member, if any.
+     *
+     * @return <code>true</code> if another member follows.
+     */
+    private boolean nextMember() throws IOException {
+        if (readUInt() != this.crc.getValue()
+                || readUInt() != (this.inflater.getBytesWritten() & 0xffffffffL)) {
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+        if (readByte() == -1) {
+            return false;
+        }
+        this.pos--;
+        try {
+            readHeader();
+        } catch (final IOException ex) {
+            // ignore trailing garbage
+            return false;
+        }
+        this.inflater.reset();
+        this.crc.reset();
+        setInput();
+        return true;
+    }
+
+    private void releaseInflater() {
+        if (this.inflater != null) {
+            this.pool.release(this.inflater, this.nowrap);
+            this.inflater = null;
+        }
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+        if (this.eof) {
+            return -1;
+        }
+        if (len == 0) {
+            return 0;
+        }
+        for (;;) {
+            final int n;
+            try {
+                n = this.inflater.inflate(b, off, len);
+            } catch (final DataFormatException ex) {
+                final String s = ex.getMessage();
+                throw new ZipException(s != null ? s : "Invalid ZLIB data format");
+            }
+            if (n > 0) {
+                if (this.gzip) {
+                    this.crc.update(b, off, n);
+                }
+                return n;
+            }
+            if (this.inflater.finished()) {
+                this.pos = this.len - this.inflater.getRemaining();
+                if (!this.gzip || !nextMember()) {
+                    this.eof = true;
+                    releaseInflater();
+                    return -1;
+                }
+            } else if (this.inflater.needsDictionary()) {
+                throw new ZipException("Preset dictionary not supported");
+            } else if (this.inflater.needsInput()) {
+                final int l = this.in.read(this.buf, 0, this.buf.length);
+                if (l == -1) {
+                    throw new EOFException("Unexpected end of ZLIB input stream");
+                }
+                this.pos = 0;
+                this.len = l;
+                setInput();
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(this.single, 0, 1) == -1 ? -1 : this.single[0] & 0xff;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+        return this.eof ? 0 : 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        releaseInflater();
+        this.in.close();
+    }
+
+}
@@ -56,6 +56,24 @@ class LazyDecompressingInputStream extends InputStream {
         return wrapperStream.read();
     }
 
+    @Override
+    public int read(final byte[] b) throws IOException {
+        initWrapper();
+        return wrapperStream.read(b);
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        initWrapper();
+        return wrapperStream.read(b, off, len);
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        initWrapper();
+        return wrapperStream.skip(n);
+    }
+
     @Override
     public int available() throws IOException {
         initWrapper();
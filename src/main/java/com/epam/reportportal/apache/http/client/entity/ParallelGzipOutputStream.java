@@ -0,0 +1,230 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.client.entity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * Output stream that writes data in the gzip format, compressing blocks of
+ * the data in parallel on a {@link ForkJoinPool}.
+ * <p/>
+ * Every block is compressed by its own {@link Deflater}, primed with the last
+ * 32 KB of the preceding block as a preset dictionary, and flushed to a byte
+ * boundary so that the compressed blocks concatenate into a single deflate
+ * stream. The CRC-32 checksum of the data is computed by the writing thread.
+ *
+ * @since 4.4
+ */
+@NotThreadSafe
+class ParallelGzipOutputStream extends OutputStream {
+
+    private static final byte[] HEADER = new byte[] {
+        (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private final OutputStream out;
+    private final ForkJoinPool pool;
+    private final int level;
+    private final int bufferSize;
+    private final int blockSize;
+    private final int maxPending;
+    private final LinkedList<Future<byte[]>> pending;
+    private final CRC32 crc;
+
+    private byte[] block;
+    private int len;
+    private byte[] dictionary;
+    private long total;
+    private boolean closed;
+
+    ParallelGzipOutputStream(
+            final OutputStream out,
+            final ForkJoinPool pool,
+            final int level,
+            final int bufferSize,
+            final int blockSize) throws IOException {
+        super();
+        this.out = Args.notNull(out, "Output stream");
+        this.pool = Args.notNull(pool, "Fork join pool");
+        this.level = level;
+        this.bufferSize = Args.positive(bufferSize, "Buffer size");
+        this.blockSize = Args.positive(blockSize, "Block size");
+        this.maxPending = pool.getParallelism() * 2;
+        this.pending = new LinkedList<Future<byte[]>>();
+        this.crc = new CRC32();
+        this.block = new byte[blockSize];
+        this.out.write(HEADER);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (this.closed) {
+            throw new IOException("Attempted write to closed stream.");
+        }
+        this.crc.update(b, off, len);
+        this.total += len;
+        int pos = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (this.len == this.block.length) {
+                submit(false);
+            }
+            final int chunk = Math.min(remaining, this.block.length - this.len);
+            System.arraycopy(b, pos, this.block, this.len, chunk);
+            this.len += chunk;
+            pos += chunk;
+            remaining -= chunk;
+        }
+    }
+
+    private void submit(final boolean last) throws IOException {
+        final byte[] data = this.block;
+        final int dataLen = this.len;
+        final byte[] dict = this.dictionary;
+        this.pending.add(this.pool.submit(new Callable<byte[]>() {
+
+            public byte[] call() {
+                return compress(data, dataLen, dict, last);
+            }
+
+        }));
+        if (!last) {
+            final int dictLen = Math.min(dataLen, DICTIONARY_SIZE);
+            this.dictionary = new byte[dictLen];
+            System.arraycopy(data, dataLen - dictLen, this.dictionary, 0, dictLen);
+            this.block = new byte[this.blockSize];
+            this.len = 0;
+        }
+        while (this.pending.size() > this.maxPending) {
+            writeCompleted();
+        }
+    }
+
+    private byte[] compress(final byte[] data, final int dataLen, final byte[] dict, final boolean last) {
+        final Deflater deflater = new Deflater(this.level, true);
+        try {
+            if (dict != null) {
+                deflater.setDictionary(dict);
+            }
+            deflater.setInput(data, 0, dataLen);
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream(dataLen / 2 + 64);
+            final byte[] tmp = new byte[this.bufferSize];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    final int n = deflater.deflate(tmp, 0, tmp.length);
+                    buffer.write(tmp, 0, n);
+                }
+            } else {
+                int n;
+                do {
+                    n = deflater.deflate(tmp, 0, tmp.length, Deflater.SYNC_FLUSH);
+                    buffer.write(tmp, 0, n);
+                } while (n == tmp.length);
+            }
+            return buffer.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeCompleted() throws IOException {
+        final Future<byte[]> future = this.pending.removeFirst();
+        final byte[] compressed;
+        try {
+            compressed = future.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (final ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        this.out.write(compressed);
+    }
+
+    private void writeInt(final int i) throws IOException {
+        this.out.write(i & 0xff);
+        this.out.write((i >> 8) & 0xff);
+        this.out.write((i >> 16) & 0xff);
+        this.out.write((i >> 24) & 0xff);
+    }
+
+    /**
+     * Compresses the remaining data, writes the gzip trailer and closes
+     * the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            submit(true);
+            while (!this.pending.isEmpty()) {
+                writeCompleted();
+            }
+            writeInt((int) this.crc.getValue());
+            writeInt((int) this.total);
+        } finally {
+            for (final Future<byte[]> future: this.pending) {
+                future.cancel(true);
+            }
+            this.pending.clear();
+            this.out.close();
+        }
+    }
+
+}
@@ -35,6 +35,7 @@ import com.epam.reportportal.apache.http.auth.AuthSchemeProvider;
 import com.epam.reportportal.apache.http.auth.AuthState;
 import com.epam.reportportal.apache.http.client.AuthCache;
 import com.epam.reportportal.apache.http.client.CredentialsProvider;
+import com.epam.reportportal.apache.http.client.HttpClientMetrics;
 import com.epam.reportportal.apache.http.client.config.RequestConfig;
 import com.epam.reportportal.apache.http.config.Lookup;
 import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
@@ -135,6 +136,14 @@ public class HttpClientContext extends HttpCoreContext {
      */
     public static final String REQUEST_CONFIG = "http.request-config";
 
+    /**
+     * Attribute name of a {@link HttpClientMetrics} object that
+     * receives request execution timings.
+     *
+     * @since 4.4
+     */
+    public static final String METRICS = "http.metrics";
+
     public static HttpClientContext adapt(final HttpContext context) {
         if (context instanceof HttpClientContext) {
             return (HttpClientContext) context;
@@ -246,4 +255,18 @@ public class HttpClientContext extends HttpCoreContext {
         setAttribute(REQUEST_CONFIG, config);
     }
 
+    /**
+     * @since 4.4
+     */
+    public HttpClientMetrics getMetrics() {
+        return getAttribute(METRICS, HttpClientMetrics.class);
+    }
+
+    /**
+     * @since 4.4
+     */
+    public void setMetrics(final HttpClientMetrics metrics) {
+        setAttribute(METRICS, metrics);
+    }
+
 }
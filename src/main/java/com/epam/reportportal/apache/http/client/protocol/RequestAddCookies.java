@@ -45,6 +45,7 @@ import com.epam.reportportal.apache.http.HttpRequest;
 import com.epam.reportportal.apache.http.HttpRequestInterceptor;
 import com.epam.reportportal.apache.http.annotation.Immutable;
 import com.epam.reportportal.apache.http.client.CookieStore;
+import com.epam.reportportal.apache.http.client.IndexedCookieStore;
 import com.epam.reportportal.apache.http.client.config.CookieSpecs;
 import com.epam.reportportal.apache.http.client.config.RequestConfig;
 import com.epam.reportportal.apache.http.client.methods.HttpUriRequest;
@@ -151,8 +152,14 @@ public class RequestAddCookies implements HttpRequestInterceptor {
             throw new HttpException("Unsupported cookie policy: " + policy);
         }
         final CookieSpec cookieSpec = provider.create(clientContext);
-        // Get all cookies available in the HTTP state
-        final List<Cookie> cookies = new ArrayList<Cookie>(cookieStore.getCookies());
+        // Get all cookies available in the HTTP state, or only those that may
+        // match the origin if the store can tell them apart
+        final List<Cookie> cookies;
+        if (cookieStore instanceof IndexedCookieStore) {
+            cookies = ((IndexedCookieStore) cookieStore).getCookies(cookieOrigin);
+        } else {
+            cookies = new ArrayList<Cookie>(cookieStore.getCookies());
+        }
         // Find cookies matching the given origin
         final List<Cookie> matchedCookies = new ArrayList<Cookie>();
         final Date now = new Date();
@@ -30,8 +30,14 @@ import java.io.IOException;
 import java.util.Locale;
 
 import com.epam.reportportal.apache.http.annotation.Immutable;
+import com.epam.reportportal.apache.http.client.entity.DecompressingEntity;
 import com.epam.reportportal.apache.http.client.entity.DeflateDecompressingEntity;
+import com.epam.reportportal.apache.http.client.entity.DeflateInputStreamFactory;
 import com.epam.reportportal.apache.http.client.entity.GzipDecompressingEntity;
+import com.epam.reportportal.apache.http.client.entity.GzipInputStreamFactory;
+import com.epam.reportportal.apache.http.client.entity.InputStreamFactory;
+import com.epam.reportportal.apache.http.config.Lookup;
+import com.epam.reportportal.apache.http.config.RegistryBuilder;
 import com.epam.reportportal.apache.http.Header;
 import com.epam.reportportal.apache.http.HeaderElement;
 import com.epam.reportportal.apache.http.HttpEntity;
@@ -54,6 +60,28 @@ public class ResponseContentEncoding implements HttpResponseInterceptor {
 
     public static final String UNCOMPRESSED = "http.client.response.uncompressed";
 
+    private final Lookup<InputStreamFactory> decoderRegistry;
+
+    /**
+     * @param decoderRegistry the content decoders keyed by the
+     *   {@code Content-Encoding} they decode. If <code>null</code> the
+     *   default decoders for gzip, x-gzip and deflate are used.
+     *
+     * @since 4.4
+     */
+    public ResponseContentEncoding(final Lookup<InputStreamFactory> decoderRegistry) {
+        this.decoderRegistry = decoderRegistry != null ? decoderRegistry :
+            RegistryBuilder.<InputStreamFactory>create()
+                .register("gzip", GzipInputStreamFactory.INSTANCE)
+                .register("x-gzip", GzipInputStreamFactory.INSTANCE)
+                .register("deflate", DeflateInputStreamFactory.INSTANCE)
+                .build();
+    }
+
+    public ResponseContentEncoding() {
+        this(null);
+    }
+
     /**
      * Handles the following {@code Content-Encoding}s by
      * using the appropriate decompressor to wrap the response Entity:
@@ -61,6 +89,7 @@ public class ResponseContentEncoding implements HttpResponseInterceptor {
      * <li>gzip - see {@link GzipDecompressingEntity}</li>
      * <li>deflate - see {@link DeflateDecompressingEntity}</li>
      * <li>identity - no action needed</li>
+     * <li>any other coding the decoder registry holds a decoder for</li>
      * </ul>
      *
      * @param response the response which contains the entity
@@ -82,12 +111,9 @@ public class ResponseContentEncoding implements HttpResponseInterceptor {
                 boolean uncompressed = false;
                 for (final HeaderElement codec : codecs) {
                     final String codecname = codec.getName().toLowerCase(Locale.US);
-                    if ("gzip".equals(codecname) || "x-gzip".equals(codecname)) {
-                        response.setEntity(new GzipDecompressingEntity(response.getEntity()));
-                        uncompressed = true;
-                        break;
-                    } else if ("deflate".equals(codecname)) {
-                        response.setEntity(new DeflateDecompressingEntity(response.getEntity()));
+                    final InputStreamFactory decoderFactory = this.decoderRegistry.lookup(codecname);
+                    if (decoderFactory != null) {
+                        response.setEntity(createDecompressingEntity(response.getEntity(), decoderFactory));
                         uncompressed = true;
                         break;
                     } else if ("identity".equals(codecname)) {
@@ -107,4 +133,16 @@ public class ResponseContentEncoding implements HttpResponseInterceptor {
         }
     }
 
+    private static HttpEntity createDecompressingEntity(
+            final HttpEntity entity, final InputStreamFactory decoderFactory) {
+        // retain the specific entity types for the default decoders
+        if (decoderFactory == GzipInputStreamFactory.INSTANCE) {
+            return new GzipDecompressingEntity(entity);
+        } else if (decoderFactory == DeflateInputStreamFactory.INSTANCE) {
+            return new DeflateDecompressingEntity(entity);
+        } else {
+            return new DecompressingEntity(entity, decoderFactory);
+        }
+    }
+
 }
@@ -50,6 +50,7 @@ public class ConnectionConfig implements Cloneable {
     private final CodingErrorAction malformedInputAction;
     private final CodingErrorAction unmappableInputAction;
     private final MessageConstraints messageConstraints;
+    private final boolean channelTransport;
 
     ConnectionConfig(
             final int bufferSize,
@@ -57,7 +58,8 @@ public class ConnectionConfig implements Cloneable {
             final Charset charset,
             final CodingErrorAction malformedInputAction,
             final CodingErrorAction unmappableInputAction,
-            final MessageConstraints messageConstraints) {
+            final MessageConstraints messageConstraints,
+            final boolean channelTransport) {
         super();
         this.bufferSize = bufferSize;
         this.fragmentSizeHint = fragmentSizeHint;
@@ -65,6 +67,7 @@ public class ConnectionConfig implements Cloneable {
         this.malformedInputAction = malformedInputAction;
         this.unmappableInputAction = unmappableInputAction;
         this.messageConstraints = messageConstraints;
+        this.channelTransport = channelTransport;
     }
 
     public int getBufferSize() {
@@ -91,6 +94,23 @@ public class ConnectionConfig implements Cloneable {
         return messageConstraints;
     }
 
+    /**
+     * Determines whether connections should transfer data through the
+     * {@link java.nio.channels.SocketChannel} of their socket using direct
+     * byte buffers instead of the socket's streams. Only takes effect for
+     * sockets backed by a channel; other sockets (for instance SSL sockets)
+     * keep using stream based I/O. Connections of tunnelled or layered routes
+     * always use stream based I/O, as their socket gets layered once the
+     * tunnel is established.
+     * <p/>
+     * Default: <code>false</code>
+     *
+     * @since 4.4
+     */
+    public boolean isChannelTransport() {
+        return channelTransport;
+    }
+
     @Override
     protected ConnectionConfig clone() throws CloneNotSupportedException {
         return (ConnectionConfig) super.clone();
@@ -105,6 +125,7 @@ public class ConnectionConfig implements Cloneable {
                 .append(", malformedInputAction=").append(this.malformedInputAction)
                 .append(", unmappableInputAction=").append(this.unmappableInputAction)
                 .append(", messageConstraints=").append(this.messageConstraints)
+                .append(", channelTransport=").append(this.channelTransport)
                 .append("]");
         return builder.toString();
     }
@@ -119,7 +140,8 @@ public class ConnectionConfig implements Cloneable {
             .setCharset(config.getCharset())
             .setMalformedInputAction(config.getMalformedInputAction())
             .setUnmappableInputAction(config.getUnmappableInputAction())
-            .setMessageConstraints(config.getMessageConstraints());
+            .setMessageConstraints(config.getMessageConstraints())
+            .setChannelTransport(config.isChannelTransport());
     }
 
     public static class Builder {
@@ -130,6 +152,7 @@ public class ConnectionConfig implements Cloneable {
         private CodingErrorAction malformedInputAction;
         private CodingErrorAction unmappableInputAction;
         private MessageConstraints messageConstraints;
+        private boolean channelTransport;
 
         Builder() {
             this.fragmentSizeHint = -1;
@@ -171,6 +194,14 @@ public class ConnectionConfig implements Cloneable {
             return this;
         }
 
+        /**
+         * @since 4.4
+         */
+        public Builder setChannelTransport(final boolean channelTransport) {
+            this.channelTransport = channelTransport;
+            return this;
+        }
+
         public ConnectionConfig build() {
             Charset cs = charset;
             if (cs == null && (malformedInputAction != null || unmappableInputAction != null)) {
@@ -184,7 +215,8 @@ public class ConnectionConfig implements Cloneable {
                     cs,
                     malformedInputAction,
                     unmappableInputAction,
-                    messageConstraints);
+                    messageConstraints,
+                    channelTransport);
         }
 
     }
@@ -30,6 +30,7 @@ package com.epam.reportportal.apache.http.conn.socket;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 
 import com.epam.reportportal.apache.http.HttpHost;
 import com.epam.reportportal.apache.http.annotation.Immutable;
@@ -37,6 +38,10 @@ import com.epam.reportportal.apache.http.protocol.HttpContext;
 
 /**
  * The default class for creating plain (unencrypted) sockets.
+ * <p/>
+ * Sockets can optionally be created through {@link SocketChannel#open()}
+ * to enable channel based I/O for connections configured with
+ * {@link com.epam.reportportal.apache.http.config.ConnectionConfig#isChannelTransport()}.
  *
  * @since 4.3
  */
@@ -49,11 +54,27 @@ public class PlainConnectionSocketFactory implements ConnectionSocketFactory {
         return INSTANCE;
     }
 
-    public PlainConnectionSocketFactory() {
+    private final boolean channels;
+
+    /**
+     * @param channels if <code>true</code> sockets are created backed by
+     *   a {@link SocketChannel}.
+     *
+     * @since 4.4
+     */
+    public PlainConnectionSocketFactory(final boolean channels) {
         super();
+        this.channels = channels;
+    }
+
+    public PlainConnectionSocketFactory() {
+        this(false);
     }
 
     public Socket createSocket(final HttpContext context) throws IOException {
+        if (this.channels) {
+            return SocketChannel.open().socket();
+        }
         return new Socket();
     }
 
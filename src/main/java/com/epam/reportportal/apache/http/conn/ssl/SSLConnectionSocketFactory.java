@@ -29,6 +29,9 @@ package com.epam.reportportal.apache.http.conn.ssl;
 
 import com.epam.reportportal.apache.http.HttpHost;
 import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.client.HttpClientMetrics;
+import com.epam.reportportal.apache.http.client.protocol.HttpClientContext;
+import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
 import com.epam.reportportal.apache.http.conn.socket.LayeredConnectionSocketFactory;
 import com.epam.reportportal.apache.http.protocol.HttpContext;
 import com.epam.reportportal.apache.http.util.Args;
@@ -248,7 +251,9 @@ public class SSLConnectionSocketFactory implements LayeredConnectionSocketFactor
         // Setup SSL layering if necessary
         if (sock instanceof SSLSocket) {
             final SSLSocket sslsock = (SSLSocket) sock;
+            final long start = System.nanoTime();
             sslsock.startHandshake();
+            handshakeCompleted(context, start);
             verifyHostname(sslsock, host.getHostName());
             return sock;
         } else {
@@ -273,11 +278,24 @@ public class SSLConnectionSocketFactory implements LayeredConnectionSocketFactor
             sslsock.setEnabledCipherSuites(supportedCipherSuites);
         }
         prepareSocket(sslsock);
+        final long start = System.nanoTime();
         sslsock.startHandshake();
+        handshakeCompleted(context, start);
         verifyHostname(sslsock, target);
         return sslsock;
     }
 
+    private static void handshakeCompleted(final HttpContext context, final long start) {
+        if (context == null) {
+            return;
+        }
+        final Object metrics = context.getAttribute(HttpClientContext.METRICS);
+        final Object route = context.getAttribute(HttpClientContext.HTTP_ROUTE);
+        if (metrics instanceof HttpClientMetrics && route instanceof HttpRoute) {
+            ((HttpClientMetrics) metrics).handshakeCompleted((HttpRoute) route, System.nanoTime() - start);
+        }
+    }
+
     X509HostnameVerifier getHostnameVerifier() {
         return this.hostnameVerifier;
     }
@@ -0,0 +1,340 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
+import com.epam.reportportal.apache.http.io.FileContentTransfer;
+import com.epam.reportportal.apache.http.util.Args;
+import com.epam.reportportal.apache.http.util.Asserts;
+import com.epam.reportportal.apache.http.util.ByteArrayBuffer;
+
+/**
+ * A wrapping entity that buffers its content if necessary, much like
+ * {@link BufferedHttpEntity}, but keeps at most <code>threshold</code> bytes
+ * on the heap. Larger content is spilled to a temporary file which is
+ * memory-mapped for replay, so that large non-repeatable entities can be
+ * made repeatable (for instance to allow requests to be retried or
+ * redirected) without a heap allocation of the size of the content.
+ * <p/>
+ * If the wrapped entity is repeatable and of known length calls are
+ * passed through. When written to an output stream implementing
+ * {@link FileContentTransfer} spilled content is transferred directly
+ * from the file.
+ * <p/>
+ * {@link #close()} must be called once the entity is no longer needed
+ * in order to delete the temporary file.
+ *
+ * @since 4.4
+ */
+@NotThreadSafe
+public class FileBufferedHttpEntity extends HttpEntityWrapper implements Closeable {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private byte[] buffer;
+    private File file;
+    private RandomAccessFile raf;
+    private MappedByteBuffer mapped;
+    private long length;
+    private boolean closed;
+
+    /**
+     * Creates a new buffered entity wrapper.
+     *
+     * @param entity the entity to wrap.
+     * @param threshold maximum number of bytes buffered in memory.
+     * @param directory directory to create temporary files in. If <code>null</code>
+     *   the default temporary-file directory will be used.
+     * @throws IOException in case of an I/O error while buffering content.
+     */
+    public FileBufferedHttpEntity(
+            final HttpEntity entity, final int threshold, final File directory) throws IOException {
+        super(entity);
+        Args.notNegative(threshold, "Threshold");
+        if (!entity.isRepeatable() || entity.getContentLength() < 0) {
+            buffer(entity, threshold, directory);
+        }
+    }
+
+    /**
+     * Creates a new buffered entity wrapper using the default temporary-file
+     * directory.
+     *
+     * @param entity the entity to wrap.
+     * @param threshold maximum number of bytes buffered in memory.
+     * @throws IOException in case of an I/O error while buffering content.
+     */
+    public FileBufferedHttpEntity(final HttpEntity entity, final int threshold) throws IOException {
+        this(entity, threshold, null);
+    }
+
+    private void buffer(
+            final HttpEntity entity, final int threshold, final File directory) throws IOException {
+        final InputStream instream = entity.getContent();
+        if (instream == null) {
+            this.buffer = new byte[0];
+            return;
+        }
+        try {
+            final long len = entity.getContentLength();
+            if (len > threshold) {
+                spill(null, null, 0, instream, directory);
+                return;
+            }
+            final ByteArrayBuffer membuf = new ByteArrayBuffer(
+                    len >= 0 ? (int) len : Math.min(threshold, BUFFER_SIZE));
+            final byte[] tmp = new byte[BUFFER_SIZE];
+            int l;
+            while ((l = instream.read(tmp)) != -1) {
+                if (membuf.length() + l > threshold) {
+                    spill(membuf, tmp, l, instream, directory);
+                    return;
+                }
+                membuf.append(tmp, 0, l);
+            }
+            this.buffer = membuf.toByteArray();
+            this.length = this.buffer.length;
+        } finally {
+            instream.close();
+        }
+    }
+
+    private void spill(
+            final ByteArrayBuffer membuf,
+            final byte[] pending,
+            final int pendingLen,
+            final InputStream instream,
+            final File directory) throws IOException {
+        final File tmpfile = File.createTempFile("httpclient", ".tmp", directory);
+        boolean success = false;
+        try {
+            final FileOutputStream outstream = new FileOutputStream(tmpfile);
+            try {
+                if (membuf != null) {
+                    outstream.write(membuf.buffer(), 0, membuf.length());
+                }
+                if (pending != null) {
+                    outstream.write(pending, 0, pendingLen);
+                }
+                final byte[] tmp = new byte[FileContentTransfer.FALLBACK_BUFFER_SIZE];
+                int l;
+                while ((l = instream.read(tmp)) != -1) {
+                    outstream.write(tmp, 0, l);
+                }
+            } finally {
+                outstream.close();
+            }
+            this.raf = new RandomAccessFile(tmpfile, "r");
+            final FileChannel channel = this.raf.getChannel();
+            this.length = channel.size();
+            if (this.length <= Integer.MAX_VALUE) {
+                this.mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, this.length);
+            }
+            this.file = tmpfile;
+            success = true;
+        } finally {
+            if (!success) {
+                if (this.raf != null) {
+                    this.raf.close();
+                    this.raf = null;
+                }
+                tmpfile.delete();
+            }
+        }
+    }
+
+    private boolean isBuffered() {
+        return this.buffer != null || this.file != null;
+    }
+
+    /**
+     * Returns <code>true</code> if the content has been spilled to a temporary file.
+     */
+    public boolean isSpilled() {
+        return this.file != null;
+    }
+
+    @Override
+    public long getContentLength() {
+        if (isBuffered()) {
+            return this.length;
+        } else {
+            return super.getContentLength();
+        }
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        if (this.buffer != null) {
+            return new ByteArrayInputStream(this.buffer);
+        } else if (this.file != null) {
+            Asserts.check(!this.closed, "Entity has been closed");
+            if (this.mapped != null) {
+                return new ByteBufferInputStream(this.mapped.duplicate());
+            }
+            return new FileInputStream(this.file);
+        } else {
+            return super.getContent();
+        }
+    }
+
+    /**
+     * Tells that this entity does not have to be chunked.
+     *
+     * @return  <code>false</code>
+     */
+    @Override
+    public boolean isChunked() {
+        return !isBuffered() && super.isChunked();
+    }
+
+    /**
+     * Tells that this entity is repeatable.
+     *
+     * @return  <code>true</code>
+     */
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public void writeTo(final OutputStream outstream) throws IOException {
+        Args.notNull(outstream, "Output stream");
+        if (this.buffer != null) {
+            outstream.write(this.buffer);
+        } else if (this.file != null) {
+            Asserts.check(!this.closed, "Entity has been closed");
+            if (outstream instanceof FileContentTransfer
+                    && ((FileContentTransfer) outstream).transfer(this.raf.getChannel(), 0, this.length)) {
+                outstream.flush();
+                return;
+            }
+            final InputStream instream = getContent();
+            try {
+                final byte[] tmp = new byte[FileContentTransfer.FALLBACK_BUFFER_SIZE];
+                int l;
+                while ((l = instream.read(tmp)) != -1) {
+                    outstream.write(tmp, 0, l);
+                }
+                outstream.flush();
+            } finally {
+                instream.close();
+            }
+        } else {
+            super.writeTo(outstream);
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return !isBuffered() && super.isStreaming();
+    }
+
+    /**
+     * Deletes the temporary file, if any. The entity content is no longer
+     * available once the entity has been closed.
+     */
+    public void close() throws IOException {
+        if (this.file == null || this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.mapped = null;
+        try {
+            this.raf.close();
+        } finally {
+            // the mapping may prevent deletion on some platforms until it gets collected
+            if (!this.file.delete()) {
+                this.file.deleteOnExit();
+            }
+        }
+    }
+
+    static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            super();
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            return this.buffer.get() & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            final int chunk = Math.min(len, this.buffer.remaining());
+            this.buffer.get(b, off, chunk);
+            return chunk;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            final int chunk = (int) Math.min(n, this.buffer.remaining());
+            this.buffer.position(this.buffer.position() + chunk);
+            return chunk;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return this.buffer.remaining();
+        }
+
+    }
+
+}
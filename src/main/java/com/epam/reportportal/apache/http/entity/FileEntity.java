@@ -32,12 +32,20 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
+import com.epam.reportportal.apache.http.io.FileContentTransfer;
 import com.epam.reportportal.apache.http.util.Args;
 
 /**
  * A self contained, repeatable entity that obtains its content from a file.
+ * <p/>
+ * If the output stream the entity is written to implements
+ * {@link FileContentTransfer} the file content is sent without being copied
+ * through the Java heap (for instance over plain HTTP connections using
+ * a {@link java.nio.channels.SocketChannel} transport). Otherwise the content
+ * is copied using a buffer sized according to the file length.
  *
  * @since 4.0
  */
@@ -89,9 +97,18 @@ public class FileEntity extends AbstractHttpEntity implements Cloneable {
 
     public void writeTo(final OutputStream outstream) throws IOException {
         Args.notNull(outstream, "Output stream");
-        final InputStream instream = new FileInputStream(this.file);
+        final FileInputStream instream = new FileInputStream(this.file);
         try {
-            final byte[] tmp = new byte[OUTPUT_BUFFER_SIZE];
+            final FileChannel channel = instream.getChannel();
+            final long len = channel.size();
+            if (outstream instanceof FileContentTransfer
+                    && ((FileContentTransfer) outstream).transfer(channel, 0, len)) {
+                outstream.flush();
+                return;
+            }
+            final int bufferSize = len > FileContentTransfer.FALLBACK_BUFFER_SIZE ?
+                    FileContentTransfer.FALLBACK_BUFFER_SIZE : OUTPUT_BUFFER_SIZE;
+            final byte[] tmp = new byte[bufferSize];
             int l;
             while ((l = instream.read(tmp)) != -1) {
                 outstream.write(tmp, 0, l);
@@ -65,6 +65,7 @@ public class MultipartEntityBuilder {
     private String boundary = null;
     private Charset charset = null;
     private List<FormBodyPart> bodyParts = null;
+    private boolean streaming = false;
 
     public static MultipartEntityBuilder create() {
         return new MultipartEntityBuilder();
@@ -99,7 +100,24 @@ public class MultipartEntityBuilder {
         return this;
     }
 
-    MultipartEntityBuilder addPart(final FormBodyPart bodyPart) {
+    /**
+     * Enables the streaming multipart engine. The part delimiters and header
+     * sections are then encoded once when the entity is built instead of on
+     * every write, and the content length is computed without formatting the
+     * headers again. The content produced is the same for all
+     * {@link HttpMultipartMode}s. Recommended for entities with many parts.
+     *
+     * @since 4.4
+     */
+    public MultipartEntityBuilder setStreaming(final boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
+    /**
+     * @since 4.4
+     */
+    public MultipartEntityBuilder addPart(final FormBodyPart bodyPart) {
         if (bodyPart == null) {
             return this;
         }
@@ -186,7 +204,7 @@ public class MultipartEntityBuilder {
         final List<FormBodyPart> bps = bodyParts != null ? new ArrayList<FormBodyPart>(bodyParts) :
                 Collections.<FormBodyPart>emptyList();
         final HttpMultipartMode m = mode != null ? mode : HttpMultipartMode.STRICT;
-        final AbstractMultipartForm form;
+        AbstractMultipartForm form;
         switch (m) {
             case BROWSER_COMPATIBLE:
                 form = new HttpBrowserCompatibleMultipart(st, cs, b, bps);
@@ -197,6 +215,9 @@ public class MultipartEntityBuilder {
             default:
                 form = new HttpStrictMultipart(st, cs, b, bps);
         }
+        if (this.streaming) {
+            form = new StreamingMultipartForm(form);
+        }
         return new MultipartFormEntity(form, generateContentType(b, cs), form.getTotalLength());
     }
 
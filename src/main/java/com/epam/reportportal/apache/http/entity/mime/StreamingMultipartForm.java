@@ -0,0 +1,151 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.entity.mime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.epam.reportportal.apache.http.entity.mime.content.ContentBody;
+import com.epam.reportportal.apache.http.util.Args;
+import com.epam.reportportal.apache.http.util.ByteArrayBuffer;
+
+/**
+ * Multipart form that encodes the delimiters and the header section of every
+ * body part only once, when the form is created, rather than on every write.
+ * The header fields are formatted by the wrapped form, so the output is
+ * exactly the same as that of the wrapped form in the given
+ * {@link HttpMultipartMode}.
+ * <p/>
+ * Each body part is preceded by a single pre-encoded byte array holding the
+ * line break that terminates the previous part, the boundary delimiter and the
+ * header section of the part. The total length is computed arithmetically
+ * from the lengths of those arrays and of the part contents.
+ *
+ * @since 4.4
+ */
+class StreamingMultipartForm extends AbstractMultipartForm {
+
+    private static final byte[] CR_LF = new byte[] { '\r', '\n' };
+    private static final byte[] TWO_DASHES = new byte[] { '-', '-' };
+
+    private final AbstractMultipartForm form;
+    private final List<FormBodyPart> parts;
+    private final byte[][] prefixes;
+    private final byte[] suffix;
+    private final long totalLength;
+
+    StreamingMultipartForm(final AbstractMultipartForm form) {
+        super(Args.notNull(form, "Multipart form").getSubType(), form.getCharset(), form.getBoundary());
+        this.form = form;
+        this.parts = form.getBodyParts();
+
+        final byte[] boundary = getBoundary().getBytes(this.charset);
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        this.prefixes = new byte[this.parts.size()][];
+        long contentLen = 0;
+        for (int i = 0; i < this.parts.size(); i++) {
+            final FormBodyPart part = this.parts.get(i);
+            header.reset();
+            try {
+                form.formatMultipartHeader(part, header);
+            } catch (final IOException ex) {
+                // Should never happen
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+            final ByteArrayBuffer prefix = new ByteArrayBuffer(
+                    boundary.length + header.size() + 8);
+            if (i > 0) {
+                prefix.append(CR_LF, 0, CR_LF.length);
+            }
+            prefix.append(TWO_DASHES, 0, TWO_DASHES.length);
+            prefix.append(boundary, 0, boundary.length);
+            prefix.append(CR_LF, 0, CR_LF.length);
+            prefix.append(header.toByteArray(), 0, header.size());
+            prefix.append(CR_LF, 0, CR_LF.length);
+            this.prefixes[i] = prefix.toByteArray();
+
+            final long len = part.getBody().getContentLength();
+            if (len >= 0 && contentLen >= 0) {
+                contentLen += this.prefixes[i].length + len;
+            } else {
+                contentLen = -1;
+            }
+        }
+        final ByteArrayBuffer suffix = new ByteArrayBuffer(boundary.length + 8);
+        if (!this.parts.isEmpty()) {
+            suffix.append(CR_LF, 0, CR_LF.length);
+        }
+        suffix.append(TWO_DASHES, 0, TWO_DASHES.length);
+        suffix.append(boundary, 0, boundary.length);
+        suffix.append(TWO_DASHES, 0, TWO_DASHES.length);
+        suffix.append(CR_LF, 0, CR_LF.length);
+        this.suffix = suffix.toByteArray();
+        this.totalLength = contentLen >= 0 ? contentLen + this.suffix.length : -1;
+    }
+
+    AbstractMultipartForm getForm() {
+        return this.form;
+    }
+
+    @Override
+    public List<FormBodyPart> getBodyParts() {
+        return this.parts;
+    }
+
+    @Override
+    protected void formatMultipartHeader(
+            final FormBodyPart part,
+            final OutputStream out) throws IOException {
+        this.form.formatMultipartHeader(part, out);
+    }
+
+    @Override
+    void doWriteTo(
+            final OutputStream out,
+            final boolean writeContent) throws IOException {
+        for (int i = 0; i < this.prefixes.length; i++) {
+            out.write(this.prefixes[i]);
+            if (writeContent) {
+                final ContentBody body = this.parts.get(i).getBody();
+                body.writeTo(out);
+            }
+        }
+        out.write(this.suffix);
+    }
+
+    /**
+     * Returns the total length computed when this form was created.
+     */
+    @Override
+    public long getTotalLength() {
+        return this.totalLength;
+    }
+
+}
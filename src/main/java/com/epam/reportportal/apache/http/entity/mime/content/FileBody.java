@@ -32,14 +32,19 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 import com.epam.reportportal.apache.http.entity.mime.MultipartEntityBuilder;
 import com.epam.reportportal.apache.http.entity.ContentType;
 import com.epam.reportportal.apache.http.entity.mime.MIME;
+import com.epam.reportportal.apache.http.io.FileContentTransfer;
 import com.epam.reportportal.apache.http.util.Args;
 
 /**
  * Binary body part backed by a file.
+ * <p/>
+ * The file content is sent without being copied through the Java heap
+ * when the output stream implements {@link FileContentTransfer}.
  *
  * @see MultipartEntityBuilder
  *
@@ -113,9 +118,18 @@ public class FileBody extends AbstractContentBody {
 
     public void writeTo(final OutputStream out) throws IOException {
         Args.notNull(out, "Output stream");
-        final InputStream in = new FileInputStream(this.file);
+        final FileInputStream in = new FileInputStream(this.file);
         try {
-            final byte[] tmp = new byte[4096];
+            final FileChannel channel = in.getChannel();
+            final long len = channel.size();
+            if (out instanceof FileContentTransfer
+                    && ((FileContentTransfer) out).transfer(channel, 0, len)) {
+                out.flush();
+                return;
+            }
+            final int bufferSize = len > FileContentTransfer.FALLBACK_BUFFER_SIZE ?
+                    FileContentTransfer.FALLBACK_BUFFER_SIZE : 4096;
+            final byte[] tmp = new byte[bufferSize];
             int l;
             while ((l = in.read(tmp)) != -1) {
                 out.write(tmp, 0, l);
@@ -46,6 +46,7 @@ import com.epam.reportportal.apache.http.entity.ContentLengthStrategy;
 import com.epam.reportportal.apache.http.impl.entity.LaxContentLengthStrategy;
 import com.epam.reportportal.apache.http.impl.entity.StrictContentLengthStrategy;
 import com.epam.reportportal.apache.http.impl.io.IdentityOutputStream;
+import com.epam.reportportal.apache.http.io.BufferRecycler;
 import com.epam.reportportal.apache.http.io.SessionInputBuffer;
 import com.epam.reportportal.apache.http.io.SessionOutputBuffer;
 import com.epam.reportportal.apache.http.util.Asserts;
@@ -100,6 +101,11 @@ public class BHttpConnectionBase implements HttpConnection, HttpInetConnection {
      *   {@link LaxContentLengthStrategy#INSTANCE} will be used.
      * @param outgoingContentStrategy outgoing content length strategy. If <code>null</code>
      *   {@link StrictContentLengthStrategy#INSTANCE} will be used.
+     * @param recycler buffer recycler session buffers are to be acquired from
+     *   and released to by {@link #releaseBuffers()}. If <code>null</code> session
+     *   buffers are allocated once per connection.
+     *
+     * @since 4.4
      */
     protected BHttpConnectionBase(
             final int buffersize,
@@ -108,15 +114,16 @@ public class BHttpConnectionBase implements HttpConnection, HttpInetConnection {
             final CharsetEncoder charencoder,
             final MessageConstraints constraints,
             final ContentLengthStrategy incomingContentStrategy,
-            final ContentLengthStrategy outgoingContentStrategy) {
+            final ContentLengthStrategy outgoingContentStrategy,
+            final BufferRecycler recycler) {
         super();
         Args.positive(buffersize, "Buffer size");
         final HttpTransportMetricsImpl inTransportMetrics = new HttpTransportMetricsImpl();
         final HttpTransportMetricsImpl outTransportMetrics = new HttpTransportMetricsImpl();
         this.inbuffer = new SessionInputBufferImpl(inTransportMetrics, buffersize, -1,
-                constraints != null ? constraints : MessageConstraints.DEFAULT, chardecoder);
+                constraints != null ? constraints : MessageConstraints.DEFAULT, chardecoder, recycler);
         this.outbuffer = new SessionOutputBufferImpl(outTransportMetrics, buffersize, fragmentSizeHint,
-                charencoder);
+                charencoder, recycler);
         this.connMetrics = new HttpConnectionMetricsImpl(inTransportMetrics, outTransportMetrics);
         this.incomingContentStrategy = incomingContentStrategy != null ? incomingContentStrategy :
             LaxContentLengthStrategy.INSTANCE;
@@ -124,6 +131,34 @@ public class BHttpConnectionBase implements HttpConnection, HttpInetConnection {
             StrictContentLengthStrategy.INSTANCE;
     }
 
+    /**
+     * Creates new instance of BHttpConnectionBase.
+     *
+     * @param buffersize buffer size. Must be a positive number.
+     * @param fragmentSizeHint fragment size hint.
+     * @param chardecoder decoder to be used for decoding HTTP protocol elements.
+     *   If <code>null</code> simple type cast will be used for byte to char conversion.
+     * @param charencoder encoder to be used for encoding HTTP protocol elements.
+     *   If <code>null</code> simple type cast will be used for char to byte conversion.
+     * @param constraints Message constraints. If <code>null</code>
+     *   {@link MessageConstraints#DEFAULT} will be used.
+     * @param incomingContentStrategy incoming content length strategy. If <code>null</code>
+     *   {@link LaxContentLengthStrategy#INSTANCE} will be used.
+     * @param outgoingContentStrategy outgoing content length strategy. If <code>null</code>
+     *   {@link StrictContentLengthStrategy#INSTANCE} will be used.
+     */
+    protected BHttpConnectionBase(
+            final int buffersize,
+            final int fragmentSizeHint,
+            final CharsetDecoder chardecoder,
+            final CharsetEncoder charencoder,
+            final MessageConstraints constraints,
+            final ContentLengthStrategy incomingContentStrategy,
+            final ContentLengthStrategy outgoingContentStrategy) {
+        this(buffersize, fragmentSizeHint, chardecoder, charencoder, constraints,
+                incomingContentStrategy, outgoingContentStrategy, null);
+    }
+
     protected void ensureOpen() throws IOException {
         Asserts.check(this.open, "Connection is not open");
         if (!this.inbuffer.isBound()) {
@@ -329,6 +364,26 @@ public class BHttpConnectionBase implements HttpConnection, HttpInetConnection {
         }
     }
 
+    /**
+     * Returns the session buffers to the buffer recycler given to this
+     * connection, if any. Has no effect while the connection is open.
+     * <p/>
+     * The connection may be closed by a thread other than the one reading
+     * or writing data through it, so closing it does not release the buffers.
+     * This method may only be called once no other thread can be using
+     * the connection any more, for instance for a closed connection that
+     * is no longer leased from a pool.
+     *
+     * @since 4.4
+     */
+    protected void releaseBuffers() {
+        if (this.open) {
+            return;
+        }
+        this.inbuffer.release();
+        this.outbuffer.release();
+    }
+
     private int fillInputBuffer(final int timeout) throws IOException {
         final int oldtimeout = this.socket.getSoTimeout();
         try {
@@ -351,7 +406,15 @@ public class BHttpConnectionBase implements HttpConnection, HttpInetConnection {
         if (!isOpen()) {
             return true;
         }
+        // Input already received can be detected without blocking
+        if (this.inbuffer.hasBufferedData()) {
+            return false;
+        }
         try {
+            if (this.socket.getInputStream().available() > 0) {
+                return false;
+            }
+            // An orderly shutdown by the peer can only be detected by reading
             final int bytesRead = fillInputBuffer(1);
             return bytesRead < 0;
         } catch (final SocketTimeoutException ex) {
@@ -40,6 +40,7 @@ import com.epam.reportportal.apache.http.impl.entity.LaxContentLengthStrategy;
 import com.epam.reportportal.apache.http.impl.entity.StrictContentLengthStrategy;
 import com.epam.reportportal.apache.http.impl.io.DefaultHttpRequestWriterFactory;
 import com.epam.reportportal.apache.http.impl.io.DefaultHttpResponseParserFactory;
+import com.epam.reportportal.apache.http.io.BufferRecycler;
 import com.epam.reportportal.apache.http.io.HttpMessageParser;
 import com.epam.reportportal.apache.http.io.HttpMessageParserFactory;
 import com.epam.reportportal.apache.http.io.HttpMessageWriter;
@@ -85,6 +86,11 @@ public class DefaultBHttpClientConnection extends BHttpConnectionBase
      *   {@link DefaultHttpRequestWriterFactory#INSTANCE} will be used.
      * @param responseParserFactory response parser factory. If <code>null</code>
      *   {@link DefaultHttpResponseParserFactory#INSTANCE} will be used.
+     * @param recycler buffer recycler session buffers are to be acquired from
+     *   and released to by {@link #releaseBuffers()}. If <code>null</code> session
+     *   buffers are allocated once per connection.
+     *
+     * @since 4.4
      */
     public DefaultBHttpClientConnection(
             final int buffersize,
@@ -95,15 +101,51 @@ public class DefaultBHttpClientConnection extends BHttpConnectionBase
             final ContentLengthStrategy incomingContentStrategy,
             final ContentLengthStrategy outgoingContentStrategy,
             final HttpMessageWriterFactory<HttpRequest> requestWriterFactory,
-            final HttpMessageParserFactory<HttpResponse> responseParserFactory) {
+            final HttpMessageParserFactory<HttpResponse> responseParserFactory,
+            final BufferRecycler recycler) {
         super(buffersize, fragmentSizeHint, chardecoder, charencoder,
-                constraints, incomingContentStrategy, outgoingContentStrategy);
+                constraints, incomingContentStrategy, outgoingContentStrategy, recycler);
         this.requestWriter = (requestWriterFactory != null ? requestWriterFactory :
             DefaultHttpRequestWriterFactory.INSTANCE).create(getSessionOutputBuffer());
         this.responseParser = (responseParserFactory != null ? responseParserFactory :
             DefaultHttpResponseParserFactory.INSTANCE).create(getSessionInputBuffer(), constraints);
     }
 
+    /**
+     * Creates new instance of DefaultBHttpClientConnection.
+     *
+     * @param buffersize buffer size. Must be a positive number.
+     * @param fragmentSizeHint fragment size hint.
+     * @param chardecoder decoder to be used for decoding HTTP protocol elements.
+     *   If <code>null</code> simple type cast will be used for byte to char conversion.
+     * @param charencoder encoder to be used for encoding HTTP protocol elements.
+     *   If <code>null</code> simple type cast will be used for char to byte conversion.
+     * @param constraints Message constraints. If <code>null</code>
+     *   {@link MessageConstraints#DEFAULT} will be used.
+     * @param incomingContentStrategy incoming content length strategy. If <code>null</code>
+     *   {@link LaxContentLengthStrategy#INSTANCE} will be used.
+     * @param outgoingContentStrategy outgoing content length strategy. If <code>null</code>
+     *   {@link StrictContentLengthStrategy#INSTANCE} will be used.
+     * @param requestWriterFactory request writer factory. If <code>null</code>
+     *   {@link DefaultHttpRequestWriterFactory#INSTANCE} will be used.
+     * @param responseParserFactory response parser factory. If <code>null</code>
+     *   {@link DefaultHttpResponseParserFactory#INSTANCE} will be used.
+     */
+    public DefaultBHttpClientConnection(
+            final int buffersize,
+            final int fragmentSizeHint,
+            final CharsetDecoder chardecoder,
+            final CharsetEncoder charencoder,
+            final MessageConstraints constraints,
+            final ContentLengthStrategy incomingContentStrategy,
+            final ContentLengthStrategy outgoingContentStrategy,
+            final HttpMessageWriterFactory<HttpRequest> requestWriterFactory,
+            final HttpMessageParserFactory<HttpResponse> responseParserFactory) {
+        this(buffersize, fragmentSizeHint, chardecoder, charencoder, constraints,
+                incomingContentStrategy, outgoingContentStrategy,
+                requestWriterFactory, responseParserFactory, null);
+    }
+
     public DefaultBHttpClientConnection(
             final int buffersize,
             final CharsetDecoder chardecoder,
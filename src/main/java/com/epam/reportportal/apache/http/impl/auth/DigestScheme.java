@@ -31,14 +31,17 @@ import java.nio.charset.Charset;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.util.ArrayList;
-import java.util.Formatter;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.atomic.AtomicLong;
 
-import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
 import com.epam.reportportal.apache.http.auth.*;
 import com.epam.reportportal.apache.http.message.BasicHeaderValueFormatter;
 import com.epam.reportportal.apache.http.message.BasicNameValuePair;
@@ -58,6 +61,7 @@ import com.epam.reportportal.apache.http.auth.MalformedChallengeException;
 import com.epam.reportportal.apache.http.protocol.BasicHttpContext;
 import com.epam.reportportal.apache.http.protocol.HttpContext;
 import com.epam.reportportal.apache.http.util.EncodingUtils;
+import com.epam.reportportal.apache.http.util.LangUtils;
 
 /**
  * Digest authentication scheme as defined in RFC 2617.
@@ -69,10 +73,17 @@ import com.epam.reportportal.apache.http.util.EncodingUtils;
  * Since the digest username is included as clear text in the generated
  * Authentication header, the charset of the username must be compatible
  * with the HTTP element charset used by the connection.
+ * <p/>
+ * Instances can be shared by concurrent requests, for instance through
+ * a {@link com.epam.reportportal.apache.http.impl.client.ConcurrentAuthCache}.
+ * Challenge parameters and state are read and written under the monitor of
+ * the instance, so a challenge may be processed while other threads
+ * authenticate requests or query the parameters. {@link #getParameters()}
+ * returns a snapshot of the parameters.
  *
  * @since 4.0
  */
-@NotThreadSafe
+@ThreadSafe
 public class DigestScheme extends RFC2617Scheme {
 
     /**
@@ -94,11 +105,24 @@ public class DigestScheme extends RFC2617Scheme {
     private static final int QOP_AUTH_INT = 1;
     private static final int QOP_AUTH = 2;
 
-    private String lastNonce;
-    private long nounceCount;
-    private String cnonce;
-    private String a1;
-    private String a2;
+    /**
+     * Per thread digester re-used across authentication attempts. A plain
+     * {@link ThreadLocal} is used so that no class of this package is pinned
+     * by the thread's map.
+     */
+    private static final ThreadLocal<MessageDigest> DIGESTERS = new ThreadLocal<MessageDigest>();
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private volatile NonceState nonceState;
+    private volatile CredentialsDigest credentialsDigest;
+    /**
+     * A1 and A2 values of the most recent response, exposed to tests only.
+     * Concurrent requests overwrite each other's values, so they are not
+     * to be used for generating responses. A1 is only set for MD5-sess.
+     */
+    private volatile String a1;
+    private volatile String a2;
 
     /**
      * @since 4.3
@@ -134,7 +158,7 @@ public class DigestScheme extends RFC2617Scheme {
      * is malformed
      */
     @Override
-    public void processChallenge(
+    public synchronized void processChallenge(
             final Header header) throws MalformedChallengeException {
         super.processChallenge(header);
         this.complete = true;
@@ -146,7 +170,7 @@ public class DigestScheme extends RFC2617Scheme {
      * @return <tt>true</tt> if Digest authorization has been processed,
      *   <tt>false</tt> otherwise.
      */
-    public boolean isComplete() {
+    public synchronized boolean isComplete() {
         final String s = getParameter("stale");
         if ("true".equalsIgnoreCase(s)) {
             return false;
@@ -173,8 +197,38 @@ public class DigestScheme extends RFC2617Scheme {
         return false;
     }
 
-    public void overrideParamter(final String name, final String value) {
-        getParameters().put(name, value);
+    public synchronized void overrideParamter(final String name, final String value) {
+        super.getParameters().put(name, value);
+    }
+
+    /**
+     * Returns an unmodifiable snapshot of the authentication parameters.
+     *
+     * @return the map of authentication parameters
+     */
+    @Override
+    protected synchronized Map<String, String> getParameters() {
+        return Collections.unmodifiableMap(new HashMap<String, String>(super.getParameters()));
+    }
+
+    @Override
+    public synchronized String getParameter(final String name) {
+        return super.getParameter(name);
+    }
+
+    @Override
+    public synchronized String getRealm() {
+        return super.getRealm();
+    }
+
+    @Override
+    public synchronized boolean isProxy() {
+        return super.isProxy();
+    }
+
+    @Override
+    public synchronized ChallengeState getChallengeState() {
+        return super.getChallengeState();
     }
 
     /**
@@ -190,6 +244,11 @@ public class DigestScheme extends RFC2617Scheme {
     /**
      * Produces a digest authorization string for the given set of
      * {@link Credentials}, method name and URI.
+     * <p/>
+     * Once a challenge has been processed the same server nonce is re-used
+     * for any number of requests, including concurrent ones, with the nonce
+     * count incremented atomically for each of them. A fresh challenge is
+     * only needed when the server marks the nonce as <code>stale</code>.
      *
      * @param credentials A set of credentials to be used for athentication
      * @param request    The request being authenticated
@@ -209,20 +268,47 @@ public class DigestScheme extends RFC2617Scheme {
 
         Args.notNull(credentials, "Credentials");
         Args.notNull(request, "HTTP request");
-        if (getParameter("realm") == null) {
+        final String realm;
+        final String nonce;
+        final String opaque;
+        final String qoplist;
+        final boolean proxy;
+        String algorithm;
+        String charset;
+        synchronized (this) {
+            proxy = isProxy();
+            realm = getParameter("realm");
+            nonce = getParameter("nonce");
+            opaque = getParameter("opaque");
+            algorithm = getParameter("algorithm");
+            qoplist = getParameter("qop");
+            charset = getParameter("charset");
+        }
+        if (realm == null) {
             throw new AuthenticationException("missing realm in challenge");
         }
-        if (getParameter("nonce") == null) {
+        if (nonce == null) {
             throw new AuthenticationException("missing nonce in challenge");
         }
-        // Add method name and request-URI to the parameter map
-        getParameters().put("methodname", request.getRequestLine().getMethod());
-        getParameters().put("uri", request.getRequestLine().getUri());
-        final String charset = getParameter("charset");
+        // If an algorithm is not specified, default to MD5.
+        if (algorithm == null) {
+            algorithm = "MD5";
+        }
         if (charset == null) {
-            getParameters().put("charset", getCredentialsCharset(request));
+            charset = getCredentialsCharset(request);
+        }
+        String digAlg = algorithm;
+        if (digAlg.equalsIgnoreCase("MD5-sess")) {
+            digAlg = "MD5";
+        }
+        final MessageDigest digester;
+        try {
+            digester = getMessageDigest(digAlg);
+        } catch (final UnsupportedDigestAlgorithmException ex) {
+            throw new AuthenticationException("Unsuppported digest algorithm: " + digAlg);
         }
-        return createDigestHeader(credentials, request);
+        return createDigestHeader(credentials, request, digester,
+                realm, nonce, opaque, algorithm, qoplist, charset, proxy);
     }
 
     private static MessageDigest createMessageDigest(
@@ -236,6 +322,68 @@ public class DigestScheme extends RFC2617Scheme {
         }
     }
 
+    private static MessageDigest getMessageDigest(
+            final String digAlg) throws UnsupportedDigestAlgorithmException {
+        final MessageDigest cached = DIGESTERS.get();
+        if (cached != null && cached.getAlgorithm().equalsIgnoreCase(digAlg)) {
+            cached.reset();
+            return cached;
+        }
+        final MessageDigest digester = createMessageDigest(digAlg);
+        DIGESTERS.set(digester);
+        return digester;
+    }
+
+    private NonceState getNonceState(final String nonce) {
+        final NonceState state = this.nonceState;
+        if (state != null && state.nonce.equals(nonce)) {
+            return state;
+        }
+        synchronized (this) {
+            final NonceState current = this.nonceState;
+            if (current != null && current.nonce.equals(nonce)) {
+                return current;
+            }
+            final NonceState fresh = new NonceState(nonce, createCnonce());
+            this.nonceState = fresh;
+            return fresh;
+        }
+    }
+
+    /**
+     * Returns H(unq(username-value) ":" unq(realm-value) ":" passwd), computed
+     * once for the given credentials and realm.
+     */
+    private String getCredentialsDigest(
+            final MessageDigest digester,
+            final String uname,
+            final String pwd,
+            final String realm,
+            final String charset) {
+        final CredentialsDigest cached = this.credentialsDigest;
+        if (cached != null && cached.matches(uname, pwd, realm, charset, digester.getAlgorithm())) {
+            return cached.value;
+        }
+        final StringBuilder sb = new StringBuilder(64);
+        sb.append(uname).append(':').append(realm).append(':').append(pwd);
+        final String value = encode(digester.digest(EncodingUtils.getBytes(sb.toString(), charset)));
+        this.credentialsDigest = new CredentialsDigest(
+                uname, pwd, realm, charset, digester.getAlgorithm(), value);
+        return value;
+    }
+
+    private static String formatNonceCount(final long count) {
+        final String hex = Long.toHexString(count);
+        if (hex.length() >= 8) {
+            return hex;
+        }
+        final StringBuilder sb = new StringBuilder(8);
+        for (int i = hex.length(); i < 8; i++) {
+            sb.append('0');
+        }
+        return sb.append(hex).toString();
+    }
+
     /**
      * Creates digest-response header as defined in RFC2617.
      *
@@ -245,21 +393,20 @@ public class DigestScheme extends RFC2617Scheme {
      */
     private Header createDigestHeader(
             final Credentials credentials,
-            final HttpRequest request) throws AuthenticationException {
-        final String uri = getParameter("uri");
-        final String realm = getParameter("realm");
-        final String nonce = getParameter("nonce");
-        final String opaque = getParameter("opaque");
-        final String method = getParameter("methodname");
-        String algorithm = getParameter("algorithm");
-        // If an algorithm is not specified, default to MD5.
-        if (algorithm == null) {
-            algorithm = "MD5";
-        }
+            final HttpRequest request,
+            final MessageDigest digester,
+            final String realm,
+            final String nonce,
+            final String opaque,
+            final String algorithm,
+            final String qoplist,
+            final String charset,
+            final boolean proxy) throws AuthenticationException {
+        final String method = request.getRequestLine().getMethod();
+        final String uri = request.getRequestLine().getUri();
 
         final Set<String> qopset = new HashSet<String>(8);
         int qop = QOP_UNKNOWN;
-        final String qoplist = getParameter("qop");
         if (qoplist != null) {
             final StringTokenizer tok = new StringTokenizer(qoplist, ",");
             while (tok.hasMoreTokens()) {
@@ -279,67 +426,32 @@ public class DigestScheme extends RFC2617Scheme {
             throw new AuthenticationException("None of the qop methods is supported: " + qoplist);
         }
 
-        String charset = getParameter("charset");
-        if (charset == null) {
-            charset = "ISO-8859-1";
-        }
-
-        String digAlg = algorithm;
-        if (digAlg.equalsIgnoreCase("MD5-sess")) {
-            digAlg = "MD5";
-        }
-
-        final MessageDigest digester;
-        try {
-            digester = createMessageDigest(digAlg);
-        } catch (final UnsupportedDigestAlgorithmException ex) {
-            throw new AuthenticationException("Unsuppported digest algorithm: " + digAlg);
-        }
-
         final String uname = credentials.getUserPrincipal().getName();
         final String pwd = credentials.getPassword();
 
-        if (nonce.equals(this.lastNonce)) {
-            nounceCount++;
-        } else {
-            nounceCount = 1;
-            cnonce = null;
-            lastNonce = nonce;
-        }
-        final StringBuilder sb = new StringBuilder(256);
-        final Formatter formatter = new Formatter(sb, Locale.US);
-        formatter.format("%08x", nounceCount);
-        formatter.close();
-        final String nc = sb.toString();
-
-        if (cnonce == null) {
-            cnonce = createCnonce();
-        }
+        final NonceState state = getNonceState(nonce);
+        final String nc = formatNonceCount(state.count.incrementAndGet());
+        final String cnonce = state.cnonce;
 
-        a1 = null;
-        a2 = null;
+        final StringBuilder sb = new StringBuilder(256);
         // 3.2.2.2: Calculating digest
+        final String checksum = getCredentialsDigest(digester, uname, pwd, realm, charset);
+        final String hasha1;
         if (algorithm.equalsIgnoreCase("MD5-sess")) {
             // H( unq(username-value) ":" unq(realm-value) ":" passwd )
             //      ":" unq(nonce-value)
             //      ":" unq(cnonce-value)
-
-            // calculated one per session
-            sb.setLength(0);
-            sb.append(uname).append(':').append(realm).append(':').append(pwd);
-            final String checksum = encode(digester.digest(EncodingUtils.getBytes(sb.toString(), charset)));
-            sb.setLength(0);
             sb.append(checksum).append(':').append(nonce).append(':').append(cnonce);
-            a1 = sb.toString();
+            final String a1 = sb.toString();
+            this.a1 = a1;
+            hasha1 = encode(digester.digest(EncodingUtils.getBytes(a1, charset)));
         } else {
-            // unq(username-value) ":" unq(realm-value) ":" passwd
-            sb.setLength(0);
-            sb.append(uname).append(':').append(realm).append(':').append(pwd);
-            a1 = sb.toString();
+            // H( unq(username-value) ":" unq(realm-value) ":" passwd )
+            this.a1 = null;
+            hasha1 = checksum;
         }
 
-        final String hasha1 = encode(digester.digest(EncodingUtils.getBytes(a1, charset)));
-
+        String a2;
         if (qop == QOP_AUTH) {
             // Method ":" digest-uri-value
             a2 = method + ':' + uri;
@@ -373,6 +485,7 @@ public class DigestScheme extends RFC2617Scheme {
         } else {
             a2 = method + ':' + uri;
         }
+        this.a2 = a2;
 
         final String hasha2 = encode(digester.digest(EncodingUtils.getBytes(a2, charset)));
 
@@ -394,7 +507,7 @@ public class DigestScheme extends RFC2617Scheme {
         final String digest = encode(digester.digest(EncodingUtils.getAsciiBytes(digestValue)));
 
         final CharArrayBuffer buffer = new CharArrayBuffer(128);
-        if (isProxy()) {
+        if (proxy) {
             buffer.append(AUTH.PROXY_AUTH_RESP);
         } else {
             buffer.append(AUTH.WWW_AUTH_RESP);
@@ -433,7 +546,8 @@ public class DigestScheme extends RFC2617Scheme {
     }
 
     String getCnonce() {
-        return cnonce;
+        final NonceState state = this.nonceState;
+        return state != null ? state.cnonce : null;
     }
 
     String getA1() {
@@ -471,20 +585,77 @@ public class DigestScheme extends RFC2617Scheme {
      * @return The cnonce value as String.
      */
     public static String createCnonce() {
-        final SecureRandom rnd = new SecureRandom();
         final byte[] tmp = new byte[8];
-        rnd.nextBytes(tmp);
+        RANDOM.nextBytes(tmp);
         return encode(tmp);
     }
 
     @Override
     public String toString() {
+        final NonceState state = this.nonceState;
         final StringBuilder builder = new StringBuilder();
         builder.append("DIGEST [complete=").append(complete)
-                .append(", nonce=").append(lastNonce)
-                .append(", nc=").append(nounceCount)
+                .append(", nonce=").append(state != null ? state.nonce : null)
+                .append(", nc=").append(state != null ? state.count.get() : 0)
                 .append("]");
         return builder.toString();
     }
 
+    /**
+     * Server nonce together with the client nonce and the nonce count
+     * used with it.
+     */
+    private static final class NonceState {
+
+        final String nonce;
+        final String cnonce;
+        final AtomicLong count;
+
+        NonceState(final String nonce, final String cnonce) {
+            this.nonce = nonce;
+            this.cnonce = cnonce;
+            this.count = new AtomicLong();
+        }
+
+    }
+
+    private static final class CredentialsDigest {
+
+        final String uname;
+        final String pwd;
+        final String realm;
+        final String charset;
+        final String algorithm;
+        final String value;
+
+        CredentialsDigest(
+                final String uname,
+                final String pwd,
+                final String realm,
+                final String charset,
+                final String algorithm,
+                final String value) {
+            this.uname = uname;
+            this.pwd = pwd;
+            this.realm = realm;
+            this.charset = charset;
+            this.algorithm = algorithm;
+            this.value = value;
+        }
+
+        boolean matches(
+                final String uname,
+                final String pwd,
+                final String realm,
+                final String charset,
+                final String algorithm) {
+            return LangUtils.equals(this.uname, uname)
+                && LangUtils.equals(this.pwd, pwd)
+                && this.realm.equals(realm)
+                && this.charset.equals(charset)
+                && this.algorithm.equals(algorithm);
+        }
+
+    }
+
 }
@@ -0,0 +1,235 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.client;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.annotation.Immutable;
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.auth.AuthScheme;
+import com.epam.reportportal.apache.http.client.AuthCache;
+import com.epam.reportportal.apache.http.conn.SchemePortResolver;
+import com.epam.reportportal.apache.http.conn.UnsupportedSchemeException;
+import com.epam.reportportal.apache.http.impl.conn.DefaultSchemePortResolver;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * Thread-safe implementation of {@link AuthCache} meant to be shared by all
+ * requests executed by a client, see
+ * {@link HttpClientBuilder#setDefaultAuthCache(AuthCache)}. Once a host has
+ * been authenticated by any request the cached auth scheme is used to
+ * authenticate subsequent requests to that host preemptively.
+ * <p/>
+ * Entries expire after the given time to live and the least recently cached
+ * entry is evicted once the maximum number of entries has been reached.
+ * Lookups are counted as hits or misses.
+ *
+ * @since 4.4
+ */
+@ThreadSafe
+public class ConcurrentAuthCache implements AuthCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final ConcurrentHashMap<HttpHost, Entry> map;
+    private final SchemePortResolver schemePortResolver;
+    private final int maxEntries;
+    private final long timeToLive;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * Creates new instance of ConcurrentAuthCache.
+     *
+     * @param schemePortResolver the scheme port resolver. If <code>null</code>
+     *   the default one is used.
+     * @param maxEntries maximum number of cached auth schemes.
+     * @param timeToLive maximum time an auth scheme is cached for. A value
+     *   equal to or less than zero means the entries never expire.
+     * @param tunit the time unit of <code>timeToLive</code>.
+     */
+    public ConcurrentAuthCache(
+            final SchemePortResolver schemePortResolver,
+            final int maxEntries,
+            final long timeToLive,
+            final TimeUnit tunit) {
+        super();
+        Args.positive(maxEntries, "Max entries");
+        Args.notNull(tunit, "Time unit");
+        this.map = new ConcurrentHashMap<HttpHost, Entry>();
+        this.schemePortResolver = schemePortResolver != null ? schemePortResolver :
+            DefaultSchemePortResolver.INSTANCE;
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive > 0 ? tunit.toMillis(timeToLive) : Long.MAX_VALUE;
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    public ConcurrentAuthCache(final int maxEntries, final long timeToLive, final TimeUnit tunit) {
+        this(null, maxEntries, timeToLive, tunit);
+    }
+
+    public ConcurrentAuthCache() {
+        this(null, DEFAULT_MAX_ENTRIES, -1, TimeUnit.MILLISECONDS);
+    }
+
+    protected HttpHost getKey(final HttpHost host) {
+        if (host.getPort() <= 0) {
+            final int port;
+            try {
+                port = schemePortResolver.resolve(host);
+            } catch (final UnsupportedSchemeException ignore) {
+                return host;
+            }
+            return new HttpHost(host.getHostName(), port, host.getSchemeName());
+        } else {
+            return host;
+        }
+    }
+
+    public void put(final HttpHost host, final AuthScheme authScheme) {
+        Args.notNull(host, "HTTP host");
+        if (authScheme == null) {
+            remove(host);
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final long expiry = now + this.timeToLive;
+        this.map.put(getKey(host), new Entry(authScheme, now, expiry > 0 ? expiry : Long.MAX_VALUE));
+        if (this.map.size() > this.maxEntries) {
+            evict(now);
+        }
+    }
+
+    /**
+     * Removes expired entries and, while the cache is still above its
+     * maximum size, the least recently cached entries.
+     */
+    private void evict(final long now) {
+        for (final Iterator<Entry> it = this.map.values().iterator(); it.hasNext();) {
+            if (it.next().isExpired(now)) {
+                it.remove();
+            }
+        }
+        while (this.map.size() > this.maxEntries) {
+            Map.Entry<HttpHost, Entry> oldest = null;
+            for (final Map.Entry<HttpHost, Entry> entry : this.map.entrySet()) {
+                if (oldest == null || entry.getValue().created < oldest.getValue().created) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                break;
+            }
+            this.map.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    public AuthScheme get(final HttpHost host) {
+        Args.notNull(host, "HTTP host");
+        final HttpHost key = getKey(host);
+        final Entry entry = this.map.get(key);
+        if (entry != null) {
+            if (!entry.isExpired(System.currentTimeMillis())) {
+                this.hits.incrementAndGet();
+                return entry.authScheme;
+            }
+            this.map.remove(key, entry);
+        }
+        this.misses.incrementAndGet();
+        return null;
+    }
+
+    public void remove(final HttpHost host) {
+        Args.notNull(host, "HTTP host");
+        this.map.remove(getKey(host));
+    }
+
+    public void clear() {
+        this.map.clear();
+    }
+
+    /**
+     * Returns the number of cached auth schemes including those that have
+     * expired but have not been evicted yet.
+     */
+    public int size() {
+        return this.map.size();
+    }
+
+    /**
+     * Returns the number of lookups that found an auth scheme.
+     */
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that found no auth scheme
+     * or an expired one.
+     */
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[entries: ").append(this.map.size());
+        buffer.append("; hits: ").append(this.hits.get());
+        buffer.append("; misses: ").append(this.misses.get());
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+    @Immutable
+    private static class Entry {
+
+        final AuthScheme authScheme;
+        final long created;
+        final long expiry;
+
+        Entry(final AuthScheme authScheme, final long created, final long expiry) {
+            super();
+            this.authScheme = authScheme;
+            this.created = created;
+            this.expiry = expiry;
+        }
+
+        boolean isExpired(final long now) {
+            return now >= this.expiry;
+        }
+
+    }
+
+}
@@ -0,0 +1,362 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.client;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.epam.reportportal.apache.http.annotation.GuardedBy;
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.client.CookieStore;
+import com.epam.reportportal.apache.http.client.IndexedCookieStore;
+import com.epam.reportportal.apache.http.cookie.Cookie;
+import com.epam.reportportal.apache.http.cookie.CookieIdentityComparator;
+import com.epam.reportportal.apache.http.cookie.CookieOrigin;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * {@link CookieStore} implementation optimized for clients shared across
+ * many hosts.
+ * <p/>
+ * Cookies are kept in buckets keyed by the last two labels of their domain,
+ * so that {@link #getCookies(CookieOrigin)} only needs to look at the cookies
+ * of the origin's registrable domain, which it further narrows down by domain
+ * suffix and path prefix. Buckets are replaced on every update rather than
+ * modified, so readers never block. Cookies with an expiry date are also
+ * filed by the second they expire at, so {@link #clearExpired(Date)} only
+ * visits cookies that are due.
+ *
+ * @since 4.4
+ */
+@ThreadSafe
+public class ConcurrentCookieStore implements IndexedCookieStore, Serializable {
+
+    private static final long serialVersionUID = 3815262406416839712L;
+
+    private static final Comparator<Cookie> COMPARATOR = new CookieIdentityComparator();
+
+    private static final long TICK = 1000;
+
+    private static final Entry[] EMPTY = new Entry[0];
+
+    private final ConcurrentHashMap<String, Entry[]> buckets;
+
+    @GuardedBy("this")
+    private final TreeMap<Long, List<Entry>> expiries;
+
+    public ConcurrentCookieStore() {
+        super();
+        this.buckets = new ConcurrentHashMap<String, Entry[]>();
+        this.expiries = new TreeMap<Long, List<Entry>>();
+    }
+
+    private static String registrable(final String domain) {
+        final int i = domain.lastIndexOf('.');
+        if (i <= 0) {
+            return domain;
+        }
+        final int j = domain.lastIndexOf('.', i - 1);
+        return j != -1 ? domain.substring(j + 1) : domain;
+    }
+
+    /**
+     * Derives the bucket key from the cookie domain the same way
+     * {@link CookieIdentityComparator} normalizes it, so that identical
+     * cookies always end up in the same bucket.
+     */
+    private static String keyOf(final String domain) {
+        if (domain == null) {
+            return "";
+        }
+        String d = domain.toLowerCase(Locale.ENGLISH);
+        if (d.indexOf('.') == -1) {
+            d = d + ".local";
+        }
+        if (d.startsWith(".")) {
+            d = d.substring(1);
+        }
+        return registrable(d);
+    }
+
+    /**
+     * Adds an {@link Cookie HTTP cookie}, replacing any existing equivalent cookies.
+     * If the given cookie has already expired it will not be added, but existing
+     * values will still be removed.
+     *
+     * @param cookie the {@link Cookie cookie} to be added
+     */
+    public synchronized void addCookie(final Cookie cookie) {
+        if (cookie == null) {
+            return;
+        }
+        final Entry entry = new Entry(cookie);
+        final Entry[] bucket = this.buckets.get(entry.key);
+        final Entry[] current = bucket != null ? bucket : EMPTY;
+        int i = 0;
+        int c = 1;
+        while (i < current.length && (c = COMPARATOR.compare(current[i].cookie, cookie)) < 0) {
+            i++;
+        }
+        final boolean replace = i < current.length && c == 0;
+        final boolean add = !cookie.isExpired(new Date());
+        if (!replace && !add) {
+            return;
+        }
+        if (replace) {
+            unschedule(current[i]);
+        }
+        final int size = current.length + (add ? 1 : 0) - (replace ? 1 : 0);
+        if (size == 0) {
+            this.buckets.remove(entry.key);
+            return;
+        }
+        final Entry[] updated = new Entry[size];
+        System.arraycopy(current, 0, updated, 0, i);
+        int j = i;
+        if (add) {
+            updated[j++] = entry;
+            schedule(entry);
+        }
+        System.arraycopy(current, replace ? i + 1 : i, updated, j, size - j);
+        this.buckets.put(entry.key, updated);
+    }
+
+    /**
+     * Adds an array of {@link Cookie HTTP cookies}. Cookies are added individually and
+     * in the given array order. If any of the given cookies has already expired it will
+     * not be added, but existing values will still be removed.
+     *
+     * @param cookies the {@link Cookie cookies} to be added
+     */
+    public synchronized void addCookies(final Cookie[] cookies) {
+        if (cookies != null) {
+            for (final Cookie cooky : cookies) {
+                this.addCookie(cooky);
+            }
+        }
+    }
+
+    private void schedule(final Entry entry) {
+        if (entry.slot == null) {
+            return;
+        }
+        List<Entry> entries = this.expiries.get(entry.slot);
+        if (entries == null) {
+            entries = new ArrayList<Entry>(2);
+            this.expiries.put(entry.slot, entries);
+        }
+        entries.add(entry);
+    }
+
+    private void unschedule(final Entry entry) {
+        if (entry.slot == null) {
+            return;
+        }
+        final List<Entry> entries = this.expiries.get(entry.slot);
+        if (entries != null && entries.remove(entry) && entries.isEmpty()) {
+            this.expiries.remove(entry.slot);
+        }
+    }
+
+    private void remove(final Entry entry) {
+        final Entry[] bucket = this.buckets.get(entry.key);
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 0; i < bucket.length; i++) {
+            if (bucket[i] == entry) {
+                if (bucket.length == 1) {
+                    this.buckets.remove(entry.key);
+                } else {
+                    final Entry[] updated = new Entry[bucket.length - 1];
+                    System.arraycopy(bucket, 0, updated, 0, i);
+                    System.arraycopy(bucket, i + 1, updated, i, updated.length - i);
+                    this.buckets.put(entry.key, updated);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns all cookies this store contains ordered the same way as
+     * {@link BasicCookieStore} orders them.
+     *
+     * @return all cookies
+     */
+    public List<Cookie> getCookies() {
+        final List<Cookie> cookies = new ArrayList<Cookie>();
+        for (final Entry[] bucket : this.buckets.values()) {
+            for (final Entry entry : bucket) {
+                cookies.add(entry.cookie);
+            }
+        }
+        Collections.sort(cookies, COMPARATOR);
+        return cookies;
+    }
+
+    /**
+     * Returns cookies whose domain is a suffix of the origin's host and whose
+     * path is a prefix of the origin's path, ordered the same way as
+     * {@link #getCookies()} orders them.
+     */
+    public List<Cookie> getCookies(final CookieOrigin origin) {
+        Args.notNull(origin, "Cookie origin");
+        final String host = origin.getHost();
+        final String effectiveHost = host.indexOf('.') == -1 ? host + ".local" : host;
+        final String path = origin.getPath();
+        final String key = registrable(effectiveHost);
+        final String tld = effectiveHost.substring(effectiveHost.lastIndexOf('.') + 1);
+        final String localTld = tld + ".local";
+
+        final List<Cookie> cookies = new ArrayList<Cookie>();
+        int matched = collect(key, host, effectiveHost, path, cookies);
+        if (!tld.equals(key)) {
+            matched += collect(tld, host, effectiveHost, path, cookies);
+        }
+        if (!localTld.equals(key)) {
+            matched += collect(localTld, host, effectiveHost, path, cookies);
+        }
+        if (matched > 1) {
+            Collections.sort(cookies, COMPARATOR);
+        }
+        return cookies;
+    }
+
+    private int collect(
+            final String key,
+            final String host,
+            final String effectiveHost,
+            final String path,
+            final List<Cookie> cookies) {
+        final Entry[] bucket = this.buckets.get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        final int size = cookies.size();
+        for (final Entry entry : bucket) {
+            if (entry.domain != null
+                    && (host.endsWith(entry.domain) || effectiveHost.endsWith(entry.domain))
+                    && path.startsWith(entry.path)) {
+                cookies.add(entry.cookie);
+            }
+        }
+        return cookies.size() > size ? 1 : 0;
+    }
+
+    /**
+     * Removes all of {@link Cookie cookies} in this store that have expired by
+     * the specified {@link java.util.Date date}. Only cookies due to expire by
+     * then are examined.
+     *
+     * @return true if any cookies were purged.
+     *
+     * @see Cookie#isExpired(Date)
+     */
+    public synchronized boolean clearExpired(final Date date) {
+        if (date == null) {
+            return false;
+        }
+        boolean removed = false;
+        final Iterator<Map.Entry<Long, List<Entry>>> slots =
+                this.expiries.headMap(Long.valueOf(date.getTime() / TICK), true).entrySet().iterator();
+        while (slots.hasNext()) {
+            final List<Entry> entries = slots.next().getValue();
+            for (final Iterator<Entry> it = entries.iterator(); it.hasNext();) {
+                final Entry entry = it.next();
+                if (entry.cookie.isExpired(date)) {
+                    it.remove();
+                    remove(entry);
+                    removed = true;
+                }
+            }
+            if (entries.isEmpty()) {
+                slots.remove();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Clears all cookies.
+     */
+    public synchronized void clear() {
+        this.buckets.clear();
+        this.expiries.clear();
+    }
+
+    @Override
+    public String toString() {
+        return getCookies().toString();
+    }
+
+    private static final class Entry implements Serializable {
+
+        private static final long serialVersionUID = -1931496314478325425L;
+
+        final Cookie cookie;
+        final String key;
+        final String domain;
+        final String path;
+        final Long slot;
+
+        Entry(final Cookie cookie) {
+            super();
+            this.cookie = cookie;
+            final String domain = cookie.getDomain();
+            this.key = keyOf(domain);
+            if (domain != null) {
+                final String d = domain.toLowerCase(Locale.ENGLISH);
+                this.domain = d.startsWith(".") ? d.substring(1) : d;
+            } else {
+                this.domain = null;
+            }
+            final String path = cookie.getPath();
+            if (path == null) {
+                this.path = "/";
+            } else if (path.length() > 1 && path.endsWith("/")) {
+                this.path = path.substring(0, path.length() - 1);
+            } else {
+                this.path = path;
+            }
+            final Date expiry = cookie.getExpiryDate();
+            this.slot = expiry != null ? Long.valueOf(expiry.getTime() / TICK) : null;
+        }
+
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.client;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+import com.epam.reportportal.apache.http.Header;
+import com.epam.reportportal.apache.http.HeaderElement;
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.HttpEntityEnclosingRequest;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.HttpVersion;
+import com.epam.reportportal.apache.http.annotation.Immutable;
+import com.epam.reportportal.apache.http.client.RequestCompressionStrategy;
+import com.epam.reportportal.apache.http.client.entity.GzipCompressingEntity;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * Default implementation of the {@link RequestCompressionStrategy} interface
+ * that gzip compresses entities of a compressible MIME type whose content is
+ * at least of a minimum length, or of unknown length.
+ * <p/>
+ * Compressible MIME types are given either in full or as a wildcard such as
+ * <code>text/*</code>. Content of known length not exceeding the maximum
+ * buffered length is compressed up front and sent with a
+ * <code>Content-Length</code> header; other content is compressed while it is
+ * being sent using the chunk coding, which requires HTTP/1.1.
+ *
+ * @since 4.4
+ */
+@Immutable
+public class DefaultRequestCompressionStrategy implements RequestCompressionStrategy {
+
+    /**
+     * MIME types compressed by default.
+     */
+    public static final Collection<String> DEFAULT_MIME_TYPES = Arrays.asList(
+            "text/*",
+            "application/json",
+            "application/xml",
+            "application/javascript",
+            "application/x-www-form-urlencoded");
+
+    public static final DefaultRequestCompressionStrategy INSTANCE = new DefaultRequestCompressionStrategy();
+
+    private final long minLength;
+    private final int level;
+    private final long maxBufferedLength;
+    private final Set<String> mimeTypes;
+
+    /**
+     * @param minLength the minimum content length to compress.
+     * @param level the compression level from <code>0</code> to <code>9</code>,
+     *   or <code>-1</code> for the default level.
+     * @param maxBufferedLength the maximum content length to compress up front.
+     * @param mimeTypes the compressible MIME types.
+     */
+    public DefaultRequestCompressionStrategy(
+            final long minLength,
+            final int level,
+            final long maxBufferedLength,
+            final Collection<String> mimeTypes) {
+        super();
+        Args.notNegative(minLength, "Min length");
+        Args.check(level >= Deflater.DEFAULT_COMPRESSION && level <= Deflater.BEST_COMPRESSION,
+                "Invalid compression level: %d", level);
+        Args.notNull(mimeTypes, "MIME types");
+        this.minLength = minLength;
+        this.level = level;
+        this.maxBufferedLength = maxBufferedLength;
+        this.mimeTypes = new HashSet<String>(mimeTypes.size());
+        for (final String mimeType: mimeTypes) {
+            this.mimeTypes.add(mimeType.toLowerCase(Locale.ENGLISH));
+        }
+    }
+
+    public DefaultRequestCompressionStrategy() {
+        this(1024, Deflater.DEFAULT_COMPRESSION, 64 * 1024, DEFAULT_MIME_TYPES);
+    }
+
+    public boolean shouldCompress(final HttpRequest request, final HttpContext context) {
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return false;
+        }
+        final HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+        if (entity == null) {
+            return false;
+        }
+        final long len = entity.getContentLength();
+        if (len >= 0 && len < this.minLength) {
+            return false;
+        }
+        if ((len < 0 || len > this.maxBufferedLength)
+                && request.getProtocolVersion().lessEquals(HttpVersion.HTTP_1_0)) {
+            // chunk coding not available
+            return false;
+        }
+        return isCompressible(entity.getContentType());
+    }
+
+    private boolean isCompressible(final Header contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        final HeaderElement[] elements = contentType.getElements();
+        if (elements.length == 0) {
+            return false;
+        }
+        final String mimeType = elements[0].getName().toLowerCase(Locale.ENGLISH);
+        if (this.mimeTypes.contains(mimeType)) {
+            return true;
+        }
+        final int i = mimeType.indexOf('/');
+        return i > 0 && this.mimeTypes.contains(mimeType.substring(0, i + 1) + "*");
+    }
+
+    public HttpEntity compress(final HttpEntity entity) throws IOException {
+        return new GzipCompressingEntity(entity, this.level,
+                GzipCompressingEntity.DEFAULT_BUFFER_SIZE, null,
+                GzipCompressingEntity.DEFAULT_BLOCK_SIZE, this.maxBufferedLength);
+    }
+
+}
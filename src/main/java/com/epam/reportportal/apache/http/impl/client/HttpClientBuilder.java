@@ -28,11 +28,14 @@
 package com.epam.reportportal.apache.http.impl.client;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.net.ProxySelector;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
@@ -47,6 +50,7 @@ import com.epam.reportportal.apache.http.auth.AuthSchemeProvider;
 import com.epam.reportportal.apache.http.client.config.AuthSchemes;
 import com.epam.reportportal.apache.http.client.config.CookieSpecs;
 import com.epam.reportportal.apache.http.client.config.RequestConfig;
+import com.epam.reportportal.apache.http.client.entity.InputStreamFactory;
 import com.epam.reportportal.apache.http.config.ConnectionConfig;
 import com.epam.reportportal.apache.http.config.Lookup;
 import com.epam.reportportal.apache.http.config.RegistryBuilder;
@@ -54,6 +58,7 @@ import com.epam.reportportal.apache.http.config.SocketConfig;
 import com.epam.reportportal.apache.http.conn.ConnectionKeepAliveStrategy;
 import com.epam.reportportal.apache.http.conn.HttpClientConnectionManager;
 import com.epam.reportportal.apache.http.conn.SchemePortResolver;
+import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
 import com.epam.reportportal.apache.http.conn.routing.HttpRoutePlanner;
 import com.epam.reportportal.apache.http.conn.socket.ConnectionSocketFactory;
 import com.epam.reportportal.apache.http.conn.socket.LayeredConnectionSocketFactory;
@@ -64,16 +69,20 @@ import com.epam.reportportal.apache.http.cookie.CookieSpec;
 import com.epam.reportportal.apache.http.cookie.CookieSpecProvider;
 import com.epam.reportportal.apache.http.impl.DefaultConnectionReuseStrategy;
 import com.epam.reportportal.apache.http.impl.NoConnectionReuseStrategy;
+import com.epam.reportportal.apache.http.util.Args;
 import com.epam.reportportal.apache.http.util.TextUtils;
 import com.epam.reportportal.apache.http.util.VersionInfo;
 import com.epam.reportportal.apache.http.ConnectionReuseStrategy;
+import com.epam.reportportal.apache.http.client.AuthCache;
 import com.epam.reportportal.apache.http.client.AuthenticationStrategy;
 import com.epam.reportportal.apache.http.client.BackoffManager;
 import com.epam.reportportal.apache.http.client.ConnectionBackoffStrategy;
 import com.epam.reportportal.apache.http.client.CookieStore;
 import com.epam.reportportal.apache.http.client.CredentialsProvider;
+import com.epam.reportportal.apache.http.client.HttpClientMetrics;
 import com.epam.reportportal.apache.http.client.HttpRequestRetryHandler;
 import com.epam.reportportal.apache.http.client.RedirectStrategy;
+import com.epam.reportportal.apache.http.client.RequestCompressionStrategy;
 import com.epam.reportportal.apache.http.client.ServiceUnavailableRetryStrategy;
 import com.epam.reportportal.apache.http.client.UserTokenHandler;
 import com.epam.reportportal.apache.http.client.protocol.RequestAcceptEncoding;
@@ -96,6 +105,7 @@ import com.epam.reportportal.apache.http.impl.conn.PoolingHttpClientConnectionMa
 import com.epam.reportportal.apache.http.impl.conn.SystemDefaultRoutePlanner;
 import com.epam.reportportal.apache.http.impl.cookie.BestMatchSpecFactory;
 import com.epam.reportportal.apache.http.impl.cookie.BrowserCompatSpecFactory;
+import com.epam.reportportal.apache.http.impl.cookie.CachingCookieSpecProvider;
 import com.epam.reportportal.apache.http.impl.cookie.IgnoreSpecFactory;
 import com.epam.reportportal.apache.http.impl.cookie.NetscapeDraftSpecFactory;
 import com.epam.reportportal.apache.http.impl.cookie.RFC2109SpecFactory;
@@ -105,8 +115,11 @@ import com.epam.reportportal.apache.http.impl.execchain.ClientExecChain;
 import com.epam.reportportal.apache.http.impl.execchain.MainClientExec;
 import com.epam.reportportal.apache.http.impl.execchain.ProtocolExec;
 import com.epam.reportportal.apache.http.impl.execchain.RedirectExec;
+import com.epam.reportportal.apache.http.impl.execchain.RequestCompressionExec;
 import com.epam.reportportal.apache.http.impl.execchain.RetryExec;
 import com.epam.reportportal.apache.http.impl.execchain.ServiceUnavailableRetryExec;
+import com.epam.reportportal.apache.http.pool.ConnPoolControl;
+import com.epam.reportportal.apache.http.pool.PoolConcurrencyPolicy;
 import com.epam.reportportal.apache.http.protocol.HttpProcessor;
 import com.epam.reportportal.apache.http.protocol.HttpProcessorBuilder;
 import com.epam.reportportal.apache.http.protocol.HttpRequestExecutor;
@@ -176,10 +189,13 @@ public class HttpClientBuilder {
     private ConnectionBackoffStrategy connectionBackoffStrategy;
     private BackoffManager backoffManager;
     private ServiceUnavailableRetryStrategy serviceUnavailStrategy;
+    private RequestCompressionStrategy requestCompressionStrategy;
+    private Map<String, InputStreamFactory> contentDecoderMap;
     private Lookup<AuthSchemeProvider> authSchemeRegistry;
     private Lookup<CookieSpecProvider> cookieSpecRegistry;
     private CookieStore cookieStore;
     private CredentialsProvider credentialsProvider;
+    private AuthCache authCache;
     private String userAgent;
     private HttpHost proxy;
     private Collection<? extends Header> defaultHeaders;
@@ -194,9 +210,15 @@ public class HttpClientBuilder {
     private boolean cookieManagementDisabled;
     private boolean authCachingDisabled;
     private boolean connectionStateDisabled;
+    private boolean evictExpiredConnections;
+    private boolean evictIdleConnections;
+    private long maxIdleTime;
+    private TimeUnit maxIdleTimeUnit;
 
     private int maxConnTotal = 0;
     private int maxConnPerRoute = 0;
+    private PoolConcurrencyPolicy poolConcurrencyPolicy;
+    private HttpClientMetrics metrics;
 
     private List<Closeable> closeables;
 
@@ -284,6 +306,19 @@ public class HttpClientBuilder {
         return this;
     }
 
+    /**
+     * Assigns {@link PoolConcurrencyPolicy} of the connection pool.
+     * <p/>
+     * Please note this value can be overridden by the {@link #setConnectionManager(
+     *HttpClientConnectionManager)} method.
+     *
+     * @since 4.4
+     */
+    public final HttpClientBuilder setPoolConcurrencyPolicy(final PoolConcurrencyPolicy poolConcurrencyPolicy) {
+        this.poolConcurrencyPolicy = poolConcurrencyPolicy;
+        return this;
+    }
+
     /**
      * Assigns default {@link SocketConfig}.
      * <p/>
@@ -296,7 +331,9 @@ public class HttpClientBuilder {
     }
 
     /**
-     * Assigns default {@link ConnectionConfig}.
+     * Assigns default {@link ConnectionConfig}. If the configuration enables
+     * {@link ConnectionConfig#isChannelTransport() channel transport} plain
+     * sockets get created backed by a {@link java.nio.channels.SocketChannel}.
      * <p/>
      * Please note this value can be overridden by the {@link #setConnectionManager(
      *HttpClientConnectionManager)} method.
@@ -493,6 +530,22 @@ public class HttpClientBuilder {
         return this;
     }
 
+    /**
+     * Assigns a map of {@link InputStreamFactory} instances keyed by the
+     * {@code Content-Encoding} they decode. These replace the default gzip,
+     * x-gzip and deflate decoders used for automatic content decompression.
+     * <p/>
+     * Please note this value can be overridden by the {@link #setHttpProcessor(
+     *HttpProcessor)} method.
+     *
+     * @since 4.4
+     */
+    public final HttpClientBuilder setContentDecoderRegistry(
+            final Map<String, InputStreamFactory> contentDecoderMap) {
+        this.contentDecoderMap = contentDecoderMap;
+        return this;
+    }
+
     /**
      * Disables authentication scheme caching.
      * <p/>
@@ -586,6 +639,20 @@ public class HttpClientBuilder {
         return this;
     }
 
+    /**
+     * Assigns {@link RequestCompressionStrategy} instance. Request entities
+     * are compressed automatically as decided by the strategy; see
+     * {@link DefaultRequestCompressionStrategy}. Request compression
+     * is disabled by default.
+     *
+     * @since 4.4
+     */
+    public final HttpClientBuilder setRequestCompressionStrategy(
+            final RequestCompressionStrategy requestCompressionStrategy) {
+        this.requestCompressionStrategy = requestCompressionStrategy;
+        return this;
+    }
+
     /**
      * Assigns {@link ServiceUnavailableRetryStrategy} instance.
      */
@@ -615,6 +682,19 @@ public class HttpClientBuilder {
         return this;
     }
 
+    /**
+     * Assigns default {@link AuthCache} instance which will be used
+     * for request execution if not explicitly set in the client execution
+     * context. The instance is shared by all requests and must be thread-safe,
+     * such as {@link ConcurrentAuthCache}.
+     *
+     * @since 4.4
+     */
+    public final HttpClientBuilder setDefaultAuthCache(final AuthCache authCache) {
+        this.authCache = authCache;
+        return this;
+    }
+
     /**
      * Assigns default {@link AuthScheme} registry which will
      * be used for request execution if not explicitly set in the client execution
@@ -647,6 +727,20 @@ public class HttpClientBuilder {
         return this;
     }
 
+    /**
+     * Assigns {@link HttpClientMetrics} instance that will receive lease,
+     * connect, TLS handshake, time to first byte and response body timings
+     * as well as retry and redirect counts. If the connection manager
+     * exposes pool statistics the metrics will also be bound to it.
+     *
+     * @see InMemoryHttpClientMetrics
+     * @since 4.4
+     */
+    public final HttpClientBuilder setMetrics(final HttpClientMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     /**
      * Use system properties when creating and configuring default
      * implementations.
@@ -656,6 +750,44 @@ public class HttpClientBuilder {
         return this;
     }
 
+    /**
+     * Makes this instance of HttpClient proactively evict expired connections
+     * from the connection pool using a background thread.
+     * <p/>
+     * One MUST explicitly close HttpClient with {@link CloseableHttpClient#close()}
+     * in order to stop and release the background thread.
+     *
+     * @since 4.4
+     */
+    public final HttpClientBuilder evictExpiredConnections() {
+        evictExpiredConnections = true;
+        return this;
+    }
+
+    /**
+     * Makes this instance of HttpClient proactively evict idle connections
+     * from the connection pool using a background thread. Expired connections
+     * are evicted as well.
+     * <p/>
+     * One MUST explicitly close HttpClient with {@link CloseableHttpClient#close()}
+     * in order to stop and release the background thread.
+     *
+     * @param maxIdleTime maximum time persistent connections can stay idle while kept alive
+     * in the connection pool. Connections whose inactivity period exceeds this value will
+     * get closed and evicted from the pool.
+     * @param maxIdleTimeUnit time unit for the above parameter.
+     *
+     * @since 4.4
+     */
+    public final HttpClientBuilder evictIdleConnections(final long maxIdleTime, final TimeUnit maxIdleTimeUnit) {
+        Args.positive(maxIdleTime, "Max idle time");
+        Args.notNull(maxIdleTimeUnit, "Time unit");
+        this.evictIdleConnections = true;
+        this.maxIdleTime = maxIdleTime;
+        this.maxIdleTimeUnit = maxIdleTimeUnit;
+        return this;
+    }
+
     /**
      * For internal use.
      */
@@ -723,12 +855,21 @@ public class HttpClientBuilder {
                     }
                 }
             }
+            final ConnectionSocketFactory plainSocketFactory = defaultConnectionConfig != null
+                    && defaultConnectionConfig.isChannelTransport() ?
+                    new PlainConnectionSocketFactory(true) : PlainConnectionSocketFactory.getSocketFactory();
             @SuppressWarnings("resource")
             final PoolingHttpClientConnectionManager poolingmgr = new PoolingHttpClientConnectionManager(
                     RegistryBuilder.<ConnectionSocketFactory>create()
-                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("http", plainSocketFactory)
                         .register("https", sslSocketFactory)
-                        .build());
+                        .build(),
+                    null,
+                    null,
+                    null,
+                    -1,
+                    TimeUnit.MILLISECONDS,
+                    poolConcurrencyPolicy);
             if (defaultSocketConfig != null) {
                 poolingmgr.setDefaultSocketConfig(defaultSocketConfig);
             }
@@ -752,6 +893,11 @@ public class HttpClientBuilder {
             }
             connManager = poolingmgr;
         }
+        if (metrics != null && connManager instanceof ConnPoolControl) {
+            @SuppressWarnings("unchecked")
+            final ConnPoolControl<HttpRoute> pool = (ConnPoolControl<HttpRoute>) connManager;
+            metrics.bindPool(pool);
+        }
         ConnectionReuseStrategy reuseStrategy = this.reuseStrategy;
         if (reuseStrategy == null) {
             if (systemProperties) {
@@ -792,7 +938,8 @@ public class HttpClientBuilder {
                 keepAliveStrategy,
                 targetAuthStrategy,
                 proxyAuthStrategy,
-                userTokenHandler);
+                userTokenHandler,
+                metrics);
 
         execChain = decorateMainExec(execChain);
 
@@ -840,7 +987,15 @@ public class HttpClientBuilder {
                 b.add(new ResponseProcessCookies());
             }
             if (!contentCompressionDisabled) {
-                b.add(new ResponseContentEncoding());
+                if (contentDecoderMap != null) {
+                    final RegistryBuilder<InputStreamFactory> decoderRegistry = RegistryBuilder.create();
+                    for (final Map.Entry<String, InputStreamFactory> entry: contentDecoderMap.entrySet()) {
+                        decoderRegistry.register(entry.getKey(), entry.getValue());
+                    }
+                    b.add(new ResponseContentEncoding(decoderRegistry.build()));
+                } else {
+                    b.add(new ResponseContentEncoding());
+                }
             }
             if (requestLast != null) {
                 for (final HttpRequestInterceptor i: requestLast) {
@@ -858,13 +1013,19 @@ public class HttpClientBuilder {
 
         execChain = decorateProtocolExec(execChain);
 
+        // Optionally, add request compression executor
+        final RequestCompressionStrategy requestCompressionStrategy = this.requestCompressionStrategy;
+        if (requestCompressionStrategy != null) {
+            execChain = new RequestCompressionExec(execChain, requestCompressionStrategy);
+        }
+
         // Add request retry executor, if not disabled
         if (!automaticRetriesDisabled) {
             HttpRequestRetryHandler retryHandler = this.retryHandler;
             if (retryHandler == null) {
                 retryHandler = DefaultHttpRequestRetryHandler.INSTANCE;
             }
-            execChain = new RetryExec(execChain, retryHandler);
+            execChain = new RetryExec(execChain, retryHandler, metrics);
         }
 
         HttpRoutePlanner routePlanner = this.routePlanner;
@@ -888,13 +1049,13 @@ public class HttpClientBuilder {
             if (redirectStrategy == null) {
                 redirectStrategy = DefaultRedirectStrategy.INSTANCE;
             }
-            execChain = new RedirectExec(execChain, routePlanner, redirectStrategy);
+            execChain = new RedirectExec(execChain, routePlanner, redirectStrategy, metrics);
         }
 
         // Optionally, add service unavailable retry executor
         final ServiceUnavailableRetryStrategy serviceUnavailStrategy = this.serviceUnavailStrategy;
         if (serviceUnavailStrategy != null) {
-            execChain = new ServiceUnavailableRetryExec(execChain, serviceUnavailStrategy);
+            execChain = new ServiceUnavailableRetryExec(execChain, serviceUnavailStrategy, metrics);
         }
         // Optionally, add connection back-off executor
         final BackoffManager backoffManager = this.backoffManager;
@@ -915,14 +1076,17 @@ public class HttpClientBuilder {
         }
         Lookup<CookieSpecProvider> cookieSpecRegistry = this.cookieSpecRegistry;
         if (cookieSpecRegistry == null) {
+            // Standard cookie specs are thread-safe and get created once per client
+            final CookieSpecProvider rfc2965 = new CachingCookieSpecProvider(new RFC2965SpecFactory());
             cookieSpecRegistry = RegistryBuilder.<CookieSpecProvider>create()
-                .register(CookieSpecs.BEST_MATCH, new BestMatchSpecFactory())
-                .register(CookieSpecs.STANDARD, new RFC2965SpecFactory())
-                .register(CookieSpecs.BROWSER_COMPATIBILITY, new BrowserCompatSpecFactory())
-                .register(CookieSpecs.NETSCAPE, new NetscapeDraftSpecFactory())
-                .register(CookieSpecs.IGNORE_COOKIES, new IgnoreSpecFactory())
-                .register("rfc2109", new RFC2109SpecFactory())
-                .register("rfc2965", new RFC2965SpecFactory())
+                .register(CookieSpecs.BEST_MATCH, new CachingCookieSpecProvider(new BestMatchSpecFactory()))
+                .register(CookieSpecs.STANDARD, rfc2965)
+                .register(CookieSpecs.BROWSER_COMPATIBILITY,
+                        new CachingCookieSpecProvider(new BrowserCompatSpecFactory()))
+                .register(CookieSpecs.NETSCAPE, new CachingCookieSpecProvider(new NetscapeDraftSpecFactory()))
+                .register(CookieSpecs.IGNORE_COOKIES, new CachingCookieSpecProvider(new IgnoreSpecFactory()))
+                .register("rfc2109", new CachingCookieSpecProvider(new RFC2109SpecFactory()))
+                .register("rfc2965", rfc2965)
                 .build();
         }
 
@@ -940,6 +1104,23 @@ public class HttpClientBuilder {
             }
         }
 
+        List<Closeable> closeablesCopy = closeables != null ? new ArrayList<Closeable>(closeables) : null;
+        if (evictExpiredConnections || evictIdleConnections) {
+            final IdleConnectionEvictor connectionEvictor = new IdleConnectionEvictor(connManager,
+                    evictIdleConnections ? maxIdleTime : 0, evictIdleConnections ? maxIdleTimeUnit : null);
+            if (closeablesCopy == null) {
+                closeablesCopy = new ArrayList<Closeable>(1);
+            }
+            closeablesCopy.add(new Closeable() {
+
+                public void close() throws IOException {
+                    connectionEvictor.shutdown();
+                }
+
+            });
+            connectionEvictor.start();
+        }
+
         return new InternalHttpClient(
                 execChain,
                 connManager,
@@ -948,8 +1129,10 @@ public class HttpClientBuilder {
                 authSchemeRegistry,
                 defaultCookieStore,
                 defaultCredentialsProvider,
+                this.authCache,
                 defaultRequestConfig != null ? defaultRequestConfig : RequestConfig.DEFAULT,
-                closeables != null ? new ArrayList<Closeable>(closeables) : null);
+                closeablesCopy,
+                metrics);
     }
 
 }
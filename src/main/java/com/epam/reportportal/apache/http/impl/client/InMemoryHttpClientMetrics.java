@@ -0,0 +1,188 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.impl.client;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.client.HttpClientMetrics;
+import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
+import com.epam.reportportal.apache.http.pool.ConcurrentHistogramRecorder;
+import com.epam.reportportal.apache.http.pool.ConnPoolControl;
+import com.epam.reportportal.apache.http.pool.Histogram;
+import com.epam.reportportal.apache.http.pool.PoolStats;
+
+/**
+ * {@link HttpClientMetrics} implementation that keeps per route
+ * distributions of timings and event counters in memory.
+ * <p/>
+ * Timings are kept in microseconds, consistent with the wait time
+ * distributions of {@link PoolStats}. Recording does not lock and, once
+ * a route has been seen, does not allocate.
+ *
+ * @since 4.4
+ */
+@ThreadSafe
+public class InMemoryHttpClientMetrics implements HttpClientMetrics {
+
+    private final ConcurrentMap<HttpRoute, RouteMetrics> routeMetrics;
+    private volatile ConnPoolControl<HttpRoute> pool;
+
+    public InMemoryHttpClientMetrics() {
+        super();
+        this.routeMetrics = new ConcurrentHashMap<HttpRoute, RouteMetrics>();
+    }
+
+    private RouteMetrics getRouteMetrics(final HttpRoute route) {
+        RouteMetrics metrics = this.routeMetrics.get(route);
+        if (metrics == null) {
+            metrics = new RouteMetrics();
+            final RouteMetrics existing = this.routeMetrics.putIfAbsent(route, metrics);
+            if (existing != null) {
+                metrics = existing;
+            }
+        }
+        return metrics;
+    }
+
+    private static long toMicros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    public void bindPool(final ConnPoolControl<HttpRoute> pool) {
+        this.pool = pool;
+    }
+
+    public void leaseCompleted(final HttpRoute route, final long waitTime) {
+        getRouteMetrics(route).leaseWaitTimes.record(toMicros(waitTime));
+    }
+
+    public void connectCompleted(final HttpRoute route, final long duration) {
+        getRouteMetrics(route).connectTimes.record(toMicros(duration));
+    }
+
+    public void handshakeCompleted(final HttpRoute route, final long duration) {
+        getRouteMetrics(route).handshakeTimes.record(toMicros(duration));
+    }
+
+    public void responseHeadReceived(final HttpRoute route, final long duration) {
+        getRouteMetrics(route).responseHeadTimes.record(toMicros(duration));
+    }
+
+    public void responseBodyCompleted(final HttpRoute route, final long duration) {
+        getRouteMetrics(route).responseBodyTimes.record(toMicros(duration));
+    }
+
+    public void requestRetried(final HttpRoute route) {
+        getRouteMetrics(route).retries.incrementAndGet();
+    }
+
+    public void requestRedirected(final HttpRoute route) {
+        getRouteMetrics(route).redirects.incrementAndGet();
+    }
+
+    /**
+     * Returns the routes metrics have been recorded for.
+     */
+    public Set<HttpRoute> getRoutes() {
+        return new HashSet<HttpRoute>(this.routeMetrics.keySet());
+    }
+
+    public Histogram getLeaseWaitTimes(final HttpRoute route) {
+        final RouteMetrics metrics = this.routeMetrics.get(route);
+        return metrics != null ? metrics.leaseWaitTimes.snapshot() : Histogram.EMPTY;
+    }
+
+    public Histogram getConnectTimes(final HttpRoute route) {
+        final RouteMetrics metrics = this.routeMetrics.get(route);
+        return metrics != null ? metrics.connectTimes.snapshot() : Histogram.EMPTY;
+    }
+
+    public Histogram getHandshakeTimes(final HttpRoute route) {
+        final RouteMetrics metrics = this.routeMetrics.get(route);
+        return metrics != null ? metrics.handshakeTimes.snapshot() : Histogram.EMPTY;
+    }
+
+    /**
+     * Returns the distribution of times to first byte.
+     */
+    public Histogram getResponseHeadTimes(final HttpRoute route) {
+        final RouteMetrics metrics = this.routeMetrics.get(route);
+        return metrics != null ? metrics.responseHeadTimes.snapshot() : Histogram.EMPTY;
+    }
+
+    public Histogram getResponseBodyTimes(final HttpRoute route) {
+        final RouteMetrics metrics = this.routeMetrics.get(route);
+        return metrics != null ? metrics.responseBodyTimes.snapshot() : Histogram.EMPTY;
+    }
+
+    public long getRetryCount(final HttpRoute route) {
+        final RouteMetrics metrics = this.routeMetrics.get(route);
+        return metrics != null ? metrics.retries.get() : 0;
+    }
+
+    public long getRedirectCount(final HttpRoute route) {
+        final RouteMetrics metrics = this.routeMetrics.get(route);
+        return metrics != null ? metrics.redirects.get() : 0;
+    }
+
+    /**
+     * Returns the current totals of the bound connection pool or
+     * <code>null</code> if no pool has been bound.
+     */
+    public PoolStats getTotalStats() {
+        final ConnPoolControl<HttpRoute> pool = this.pool;
+        return pool != null ? pool.getTotalStats() : null;
+    }
+
+    /**
+     * Returns the current statistics of the given route in the bound
+     * connection pool or <code>null</code> if no pool has been bound.
+     */
+    public PoolStats getStats(final HttpRoute route) {
+        final ConnPoolControl<HttpRoute> pool = this.pool;
+        return pool != null ? pool.getStats(route) : null;
+    }
+
+    static class RouteMetrics {
+
+        final ConcurrentHistogramRecorder leaseWaitTimes = new ConcurrentHistogramRecorder();
+        final ConcurrentHistogramRecorder connectTimes = new ConcurrentHistogramRecorder();
+        final ConcurrentHistogramRecorder handshakeTimes = new ConcurrentHistogramRecorder();
+        final ConcurrentHistogramRecorder responseHeadTimes = new ConcurrentHistogramRecorder();
+        final ConcurrentHistogramRecorder responseBodyTimes = new ConcurrentHistogramRecorder();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong redirects = new AtomicLong();
+
+    }
+
+}
@@ -35,8 +35,10 @@ import java.util.concurrent.TimeUnit;
 import com.epam.reportportal.apache.http.HttpException;
 import com.epam.reportportal.apache.http.HttpRequest;
 import com.epam.reportportal.apache.http.auth.AuthState;
+import com.epam.reportportal.apache.http.client.AuthCache;
 import com.epam.reportportal.apache.http.client.ClientProtocolException;
 import com.epam.reportportal.apache.http.client.CredentialsProvider;
+import com.epam.reportportal.apache.http.client.HttpClientMetrics;
 import com.epam.reportportal.apache.http.client.params.HttpClientParamConfig;
 import com.epam.reportportal.apache.http.config.Lookup;
 import com.epam.reportportal.apache.http.conn.HttpClientConnectionManager;
@@ -87,8 +89,10 @@ class InternalHttpClient extends CloseableHttpClient {
     private final Lookup<AuthSchemeProvider> authSchemeRegistry;
     private final CookieStore cookieStore;
     private final CredentialsProvider credentialsProvider;
+    private final AuthCache authCache;
     private final RequestConfig defaultConfig;
     private final List<Closeable> closeables;
+    private final HttpClientMetrics metrics;
 
     public InternalHttpClient(
             final ClientExecChain execChain,
@@ -100,6 +104,43 @@ class InternalHttpClient extends CloseableHttpClient {
             final CredentialsProvider credentialsProvider,
             final RequestConfig defaultConfig,
             final List<Closeable> closeables) {
+        this(execChain, connManager, routePlanner, cookieSpecRegistry, authSchemeRegistry,
+                cookieStore, credentialsProvider, defaultConfig, closeables, null);
+    }
+
+    /**
+     * @since 4.4
+     */
+    public InternalHttpClient(
+            final ClientExecChain execChain,
+            final HttpClientConnectionManager connManager,
+            final HttpRoutePlanner routePlanner,
+            final Lookup<CookieSpecProvider> cookieSpecRegistry,
+            final Lookup<AuthSchemeProvider> authSchemeRegistry,
+            final CookieStore cookieStore,
+            final CredentialsProvider credentialsProvider,
+            final RequestConfig defaultConfig,
+            final List<Closeable> closeables,
+            final HttpClientMetrics metrics) {
+        this(execChain, connManager, routePlanner, cookieSpecRegistry, authSchemeRegistry,
+                cookieStore, credentialsProvider, null, defaultConfig, closeables, metrics);
+    }
+
+    /**
+     * @since 4.4
+     */
+    public InternalHttpClient(
+            final ClientExecChain execChain,
+            final HttpClientConnectionManager connManager,
+            final HttpRoutePlanner routePlanner,
+            final Lookup<CookieSpecProvider> cookieSpecRegistry,
+            final Lookup<AuthSchemeProvider> authSchemeRegistry,
+            final CookieStore cookieStore,
+            final CredentialsProvider credentialsProvider,
+            final AuthCache authCache,
+            final RequestConfig defaultConfig,
+            final List<Closeable> closeables,
+            final HttpClientMetrics metrics) {
         super();
         Args.notNull(execChain, "HTTP client exec chain");
         Args.notNull(connManager, "HTTP connection manager");
@@ -111,8 +152,10 @@ class InternalHttpClient extends CloseableHttpClient {
         this.authSchemeRegistry = authSchemeRegistry;
         this.cookieStore = cookieStore;
         this.credentialsProvider = credentialsProvider;
+        this.authCache = authCache;
         this.defaultConfig = defaultConfig;
         this.closeables = closeables;
+        this.metrics = metrics;
     }
 
     private HttpRoute determineRoute(
@@ -146,9 +189,15 @@ class InternalHttpClient extends CloseableHttpClient {
         if (context.getAttribute(HttpClientContext.CREDS_PROVIDER) == null) {
             context.setAttribute(HttpClientContext.CREDS_PROVIDER, this.credentialsProvider);
         }
+        if (this.authCache != null && context.getAttribute(HttpClientContext.AUTH_CACHE) == null) {
+            context.setAttribute(HttpClientContext.AUTH_CACHE, this.authCache);
+        }
         if (context.getAttribute(HttpClientContext.REQUEST_CONFIG) == null) {
             context.setAttribute(HttpClientContext.REQUEST_CONFIG, this.defaultConfig);
         }
+        if (this.metrics != null && context.getAttribute(HttpClientContext.METRICS) == null) {
+            context.setAttribute(HttpClientContext.METRICS, this.metrics);
+        }
     }
 
     @Override
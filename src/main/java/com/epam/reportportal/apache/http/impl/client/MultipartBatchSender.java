@@ -0,0 +1,358 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.epam.reportportal.apache.http.annotation.GuardedBy;
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.client.HttpClient;
+import com.epam.reportportal.apache.http.client.ResponseHandler;
+import com.epam.reportportal.apache.http.client.methods.HttpPost;
+import com.epam.reportportal.apache.http.concurrent.BasicFuture;
+import com.epam.reportportal.apache.http.concurrent.FutureCallback;
+import com.epam.reportportal.apache.http.entity.mime.FormBodyPart;
+import com.epam.reportportal.apache.http.entity.mime.HttpMultipartMode;
+import com.epam.reportportal.apache.http.entity.mime.MultipartEntityBuilder;
+import com.epam.reportportal.apache.http.util.Args;
+import com.epam.reportportal.apache.http.util.Asserts;
+
+/**
+ * Accumulates multipart {@link FormBodyPart}s and sends them in batches as
+ * <code>multipart/form-data</code> POST requests to a fixed URI.
+ * <p/>
+ * A batch is sent as soon as it holds the maximum number of parts, when adding
+ * another part would take the combined content length of the parts over the
+ * byte budget, or when the linger time has elapsed since the first part was
+ * added to the batch, whichever comes first. Parts of unknown length are
+ * counted as using up the whole byte budget. Up to the given number of batches
+ * are sent concurrently; {@link #add(FormBodyPart, FutureCallback)} blocks
+ * while that many batches are in flight.
+ * <p/>
+ * The response to a batch is processed with the given {@link ResponseHandler}
+ * and its result completes the future and the callback of every part of the
+ * batch. If the batch fails all of its parts fail with the same exception.
+ * Parts cancelled before their batch has been sent are left out of the batch.
+ * <p/>
+ * The batch sender does not close the {@link HttpClient} it uses.
+ *
+ * @param <T> the result type of the response handler.
+ *
+ * @since 4.4
+ */
+@ThreadSafe
+public class MultipartBatchSender<T> implements Closeable {
+
+    private final HttpClient httpclient;
+    private final URI uri;
+    private final ResponseHandler<? extends T> responseHandler;
+    private final HttpMultipartMode mode;
+    private final int maxBatchParts;
+    private final long maxBatchSize;
+    private final long lingerTimeMs;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Object lock;
+
+    @GuardedBy("lock")
+    private List<Entry<T>> batch;
+    @GuardedBy("lock")
+    private long batchSize;
+    @GuardedBy("lock")
+    private ScheduledFuture<?> lingerTask;
+    @GuardedBy("lock")
+    private boolean closed;
+
+    /**
+     * Creates a batch sender.
+     *
+     * @param httpclient the client to execute batch requests with.
+     * @param uri the URI batch requests are posted to.
+     * @param responseHandler the handler to process batch responses with.
+     * @param mode the multipart mode of batch requests. If <code>null</code>
+     *   {@link HttpMultipartMode#STRICT} is used.
+     * @param maxBatchParts maximum number of parts in a batch.
+     * @param maxBatchSize maximum combined content length of the parts
+     *   in a batch. A single part larger than that is sent on its own.
+     * @param lingerTime maximum time a part waits for its batch to fill up.
+     * @param lingerTimeUnit the time unit of the linger time.
+     * @param maxConcurrentBatches maximum number of batches being sent
+     *   at the same time.
+     */
+    public MultipartBatchSender(
+            final HttpClient httpclient,
+            final URI uri,
+            final ResponseHandler<? extends T> responseHandler,
+            final HttpMultipartMode mode,
+            final int maxBatchParts,
+            final long maxBatchSize,
+            final long lingerTime,
+            final TimeUnit lingerTimeUnit,
+            final int maxConcurrentBatches) {
+        super();
+        this.httpclient = Args.notNull(httpclient, "HTTP client");
+        this.uri = Args.notNull(uri, "URI");
+        this.responseHandler = Args.notNull(responseHandler, "Response handler");
+        this.mode = mode != null ? mode : HttpMultipartMode.STRICT;
+        this.maxBatchParts = Args.positive(maxBatchParts, "Max batch parts");
+        this.maxBatchSize = Args.positive(maxBatchSize, "Max batch size");
+        Args.notNull(lingerTimeUnit, "Linger time unit");
+        this.lingerTimeMs = Args.notNegative(lingerTimeUnit.toMillis(lingerTime), "Linger time");
+        Args.positive(maxConcurrentBatches, "Max concurrent batches");
+        this.permits = new Semaphore(maxConcurrentBatches);
+        final ThreadFactory threadFactory = new ThreadFactory() {
+
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "Multipart batch sender");
+                thread.setDaemon(true);
+                return thread;
+            }
+
+        };
+        this.executor = Executors.newFixedThreadPool(maxConcurrentBatches, threadFactory);
+        this.scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.lock = new Object();
+        this.batch = new ArrayList<Entry<T>>();
+    }
+
+    /**
+     * Creates a batch sender for {@link HttpMultipartMode#STRICT} multipart
+     * requests that sends one batch at a time.
+     */
+    public MultipartBatchSender(
+            final HttpClient httpclient,
+            final URI uri,
+            final ResponseHandler<? extends T> responseHandler,
+            final int maxBatchParts,
+            final long maxBatchSize,
+            final long lingerTime,
+            final TimeUnit lingerTimeUnit) {
+        this(httpclient, uri, responseHandler, null,
+                maxBatchParts, maxBatchSize, lingerTime, lingerTimeUnit, 1);
+    }
+
+    /**
+     * Adds the part to the current batch.
+     *
+     * @param part the part to send.
+     * @param callback optional callback to notify once the batch the part
+     *   belongs to has been sent; use <code>null</code> if not needed.
+     * @return the future result of the batch the part belongs to.
+     * @throws IllegalStateException if the batch sender has been closed.
+     */
+    public Future<T> add(final FormBodyPart part, final FutureCallback<T> callback) {
+        Args.notNull(part, "Body part");
+        final long len = part.getBody().getContentLength();
+        final long size = len >= 0 ? len : this.maxBatchSize;
+        final Entry<T> entry = new Entry<T>(part, new BasicFuture<T>(callback));
+        List<Entry<T>> previous = null;
+        List<Entry<T>> current = null;
+        synchronized (this.lock) {
+            Asserts.check(!this.closed, "Batch sender is closed");
+            if (!this.batch.isEmpty() && this.batchSize + size > this.maxBatchSize) {
+                previous = takeBatch();
+            }
+            this.batch.add(entry);
+            this.batchSize += size;
+            if (this.batch.size() >= this.maxBatchParts || this.batchSize >= this.maxBatchSize) {
+                current = takeBatch();
+            } else if (this.batch.size() == 1) {
+                final List<Entry<T>> lingering = this.batch;
+                this.lingerTask = this.scheduler.schedule(new Runnable() {
+
+                    public void run() {
+                        flush(lingering);
+                    }
+
+                }, this.lingerTimeMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (previous != null) {
+            dispatch(previous);
+        }
+        if (current != null) {
+            dispatch(current);
+        }
+        return entry.future;
+    }
+
+    /**
+     * Adds the part to the current batch.
+     *
+     * @see #add(FormBodyPart, FutureCallback)
+     */
+    public Future<T> add(final FormBodyPart part) {
+        return add(part, null);
+    }
+
+    /**
+     * Sends the current batch without waiting for it to fill up.
+     */
+    public void flush() {
+        flush(null);
+    }
+
+    private void flush(final List<Entry<T>> expected) {
+        final List<Entry<T>> entries;
+        synchronized (this.lock) {
+            if (this.batch.isEmpty() || (expected != null && expected != this.batch)) {
+                return;
+            }
+            entries = takeBatch();
+        }
+        dispatch(entries);
+    }
+
+    @GuardedBy("lock")
+    private List<Entry<T>> takeBatch() {
+        final List<Entry<T>> entries = this.batch;
+        this.batch = new ArrayList<Entry<T>>();
+        this.batchSize = 0;
+        if (this.lingerTask != null) {
+            this.lingerTask.cancel(false);
+            this.lingerTask = null;
+        }
+        return entries;
+    }
+
+    private void dispatch(final List<Entry<T>> entries) {
+        try {
+            this.permits.acquire();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            fail(entries, new InterruptedIOException());
+            return;
+        }
+        try {
+            this.executor.execute(new Runnable() {
+
+                public void run() {
+                    try {
+                        send(entries);
+                    } finally {
+                        permits.release();
+                    }
+                }
+
+            });
+        } catch (final RejectedExecutionException ex) {
+            this.permits.release();
+            fail(entries, ex);
+        }
+    }
+
+    private void send(final List<Entry<T>> entries) {
+        final MultipartEntityBuilder builder = MultipartEntityBuilder.create()
+                .setMode(this.mode)
+                .setStreaming(true);
+        final List<Entry<T>> sending = new ArrayList<Entry<T>>(entries.size());
+        for (final Entry<T> entry: entries) {
+            if (!entry.future.isCancelled()) {
+                builder.addPart(entry.part);
+                sending.add(entry);
+            }
+        }
+        if (sending.isEmpty()) {
+            return;
+        }
+        final HttpPost post = new HttpPost(this.uri);
+        post.setEntity(builder.build());
+        final T result;
+        try {
+            result = this.httpclient.execute(post, this.responseHandler);
+        } catch (final IOException ex) {
+            fail(sending, ex);
+            return;
+        } catch (final RuntimeException ex) {
+            fail(sending, ex);
+            return;
+        }
+        for (final Entry<T> entry: sending) {
+            entry.future.completed(result);
+        }
+    }
+
+    private static <T> void fail(final List<Entry<T>> entries, final Exception ex) {
+        for (final Entry<T> entry: entries) {
+            entry.future.failed(ex);
+        }
+    }
+
+    /**
+     * Sends the current batch and waits for all batches to be sent.
+     * No parts may be added once the batch sender has been closed.
+     */
+    public void close() throws IOException {
+        synchronized (this.lock) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+        }
+        this.scheduler.shutdown();
+        try {
+            this.scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            flush();
+            this.executor.shutdown();
+            this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    static class Entry<T> {
+
+        final FormBodyPart part;
+        final BasicFuture<T> future;
+
+        Entry(final FormBodyPart part, final BasicFuture<T> future) {
+            this.part = part;
+            this.future = future;
+        }
+
+    }
+
+}
@@ -99,4 +99,18 @@ class CPoolEntry extends PoolEntry<HttpRoute, ManagedHttpClientConnection> {
         }
     }
 
+    @Override
+    public void closeAvailable() {
+        final ManagedHttpClientConnection conn = getConnection();
+        if (!(conn instanceof DefaultManagedHttpClientConnection)) {
+            close();
+            return;
+        }
+        try {
+            ((DefaultManagedHttpClientConnection) conn).closeAndRecycle();
+        } catch (final IOException ex) {
+            this.log.debug("I/O error closing connection", ex);
+        }
+    }
+
 }
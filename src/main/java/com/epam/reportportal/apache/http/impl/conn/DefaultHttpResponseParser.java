@@ -64,6 +64,7 @@ public class DefaultHttpResponseParser extends AbstractMessageParser<HttpRespons
 
     private final HttpResponseFactory responseFactory;
     private final CharArrayBuffer lineBuf;
+    private final ParserCursor cursor;
 
     /**
      * @deprecated (4.3) use {@link DefaultHttpResponseParser#DefaultHttpResponseParser(
@@ -79,6 +80,7 @@ public class DefaultHttpResponseParser extends AbstractMessageParser<HttpRespons
         Args.notNull(responseFactory, "Response factory");
         this.responseFactory = responseFactory;
         this.lineBuf = new CharArrayBuffer(128);
+        this.cursor = new ParserCursor(0, 0);
     }
 
     /**
@@ -103,6 +105,7 @@ public class DefaultHttpResponseParser extends AbstractMessageParser<HttpRespons
         this.responseFactory = responseFactory != null ? responseFactory :
                 DefaultHttpResponseFactory.INSTANCE;
         this.lineBuf = new CharArrayBuffer(128);
+        this.cursor = new ParserCursor(0, 0);
     }
 
     /**
@@ -135,7 +138,7 @@ public class DefaultHttpResponseParser extends AbstractMessageParser<HttpRespons
             final SessionInputBuffer sessionBuffer) throws IOException, HttpException {
         //read out the HTTP status string
         int count = 0;
-        ParserCursor cursor = null;
+        final ParserCursor cursor = this.cursor;
         do {
             // clear the buffer
             this.lineBuf.clear();
@@ -144,7 +147,7 @@ public class DefaultHttpResponseParser extends AbstractMessageParser<HttpRespons
                 // The server just dropped connection on us
                 throw new NoHttpResponseException("The target server failed to respond");
             }
-            cursor = new ParserCursor(0, this.lineBuf.length());
+            cursor.reset(0, this.lineBuf.length());
             if (lineParser.hasProtocolVersion(this.lineBuf, cursor)) {
                 // Got one
                 break;
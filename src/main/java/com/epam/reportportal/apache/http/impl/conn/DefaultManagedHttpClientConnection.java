@@ -28,7 +28,9 @@
 package com.epam.reportportal.apache.http.impl.conn;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.Socket;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
@@ -45,6 +47,8 @@ import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
 import com.epam.reportportal.apache.http.conn.ManagedHttpClientConnection;
 import com.epam.reportportal.apache.http.entity.ContentLengthStrategy;
 import com.epam.reportportal.apache.http.impl.DefaultBHttpClientConnection;
+import com.epam.reportportal.apache.http.impl.io.SocketChannelTransport;
+import com.epam.reportportal.apache.http.io.BufferRecycler;
 import com.epam.reportportal.apache.http.io.HttpMessageParserFactory;
 import com.epam.reportportal.apache.http.io.HttpMessageWriterFactory;
 import com.epam.reportportal.apache.http.protocol.HttpContext;
@@ -59,9 +63,19 @@ public class DefaultManagedHttpClientConnection extends DefaultBHttpClientConnec
 
     private final String id;
     private final Map<String, Object> attributes;
+    private final int buffersize;
+    private final boolean channelTransport;
 
     private volatile boolean shutdown;
-
+    private volatile SocketChannelTransport transport;
+
+    /**
+     * @param channelTransport if <code>true</code> sockets backed by
+     *   a {@link java.nio.channels.SocketChannel} are read from and written
+     *   to through a {@link SocketChannelTransport}.
+     *
+     * @since 4.4
+     */
     public DefaultManagedHttpClientConnection(
             final String id,
             final int buffersize,
@@ -72,12 +86,52 @@ public class DefaultManagedHttpClientConnection extends DefaultBHttpClientConnec
             final ContentLengthStrategy incomingContentStrategy,
             final ContentLengthStrategy outgoingContentStrategy,
             final HttpMessageWriterFactory<HttpRequest> requestWriterFactory,
-            final HttpMessageParserFactory<HttpResponse> responseParserFactory) {
+            final HttpMessageParserFactory<HttpResponse> responseParserFactory,
+            final BufferRecycler recycler,
+            final boolean channelTransport) {
         super(buffersize, fragmentSizeHint, chardecoder, charencoder,
                 constraints, incomingContentStrategy, outgoingContentStrategy,
-                requestWriterFactory, responseParserFactory);
+                requestWriterFactory, responseParserFactory, recycler);
         this.id = id;
         this.attributes = new ConcurrentHashMap<String, Object>();
+        this.buffersize = buffersize;
+        this.channelTransport = channelTransport;
+    }
+
+    /**
+     * @since 4.4
+     */
+    public DefaultManagedHttpClientConnection(
+            final String id,
+            final int buffersize,
+            final int fragmentSizeHint,
+            final CharsetDecoder chardecoder,
+            final CharsetEncoder charencoder,
+            final MessageConstraints constraints,
+            final ContentLengthStrategy incomingContentStrategy,
+            final ContentLengthStrategy outgoingContentStrategy,
+            final HttpMessageWriterFactory<HttpRequest> requestWriterFactory,
+            final HttpMessageParserFactory<HttpResponse> responseParserFactory,
+            final BufferRecycler recycler) {
+        this(id, buffersize, fragmentSizeHint, chardecoder, charencoder,
+                constraints, incomingContentStrategy, outgoingContentStrategy,
+                requestWriterFactory, responseParserFactory, recycler, false);
+    }
+
+    public DefaultManagedHttpClientConnection(
+            final String id,
+            final int buffersize,
+            final int fragmentSizeHint,
+            final CharsetDecoder chardecoder,
+            final CharsetEncoder charencoder,
+            final MessageConstraints constraints,
+            final ContentLengthStrategy incomingContentStrategy,
+            final ContentLengthStrategy outgoingContentStrategy,
+            final HttpMessageWriterFactory<HttpRequest> requestWriterFactory,
+            final HttpMessageParserFactory<HttpResponse> responseParserFactory) {
+        this(id, buffersize, fragmentSizeHint, chardecoder, charencoder,
+                constraints, incomingContentStrategy, outgoingContentStrategy,
+                requestWriterFactory, responseParserFactory, null);
     }
 
     public DefaultManagedHttpClientConnection(
@@ -93,7 +147,33 @@ public class DefaultManagedHttpClientConnection extends DefaultBHttpClientConnec
     @Override
     public void shutdown() throws IOException {
         this.shutdown = true;
-        super.shutdown();
+        try {
+            super.shutdown();
+        } finally {
+            closeTransport();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            closeTransport();
+        }
+    }
+
+    /**
+     * Closes this connection and returns its session buffers to the buffer
+     * recycler. Must only be called while no other thread can be using
+     * the connection, that is to say while it is not leased from the pool.
+     */
+    void closeAndRecycle() throws IOException {
+        try {
+            close();
+        } finally {
+            releaseBuffers();
+        }
     }
 
     public Object getAttribute(final String id) {
@@ -115,9 +195,45 @@ public class DefaultManagedHttpClientConnection extends DefaultBHttpClientConnec
             // ...but if it doesn't, explicitly throw one ourselves.
             throw new InterruptedIOException("Connection already shutdown");
         }
+        final SocketChannelTransport current = this.transport;
+        if (current != null && current.getChannel() != socket.getChannel()) {
+            closeTransport();
+        }
         super.bind(socket);
     }
 
+    @Override
+    protected InputStream getSocketInputStream(final Socket socket) throws IOException {
+        final SocketChannelTransport t = getTransport(socket);
+        return t != null ? t.getInputStream() : super.getSocketInputStream(socket);
+    }
+
+    @Override
+    protected OutputStream getSocketOutputStream(final Socket socket) throws IOException {
+        final SocketChannelTransport t = getTransport(socket);
+        return t != null ? t.getOutputStream() : super.getSocketOutputStream(socket);
+    }
+
+    private SocketChannelTransport getTransport(final Socket socket) throws IOException {
+        if (!this.channelTransport || socket.getChannel() == null) {
+            return null;
+        }
+        SocketChannelTransport t = this.transport;
+        if (t == null) {
+            t = new SocketChannelTransport(socket, this.buffersize);
+            this.transport = t;
+        }
+        return t;
+    }
+
+    private void closeTransport() throws IOException {
+        final SocketChannelTransport t = this.transport;
+        if (t != null) {
+            this.transport = null;
+            t.close();
+        }
+    }
+
     @Override
     public Socket getSocket() {
         return super.getSocket();
@@ -35,6 +35,7 @@ import org.apache.commons.logging.Log;
 import com.epam.reportportal.apache.http.HttpRequest;
 import com.epam.reportportal.apache.http.HttpResponse;
 import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
+import com.epam.reportportal.apache.http.io.BufferRecycler;
 import com.epam.reportportal.apache.http.io.HttpMessageParserFactory;
 import com.epam.reportportal.apache.http.io.HttpMessageWriterFactory;
 
@@ -65,10 +66,12 @@ class LoggingManagedHttpClientConnection extends DefaultManagedHttpClientConnect
             final ContentLengthStrategy incomingContentStrategy,
             final ContentLengthStrategy outgoingContentStrategy,
             final HttpMessageWriterFactory<HttpRequest> requestWriterFactory,
-            final HttpMessageParserFactory<HttpResponse> responseParserFactory) {
+            final HttpMessageParserFactory<HttpResponse> responseParserFactory,
+            final BufferRecycler recycler,
+            final boolean channelTransport) {
         super(id, buffersize, fragmentSizeHint, chardecoder, charencoder,
                 constraints, incomingContentStrategy, outgoingContentStrategy,
-                requestWriterFactory, responseParserFactory);
+                requestWriterFactory, responseParserFactory, recycler, channelTransport);
         this.log = log;
         this.headerlog = headerlog;
         this.wire = new Wire(wirelog, id);
@@ -44,6 +44,7 @@ import org.apache.commons.logging.LogFactory;
 import com.epam.reportportal.apache.http.HttpResponse;
 import com.epam.reportportal.apache.http.annotation.Immutable;
 import com.epam.reportportal.apache.http.conn.ManagedHttpClientConnection;
+import com.epam.reportportal.apache.http.io.BufferRecycler;
 import com.epam.reportportal.apache.http.io.HttpMessageParserFactory;
 import com.epam.reportportal.apache.http.io.HttpMessageWriterFactory;
 
@@ -65,15 +66,40 @@ public class ManagedHttpClientConnectionFactory
 
     private final HttpMessageWriterFactory<HttpRequest> requestWriterFactory;
     private final HttpMessageParserFactory<HttpResponse> responseParserFactory;
+    private final BufferRecycler recycler;
 
+    /**
+     * Creates new instance of ManagedHttpClientConnectionFactory.
+     *
+     * @param requestWriterFactory request writer factory. If <code>null</code>
+     *   {@link DefaultHttpRequestWriterFactory#INSTANCE} will be used.
+     * @param responseParserFactory response parser factory. If <code>null</code>
+     *   {@link DefaultHttpResponseParserFactory#INSTANCE} will be used.
+     * @param recycler buffer recycler shared by all connections created by this
+     *   factory. Connections acquire their session buffers from the recycler
+     *   when bound and return them once closed by the connection pool while
+     *   not leased. If <code>null</code> each
+     *   connection allocates its own buffers.
+     *
+     * @see com.epam.reportportal.apache.http.impl.io.BoundedBufferRecycler
+     * @since 4.4
+     */
     public ManagedHttpClientConnectionFactory(
             final HttpMessageWriterFactory<HttpRequest> requestWriterFactory,
-            final HttpMessageParserFactory<HttpResponse> responseParserFactory) {
+            final HttpMessageParserFactory<HttpResponse> responseParserFactory,
+            final BufferRecycler recycler) {
         super();
         this.requestWriterFactory = requestWriterFactory != null ? requestWriterFactory :
             DefaultHttpRequestWriterFactory.INSTANCE;
         this.responseParserFactory = responseParserFactory != null ? responseParserFactory :
             DefaultHttpResponseParserFactory.INSTANCE;
+        this.recycler = recycler;
+    }
+
+    public ManagedHttpClientConnectionFactory(
+            final HttpMessageWriterFactory<HttpRequest> requestWriterFactory,
+            final HttpMessageParserFactory<HttpResponse> responseParserFactory) {
+        this(requestWriterFactory, responseParserFactory, null);
     }
 
     public ManagedHttpClientConnectionFactory(
@@ -102,6 +128,9 @@ public class ManagedHttpClientConnectionFactory
             charencoder.onMalformedInput(malformedInputAction);
             charencoder.onUnmappableCharacter(unmappableInputAction);
         }
+        // Sockets layered over a tunnel need the plain socket in blocking mode
+        final boolean channelTransport = cconfig.isChannelTransport()
+                && (route == null || (!route.isTunnelled() && !route.isLayered()));
         final String id = "http-outgoing-" + Long.toString(COUNTER.getAndIncrement());
         return new LoggingManagedHttpClientConnection(
                 id,
@@ -116,7 +145,9 @@ public class ManagedHttpClientConnectionFactory
                 null,
                 null,
                 requestWriterFactory,
-                responseParserFactory);
+                responseParserFactory,
+                recycler,
+                channelTransport);
     }
 
 }
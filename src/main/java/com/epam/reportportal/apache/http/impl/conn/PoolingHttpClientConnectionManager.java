@@ -31,10 +31,16 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.epam.reportportal.apache.http.HttpClientConnection;
 import com.epam.reportportal.apache.http.config.ConnectionConfig;
@@ -50,6 +56,8 @@ import org.apache.commons.logging.LogFactory;
 
 import com.epam.reportportal.apache.http.HttpHost;
 import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.concurrent.BasicFuture;
+import com.epam.reportportal.apache.http.concurrent.FutureCallback;
 import com.epam.reportportal.apache.http.config.Registry;
 import com.epam.reportportal.apache.http.conn.ConnectionPoolTimeoutException;
 import com.epam.reportportal.apache.http.conn.ConnectionRequest;
@@ -61,7 +69,10 @@ import com.epam.reportportal.apache.http.conn.socket.ConnectionSocketFactory;
 import com.epam.reportportal.apache.http.conn.socket.PlainConnectionSocketFactory;
 import com.epam.reportportal.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import com.epam.reportportal.apache.http.pool.ConnPoolControl;
+import com.epam.reportportal.apache.http.pool.ManagedConnPool;
+import com.epam.reportportal.apache.http.pool.PoolConcurrencyPolicy;
 import com.epam.reportportal.apache.http.pool.PoolStats;
+import com.epam.reportportal.apache.http.protocol.BasicHttpContext;
 import com.epam.reportportal.apache.http.protocol.HttpContext;
 import com.epam.reportportal.apache.http.util.Args;
 
@@ -80,6 +91,21 @@ import com.epam.reportportal.apache.http.util.Args;
  * these limits may prove too constraining, especially if they use HTTP
  * as a transport protocol for their services. Connection limits, however,
  * can be adjusted using {@link ConnPoolControl} methods.
+ * <p/>
+ * By default all pool operations are serialized by a single pool-wide lock.
+ * Applications executing requests from many threads against a small number
+ * of routes may reduce lock contention by choosing
+ * {@link PoolConcurrencyPolicy#PER_ROUTE_LOCK}.
+ * <p/>
+ * Connections can be opened ahead of the first request with
+ * {@link #prewarm(HttpRoute, int)}. Routes given a minimum number of idle
+ * connections with {@link #setMinIdlePerRoute(HttpRoute, int)} are kept
+ * topped up by a background daemon thread, which is stopped when
+ * the manager is shut down.
+ * <p/>
+ * Connections idle longer than the period set with
+ * {@link #setValidateAfterInactivity(int)} are checked for being stale
+ * before they are leased.
  *
  * @since 4.3
  */
@@ -89,9 +115,24 @@ public class PoolingHttpClientConnectionManager
 
     private final Log log = LogFactory.getLog(getClass());
 
+    /**
+     * Connect timeout used for connections opened ahead of requests.
+     */
+    private static final int PREWARM_CONNECT_TIMEOUT = 10000;
+
+    /**
+     * Interval at which routes are checked for their minimum number
+     * of idle connections.
+     */
+    private static final long MIN_IDLE_CHECK_INTERVAL = 1000;
+
     private final ConfigData configData;
-    private final CPool pool;
+    private final ManagedConnPool<HttpRoute, CPoolEntry> pool;
     private final HttpClientConnectionOperator connectionOperator;
+    private final ConcurrentMap<HttpRoute, Integer> minIdlePerRoute;
+
+    private volatile int validateAfterInactivity;
+    private ScheduledExecutorService maintainer;
 
     private static Registry<ConnectionSocketFactory> getDefaultRegistry() {
         return RegistryBuilder.<ConnectionSocketFactory>create()
@@ -143,16 +184,36 @@ public class PoolingHttpClientConnectionManager
             final SchemePortResolver schemePortResolver,
             final DnsResolver dnsResolver,
             final long timeToLive, final TimeUnit tunit) {
+        this(socketFactoryRegistry, connFactory, schemePortResolver, dnsResolver, timeToLive, tunit,
+                PoolConcurrencyPolicy.GLOBAL_LOCK);
+    }
+
+    /**
+     * @since 4.4
+     */
+    public PoolingHttpClientConnectionManager(
+            final Registry<ConnectionSocketFactory> socketFactoryRegistry,
+            final HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> connFactory,
+            final SchemePortResolver schemePortResolver,
+            final DnsResolver dnsResolver,
+            final long timeToLive, final TimeUnit tunit,
+            final PoolConcurrencyPolicy poolConcurrencyPolicy) {
         super();
         this.configData = new ConfigData();
-        this.pool = new CPool(
-                new InternalConnectionFactory(this.configData, connFactory), 2, 20, timeToLive, tunit);
+        final InternalConnectionFactory internalConnFactory = new InternalConnectionFactory(
+                this.configData, connFactory);
+        if (poolConcurrencyPolicy == PoolConcurrencyPolicy.PER_ROUTE_LOCK) {
+            this.pool = new CStripedPool(internalConnFactory, 2, 20, timeToLive, tunit);
+        } else {
+            this.pool = new CPool(internalConnFactory, 2, 20, timeToLive, tunit);
+        }
         this.connectionOperator = new HttpClientConnectionOperator(
                 socketFactoryRegistry, schemePortResolver, dnsResolver);
+        this.minIdlePerRoute = new ConcurrentHashMap<HttpRoute, Integer>();
     }
 
     PoolingHttpClientConnectionManager(
-            final CPool pool,
+            final ManagedConnPool<HttpRoute, CPoolEntry> pool,
             final Lookup<ConnectionSocketFactory> socketFactoryRegistry,
             final SchemePortResolver schemePortResolver,
             final DnsResolver dnsResolver) {
@@ -161,6 +222,7 @@ public class PoolingHttpClientConnectionManager
         this.pool = pool;
         this.connectionOperator = new HttpClientConnectionOperator(
                 socketFactoryRegistry, schemePortResolver, dnsResolver);
+        this.minIdlePerRoute = new ConcurrentHashMap<HttpRoute, Integer>();
     }
 
     @Override
@@ -218,20 +280,127 @@ public class PoolingHttpClientConnectionManager
         final Future<CPoolEntry> future = this.pool.lease(route, state, null);
         return new ConnectionRequest() {
 
+            private volatile Future<CPoolEntry> current = future;
+
             public boolean cancel() {
-                return future.cancel(true);
+                return this.current.cancel(true);
             }
 
             public HttpClientConnection get(
                     final long timeout,
                     final TimeUnit tunit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
-                return leaseConnection(future, timeout, tunit);
+                final long deadline = timeout > 0 ? System.currentTimeMillis() + tunit.toMillis(timeout) : 0;
+                HttpClientConnection conn = leaseConnection(this.current, timeout, tunit);
+                while (isStale(conn)) {
+                    discard(conn);
+                    final long remaining = timeout > 0 ? deadline - System.currentTimeMillis() : 0;
+                    if (timeout > 0 && remaining <= 0) {
+                        throw new ConnectionPoolTimeoutException("Timeout waiting for connection from pool");
+                    }
+                    this.current = pool.lease(route, state, null);
+                    conn = leaseConnection(this.current, remaining, TimeUnit.MILLISECONDS);
+                }
+                return conn;
             }
 
         };
 
     }
 
+    /**
+     * Requests a connection for the given route without requiring a thread
+     * to block until one becomes available. The request is queued along with
+     * blocking ones and the callback is notified as soon as a connection is
+     * released to the pool or created for it. The callback is invoked by
+     * the thread that makes the connection available once that thread has
+     * released the pool lock. It may lease and release connections itself,
+     * but should hand the connection off rather than use it in place.
+     * <p/>
+     * Connections that have been idle longer than the
+     * {@link #setValidateAfterInactivity(int) validate-after-inactivity} period
+     * are checked before being handed to the callback, just like for blocking
+     * requests. A stale connection is discarded and the request is queued
+     * again; the check is made by the thread completing the request.
+     * <p/>
+     * Cancelling the returned request withdraws it from the pool.
+     * {@link ConnectionRequest#get(long, TimeUnit)} can still be used to wait
+     * for the connection; a timeout cancels the request.
+     *
+     * @since 4.4
+     */
+    public ConnectionRequest requestConnection(
+            final HttpRoute route,
+            final Object state,
+            final FutureCallback<HttpClientConnection> callback) {
+        Args.notNull(route, "HTTP route");
+        if (this.log.isDebugEnabled()) {
+            this.log.debug("Async connection request: " + format(route, state) + formatStats(route));
+        }
+        final BasicFuture<HttpClientConnection> connFuture = new BasicFuture<HttpClientConnection>(callback);
+        final AtomicReference<Future<CPoolEntry>> current = new AtomicReference<Future<CPoolEntry>>();
+        final AtomicBoolean cancelRequested = new AtomicBoolean();
+        current.set(this.pool.leaseAsync(route, state, new FutureCallback<CPoolEntry>() {
+
+            public void completed(final CPoolEntry entry) {
+                final HttpClientConnection conn = CPoolProxy.newProxy(entry);
+                if (isStale(conn)) {
+                    discard(conn);
+                    if (cancelRequested.get()) {
+                        connFuture.cancel();
+                        return;
+                    }
+                    final Future<CPoolEntry> next = pool.leaseAsync(route, state, this);
+                    current.set(next);
+                    // The request may have been cancelled while being queued again
+                    if (cancelRequested.get()) {
+                        next.cancel(true);
+                    }
+                    return;
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Connection leased: " + format(entry) + formatStats(entry.getRoute()));
+                }
+                connFuture.completed(conn);
+            }
+
+            public void failed(final Exception ex) {
+                connFuture.failed(ex);
+            }
+
+            public void cancelled() {
+                connFuture.cancel();
+            }
+
+        }));
+        return new ConnectionRequest() {
+
+            public boolean cancel() {
+                cancelRequested.set(true);
+                return current.get().cancel(true);
+            }
+
+            public HttpClientConnection get(
+                    final long timeout,
+                    final TimeUnit tunit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                HttpClientConnection conn;
+                try {
+                    conn = timeout > 0 ? connFuture.get(timeout, tunit) : connFuture.get();
+                } catch (final TimeoutException ex) {
+                    if (cancel()) {
+                        throw new ConnectionPoolTimeoutException("Timeout waiting for connection from pool");
+                    }
+                    // Completed while timing out
+                    conn = connFuture.get();
+                }
+                if (conn == null || connFuture.isCancelled()) {
+                    throw new InterruptedException();
+                }
+                return conn;
+            }
+
+        };
+    }
+
     protected HttpClientConnection leaseConnection(
             final Future<CPoolEntry> future,
             final long timeout,
@@ -252,6 +421,42 @@ public class PoolingHttpClientConnectionManager
         }
     }
 
+    /**
+     * Determines whether a leased connection that has been idle longer than
+     * the validate-after-inactivity period has gone stale.
+     */
+    private boolean isStale(final HttpClientConnection managedConn) {
+        final int period = this.validateAfterInactivity;
+        if (period <= 0) {
+            return false;
+        }
+        final CPoolEntry entry;
+        synchronized (managedConn) {
+            entry = CPoolProxy.getPoolEntry(managedConn);
+        }
+        final ManagedHttpClientConnection conn = entry.getConnection();
+        if (!conn.isOpen() || entry.getUpdated() + period > System.currentTimeMillis()) {
+            return false;
+        }
+        if (conn.isStale()) {
+            if (this.log.isDebugEnabled()) {
+                this.log.debug("Connection " + format(entry) + " is stale");
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void discard(final HttpClientConnection managedConn) {
+        try {
+            managedConn.shutdown();
+        } catch (final IOException ex) {
+            this.log.debug("I/O exception shutting down stale connection", ex);
+        } finally {
+            releaseConnection(managedConn, null, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
     public void releaseConnection(
             final HttpClientConnection managedConn,
             final Object state,
@@ -344,6 +549,12 @@ public class PoolingHttpClientConnectionManager
 
     public void shutdown() {
         this.log.debug("Connection manager is shutting down");
+        synchronized (this) {
+            if (this.maintainer != null) {
+                this.maintainer.shutdownNow();
+                this.maintainer = null;
+            }
+        }
         try {
             this.pool.shutdown();
         } catch (final IOException ex) {
@@ -364,6 +575,153 @@ public class PoolingHttpClientConnectionManager
         this.pool.closeExpired();
     }
 
+    /**
+     * Makes sure that up to the given number of connections for the route
+     * are open and idle in the pool. Only the missing connections are opened,
+     * including the TLS handshake for secure routes, as far as the pool limits
+     * permit without waiting for connections in use or closing idle ones.
+     * Connections already available in the pool are left untouched.
+     *
+     * @param route the route to open connections for. Tunnelled routes
+     *   are not supported.
+     * @param count the number of idle connections to make sure of.
+     * @return the number of connections opened.
+     *
+     * @since 4.4
+     */
+    public int prewarm(final HttpRoute route, final int count) throws IOException, InterruptedException {
+        Args.notNull(route, "HTTP route");
+        Args.notNegative(count, "Connection count");
+        Args.check(!route.isTunnelled(), "Tunnelled routes cannot be prewarmed");
+        final int missing = count - this.pool.getStats(route).getAvailable();
+        final HttpContext context = new BasicHttpContext();
+        int opened = 0;
+        while (opened < missing) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            final CPoolEntry entry = this.pool.leaseNew(route);
+            if (entry == null) {
+                // Pool limits reached
+                break;
+            }
+            // Each connection is given back to the pool as soon as it is open
+            final HttpClientConnection conn = CPoolProxy.newProxy(entry);
+            try {
+                connect(conn, route, PREWARM_CONNECT_TIMEOUT, context);
+                routeComplete(conn, route, context);
+            } finally {
+                releaseConnection(conn, null, 0, TimeUnit.MILLISECONDS);
+            }
+            opened++;
+        }
+        if (this.log.isDebugEnabled()) {
+            this.log.debug("Connections opened ahead: " + opened + " " + format(route, null) + formatStats(route));
+        }
+        return opened;
+    }
+
+    /**
+     * Sets the number of idle connections kept open for the given route.
+     * Routes that fall short of it, for instance after idle or expired
+     * connections have been evicted, are topped up in the background.
+     * A value of <code>0</code> removes the setting.
+     *
+     * @since 4.4
+     */
+    public void setMinIdlePerRoute(final HttpRoute route, final int min) {
+        Args.notNull(route, "HTTP route");
+        Args.notNegative(min, "Min idle value");
+        Args.check(!route.isTunnelled(), "Tunnelled routes cannot be prewarmed");
+        if (min > 0) {
+            this.minIdlePerRoute.put(route, Integer.valueOf(min));
+            startMaintainer();
+        } else {
+            this.minIdlePerRoute.remove(route);
+        }
+    }
+
+    /**
+     * @since 4.4
+     */
+    public int getMinIdlePerRoute(final HttpRoute route) {
+        Args.notNull(route, "HTTP route");
+        final Integer v = this.minIdlePerRoute.get(route);
+        return v != null ? v.intValue() : 0;
+    }
+
+    private synchronized void startMaintainer() {
+        if (this.maintainer != null || this.pool.isShutdown()) {
+            return;
+        }
+        this.maintainer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "Connection pool maintainer");
+                thread.setDaemon(true);
+                return thread;
+            }
+
+        });
+        this.maintainer.scheduleWithFixedDelay(new Runnable() {
+
+            public void run() {
+                maintainMinIdle();
+            }
+
+        }, 0, MIN_IDLE_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tops up routes that have fewer idle connections than their minimum.
+     */
+    void maintainMinIdle() {
+        for (final Map.Entry<HttpRoute, Integer> entry: this.minIdlePerRoute.entrySet()) {
+            if (this.pool.isShutdown()) {
+                return;
+            }
+            final HttpRoute route = entry.getKey();
+            final int min = entry.getValue().intValue();
+            if (this.pool.getStats(route).getAvailable() < min) {
+                try {
+                    prewarm(route, min);
+                } catch (final IOException ex) {
+                    this.log.debug("I/O exception opening connections ahead for " + route, ex);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (final RuntimeException ex) {
+                    this.log.debug("Unexpected exception opening connections ahead for " + route, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * @see #setValidateAfterInactivity(int)
+     *
+     * @since 4.4
+     */
+    public int getValidateAfterInactivity() {
+        return this.validateAfterInactivity;
+    }
+
+    /**
+     * Defines period of inactivity in milliseconds after which persistent
+     * connections must be re-validated prior to being leased to the consumer.
+     * Connections used more recently are leased without the check, which saves
+     * the blocking probe that
+     * {@link com.epam.reportportal.apache.http.client.config.RequestConfig#isStaleConnectionCheckEnabled()}
+     * performs on every request. Stale connections are closed and replaced
+     * with another one from the pool. Non-positive value passed to this method
+     * disables connection validation.
+     *
+     * @since 4.4
+     */
+    public void setValidateAfterInactivity(final int ms) {
+        this.validateAfterInactivity = ms;
+    }
+
     public int getMaxTotal() {
         return this.pool.getMaxTotal();
     }
@@ -55,10 +55,11 @@ public class BestMatchSpec implements CookieSpec {
     private final String[] datepatterns;
     private final boolean oneHeader;
 
-    // Cached values of CookieSpec instances
-    private RFC2965Spec strict; // @NotThreadSafe
-    private RFC2109Spec obsoleteStrict; // @NotThreadSafe
-    private BrowserCompatSpec compat; // @NotThreadSafe
+    // Cached values of CookieSpec instances, volatile as the spec
+    // may be shared by CachingCookieSpecProvider
+    private volatile RFC2965Spec strict; // @NotThreadSafe
+    private volatile RFC2109Spec obsoleteStrict; // @NotThreadSafe
+    private volatile BrowserCompatSpec compat; // @NotThreadSafe
 
     public BestMatchSpec(final String[] datepatterns, final boolean oneHeader) {
         super();
@@ -71,24 +72,30 @@ public class BestMatchSpec implements CookieSpec {
     }
 
     private RFC2965Spec getStrict() {
-        if (this.strict == null) {
-             this.strict = new RFC2965Spec(this.datepatterns, this.oneHeader);
+        RFC2965Spec spec = this.strict;
+        if (spec == null) {
+             spec = new RFC2965Spec(this.datepatterns, this.oneHeader);
+             this.strict = spec;
         }
-        return strict;
+        return spec;
     }
 
     private RFC2109Spec getObsoleteStrict() {
-        if (this.obsoleteStrict == null) {
-             this.obsoleteStrict = new RFC2109Spec(this.datepatterns, this.oneHeader);
+        RFC2109Spec spec = this.obsoleteStrict;
+        if (spec == null) {
+             spec = new RFC2109Spec(this.datepatterns, this.oneHeader);
+             this.obsoleteStrict = spec;
         }
-        return obsoleteStrict;
+        return spec;
     }
 
     private BrowserCompatSpec getCompat() {
-        if (this.compat == null) {
-            this.compat = new BrowserCompatSpec(this.datepatterns);
+        BrowserCompatSpec spec = this.compat;
+        if (spec == null) {
+            spec = new BrowserCompatSpec(this.datepatterns);
+            this.compat = spec;
         }
-        return compat;
+        return spec;
     }
 
     public List<Cookie> parse(
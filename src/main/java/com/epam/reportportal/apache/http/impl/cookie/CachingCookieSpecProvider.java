@@ -0,0 +1,126 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.cookie;
+
+import java.util.List;
+
+import com.epam.reportportal.apache.http.Header;
+import com.epam.reportportal.apache.http.annotation.Immutable;
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.cookie.Cookie;
+import com.epam.reportportal.apache.http.cookie.CookieOrigin;
+import com.epam.reportportal.apache.http.cookie.CookieSpec;
+import com.epam.reportportal.apache.http.cookie.CookieSpecProvider;
+import com.epam.reportportal.apache.http.cookie.MalformedCookieException;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * {@link CookieSpecProvider} that creates a single {@link CookieSpec}
+ * instance using the given provider and hands it out to every request
+ * rather than creating a new spec per request.
+ * <p/>
+ * The shared instance only exposes the {@link CookieSpec} interface so
+ * its attribute handlers can no longer be altered once it has been created.
+ * This provider may only wrap providers that create specs which do not
+ * depend on the context they are created for and are thread-safe as long
+ * as their handlers are not altered. All standard cookie specs shipped
+ * with HttpClient meet these requirements.
+ *
+ * @since 4.4
+ */
+@ThreadSafe
+public class CachingCookieSpecProvider implements CookieSpecProvider {
+
+    private final CookieSpecProvider provider;
+
+    private volatile CookieSpec cookieSpec;
+
+    public CachingCookieSpecProvider(final CookieSpecProvider provider) {
+        super();
+        this.provider = Args.notNull(provider, "Cookie spec provider");
+    }
+
+    public CookieSpec create(final HttpContext context) {
+        CookieSpec spec = this.cookieSpec;
+        if (spec == null) {
+            synchronized (this) {
+                spec = this.cookieSpec;
+                if (spec == null) {
+                    spec = new SharedCookieSpec(this.provider.create(context));
+                    this.cookieSpec = spec;
+                }
+            }
+        }
+        return spec;
+    }
+
+    @Immutable
+    static final class SharedCookieSpec implements CookieSpec {
+
+        private final CookieSpec cookieSpec;
+
+        SharedCookieSpec(final CookieSpec cookieSpec) {
+            super();
+            this.cookieSpec = cookieSpec;
+        }
+
+        public int getVersion() {
+            return this.cookieSpec.getVersion();
+        }
+
+        public List<Cookie> parse(
+                final Header header, final CookieOrigin origin) throws MalformedCookieException {
+            return this.cookieSpec.parse(header, origin);
+        }
+
+        public void validate(
+                final Cookie cookie, final CookieOrigin origin) throws MalformedCookieException {
+            this.cookieSpec.validate(cookie, origin);
+        }
+
+        public boolean match(final Cookie cookie, final CookieOrigin origin) {
+            return this.cookieSpec.match(cookie, origin);
+        }
+
+        public List<Header> formatCookies(final List<Cookie> cookies) {
+            return this.cookieSpec.formatCookies(cookies);
+        }
+
+        public Header getVersionHeader() {
+            return this.cookieSpec.getVersionHeader();
+        }
+
+        @Override
+        public String toString() {
+            return this.cookieSpec.toString();
+        }
+
+    }
+
+}
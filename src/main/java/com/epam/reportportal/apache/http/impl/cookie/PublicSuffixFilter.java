@@ -26,16 +26,15 @@
  */
 package com.epam.reportportal.apache.http.impl.cookie;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
 
-import com.epam.reportportal.apache.http.client.utils.Punycode;
 import com.epam.reportportal.apache.http.cookie.Cookie;
 import com.epam.reportportal.apache.http.cookie.CookieAttributeHandler;
 import com.epam.reportportal.apache.http.cookie.CookieOrigin;
 import com.epam.reportportal.apache.http.cookie.MalformedCookieException;
 import com.epam.reportportal.apache.http.cookie.SetCookie;
+import com.epam.reportportal.apache.http.util.Args;
 
 /**
  * Wraps a CookieAttributeHandler and leverages its match method
@@ -49,30 +48,45 @@ import com.epam.reportportal.apache.http.cookie.SetCookie;
  */
 public class PublicSuffixFilter implements CookieAttributeHandler {
     private final CookieAttributeHandler wrapped;
-    private Set<String> exceptions;
-    private Set<String> suffixes;
+    private Collection<String> exceptions;
+    private Collection<String> suffixes;
+    private PublicSuffixMatcher matcher;
 
     public PublicSuffixFilter(final CookieAttributeHandler wrapped) {
         this.wrapped = wrapped;
     }
 
+    /**
+     * Creates a filter backed by the given matcher, which may be shared
+     * by any number of filters.
+     *
+     * @since 4.4
+     */
+    public PublicSuffixFilter(final CookieAttributeHandler wrapped, final PublicSuffixMatcher matcher) {
+        this.wrapped = wrapped;
+        this.matcher = Args.notNull(matcher, "Public suffix matcher");
+    }
+
     /**
      * Sets the suffix blacklist patterns.
-     * A pattern can be "com", "*.jp"
-     * TODO add support for patterns like "lib.*.us"
+     * A pattern can be "com", "*.jp" or "lib.*.us"
      * @param suffixes
      */
     public void setPublicSuffixes(final Collection<String> suffixes) {
-        this.suffixes = new HashSet<String>(suffixes);
+        this.suffixes = new ArrayList<String>(suffixes);
+        this.matcher = new PublicSuffixMatcher(this.suffixes, this.exceptions);
     }
 
     /**
-     * Sets the exceptions from the blacklist. Exceptions can not be patterns.
-     * TODO add support for patterns
+     * Sets the exceptions from the blacklist. Exceptions can be patterns
+     * as well.
      * @param exceptions
      */
     public void setExceptions(final Collection<String> exceptions) {
-        this.exceptions = new HashSet<String>(exceptions);
+        this.exceptions = new ArrayList<String>(exceptions);
+        if (this.suffixes != null) {
+            this.matcher = new PublicSuffixMatcher(this.suffixes, this.exceptions);
+        }
     }
 
     /**
@@ -94,39 +108,6 @@ public class PublicSuffixFilter implements CookieAttributeHandler {
     }
 
     private boolean isForPublicSuffix(final Cookie cookie) {
-        String domain = cookie.getDomain();
-        if (domain.startsWith(".")) {
-            domain = domain.substring(1);
-        }
-        domain = Punycode.toUnicode(domain);
-
-        // An exception rule takes priority over any other matching rule.
-        if (this.exceptions != null) {
-            if (this.exceptions.contains(domain)) {
-                return false;
-            }
-        }
-
-
-        if (this.suffixes == null) {
-            return false;
-        }
-
-        do {
-            if (this.suffixes.contains(domain)) {
-                return true;
-            }
-            // patterns
-            if (domain.startsWith("*.")) {
-                domain = domain.substring(2);
-            }
-            final int nextdot = domain.indexOf('.');
-            if (nextdot == -1) {
-                break;
-            }
-            domain = "*" + domain.substring(nextdot);
-        } while (domain.length() > 0);
-
-        return false;
+        return this.matcher != null && this.matcher.matches(cookie.getDomain());
     }
 }
@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 
 import com.epam.reportportal.apache.http.annotation.Immutable;
+import com.epam.reportportal.apache.http.util.Asserts;
 
 /**
  * Parses the list from <a href="http://publicsuffix.org/">publicsuffix.org</a>
@@ -49,6 +50,16 @@ public class PublicSuffixListParser {
         this.filter = filter;
     }
 
+    /**
+     * Creates a parser that is not bound to a {@link PublicSuffixFilter}
+     * and is meant to be used with {@link #parseMatcher(Reader)}.
+     *
+     * @since 4.4
+     */
+    public PublicSuffixListParser() {
+        this(null);
+    }
+
     /**
      * Parses the public suffix list format.
      * When creating the reader from the file, make sure to
@@ -58,8 +69,36 @@ public class PublicSuffixListParser {
      * @throws IOException on error while reading from list
      */
     public void parse(final Reader list) throws IOException {
+        Asserts.notNull(filter, "Public suffix filter");
+        final Collection<String> rules = new ArrayList<String>();
+        final Collection<String> exceptions = new ArrayList<String>();
+        parse(list, rules, exceptions);
+        filter.setPublicSuffixes(rules);
+        filter.setExceptions(exceptions);
+    }
+
+    /**
+     * Parses the public suffix list format into a {@link PublicSuffixMatcher}
+     * that can be shared by all cookie specs.
+     * When creating the reader from the file, make sure to
+     * use the correct encoding (the original list is in UTF-8).
+     *
+     * @param list the suffix list. The caller is responsible for closing the reader.
+     * @throws IOException on error while reading from list
+     *
+     * @since 4.4
+     */
+    public PublicSuffixMatcher parseMatcher(final Reader list) throws IOException {
         final Collection<String> rules = new ArrayList<String>();
         final Collection<String> exceptions = new ArrayList<String>();
+        parse(list, rules, exceptions);
+        return new PublicSuffixMatcher(rules, exceptions);
+    }
+
+    private void parse(
+            final Reader list,
+            final Collection<String> rules,
+            final Collection<String> exceptions) throws IOException {
         final BufferedReader r = new BufferedReader(list);
         final StringBuilder sb = new StringBuilder(256);
         boolean more = true;
@@ -89,9 +128,6 @@ public class PublicSuffixListParser {
                 rules.add(line);
             }
         }
-
-        filter.setPublicSuffixes(rules);
-        filter.setExceptions(exceptions);
     }
 
     /**
@@ -0,0 +1,311 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.cookie;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.epam.reportportal.apache.http.annotation.Immutable;
+import com.epam.reportportal.apache.http.client.utils.Punycode;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * Utility class that can test if DNS names match the content of the public
+ * suffix list available from <a href="http://publicsuffix.org/">publicsuffix.org</a>.
+ * <p/>
+ * Rules are kept in a trie of domain labels read from right to left and
+ * support wildcard labels in any position (for instance <code>*.jp</code> or
+ * <code>lib.*.us</code>) as well as exception rules, following the
+ * algorithm described at publicsuffix.org. Once built the matcher is
+ * immutable and may be shared by any number of threads and cookie specs.
+ * Lookups of ASCII domain names do not allocate any objects.
+ *
+ * @see PublicSuffixListParser
+ * @see PublicSuffixFilter
+ *
+ * @since 4.4
+ */
+@Immutable
+public final class PublicSuffixMatcher {
+
+    private static final String WILDCARD = "*";
+
+    private final Node root;
+
+    /**
+     * Creates new instance of PublicSuffixMatcher.
+     *
+     * @param rules the public suffix rules, for instance <code>com</code>,
+     *   <code>*.jp</code> or <code>lib.*.us</code>.
+     * @param exceptions the exception rules with or without the leading
+     *   <code>!</code>, for instance <code>metro.tokyo.jp</code>.
+     *   May be <code>null</code>.
+     */
+    public PublicSuffixMatcher(final Collection<String> rules, final Collection<String> exceptions) {
+        super();
+        Args.notNull(rules, "Public suffix rules");
+        final Builder root = new Builder();
+        for (final String rule : rules) {
+            root.add(normalize(rule)).rule = true;
+        }
+        if (exceptions != null) {
+            for (final String exception : exceptions) {
+                final String s = exception.startsWith("!") ? exception.substring(1) : exception;
+                root.add(normalize(s)).exception = true;
+            }
+        }
+        this.root = root.build();
+    }
+
+    private static String normalize(final String s) {
+        final String domain = s.startsWith(".") ? s.substring(1) : s;
+        return Punycode.toUnicode(domain).toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Converts IDNA encoded domains to Unicode, the form the rules are kept in.
+     */
+    private static String toUnicode(final String domain) {
+        for (int i = 0; i < domain.length(); i = domain.indexOf('.', i) + 1) {
+            if (domain.regionMatches(true, i, "xn--", 0, 4)) {
+                return Punycode.toUnicode(domain);
+            }
+            if (domain.indexOf('.', i) == -1) {
+                break;
+            }
+        }
+        return domain;
+    }
+
+    private static int hash(final String s, final int start, final int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(s.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the number of labels of the longest rule of the given kind
+     * matching the domain.
+     *
+     * @param from index the domain name starts at.
+     * @param end exclusive end of the next label to match or a value below
+     *   <code>from</code> if all labels have been matched.
+     */
+    private static int find(
+            final String domain,
+            final int from,
+            final int end,
+            final int labels,
+            final Node node,
+            final boolean exception) {
+        int best = (exception ? node.exception : node.rule) ? labels : 0;
+        if (end < from) {
+            return best;
+        }
+        final int start = Math.max(domain.lastIndexOf('.', end - 1) + 1, from);
+        final Node child = node.get(domain, start, end);
+        if (child != null) {
+            best = Math.max(best, find(domain, from, start - 1, labels + 1, child, exception));
+        }
+        if (node.wildcard != null && start < end) {
+            best = Math.max(best, find(domain, from, start - 1, labels + 1, node.wildcard, exception));
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of labels of the public suffix of the domain
+     * or <code>0</code> if no rule matches it.
+     */
+    private int getPublicSuffixLabels(final String domain, final int from) {
+        final int exception = find(domain, from, domain.length(), 0, this.root, true);
+        if (exception > 0) {
+            return exception - 1;
+        }
+        return find(domain, from, domain.length(), 0, this.root, false);
+    }
+
+    private static int countLabels(final String domain, final int from) {
+        int labels = 1;
+        for (int i = from; i < domain.length(); i++) {
+            if (domain.charAt(i) == '.') {
+                labels++;
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Tests whether the given domain is a public suffix. A leading dot
+     * is ignored. Domains not covered by any rule are not considered
+     * public suffixes.
+     *
+     * @param domain the domain name, possibly IDNA encoded.
+     * @return <code>true</code> if the domain is a public suffix.
+     */
+    public boolean matches(final String domain) {
+        if (domain == null) {
+            return false;
+        }
+        final String s = toUnicode(domain);
+        final int from = s.startsWith(".") ? 1 : 0;
+        final int labels = getPublicSuffixLabels(s, from);
+        return labels > 0 && labels == countLabels(s, from);
+    }
+
+    /**
+     * Returns the registrable part of the domain, that is its public suffix
+     * plus one more label. Domains not covered by any rule are treated as
+     * having a public suffix of one label, as prescribed by the implicit
+     * <code>*</code> rule.
+     *
+     * @param domain the domain name, possibly IDNA encoded.
+     * @return the registrable domain, or <code>null</code> if the domain
+     *   is itself a public suffix.
+     */
+    public String getDomainRoot(final String domain) {
+        if (domain == null) {
+            return null;
+        }
+        String s = toUnicode(domain).toLowerCase(Locale.ENGLISH);
+        if (s.startsWith(".")) {
+            s = s.substring(1);
+        }
+        final int labels = Math.max(getPublicSuffixLabels(s, 0), 1);
+        if (labels >= countLabels(s, 0)) {
+            return null;
+        }
+        int start = s.length();
+        for (int i = 0; i <= labels; i++) {
+            start = s.lastIndexOf('.', start - 1);
+        }
+        return s.substring(start + 1);
+    }
+
+    /**
+     * Trie node with an open addressing table of child labels.
+     */
+    private static final class Node {
+
+        final boolean rule;
+        final boolean exception;
+        final Node wildcard;
+        final String[] labels;
+        final Node[] children;
+        final int mask;
+
+        Node(final Builder builder) {
+            super();
+            this.rule = builder.rule;
+            this.exception = builder.exception;
+            this.wildcard = builder.wildcard != null ? builder.wildcard.build() : null;
+            final int n = builder.children.size();
+            if (n > 0) {
+                int capacity = 2;
+                while (capacity < n * 2) {
+                    capacity <<= 1;
+                }
+                this.labels = new String[capacity];
+                this.children = new Node[capacity];
+                this.mask = capacity - 1;
+                for (final Map.Entry<String, Builder> entry : builder.children.entrySet()) {
+                    final String label = entry.getKey();
+                    int i = hash(label, 0, label.length()) & this.mask;
+                    while (this.labels[i] != null) {
+                        i = (i + 1) & this.mask;
+                    }
+                    this.labels[i] = label;
+                    this.children[i] = entry.getValue().build();
+                }
+            } else {
+                this.labels = null;
+                this.children = null;
+                this.mask = 0;
+            }
+        }
+
+        Node get(final String domain, final int start, final int end) {
+            if (this.labels == null) {
+                return null;
+            }
+            final int len = end - start;
+            for (int i = hash(domain, start, end) & this.mask;; i = (i + 1) & this.mask) {
+                final String label = this.labels[i];
+                if (label == null) {
+                    return null;
+                }
+                if (label.length() == len && domain.regionMatches(true, start, label, 0, len)) {
+                    return this.children[i];
+                }
+            }
+        }
+
+    }
+
+    private static final class Builder {
+
+        final Map<String, Builder> children = new HashMap<String, Builder>();
+        Builder wildcard;
+        boolean rule;
+        boolean exception;
+
+        Builder add(final String domain) {
+            Builder node = this;
+            int end = domain.length();
+            while (end >= 0) {
+                final int start = domain.lastIndexOf('.', end - 1) + 1;
+                final String label = domain.substring(start, end);
+                if (WILDCARD.equals(label)) {
+                    if (node.wildcard == null) {
+                        node.wildcard = new Builder();
+                    }
+                    node = node.wildcard;
+                } else {
+                    Builder child = node.children.get(label);
+                    if (child == null) {
+                        child = new Builder();
+                        node.children.put(label, child);
+                    }
+                    node = child;
+                }
+                end = start - 1;
+            }
+            return node;
+        }
+
+        Node build() {
+            return new Node(this);
+        }
+
+    }
+
+}
@@ -33,9 +33,11 @@ import java.util.concurrent.TimeUnit;
 
 import com.epam.reportportal.apache.http.HttpClientConnection;
 import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.client.HttpClientMetrics;
 import com.epam.reportportal.apache.http.concurrent.Cancellable;
 import com.epam.reportportal.apache.http.conn.ConnectionReleaseTrigger;
 import com.epam.reportportal.apache.http.conn.HttpClientConnectionManager;
+import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
 import org.apache.commons.logging.Log;
 
 /**
@@ -57,6 +59,10 @@ class ConnectionHolder implements ConnectionReleaseTrigger, Cancellable, Closeab
 
     private volatile boolean released;
 
+    private volatile HttpClientMetrics metrics;
+    private volatile HttpRoute route;
+    private volatile long responseReceived;
+
     public ConnectionHolder(
             final Log log,
             final HttpClientConnectionManager manager,
@@ -90,12 +96,26 @@ class ConnectionHolder implements ConnectionReleaseTrigger, Cancellable, Closeab
         }
     }
 
+    /**
+     * Makes this holder report the response body time to the given metrics
+     * when the connection gets released.
+     */
+    void trackResponseBody(final HttpClientMetrics metrics, final HttpRoute route) {
+        this.responseReceived = System.nanoTime();
+        this.route = route;
+        this.metrics = metrics;
+    }
+
     public void releaseConnection() {
         synchronized (this.managedConn) {
             if (this.released) {
                 return;
             }
             this.released = true;
+            final HttpClientMetrics metrics = this.metrics;
+            if (metrics != null) {
+                metrics.responseBodyCompleted(this.route, System.nanoTime() - this.responseReceived);
+            }
             if (this.reusable) {
                 this.manager.releaseConnection(this.managedConn,
                         this.state, this.validDuration, this.tunit);
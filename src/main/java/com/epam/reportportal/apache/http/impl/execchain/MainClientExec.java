@@ -50,6 +50,7 @@ import com.epam.reportportal.apache.http.auth.AUTH;
 import com.epam.reportportal.apache.http.auth.AuthProtocolState;
 import com.epam.reportportal.apache.http.auth.AuthState;
 import com.epam.reportportal.apache.http.client.AuthenticationStrategy;
+import com.epam.reportportal.apache.http.client.HttpClientMetrics;
 import com.epam.reportportal.apache.http.client.NonRepeatableRequestException;
 import com.epam.reportportal.apache.http.client.UserTokenHandler;
 import com.epam.reportportal.apache.http.client.config.RequestConfig;
@@ -100,6 +101,7 @@ public class MainClientExec implements ClientExecChain {
     private final HttpAuthenticator authenticator;
     private final UserTokenHandler userTokenHandler;
     private final HttpRouteDirector routeDirector;
+    private final HttpClientMetrics metrics;
 
 
     public MainClientExec(
@@ -110,6 +112,25 @@ public class MainClientExec implements ClientExecChain {
             final AuthenticationStrategy targetAuthStrategy,
             final AuthenticationStrategy proxyAuthStrategy,
             final UserTokenHandler userTokenHandler) {
+        this(requestExecutor, connManager, reuseStrategy, keepAliveStrategy,
+                targetAuthStrategy, proxyAuthStrategy, userTokenHandler, null);
+    }
+
+    /**
+     * @param metrics receives lease, connect, time to first byte and response
+     *   body timings, or <code>null</code> if timings are not to be recorded.
+     *
+     * @since 4.4
+     */
+    public MainClientExec(
+            final HttpRequestExecutor requestExecutor,
+            final HttpClientConnectionManager connManager,
+            final ConnectionReuseStrategy reuseStrategy,
+            final ConnectionKeepAliveStrategy keepAliveStrategy,
+            final AuthenticationStrategy targetAuthStrategy,
+            final AuthenticationStrategy proxyAuthStrategy,
+            final UserTokenHandler userTokenHandler,
+            final HttpClientMetrics metrics) {
         Args.notNull(requestExecutor, "HTTP request executor");
         Args.notNull(connManager, "Client connection manager");
         Args.notNull(reuseStrategy, "Connection reuse strategy");
@@ -128,6 +149,7 @@ public class MainClientExec implements ClientExecChain {
         this.targetAuthStrategy = targetAuthStrategy;
         this.proxyAuthStrategy  = proxyAuthStrategy;
         this.userTokenHandler   = userTokenHandler;
+        this.metrics            = metrics;
     }
 
     public CloseableHttpResponse execute(
@@ -156,6 +178,7 @@ public class MainClientExec implements ClientExecChain {
 
         Object userToken = context.getUserToken();
 
+        final long leaseStart = this.metrics != null ? System.nanoTime() : 0;
         final ConnectionRequest connRequest = connManager.requestConnection(route, userToken);
         if (execAware != null) {
             if (execAware.isAborted()) {
@@ -182,6 +205,9 @@ public class MainClientExec implements ClientExecChain {
             }
             throw new RequestAbortedException("Request execution failed", cause);
         }
+        if (this.metrics != null) {
+            this.metrics.leaseCompleted(route, System.nanoTime() - leaseStart);
+        }
 
         context.setAttribute(HttpCoreContext.HTTP_CONNECTION, managedConn);
 
@@ -252,7 +278,11 @@ public class MainClientExec implements ClientExecChain {
                     this.authenticator.generateAuthResponse(request, proxyAuthState, context);
                 }
 
+                final long requestStart = this.metrics != null ? System.nanoTime() : 0;
                 response = requestExecutor.execute(request, managedConn, context);
+                if (this.metrics != null) {
+                    this.metrics.responseHeadReceived(route, System.nanoTime() - requestStart);
+                }
 
                 // The connection is in or can be brought to a re-usable state.
                 if (reuseStrategy.keepAlive(response, context)) {
@@ -322,6 +352,9 @@ public class MainClientExec implements ClientExecChain {
                 connHolder.releaseConnection();
                 return Proxies.enhanceResponse(response, null);
             } else {
+                if (this.metrics != null) {
+                    connHolder.trackResponseBody(this.metrics, route);
+                }
                 return Proxies.enhanceResponse(response, connHolder);
             }
         } catch (final ConnectionShutdownException ex) {
@@ -361,19 +394,11 @@ public class MainClientExec implements ClientExecChain {
             switch (step) {
 
             case HttpRouteDirector.CONNECT_TARGET:
-                this.connManager.connect(
-                        managedConn,
-                        route,
-                        timeout > 0 ? timeout : 0,
-                        context);
+                connect(managedConn, route, timeout, context);
                 tracker.connectTarget(route.isSecure());
                 break;
             case HttpRouteDirector.CONNECT_PROXY:
-                this.connManager.connect(
-                        managedConn,
-                        route,
-                        timeout > 0 ? timeout : 0,
-                        context);
+                connect(managedConn, route, timeout, context);
                 final HttpHost proxy  = route.getProxyHost();
                 tracker.connectProxy(proxy, false);
                 break;
@@ -414,6 +439,22 @@ public class MainClientExec implements ClientExecChain {
         } while (step > HttpRouteDirector.COMPLETE);
     }
 
+    private void connect(
+            final HttpClientConnection managedConn,
+            final HttpRoute route,
+            final int timeout,
+            final HttpClientContext context) throws IOException {
+        final long start = this.metrics != null ? System.nanoTime() : 0;
+        this.connManager.connect(
+                managedConn,
+                route,
+                timeout > 0 ? timeout : 0,
+                context);
+        if (this.metrics != null) {
+            this.metrics.connectCompleted(route, System.nanoTime() - start);
+        }
+    }
+
     /**
      * Creates a tunnel to the target server.
      * The connection must be established to the (last) proxy.
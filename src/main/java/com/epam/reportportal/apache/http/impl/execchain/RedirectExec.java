@@ -35,6 +35,7 @@ import com.epam.reportportal.apache.http.HttpEntityEnclosingRequest;
 import com.epam.reportportal.apache.http.HttpException;
 import com.epam.reportportal.apache.http.HttpRequest;
 import com.epam.reportportal.apache.http.auth.AuthState;
+import com.epam.reportportal.apache.http.client.HttpClientMetrics;
 import com.epam.reportportal.apache.http.client.RedirectStrategy;
 import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
 import com.epam.reportportal.apache.http.util.EntityUtils;
@@ -73,11 +74,25 @@ public class RedirectExec implements ClientExecChain {
     private final ClientExecChain requestExecutor;
     private final RedirectStrategy redirectStrategy;
     private final HttpRoutePlanner routePlanner;
+    private final HttpClientMetrics metrics;
 
     public RedirectExec(
             final ClientExecChain requestExecutor,
             final HttpRoutePlanner routePlanner,
             final RedirectStrategy redirectStrategy) {
+        this(requestExecutor, routePlanner, redirectStrategy, null);
+    }
+
+    /**
+     * @param metrics counts redirected requests, or <code>null</code>.
+     *
+     * @since 4.4
+     */
+    public RedirectExec(
+            final ClientExecChain requestExecutor,
+            final HttpRoutePlanner routePlanner,
+            final RedirectStrategy redirectStrategy,
+            final HttpClientMetrics metrics) {
         super();
         Args.notNull(requestExecutor, "HTTP client request executor");
         Args.notNull(routePlanner, "HTTP route planner");
@@ -85,6 +100,7 @@ public class RedirectExec implements ClientExecChain {
         this.requestExecutor = requestExecutor;
         this.routePlanner = routePlanner;
         this.redirectStrategy = redirectStrategy;
+        this.metrics = metrics;
     }
 
     public CloseableHttpResponse execute(
@@ -116,6 +132,9 @@ public class RedirectExec implements ClientExecChain {
                         throw new RedirectException("Maximum redirects ("+ maxRedirects + ") exceeded");
                     }
                     redirectCount++;
+                    if (this.metrics != null) {
+                        this.metrics.requestRedirected(currentRoute);
+                    }
 
                     final HttpRequest redirect = this.redirectStrategy.getRedirect(
                             currentRequest, response, context);
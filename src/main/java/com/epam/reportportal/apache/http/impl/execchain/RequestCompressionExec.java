@@ -0,0 +1,148 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.execchain;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.epam.reportportal.apache.http.Header;
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.HttpEntityEnclosingRequest;
+import com.epam.reportportal.apache.http.HttpException;
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.HttpStatus;
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.client.RequestCompressionStrategy;
+import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
+import com.epam.reportportal.apache.http.client.methods.HttpExecutionAware;
+import com.epam.reportportal.apache.http.client.methods.HttpRequestWrapper;
+import com.epam.reportportal.apache.http.client.protocol.HttpClientContext;
+import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
+import com.epam.reportportal.apache.http.protocol.HTTP;
+import com.epam.reportportal.apache.http.util.Args;
+import com.epam.reportportal.apache.http.util.EntityUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Request executor in the request execution chain that is responsible
+ * for compressing request entities as decided by a
+ * {@link RequestCompressionStrategy}.
+ * <p/>
+ * If the target server rejects a compressed request with status
+ * <code>415</code> (Unsupported Media Type) the target host is remembered
+ * as not accepting compressed requests and the request is re-executed
+ * without compression, provided that its entity is repeatable. Requests to
+ * that host are no longer compressed afterwards.
+ * <p/>
+ * Further responsibilities such as communication with the opposite
+ * endpoint is delegated to the next executor in the request execution
+ * chain.
+ *
+ * @since 4.4
+ */
+@ThreadSafe
+public class RequestCompressionExec implements ClientExecChain {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final ClientExecChain requestExecutor;
+    private final RequestCompressionStrategy compressionStrategy;
+    private final ConcurrentMap<HttpHost, Boolean> rejectingHosts;
+
+    public RequestCompressionExec(
+            final ClientExecChain requestExecutor,
+            final RequestCompressionStrategy compressionStrategy) {
+        super();
+        Args.notNull(requestExecutor, "HTTP request executor");
+        Args.notNull(compressionStrategy, "Compression strategy");
+        this.requestExecutor = requestExecutor;
+        this.compressionStrategy = compressionStrategy;
+        this.rejectingHosts = new ConcurrentHashMap<HttpHost, Boolean>();
+    }
+
+    /**
+     * Determines whether the given host has rejected a compressed request.
+     */
+    public boolean isCompressionRejected(final HttpHost host) {
+        return this.rejectingHosts.containsKey(host);
+    }
+
+    public CloseableHttpResponse execute(
+            final HttpRoute route,
+            final HttpRequestWrapper request,
+            final HttpClientContext context,
+            final HttpExecutionAware execAware) throws IOException, HttpException {
+        Args.notNull(route, "HTTP route");
+        Args.notNull(request, "HTTP request");
+        Args.notNull(context, "HTTP context");
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return this.requestExecutor.execute(route, request, context, execAware);
+        }
+        final HttpEntityEnclosingRequest enclosingRequest = (HttpEntityEnclosingRequest) request;
+        final HttpEntity entity = enclosingRequest.getEntity();
+        final HttpHost target = route.getTargetHost();
+        if (entity == null
+                || entity.getContentEncoding() != null
+                || request.containsHeader(HTTP.CONTENT_ENCODING)
+                || this.rejectingHosts.containsKey(target)
+                || !this.compressionStrategy.shouldCompress(request, context)) {
+            return this.requestExecutor.execute(route, request, context, execAware);
+        }
+        final Header[] origheaders = request.getAllHeaders();
+        enclosingRequest.setEntity(this.compressionStrategy.compress(entity));
+        final CloseableHttpResponse response;
+        try {
+            response = this.requestExecutor.execute(route, request, context, execAware);
+        } finally {
+            enclosingRequest.setEntity(entity);
+        }
+        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE) {
+            return response;
+        }
+        if (this.rejectingHosts.putIfAbsent(target, Boolean.TRUE) == null) {
+            if (this.log.isDebugEnabled()) {
+                this.log.debug(target + " does not accept compressed requests");
+            }
+        }
+        if (!entity.isRepeatable()) {
+            this.log.debug("Cannot retry non-repeatable request without compression");
+            return response;
+        }
+        try {
+            EntityUtils.consume(response.getEntity());
+        } finally {
+            response.close();
+        }
+        request.setHeaders(origheaders);
+        this.log.debug("Retrying request without compression");
+        return this.requestExecutor.execute(route, request, context, execAware);
+    }
+
+}
@@ -31,6 +31,7 @@ import java.io.IOException;
 
 import com.epam.reportportal.apache.http.Header;
 import com.epam.reportportal.apache.http.HttpException;
+import com.epam.reportportal.apache.http.client.HttpClientMetrics;
 import com.epam.reportportal.apache.http.client.HttpRequestRetryHandler;
 import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
 import org.apache.commons.logging.Log;
@@ -62,14 +63,28 @@ public class RetryExec implements ClientExecChain {
 
     private final ClientExecChain requestExecutor;
     private final HttpRequestRetryHandler retryHandler;
+    private final HttpClientMetrics metrics;
 
     public RetryExec(
             final ClientExecChain requestExecutor,
             final HttpRequestRetryHandler retryHandler) {
+        this(requestExecutor, retryHandler, null);
+    }
+
+    /**
+     * @param metrics counts retried requests, or <code>null</code>.
+     *
+     * @since 4.4
+     */
+    public RetryExec(
+            final ClientExecChain requestExecutor,
+            final HttpRequestRetryHandler retryHandler,
+            final HttpClientMetrics metrics) {
         Args.notNull(requestExecutor, "HTTP request executor");
         Args.notNull(retryHandler, "HTTP request retry handler");
         this.requestExecutor = requestExecutor;
         this.retryHandler = retryHandler;
+        this.metrics = metrics;
     }
 
     public CloseableHttpResponse execute(
@@ -105,6 +120,9 @@ public class RetryExec implements ClientExecChain {
                     }
                     request.setHeaders(origheaders);
                     this.log.info("Retrying request");
+                    if (this.metrics != null) {
+                        this.metrics.requestRetried(route);
+                    }
                 } else {
                     throw ex;
                 }
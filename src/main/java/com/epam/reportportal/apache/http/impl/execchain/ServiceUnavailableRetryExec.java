@@ -32,6 +32,7 @@ import java.io.InterruptedIOException;
 
 import com.epam.reportportal.apache.http.HttpException;
 import com.epam.reportportal.apache.http.annotation.Immutable;
+import com.epam.reportportal.apache.http.client.HttpClientMetrics;
 import com.epam.reportportal.apache.http.client.ServiceUnavailableRetryStrategy;
 import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
 import com.epam.reportportal.apache.http.client.methods.HttpExecutionAware;
@@ -60,15 +61,29 @@ public class ServiceUnavailableRetryExec implements ClientExecChain {
 
     private final ClientExecChain requestExecutor;
     private final ServiceUnavailableRetryStrategy retryStrategy;
+    private final HttpClientMetrics metrics;
 
     public ServiceUnavailableRetryExec(
             final ClientExecChain requestExecutor,
             final ServiceUnavailableRetryStrategy retryStrategy) {
+        this(requestExecutor, retryStrategy, null);
+    }
+
+    /**
+     * @param metrics counts retried requests, or <code>null</code>.
+     *
+     * @since 4.4
+     */
+    public ServiceUnavailableRetryExec(
+            final ClientExecChain requestExecutor,
+            final ServiceUnavailableRetryStrategy retryStrategy,
+            final HttpClientMetrics metrics) {
         super();
         Args.notNull(requestExecutor, "HTTP request executor");
         Args.notNull(retryStrategy, "Retry strategy");
         this.requestExecutor = requestExecutor;
         this.retryStrategy = retryStrategy;
+        this.metrics = metrics;
     }
 
     public CloseableHttpResponse execute(
@@ -82,6 +97,9 @@ public class ServiceUnavailableRetryExec implements ClientExecChain {
             try {
                 if (this.retryStrategy.retryRequest(response, c, context)) {
                     response.close();
+                    if (this.metrics != null) {
+                        this.metrics.requestRetried(route);
+                    }
                     final long nextInterval = this.retryStrategy.getRetryInterval();
                     if (nextInterval > 0) {
                         try {
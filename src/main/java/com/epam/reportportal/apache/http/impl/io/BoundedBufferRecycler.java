@@ -0,0 +1,91 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.io.BufferRecycler;
+import com.epam.reportportal.apache.http.util.Args;
+import com.epam.reportportal.apache.http.util.ByteArrayBuffer;
+
+/**
+ * {@link BufferRecycler} implementation that keeps up to a fixed number
+ * of released buffers for reuse. Buffers released while the pool is full
+ * are left to the garbage collector; pooled buffers too small to satisfy
+ * a request are discarded and replaced with a freshly allocated one.
+ * <p/>
+ * A single instance is meant to be shared by all connections created by
+ * a connection factory. Buffers are not bound to a thread, so connections
+ * can safely be closed by a thread other than the one that opened them.
+ *
+ * @since 4.4
+ */
+@ThreadSafe
+public class BoundedBufferRecycler implements BufferRecycler {
+
+    private final BlockingQueue<ByteArrayBuffer> pool;
+
+    /**
+     * Creates new instance of BoundedBufferRecycler.
+     *
+     * @param maxPooled maximum number of buffers kept for reuse.
+     *   Must be a positive number.
+     */
+    public BoundedBufferRecycler(final int maxPooled) {
+        super();
+        Args.positive(maxPooled, "Max pooled buffers");
+        this.pool = new ArrayBlockingQueue<ByteArrayBuffer>(maxPooled);
+    }
+
+    public ByteArrayBuffer acquire(final int capacity) {
+        Args.positive(capacity, "Buffer capacity");
+        final ByteArrayBuffer buffer = this.pool.poll();
+        if (buffer != null && buffer.capacity() >= capacity) {
+            return buffer;
+        }
+        return new ByteArrayBuffer(capacity);
+    }
+
+    public void release(final ByteArrayBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        buffer.clear();
+        this.pool.offer(buffer);
+    }
+
+    /**
+     * Returns the number of buffers currently available for reuse.
+     */
+    public int getPooled() {
+        return this.pool.size();
+    }
+
+}
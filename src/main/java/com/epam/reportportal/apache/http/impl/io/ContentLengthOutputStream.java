@@ -29,8 +29,10 @@ package com.epam.reportportal.apache.http.impl.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
+import com.epam.reportportal.apache.http.io.FileContentTransfer;
 import com.epam.reportportal.apache.http.io.SessionOutputBuffer;
 import com.epam.reportportal.apache.http.util.Args;
 
@@ -48,7 +50,7 @@ import com.epam.reportportal.apache.http.util.Args;
  * @since 4.0
  */
 @NotThreadSafe
-public class ContentLengthOutputStream extends OutputStream {
+public class ContentLengthOutputStream extends OutputStream implements FileContentTransfer {
 
     /**
      * Wrapped session output buffer.
@@ -133,4 +135,28 @@ public class ContentLengthOutputStream extends OutputStream {
         }
     }
 
+    /**
+     * Transfers the file region through the session output buffer if it
+     * supports {@link FileContentTransfer}. Content beyond the declared content
+     * length is discarded just like with the <code>write</code> methods.
+     *
+     * @since 4.4
+     */
+    public boolean transfer(final FileChannel src, final long position, final long count) throws IOException {
+        if (this.closed) {
+            throw new IOException("Attempted write to closed stream.");
+        }
+        if (!(this.out instanceof FileContentTransfer)) {
+            return false;
+        }
+        final long chunk = Math.min(count, this.contentLength - this.total);
+        if (chunk > 0) {
+            if (!((FileContentTransfer) this.out).transfer(src, position, chunk)) {
+                return false;
+            }
+            this.total += chunk;
+        }
+        return true;
+    }
+
 }
@@ -58,6 +58,7 @@ public class DefaultHttpRequestParser extends AbstractMessageParser<HttpRequest>
 
     private final HttpRequestFactory requestFactory;
     private final CharArrayBuffer lineBuf;
+    private final ParserCursor cursor;
 
     /**
      * Creates an instance of this class.
@@ -81,6 +82,7 @@ public class DefaultHttpRequestParser extends AbstractMessageParser<HttpRequest>
         super(buffer, lineParser, params);
         this.requestFactory = Args.notNull(requestFactory, "Request factory");
         this.lineBuf = new CharArrayBuffer(128);
+        this.cursor = new ParserCursor(0, 0);
     }
 
     /**
@@ -105,6 +107,7 @@ public class DefaultHttpRequestParser extends AbstractMessageParser<HttpRequest>
         this.requestFactory = requestFactory != null ? requestFactory :
             DefaultHttpRequestFactory.INSTANCE;
         this.lineBuf = new CharArrayBuffer(128);
+        this.cursor = new ParserCursor(0, 0);
     }
 
     /**
@@ -133,7 +136,8 @@ public class DefaultHttpRequestParser extends AbstractMessageParser<HttpRequest>
         if (i == -1) {
             throw new ConnectionClosedException("Client closed connection");
         }
-        final ParserCursor cursor = new ParserCursor(0, this.lineBuf.length());
+        final ParserCursor cursor = this.cursor;
+        cursor.reset(0, this.lineBuf.length());
         final RequestLine requestline = this.lineParser.parseRequestLine(this.lineBuf, cursor);
         return this.requestFactory.newHttpRequest(requestline);
     }
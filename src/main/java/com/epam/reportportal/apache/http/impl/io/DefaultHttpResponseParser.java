@@ -58,6 +58,7 @@ public class DefaultHttpResponseParser extends AbstractMessageParser<HttpRespons
 
     private final HttpResponseFactory responseFactory;
     private final CharArrayBuffer lineBuf;
+    private final ParserCursor cursor;
 
     /**
      * Creates an instance of this class.
@@ -81,6 +82,7 @@ public class DefaultHttpResponseParser extends AbstractMessageParser<HttpRespons
         super(buffer, lineParser, params);
         this.responseFactory = Args.notNull(responseFactory, "Response factory");
         this.lineBuf = new CharArrayBuffer(128);
+        this.cursor = new ParserCursor(0, 0);
     }
 
     /**
@@ -105,6 +107,7 @@ public class DefaultHttpResponseParser extends AbstractMessageParser<HttpRespons
         this.responseFactory = responseFactory != null ? responseFactory :
             DefaultHttpResponseFactory.INSTANCE;
         this.lineBuf = new CharArrayBuffer(128);
+        this.cursor = new ParserCursor(0, 0);
     }
 
     /**
@@ -134,7 +137,8 @@ public class DefaultHttpResponseParser extends AbstractMessageParser<HttpRespons
             throw new NoHttpResponseException("The target server failed to respond");
         }
         //create the status line from the status string
-        final ParserCursor cursor = new ParserCursor(0, this.lineBuf.length());
+        final ParserCursor cursor = this.cursor;
+        cursor.reset(0, this.lineBuf.length());
         final StatusLine statusline = lineParser.parseStatusLine(this.lineBuf, cursor);
         return this.responseFactory.newHttpResponse(statusline, null);
     }
@@ -29,7 +29,9 @@ package com.epam.reportportal.apache.http.impl.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
+import com.epam.reportportal.apache.http.io.FileContentTransfer;
 import com.epam.reportportal.apache.http.io.SessionOutputBuffer;
 import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
 import com.epam.reportportal.apache.http.util.Args;
@@ -47,7 +49,7 @@ import com.epam.reportportal.apache.http.util.Args;
  * @since 4.0
  */
 @NotThreadSafe
-public class IdentityOutputStream extends OutputStream {
+public class IdentityOutputStream extends OutputStream implements FileContentTransfer {
 
     /**
      * Wrapped session output buffer.
@@ -101,4 +103,20 @@ public class IdentityOutputStream extends OutputStream {
         this.out.write(b);
     }
 
+    /**
+     * Transfers the file region through the session output buffer if it
+     * supports {@link FileContentTransfer}.
+     *
+     * @since 4.4
+     */
+    public boolean transfer(final FileChannel src, final long position, final long count) throws IOException {
+        if (this.closed) {
+            throw new IOException("Attempted write to closed stream.");
+        }
+        if (!(this.out instanceof FileContentTransfer)) {
+            return false;
+        }
+        return ((FileContentTransfer) this.out).transfer(src, position, count);
+    }
+
 }
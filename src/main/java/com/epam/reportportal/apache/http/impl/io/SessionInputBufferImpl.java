@@ -42,6 +42,7 @@ import com.epam.reportportal.apache.http.util.ByteArrayBuffer;
 import com.epam.reportportal.apache.http.util.CharArrayBuffer;
 import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
 import com.epam.reportportal.apache.http.io.BufferInfo;
+import com.epam.reportportal.apache.http.io.BufferRecycler;
 import com.epam.reportportal.apache.http.io.HttpTransportMetrics;
 import com.epam.reportportal.apache.http.protocol.HTTP;
 import com.epam.reportportal.apache.http.util.Args;
@@ -61,12 +62,15 @@ import com.epam.reportportal.apache.http.util.Args;
 public class SessionInputBufferImpl implements SessionInputBuffer, BufferInfo {
 
     private final HttpTransportMetricsImpl metrics;
-    private final byte[] buffer;
-    private final ByteArrayBuffer linebuffer;
+    private final int buffersize;
     private final int minChunkLimit;
     private final MessageConstraints constraints;
     private final CharsetDecoder decoder;
+    private final BufferRecycler recycler;
 
+    private ByteArrayBuffer storage;
+    private byte[] buffer;
+    private ByteArrayBuffer linebuffer;
     private InputStream instream;
     private int bufferpos;
     private int bufferlen;
@@ -86,23 +90,57 @@ public class SessionInputBufferImpl implements SessionInputBuffer, BufferInfo {
      *   {@link MessageConstraints#DEFAULT} will be used.
      * @param chardecoder chardecoder to be used for decoding HTTP protocol elements.
      *   If <code>null</code> simple type cast will be used for byte to char conversion.
+     * @param recycler buffer recycler. If not <code>null</code> the internal buffers
+     *   are acquired from the recycler when first needed and returned to it by
+     *   {@link #release()}.
+     *
+     * @since 4.4
      */
     public SessionInputBufferImpl(
             final HttpTransportMetricsImpl metrics,
             final int buffersize,
             final int minChunkLimit,
             final MessageConstraints constraints,
-            final CharsetDecoder chardecoder) {
+            final CharsetDecoder chardecoder,
+            final BufferRecycler recycler) {
         Args.notNull(metrics, "HTTP transport metrcis");
         Args.positive(buffersize, "Buffer size");
         this.metrics = metrics;
-        this.buffer = new byte[buffersize];
+        this.buffersize = buffersize;
         this.bufferpos = 0;
         this.bufferlen = 0;
         this.minChunkLimit = minChunkLimit >= 0 ? minChunkLimit : 512;
         this.constraints = constraints != null ? constraints : MessageConstraints.DEFAULT;
-        this.linebuffer = new ByteArrayBuffer(buffersize);
         this.decoder = chardecoder;
+        this.recycler = recycler;
+        if (recycler == null) {
+            this.buffer = new byte[buffersize];
+            this.linebuffer = new ByteArrayBuffer(buffersize);
+        }
+    }
+
+    /**
+     * Creates new instance of SessionInputBufferImpl.
+     *
+     * @param metrics HTTP transport metrics.
+     * @param buffersize buffer size. Must be a positive number.
+     * @param minChunkLimit size limit below which data chunks should be buffered in memory
+     *   in order to minimize native method invocations on the underlying network socket.
+     *   The optimal value of this parameter can be platform specific and defines a trade-off
+     *   between performance of memory copy operations and that of native method invocation.
+     *   If negative default chunk limited will be used.
+     * @param constraints Message constraints. If <code>null</code>
+     *   {@link MessageConstraints#DEFAULT} will be used.
+     * @param chardecoder chardecoder to be used for decoding HTTP protocol elements.
+     *   If <code>null</code> simple type cast will be used for byte to char conversion.
+     */
+    public SessionInputBufferImpl(
+            final HttpTransportMetricsImpl metrics,
+            final int buffersize,
+            final int minChunkLimit,
+            final MessageConstraints constraints,
+            final CharsetDecoder chardecoder) {
+        this(metrics, buffersize, minChunkLimit, constraints, chardecoder, null);
     }
 
     public SessionInputBufferImpl(
@@ -119,8 +157,37 @@ public class SessionInputBufferImpl implements SessionInputBuffer, BufferInfo {
         return this.instream != null;
     }
 
+    /**
+     * Unbinds this session buffer from its input stream and discards
+     * buffered data. If a {@link BufferRecycler} has been given
+     * the internal buffers are returned to it; they are acquired again
+     * if this session buffer gets used after having been released.
+     *
+     * @since 4.4
+     */
+    public void release() {
+        this.instream = null;
+        this.bufferpos = 0;
+        this.bufferlen = 0;
+        if (this.recycler != null) {
+            final ByteArrayBuffer b1 = this.storage;
+            final ByteArrayBuffer b2 = this.linebuffer;
+            this.storage = null;
+            this.buffer = null;
+            this.linebuffer = null;
+            if (b1 != null) {
+                this.recycler.release(b1);
+            }
+            if (b2 != null) {
+                this.recycler.release(b2);
+            }
+        } else {
+            this.linebuffer.clear();
+        }
+    }
+
     public int capacity() {
-        return this.buffer.length;
+        return this.buffer != null ? this.buffer.length : this.buffersize;
     }
 
     public int length() {
@@ -136,7 +203,18 @@ public class SessionInputBufferImpl implements SessionInputBuffer, BufferInfo {
         return this.instream.read(b, off, len);
     }
 
+    private void ensureBuffers() {
+        if (this.buffer == null) {
+            this.storage = this.recycler.acquire(this.buffersize);
+            this.buffer = this.storage.buffer();
+        }
+        if (this.linebuffer == null) {
+            this.linebuffer = this.recycler.acquire(this.buffersize);
+        }
+    }
+
     public int fillBuffer() throws IOException {
+        ensureBuffers();
         // compact the buffer if necessary
         if (this.bufferpos > 0) {
             final int len = this.bufferlen - this.bufferpos;
@@ -31,6 +31,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 
@@ -41,6 +42,8 @@ import com.epam.reportportal.apache.http.util.Asserts;
 import com.epam.reportportal.apache.http.util.ByteArrayBuffer;
 import com.epam.reportportal.apache.http.util.CharArrayBuffer;
 import com.epam.reportportal.apache.http.io.BufferInfo;
+import com.epam.reportportal.apache.http.io.BufferRecycler;
+import com.epam.reportportal.apache.http.io.FileContentTransfer;
 import com.epam.reportportal.apache.http.io.HttpTransportMetrics;
 import com.epam.reportportal.apache.http.protocol.HTTP;
 
@@ -55,15 +58,17 @@ import com.epam.reportportal.apache.http.protocol.HTTP;
  * @since 4.3
  */
 @NotThreadSafe
-public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo {
+public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo, FileContentTransfer {
 
     private static final byte[] CRLF = new byte[] {HTTP.CR, HTTP.LF};
 
     private final HttpTransportMetricsImpl metrics;
-    private final ByteArrayBuffer buffer;
+    private final int buffersize;
     private final int fragementSizeHint;
     private final CharsetEncoder encoder;
+    private final BufferRecycler recycler;
 
+    private ByteArrayBuffer buffer;
     private OutputStream outstream;
     private ByteBuffer bbuf;
 
@@ -77,19 +82,48 @@ public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo
      *   Value <code>0</code> disables fragment buffering.
      * @param charencoder charencoder to be used for encoding HTTP protocol elements.
      *   If <code>null</code> simple type cast will be used for char to byte conversion.
+     * @param recycler buffer recycler. If not <code>null</code> the internal buffer
+     *   is acquired from the recycler when first needed and returned to it by
+     *   {@link #release()}.
+     *
+     * @since 4.4
      */
     public SessionOutputBufferImpl(
             final HttpTransportMetricsImpl metrics,
             final int buffersize,
             final int fragementSizeHint,
-            final CharsetEncoder charencoder) {
+            final CharsetEncoder charencoder,
+            final BufferRecycler recycler) {
         super();
         Args.positive(buffersize, "Buffer size");
         Args.notNull(metrics, "HTTP transport metrcis");
         this.metrics = metrics;
-        this.buffer = new ByteArrayBuffer(buffersize);
+        this.buffersize = buffersize;
         this.fragementSizeHint = fragementSizeHint >= 0 ? fragementSizeHint : 0;
         this.encoder = charencoder;
+        this.recycler = recycler;
+        if (recycler == null) {
+            this.buffer = new ByteArrayBuffer(buffersize);
+        }
+    }
+
+    /**
+     * Creates new instance of SessionOutputBufferImpl.
+     *
+     * @param metrics HTTP transport metrics.
+     * @param buffersize buffer size. Must be a positive number.
+     * @param fragementSizeHint fragment size hint defining a minimal size of a fragment
+     *   that should be written out directly to the socket bypassing the session buffer.
+     *   Value <code>0</code> disables fragment buffering.
+     * @param charencoder charencoder to be used for encoding HTTP protocol elements.
+     *   If <code>null</code> simple type cast will be used for char to byte conversion.
+     */
+    public SessionOutputBufferImpl(
+            final HttpTransportMetricsImpl metrics,
+            final int buffersize,
+            final int fragementSizeHint,
+            final CharsetEncoder charencoder) {
+        this(metrics, buffersize, fragementSizeHint, charencoder, null);
     }
 
     public SessionOutputBufferImpl(
@@ -106,12 +140,40 @@ public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo
         return this.outstream != null;
     }
 
+    /**
+     * Unbinds this session buffer from its output stream and discards
+     * buffered data. If a {@link BufferRecycler} has been given
+     * the internal buffer is returned to it; it is acquired again
+     * if this session buffer gets used after having been released.
+     *
+     * @since 4.4
+     */
+    public void release() {
+        this.outstream = null;
+        if (this.recycler != null) {
+            final ByteArrayBuffer b = this.buffer;
+            this.buffer = null;
+            if (b != null) {
+                this.recycler.release(b);
+            }
+        } else {
+            this.buffer.clear();
+        }
+    }
+
     public int capacity() {
-        return this.buffer.capacity();
+        return this.buffer != null ? this.buffer.capacity() : this.buffersize;
     }
 
     public int length() {
-        return this.buffer.length();
+        return this.buffer != null ? this.buffer.length() : 0;
+    }
+
+    private ByteArrayBuffer getBuffer() {
+        if (this.buffer == null) {
+            this.buffer = this.recycler.acquire(this.buffersize);
+        }
+        return this.buffer;
     }
 
     public int available() {
@@ -130,6 +192,9 @@ public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo
     }
 
     private void flushBuffer() throws IOException {
+        if (this.buffer == null) {
+            return;
+        }
         final int len = this.buffer.length();
         if (len > 0) {
             streamWrite(this.buffer.buffer(), 0, len);
@@ -150,7 +215,7 @@ public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo
         // Do not want to buffer large-ish chunks
         // if the byte array is larger then MIN_CHUNK_LIMIT
         // write it directly to the output stream
-        if (len > this.fragementSizeHint || len > this.buffer.capacity()) {
+        if (len > this.fragementSizeHint || len > capacity()) {
             // flush the buffer
             flushBuffer();
             // write directly to the out stream
@@ -158,13 +223,14 @@ public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo
             this.metrics.incrementBytesTransferred(len);
         } else {
             // Do not let the buffer grow unnecessarily
-            final int freecapacity = this.buffer.capacity() - this.buffer.length();
+            final ByteArrayBuffer buf = getBuffer();
+            final int freecapacity = buf.capacity() - buf.length();
             if (len > freecapacity) {
                 // flush the buffer
                 flushBuffer();
             }
             // buffer
-            this.buffer.append(b, off, len);
+            buf.append(b, off, len);
         }
     }
 
@@ -177,16 +243,35 @@ public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo
 
     public void write(final int b) throws IOException {
         if (this.fragementSizeHint > 0) {
-            if (this.buffer.isFull()) {
+            final ByteArrayBuffer buf = getBuffer();
+            if (buf.isFull()) {
                 flushBuffer();
             }
-            this.buffer.append(b);
+            buf.append(b);
         } else {
             flushBuffer();
             this.outstream.write(b);
         }
     }
 
+    /**
+     * Transfers the file region directly to the output stream this buffer
+     * is bound to if the stream supports {@link FileContentTransfer}.
+     *
+     * @since 4.4
+     */
+    public boolean transfer(final FileChannel src, final long position, final long count) throws IOException {
+        if (!(this.outstream instanceof FileContentTransfer)) {
+            return false;
+        }
+        flushBuffer();
+        if (!((FileContentTransfer) this.outstream).transfer(src, position, count)) {
+            return false;
+        }
+        this.metrics.incrementBytesTransferred(count);
+        return true;
+    }
+
     /**
      * Writes characters from the specified string followed by a line delimiter
      * to this session buffer.
@@ -227,15 +312,16 @@ public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo
             return;
         }
         if (this.encoder == null) {
+            final ByteArrayBuffer buf = getBuffer();
             int off = 0;
             int remaining = charbuffer.length();
             while (remaining > 0) {
-                int chunk = this.buffer.capacity() - this.buffer.length();
+                int chunk = buf.capacity() - buf.length();
                 chunk = Math.min(chunk, remaining);
                 if (chunk > 0) {
-                    this.buffer.append(charbuffer, off, chunk);
+                    buf.append(charbuffer, off, chunk);
                 }
-                if (this.buffer.isFull()) {
+                if (buf.isFull()) {
                     flushBuffer();
                 }
                 off += chunk;
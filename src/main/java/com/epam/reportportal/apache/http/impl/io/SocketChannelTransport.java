@@ -0,0 +1,280 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
+import com.epam.reportportal.apache.http.io.FileContentTransfer;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * Socket I/O through the {@link SocketChannel} of a connected socket.
+ * Data are transferred through a pair of direct byte buffers of a fixed
+ * size, so that transfers of any length never cause the JRE to allocate
+ * temporary native buffers, and are exposed through plain
+ * {@link InputStream} and {@link OutputStream} instances that can be
+ * bound to session buffers.
+ * <p/>
+ * The channel is switched to non-blocking mode and waits for readiness
+ * using a {@link Selector} owned by this transport. This way the socket
+ * timeout ({@link Socket#getSoTimeout()}) is honored for reads, just like
+ * with stream based I/O. The output stream implements
+ * {@link FileContentTransfer} sending file content with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+ * The socket's own streams can no longer be used
+ * once the transport is in use. {@link #close()} must be called to release
+ * the selector when the connection is closed, shut down or bound to another
+ * socket.
+ *
+ * @since 4.4
+ */
+@NotThreadSafe
+public class SocketChannelTransport {
+
+    private final Socket socket;
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final SelectionKey key;
+    private final ByteBuffer inbuf;
+    private final ByteBuffer outbuf;
+    private final InputStream instream;
+    private final OutputStream outstream;
+
+    /**
+     * Creates new instance of SocketChannelTransport.
+     *
+     * @param socket connected socket backed by a {@link SocketChannel}.
+     * @param buffersize size of the direct I/O buffers. Must be a positive number.
+     * @throws IOException in case of an I/O error.
+     */
+    public SocketChannelTransport(final Socket socket, final int buffersize) throws IOException {
+        super();
+        Args.notNull(socket, "Socket");
+        Args.positive(buffersize, "Buffer size");
+        final SocketChannel channel = socket.getChannel();
+        Args.check(channel != null, "Socket is not backed by a channel");
+        this.socket = socket;
+        this.channel = channel;
+        this.selector = Selector.open();
+        try {
+            this.channel.configureBlocking(false);
+            this.key = this.channel.register(this.selector, 0);
+        } catch (final IOException ex) {
+            this.selector.close();
+            throw ex;
+        }
+        this.inbuf = ByteBuffer.allocateDirect(buffersize);
+        this.inbuf.flip();
+        this.outbuf = ByteBuffer.allocateDirect(buffersize);
+        this.instream = new ChannelInputStream();
+        this.outstream = new ChannelOutputStream();
+    }
+
+    public SocketChannel getChannel() {
+        return this.channel;
+    }
+
+    public InputStream getInputStream() {
+        return this.instream;
+    }
+
+    public OutputStream getOutputStream() {
+        return this.outstream;
+    }
+
+    /**
+     * Releases the selector used by this transport. Does not close the
+     * channel; if it is still open it is switched back to blocking mode,
+     * so that the socket's own streams can be used again, for instance
+     * by a socket layered over it. May be called from any thread; a thread
+     * blocked waiting for I/O readiness gets woken up.
+     */
+    public void close() throws IOException {
+        this.selector.close();
+        if (this.channel.isOpen()) {
+            try {
+                this.channel.configureBlocking(true);
+            } catch (final ClosedChannelException ignore) {
+            }
+        }
+    }
+
+    private void await(final int ops, final int timeout) throws IOException {
+        final long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+        try {
+            this.key.interestOps(ops);
+            for (;;) {
+                long wait = 0;
+                if (deadline > 0) {
+                    wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        throw new SocketTimeoutException("Read timed out");
+                    }
+                }
+                final int n = this.selector.select(wait);
+                if (n > 0) {
+                    this.selector.selectedKeys().clear();
+                    return;
+                }
+                if (!this.channel.isOpen() || !this.selector.isOpen()) {
+                    throw new SocketException("Socket closed");
+                }
+            }
+        } catch (final ClosedSelectorException ex) {
+            throw new SocketException("Socket closed");
+        } catch (final IllegalStateException ex) {
+            // cancelled key
+            throw new SocketException("Socket closed");
+        }
+    }
+
+    private int fill() throws IOException {
+        this.inbuf.clear();
+        try {
+            for (;;) {
+                final int n = this.channel.read(this.inbuf);
+                if (n != 0) {
+                    return n;
+                }
+                await(SelectionKey.OP_READ, this.socket.getSoTimeout());
+            }
+        } finally {
+            this.inbuf.flip();
+        }
+    }
+
+    private void drain() throws IOException {
+        this.outbuf.flip();
+        try {
+            while (this.outbuf.hasRemaining()) {
+                final int n = this.channel.write(this.outbuf);
+                if (n == 0) {
+                    await(SelectionKey.OP_WRITE, 0);
+                }
+            }
+        } finally {
+            this.outbuf.clear();
+        }
+    }
+
+    class ChannelInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            if (!inbuf.hasRemaining() && fill() == -1) {
+                return -1;
+            }
+            return inbuf.get() & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!inbuf.hasRemaining() && fill() == -1) {
+                return -1;
+            }
+            final int chunk = Math.min(len, inbuf.remaining());
+            inbuf.get(b, off, chunk);
+            return chunk;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return inbuf.remaining();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+
+    }
+
+    class ChannelOutputStream extends OutputStream implements FileContentTransfer {
+
+        @Override
+        public void write(final int b) throws IOException {
+            outbuf.put((byte) b);
+            drain();
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            int pos = off;
+            int remaining = len;
+            while (remaining > 0) {
+                final int chunk = Math.min(remaining, outbuf.remaining());
+                outbuf.put(b, pos, chunk);
+                pos += chunk;
+                remaining -= chunk;
+                drain();
+            }
+        }
+
+        public boolean transfer(final FileChannel src, final long position, final long count) throws IOException {
+            long pos = position;
+            long remaining = count;
+            while (remaining > 0) {
+                final long n = src.transferTo(pos, remaining, channel);
+                if (n > 0) {
+                    pos += n;
+                    remaining -= n;
+                } else {
+                    if (pos >= src.size()) {
+                        throw new EOFException("Unexpected end of file");
+                    }
+                    await(SelectionKey.OP_WRITE, 0);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+
+    }
+
+}
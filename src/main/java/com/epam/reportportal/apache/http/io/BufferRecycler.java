@@ -0,0 +1,62 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.io;
+
+import com.epam.reportportal.apache.http.util.ByteArrayBuffer;
+
+/**
+ * Source of byte buffers for session input and output buffers. Allows
+ * connections to borrow their I/O buffers when bound to a socket and
+ * hand them back when closed instead of allocating new ones for every
+ * connection.
+ * <p/>
+ * Implementations must be thread-safe as buffers can be acquired and
+ * released by different threads.
+ *
+ * @since 4.4
+ */
+public interface BufferRecycler {
+
+    /**
+     * Returns an empty buffer with a capacity of at least
+     * <code>capacity</code> bytes.
+     *
+     * @param capacity minimal buffer capacity.
+     * @return empty buffer.
+     */
+    ByteArrayBuffer acquire(int capacity);
+
+    /**
+     * Returns the buffer to this recycler. The buffer must no longer be
+     * used by the caller once released.
+     *
+     * @param buffer buffer to be recycled.
+     */
+    void release(ByteArrayBuffer buffer);
+
+}
@@ -0,0 +1,68 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Optional capability of output streams and session output buffers capable
+ * of writing a region of a file directly to the underlying transport using
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+ * without copying file content through the Java heap.
+ * <p/>
+ * Entities backed by files may check whether the output stream passed
+ * to them implements this interface and fall back to copying content
+ * if it does not or if the transfer is declined.
+ *
+ * @since 4.4
+ */
+public interface FileContentTransfer {
+
+    /**
+     * Size of the buffer used to copy large file content when it cannot
+     * be transferred directly.
+     */
+    int FALLBACK_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Writes <code>count</code> bytes of the file starting at
+     * <code>position</code>, blocking until all of them have been written.
+     * Any data buffered by this output are written out first.
+     *
+     * @param src file channel to transfer content from.
+     * @param position position within the file of the first byte to transfer.
+     * @param count number of bytes to transfer.
+     * @return <code>true</code> if the content has been transferred,
+     *   <code>false</code> if zero-copy transfer is not available, in which
+     *   case nothing has been written.
+     * @throws IOException in case of an I/O error.
+     */
+    boolean transfer(FileChannel src, long position, long count) throws IOException;
+
+}
@@ -92,6 +92,16 @@ public class BufferedHeader implements FormattedHeader, Cloneable, Serializable
         this.valuePos = colon + 1;
     }
 
+    /**
+     * Creates a new header from a buffer whose name has already been parsed.
+     */
+    BufferedHeader(final String name, final CharArrayBuffer buffer, final int valuePos) {
+        super();
+        this.name = name;
+        this.buffer = buffer;
+        this.valuePos = valuePos;
+    }
+
 
     public String getName() {
         return this.name;
@@ -0,0 +1,264 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.message;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.epam.reportportal.apache.http.Header;
+import com.epam.reportportal.apache.http.HttpVersion;
+import com.epam.reportportal.apache.http.ParseException;
+import com.epam.reportportal.apache.http.ProtocolVersion;
+import com.epam.reportportal.apache.http.StatusLine;
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.protocol.HTTP;
+import com.epam.reportportal.apache.http.util.Args;
+import com.epam.reportportal.apache.http.util.CharArrayBuffer;
+
+/**
+ * {@link BasicLineParser} variant for HTTP that avoids allocating
+ * objects for the common parts of a message head.
+ * <ul>
+ *  <li>HTTP/1.0 and HTTP/1.1 versions are recognized without creating
+ *   intermediate strings and are returned as the shared
+ *   {@link HttpVersion} constants;</li>
+ *  <li>the last status line seen for every status code is cached and
+ *   returned again as long as the reason phrase is the same;</li>
+ *  <li>well-known header names are resolved to shared string instances,
+ *   header values are only materialized when accessed.</li>
+ * </ul>
+ * Lines this parser does not recognize are handed over to
+ * {@link BasicLineParser}, so the results are equal to those of the
+ * basic parser. Instances of this class are thread-safe.
+ * <p/>
+ * The parser can be plugged into client connections with
+ * <code>new DefaultHttpResponseParserFactory(InterningLineParser.INSTANCE, null)</code>.
+ *
+ * @since 4.4
+ */
+@ThreadSafe
+public class InterningLineParser extends BasicLineParser {
+
+    public final static InterningLineParser INSTANCE = new InterningLineParser();
+
+    private static final String[] KNOWN_HEADERS = {
+        "Accept-Ranges", "Access-Control-Allow-Origin", "Age", "Allow", "Cache-Control",
+        HTTP.CONN_DIRECTIVE, "Content-Disposition", HTTP.CONTENT_ENCODING, "Content-Language",
+        HTTP.CONTENT_LEN, "Content-Location", "Content-Range", HTTP.CONTENT_TYPE, HTTP.DATE_HEADER,
+        "ETag", "Expires", HTTP.CONN_KEEP_ALIVE, "Last-Modified", "Link", "Location", "Pragma",
+        "Proxy-Authenticate", "Proxy-Connection", "Retry-After", HTTP.SERVER_HEADER, "Set-Cookie",
+        "Set-Cookie2", "Strict-Transport-Security", "Trailer", HTTP.TRANSFER_ENCODING, "Upgrade",
+        "Vary", "Via", "Warning", "WWW-Authenticate", "X-Content-Type-Options", "X-Frame-Options",
+        "X-Powered-By", "X-Request-Id"
+    };
+
+    private static final String[] HEADER_NAMES;
+    private static final int HEADER_NAMES_MASK;
+
+    static {
+        HEADER_NAMES = new String[256];
+        HEADER_NAMES_MASK = HEADER_NAMES.length - 1;
+        for (final String name: KNOWN_HEADERS) {
+            addHeaderName(name);
+            addHeaderName(name.toLowerCase(Locale.ENGLISH).intern());
+        }
+    }
+
+    private static void addHeaderName(final String name) {
+        int slot = name.hashCode() & HEADER_NAMES_MASK;
+        while (HEADER_NAMES[slot] != null) {
+            if (HEADER_NAMES[slot].equals(name)) {
+                return;
+            }
+            slot = (slot + 1) & HEADER_NAMES_MASK;
+        }
+        HEADER_NAMES[slot] = name;
+    }
+
+    private static final int MIN_STATUS = 100;
+    private static final int MAX_STATUS = 599;
+    private static final int STATUS_RANGE = MAX_STATUS - MIN_STATUS + 1;
+
+    /**
+     * Last status line seen per status code, HTTP/1.1 followed by HTTP/1.0.
+     */
+    private final AtomicReferenceArray<StatusLine> statusLines;
+
+    public InterningLineParser() {
+        super(HttpVersion.HTTP_1_1);
+        this.statusLines = new AtomicReferenceArray<StatusLine>(2 * STATUS_RANGE);
+    }
+
+    @Override
+    public ProtocolVersion parseProtocolVersion(
+            final CharArrayBuffer buffer,
+            final ParserCursor cursor) throws ParseException {
+        Args.notNull(buffer, "Char array buffer");
+        Args.notNull(cursor, "Parser cursor");
+        final int indexFrom = cursor.getPos();
+        final int indexTo = cursor.getUpperBound();
+        skipWhitespace(buffer, cursor);
+        final int i = cursor.getPos();
+        // "HTTP/1.x" followed by a blank or the end of the line
+        if (i + 8 <= indexTo
+                && (i + 8 == indexTo || buffer.charAt(i + 8) == ' ')
+                && buffer.charAt(i) == 'H'
+                && buffer.charAt(i + 1) == 'T'
+                && buffer.charAt(i + 2) == 'T'
+                && buffer.charAt(i + 3) == 'P'
+                && buffer.charAt(i + 4) == '/'
+                && buffer.charAt(i + 5) == '1'
+                && buffer.charAt(i + 6) == '.') {
+            final char minor = buffer.charAt(i + 7);
+            if (minor == '1' || minor == '0') {
+                cursor.updatePos(i + 8);
+                return minor == '1' ? HttpVersion.HTTP_1_1 : HttpVersion.HTTP_1_0;
+            }
+        }
+        cursor.updatePos(indexFrom);
+        return super.parseProtocolVersion(buffer, cursor);
+    }
+
+    @Override
+    public StatusLine parseStatusLine(
+            final CharArrayBuffer buffer,
+            final ParserCursor cursor) throws ParseException {
+        Args.notNull(buffer, "Char array buffer");
+        Args.notNull(cursor, "Parser cursor");
+        final int indexFrom = cursor.getPos();
+        final int indexTo = cursor.getUpperBound();
+        final ProtocolVersion ver = parseProtocolVersion(buffer, cursor);
+        final int offset;
+        if (ver == HttpVersion.HTTP_1_1) {
+            offset = 0;
+        } else if (ver == HttpVersion.HTTP_1_0) {
+            offset = STATUS_RANGE;
+        } else {
+            cursor.updatePos(indexFrom);
+            return super.parseStatusLine(buffer, cursor);
+        }
+        skipWhitespace(buffer, cursor);
+        final int i = cursor.getPos();
+        // three digit status code followed by a blank or the end of the line
+        if (i + 3 > indexTo || (i + 3 < indexTo && buffer.charAt(i + 3) != ' ')) {
+            cursor.updatePos(indexFrom);
+            return super.parseStatusLine(buffer, cursor);
+        }
+        int statusCode = 0;
+        for (int j = i; j < i + 3; j++) {
+            final char ch = buffer.charAt(j);
+            if (ch < '0' || ch > '9') {
+                cursor.updatePos(indexFrom);
+                return super.parseStatusLine(buffer, cursor);
+            }
+            statusCode = statusCode * 10 + (ch - '0');
+        }
+        if (statusCode < MIN_STATUS || statusCode > MAX_STATUS) {
+            cursor.updatePos(indexFrom);
+            return super.parseStatusLine(buffer, cursor);
+        }
+        int beginIndex = i + 3;
+        int endIndex = indexTo;
+        while (beginIndex < endIndex && HTTP.isWhitespace(buffer.charAt(beginIndex))) {
+            beginIndex++;
+        }
+        while (endIndex > beginIndex && HTTP.isWhitespace(buffer.charAt(endIndex - 1))) {
+            endIndex--;
+        }
+        cursor.updatePos(indexTo);
+
+        final int slot = offset + statusCode - MIN_STATUS;
+        final StatusLine cached = this.statusLines.get(slot);
+        if (cached != null && regionEquals(buffer, beginIndex, endIndex, cached.getReasonPhrase())) {
+            return cached;
+        }
+        final StatusLine statusLine = createStatusLine(ver, statusCode,
+                beginIndex < endIndex ? buffer.substring(beginIndex, endIndex) : "");
+        this.statusLines.set(slot, statusLine);
+        return statusLine;
+    }
+
+    @Override
+    public Header parseHeader(final CharArrayBuffer buffer) throws ParseException {
+        Args.notNull(buffer, "Char array buffer");
+        final int colon = buffer.indexOf(':');
+        if (colon == -1) {
+            throw new ParseException("Invalid header: " + buffer.toString());
+        }
+        int beginIndex = 0;
+        int endIndex = colon;
+        while (beginIndex < endIndex && HTTP.isWhitespace(buffer.charAt(beginIndex))) {
+            beginIndex++;
+        }
+        while (endIndex > beginIndex && HTTP.isWhitespace(buffer.charAt(endIndex - 1))) {
+            endIndex--;
+        }
+        if (beginIndex == endIndex) {
+            throw new ParseException("Invalid header: " + buffer.toString());
+        }
+        String name = lookupHeaderName(buffer, beginIndex, endIndex);
+        if (name == null) {
+            name = buffer.substring(beginIndex, endIndex);
+        }
+        return new BufferedHeader(name, buffer, colon + 1);
+    }
+
+    /**
+     * Returns the shared instance of a well-known header name equal to
+     * the given region of the buffer or <code>null</code> if there is none.
+     */
+    static String lookupHeaderName(final CharArrayBuffer buffer, final int beginIndex, final int endIndex) {
+        int hash = 0;
+        for (int i = beginIndex; i < endIndex; i++) {
+            hash = 31 * hash + buffer.charAt(i);
+        }
+        int slot = hash & HEADER_NAMES_MASK;
+        String candidate;
+        while ((candidate = HEADER_NAMES[slot]) != null) {
+            if (regionEquals(buffer, beginIndex, endIndex, candidate)) {
+                return candidate;
+            }
+            slot = (slot + 1) & HEADER_NAMES_MASK;
+        }
+        return null;
+    }
+
+    private static boolean regionEquals(
+            final CharArrayBuffer buffer, final int beginIndex, final int endIndex, final String s) {
+        final int len = endIndex - beginIndex;
+        if (len != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (buffer.charAt(beginIndex + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -41,12 +41,26 @@ import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
 @NotThreadSafe
 public class ParserCursor {
 
-    private final int lowerBound;
-    private final int upperBound;
+    private int lowerBound;
+    private int upperBound;
     private int pos;
 
     public ParserCursor(final int lowerBound, final int upperBound) {
         super();
+        setBounds(lowerBound, upperBound);
+    }
+
+    /**
+     * Re-initializes this cursor with the given bounds, so that it can be
+     * reused for parsing another line.
+     *
+     * @since 4.4
+     */
+    public void reset(final int lowerBound, final int upperBound) {
+        setBounds(lowerBound, upperBound);
+    }
+
+    private void setBounds(final int lowerBound, final int upperBound) {
         if (lowerBound < 0) {
             throw new IndexOutOfBoundsException("Lower bound cannot be negative");
         }
@@ -27,13 +27,14 @@
 package com.epam.reportportal.apache.http.pool;
 
 import java.io.IOException;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -48,11 +49,17 @@ import com.epam.reportportal.apache.http.util.Args;
 /**
  * Abstract synchronous (blocking) pool of connections.
  * <p/>
+ * Lease requests that have to wait are served in FIFO order per route:
+ * a connection released back to the pool is handed over directly to
+ * the longest waiting request that can use it. Waiting times are measured
+ * with {@link System#nanoTime()} and reported through {@link PoolStats}.
+ * <p/>
  * Please note that this class does not maintain its own pool of execution {@link Thread}s.
  * Therefore, one <b>must</b> call {@link Future#get()} or {@link Future#get(long, TimeUnit)}
  * method on the {@link Future} object returned by the
  * {@link #lease(Object, Object, FutureCallback)} method in order for the lease operation
- * to complete.
+ * to complete. Requests made with {@link #leaseAsync(Object, Object, FutureCallback)}
+ * are completed by the pool itself and notify their callback instead.
  *
  * @param <T> the route type that represents the opposite endpoint of a pooled
  *   connection.
@@ -62,14 +69,15 @@ import com.epam.reportportal.apache.http.util.Args;
  */
 @ThreadSafe
 public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
-                                               implements ConnPool<T, E>, ConnPoolControl<T> {
+                                               implements ManagedConnPool<T, E> {
 
     private final Lock lock;
     private final ConnFactory<T, C> connFactory;
     private final Map<T, RouteSpecificPool<T, C, E>> routeToPool;
     private final Set<E> leased;
-    private final LinkedList<E> available;
-    private final LinkedList<PoolEntryFuture<E>> pending;
+    private final IndexedDeque<E> available;
+    private final IndexedDeque<PoolEntryFuture<E>> pending;
+    private final Queue<PoolEntryFuture<E>> completed;
     private final Map<T, Integer> maxPerRoute;
 
     private volatile boolean isShutDown;
@@ -87,8 +95,9 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
         this.lock = new ReentrantLock();
         this.routeToPool = new HashMap<T, RouteSpecificPool<T, C, E>>();
         this.leased = new HashSet<E>();
-        this.available = new LinkedList<E>();
-        this.pending = new LinkedList<PoolEntryFuture<E>>();
+        this.available = new IndexedDeque<E>();
+        this.pending = new IndexedDeque<PoolEntryFuture<E>>();
+        this.completed = new ConcurrentLinkedQueue<PoolEntryFuture<E>>();
         this.maxPerRoute = new HashMap<T, Integer>();
     }
 
@@ -124,11 +133,18 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
         this.lock.lock();
         try {
             for (final E entry: this.available) {
-                entry.close();
+                entry.closeAvailable();
             }
             for (final E entry: this.leased) {
                 entry.close();
             }
+            // Callbacks of pending requests are notified once the lock has been released
+            PoolEntryFuture<E> future;
+            while ((future = this.pending.pollFirst()) != null) {
+                if (future.markCancelled()) {
+                    this.completed.add(future);
+                }
+            }
             for (final RouteSpecificPool<T, C, E> pool: this.routeToPool.values()) {
                 pool.shutdown();
             }
@@ -138,6 +154,7 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
         } finally {
             this.lock.unlock();
         }
+        notifyCompleted();
     }
 
     private RouteSpecificPool<T, C, E> getPool(final T route) {
@@ -167,7 +184,7 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
     public Future<E> lease(final T route, final Object state, final FutureCallback<E> callback) {
         Args.notNull(route, "Route");
         Asserts.check(!this.isShutDown, "Connection pool shut down");
-        return new PoolEntryFuture<E>(this.lock, callback) {
+        return new PoolEntryFuture<E>(this.lock, state, callback) {
 
             @Override
             public E getPoolEntry(
@@ -179,6 +196,20 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
                 return entry;
             }
 
+            @Override
+            public E get(
+                    final long timeout,
+                    final TimeUnit tunit)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+                try {
+                    return super.get(timeout, tunit);
+                } finally {
+                    // Asynchronous requests may have been completed
+                    // with the pool lock held
+                    notifyCompleted();
+                }
+            }
+
         };
     }
 
@@ -202,123 +233,240 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
         return lease(route, state, null);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The request is completed by the thread that makes it if an entry can
+     * be leased right away, otherwise by the thread that releases an entry
+     * or frees capacity for it. The callback is invoked once that thread
+     * has released the pool lock.
+     *
+     * @since 4.4
+     */
+    public Future<E> leaseAsync(final T route, final Object state, final FutureCallback<E> callback) {
+        Args.notNull(route, "Route");
+        Asserts.check(!this.isShutDown, "Connection pool shut down");
+        final AsyncPoolEntryFuture<E> future;
+        this.lock.lock();
+        try {
+            final RouteSpecificPool<T, C, E> pool = getPool(route);
+            future = new AsyncPoolEntryFuture<E>(this.lock, state, callback) {
+
+                @Override
+                void process() {
+                    pool.unqueue(this);
+                    pending.remove(this);
+                    if (!tryComplete(pool, this)) {
+                        pool.requeue(this);
+                        pending.addFirst(this);
+                    }
+                }
+
+                @Override
+                public boolean cancel(final boolean mayInterruptIfRunning) {
+                    lock.lock();
+                    try {
+                        pool.unqueue(this);
+                        pending.remove(this);
+                    } finally {
+                        lock.unlock();
+                    }
+                    return super.cancel(mayInterruptIfRunning);
+                }
+
+            };
+            if (!tryComplete(pool, future)) {
+                pool.queue(future);
+                this.pending.addLast(future);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        notifyCompleted();
+        return future;
+    }
+
+    public E leaseNew(final T route) throws IOException {
+        Args.notNull(route, "Route");
+        Asserts.check(!this.isShutDown, "Connection pool shut down");
+        final E entry;
+        this.lock.lock();
+        try {
+            final RouteSpecificPool<T, C, E> pool = getPool(route);
+            if (pool.getAllocatedCount() >= getMax(route)
+                    || this.leased.size() + this.available.size() >= this.maxTotal) {
+                return null;
+            }
+            final C conn = this.connFactory.create(route);
+            entry = pool.add(conn);
+            this.leased.add(entry);
+            onLease(entry);
+        } finally {
+            this.lock.unlock();
+        }
+        return entry;
+    }
+
     private E getPoolEntryBlocking(
             final T route, final Object state,
             final long timeout, final TimeUnit tunit,
             final PoolEntryFuture<E> future)
                 throws IOException, InterruptedException, TimeoutException {
 
-        Date deadline = null;
-        if (timeout > 0) {
-            deadline = new Date
-                (System.currentTimeMillis() + tunit.toMillis(timeout));
-        }
+        final long started = System.nanoTime();
+        final long deadline = timeout > 0 ? started + tunit.toNanos(timeout) : 0;
 
         this.lock.lock();
         try {
             final RouteSpecificPool<T, C, E> pool = getPool(route);
             E entry = null;
+            boolean woken = false;
             while (entry == null) {
                 Asserts.check(!this.isShutDown, "Connection pool shut down");
-                for (;;) {
-                    entry = pool.getFree(state);
-                    if (entry == null) {
-                        break;
-                    }
-                    if (entry.isClosed() || entry.isExpired(System.currentTimeMillis())) {
-                        entry.close();
-                        this.available.remove(entry);
-                        pool.free(entry, false);
-                    } else {
-                        break;
-                    }
-                }
+                entry = tryLease(pool, state);
                 if (entry != null) {
-                    this.available.remove(entry);
-                    this.leased.add(entry);
+                    pool.recordWaitTime(System.nanoTime() - started);
                     return entry;
                 }
 
-                // New connection is needed
-                final int maxPerRoute = getMax(route);
-                // Shrink the pool prior to allocating a new connection
-                final int excess = Math.max(0, pool.getAllocatedCount() + 1 - maxPerRoute);
-                if (excess > 0) {
-                    for (int i = 0; i < excess; i++) {
-                        final E lastUsed = pool.getLastUsed();
-                        if (lastUsed == null) {
-                            break;
-                        }
-                        lastUsed.close();
-                        this.available.remove(lastUsed);
-                        pool.remove(lastUsed);
-                    }
-                }
-
-                if (pool.getAllocatedCount() < maxPerRoute) {
-                    final int totalUsed = this.leased.size();
-                    final int freeCapacity = Math.max(this.maxTotal - totalUsed, 0);
-                    if (freeCapacity > 0) {
-                        final int totalAvailable = this.available.size();
-                        if (totalAvailable > freeCapacity - 1) {
-                            if (!this.available.isEmpty()) {
-                                final E lastUsed = this.available.removeLast();
-                                lastUsed.close();
-                                final RouteSpecificPool<T, C, E> otherpool = getPool(lastUsed.getRoute());
-                                otherpool.remove(lastUsed);
-                            }
-                        }
-                        final C conn = this.connFactory.create(route);
-                        entry = pool.add(conn);
-                        this.leased.add(entry);
-                        return entry;
-                    }
-                }
-
                 boolean success = false;
                 try {
-                    pool.queue(future);
-                    this.pending.add(future);
-                    success = future.await(deadline);
+                    // A request that has been woken up without getting
+                    // a connection keeps its place at the head of the queue
+                    if (woken) {
+                        pool.requeue(future);
+                        this.pending.addFirst(future);
+                    } else {
+                        pool.queue(future);
+                        this.pending.addLast(future);
+                    }
+                    success = future.await(timeout > 0 ? Math.max(0, deadline - System.nanoTime()) : -1);
                 } finally {
-                    // In case of 'success', we were woken up by the
-                    // connection pool and should now have a connection
-                    // waiting for us, or else we're shutting down.
-                    // Just continue in the loop, both cases are checked.
                     pool.unqueue(future);
                     this.pending.remove(future);
                 }
+                woken = true;
+                // A connection released by another thread may have been
+                // handed over to us directly
+                entry = future.takeDelivered();
+                if (entry != null) {
+                    pool.recordWaitTime(System.nanoTime() - started);
+                    return entry;
+                }
                 // check for spurious wakeup vs. timeout
-                if (!success && (deadline != null) &&
-                    (deadline.getTime() <= System.currentTimeMillis())) {
+                if (!success && timeout > 0 && deadline - System.nanoTime() <= 0) {
                     break;
                 }
             }
+            pool.recordWaitTime(System.nanoTime() - started);
             throw new TimeoutException("Timeout waiting for connection");
+        } catch (final InterruptedException ex) {
+            // Do not lose a connection handed over just before the interruption
+            final E entry = future.takeDelivered();
+            if (entry != null) {
+                releaseEntry(entry, true);
+            }
+            throw ex;
         } finally {
             this.lock.unlock();
         }
     }
 
+    /**
+     * Leases an available entry or creates a new one if there is enough
+     * capacity. Returns <code>null</code> if the request has to wait.
+     * Must be called with the lock held.
+     */
+    private E tryLease(final RouteSpecificPool<T, C, E> pool, final Object state) throws IOException {
+        E entry;
+        for (;;) {
+            entry = pool.getFree(state);
+            if (entry == null) {
+                break;
+            }
+            if (entry.isClosed() || entry.isExpired(System.currentTimeMillis())) {
+                entry.closeAvailable();
+                this.available.remove(entry);
+                pool.free(entry, false);
+            } else {
+                break;
+            }
+        }
+        if (entry != null) {
+            this.available.remove(entry);
+            this.leased.add(entry);
+            return entry;
+        }
+
+        // New connection is needed
+        final T route = pool.getRoute();
+        final int maxPerRoute = getMax(route);
+        // Shrink the pool prior to allocating a new connection
+        final int excess = Math.max(0, pool.getAllocatedCount() + 1 - maxPerRoute);
+        if (excess > 0) {
+            for (int i = 0; i < excess; i++) {
+                final E lastUsed = pool.getLastUsed();
+                if (lastUsed == null) {
+                    break;
+                }
+                lastUsed.closeAvailable();
+                this.available.remove(lastUsed);
+                pool.remove(lastUsed);
+            }
+        }
+
+        if (pool.getAllocatedCount() < maxPerRoute) {
+            final int totalUsed = this.leased.size();
+            final int freeCapacity = Math.max(this.maxTotal - totalUsed, 0);
+            if (freeCapacity > 0) {
+                final int totalAvailable = this.available.size();
+                if (totalAvailable > freeCapacity - 1) {
+                    final E lastUsed = this.available.pollLast();
+                    if (lastUsed != null) {
+                        lastUsed.closeAvailable();
+                        final RouteSpecificPool<T, C, E> otherpool = getPool(lastUsed.getRoute());
+                        otherpool.remove(lastUsed);
+                    }
+                }
+                final C conn = this.connFactory.create(route);
+                entry = pool.add(conn);
+                this.leased.add(entry);
+                return entry;
+            }
+        }
+        return null;
+    }
+
     public void release(final E entry, final boolean reusable) {
+        releaseEntry(entry, reusable);
+        notifyCompleted();
+    }
+
+    private void releaseEntry(final E entry, final boolean reusable) {
         this.lock.lock();
         try {
             if (this.leased.remove(entry)) {
                 final RouteSpecificPool<T, C, E> pool = getPool(entry.getRoute());
-                pool.free(entry, reusable);
                 if (reusable && !this.isShutDown) {
-                    this.available.addFirst(entry);
                     onRelease(entry);
+                    if (handOver(pool, entry)) {
+                        return;
+                    }
+                    pool.free(entry, true);
+                    this.available.addFirst(entry);
                 } else {
+                    pool.free(entry, false);
                     entry.close();
                 }
                 PoolEntryFuture<E> future = pool.nextPending();
                 if (future != null) {
                     this.pending.remove(future);
                 } else {
-                    future = this.pending.poll();
+                    future = this.pending.pollFirst();
                 }
-                if (future != null) {
+                if (future instanceof AsyncPoolEntryFuture) {
+                    ((AsyncPoolEntryFuture<E>) future).process();
+                } else if (future != null) {
                     future.wakeup();
                 }
             }
@@ -327,6 +475,83 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
         }
     }
 
+    /**
+     * Hands the released entry directly over to the longest waiting request
+     * for the same route that can accept it, so that the entry cannot be taken
+     * by a request that has arrived later.
+     */
+    private boolean handOver(final RouteSpecificPool<T, C, E> pool, final E entry) {
+        for (;;) {
+            final PoolEntryFuture<E> future = pool.nextPending(entry.getState());
+            if (future == null) {
+                return false;
+            }
+            this.pending.remove(future);
+            if (future instanceof AsyncPoolEntryFuture) {
+                if (!future.isDone()) {
+                    this.leased.add(entry);
+                    complete(pool, (AsyncPoolEntryFuture<E>) future, entry);
+                    return true;
+                }
+            } else if (future.deliver(entry)) {
+                this.leased.add(entry);
+                return true;
+            }
+        }
+    }
+
+    private void complete(
+            final RouteSpecificPool<T, C, E> pool, final AsyncPoolEntryFuture<E> future, final E entry) {
+        onLease(entry);
+        pool.recordWaitTime(System.nanoTime() - future.getStarted());
+        if (future.completed(entry)) {
+            this.completed.add(future);
+        }
+    }
+
+    /**
+     * Attempts to complete the given asynchronous request without blocking.
+     * Returns <code>true</code> if the request is done.
+     */
+    private boolean tryComplete(
+            final RouteSpecificPool<T, C, E> pool, final AsyncPoolEntryFuture<E> future) {
+        if (future.isDone()) {
+            return true;
+        }
+        if (this.isShutDown) {
+            if (future.markCancelled()) {
+                this.completed.add(future);
+            }
+            return true;
+        }
+        final E entry;
+        try {
+            entry = tryLease(pool, future.getState());
+        } catch (final IOException ex) {
+            if (future.failed(ex)) {
+                this.completed.add(future);
+            }
+            return true;
+        }
+        if (entry == null) {
+            return false;
+        }
+        complete(pool, future, entry);
+        return true;
+    }
+
+    /**
+     * Notifies the callbacks of asynchronous requests that have been
+     * completed with the pool lock held. Must be called with the lock
+     * released, as the callbacks may call back into the pool.
+     */
+    private void notifyCompleted() {
+        PoolEntryFuture<E> future;
+        while ((future = this.completed.poll()) != null) {
+            future.notifyCallback();
+        }
+    }
+
     private int getMax(final T route) {
         final Integer v = this.maxPerRoute.get(route);
         if (v != null) {
@@ -398,11 +623,19 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
     public PoolStats getTotalStats() {
         this.lock.lock();
         try {
+            Histogram waitTimes = Histogram.EMPTY;
+            Histogram queueDepths = Histogram.EMPTY;
+            for (final RouteSpecificPool<T, C, E> pool: this.routeToPool.values()) {
+                waitTimes = waitTimes.merge(pool.getWaitTimes());
+                queueDepths = queueDepths.merge(pool.getQueueDepths());
+            }
             return new PoolStats(
                     this.leased.size(),
                     this.pending.size(),
                     this.available.size(),
-                    this.maxTotal);
+                    this.maxTotal,
+                    waitTimes,
+                    queueDepths);
         } finally {
             this.lock.unlock();
         }
@@ -417,7 +650,9 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
                     pool.getLeasedCount(),
                     pool.getPendingCount(),
                     pool.getAvailableCount(),
-                    getMax(route));
+                    getMax(route),
+                    pool.getWaitTimes(),
+                    pool.getQueueDepths());
         } finally {
             this.lock.unlock();
         }
@@ -439,6 +674,8 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
 
     /**
      * Enumerates all leased connections.
+     * Leased connections closed by the callback are evicted from the pool;
+     * releasing them afterwards has no effect.
      *
      * @since 4.3
      */
@@ -477,6 +714,10 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
     /**
      * Closes connections that have been idle longer than the given period
      * of time and evicts them from the pool.
+     * <p/>
+     * Released connections are kept in the order they have been returned
+     * to the pool, so only the connections being evicted and one more
+     * are examined rather than the whole pool.
      *
      * @param idletime maximum idle time.
      * @param tunit time unit.
@@ -488,16 +729,22 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
             time = 0;
         }
         final long deadline = System.currentTimeMillis() - time;
-        enumAvailable(new PoolEntryCallback<T, C>() {
-
-            public void process(final PoolEntry<T, C> entry) {
-                if (entry.getUpdated() <= deadline) {
-                    entry.close();
+        this.lock.lock();
+        try {
+            // The least recently released connection is at the tail
+            for (;;) {
+                final E entry = this.available.peekLast();
+                if (entry == null || entry.getUpdated() > deadline) {
+                    break;
                 }
+                this.available.pollLast();
+                entry.closeAvailable();
+                getPool(entry.getRoute()).remove(entry);
             }
-
-        });
-        purgePoolMap();
+            purgePoolMap();
+        } finally {
+            this.lock.unlock();
+        }
     }
 
     /**
@@ -509,7 +756,7 @@ public abstract class AbstractConnPool<T, C, E extends PoolEntry<T, C>>
 
             public void process(final PoolEntry<T, C> entry) {
                 if (entry.isExpired(now)) {
-                    entry.close();
+                    entry.closeAvailable();
                 }
             }
 
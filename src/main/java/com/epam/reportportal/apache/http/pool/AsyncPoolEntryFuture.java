@@ -0,0 +1,93 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.pool;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.concurrent.FutureCallback;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * Lease request that is completed by the pool rather than by a thread
+ * blocking in {@link #get(long, TimeUnit)}. Requests of this kind are queued
+ * along with blocking ones and are served in the same order: a released
+ * entry is handed over directly and freed capacity is used to create a new
+ * entry on behalf of the request by the releasing thread.
+ *
+ * @since 4.4
+ */
+@ThreadSafe
+abstract class AsyncPoolEntryFuture<T> extends PoolEntryFuture<T> {
+
+    private final long started;
+
+    AsyncPoolEntryFuture(final Lock lock, final Object state, final FutureCallback<T> callback) {
+        super(lock, state, callback);
+        this.started = System.nanoTime();
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} value at which the request was made.
+     */
+    long getStarted() {
+        return this.started;
+    }
+
+    /**
+     * Waits for the pool to complete the request. Unlike
+     * {@link PoolEntryFuture#get(long, TimeUnit)} this does not hold the lock
+     * guarding the request while waiting, so that the callback gets notified
+     * without it.
+     */
+    @Override
+    public T get(
+            final long timeout,
+            final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        Args.notNull(unit, "Time unit");
+        awaitCompletion(timeout, unit);
+        return getResult();
+    }
+
+    @Override
+    protected T getPoolEntry(
+            final long timeout, final TimeUnit unit) throws InterruptedException, TimeoutException {
+        return awaitCompletion(timeout, unit);
+    }
+
+    /**
+     * Attempts to complete the request without blocking after it has been
+     * taken off the queue. If the request cannot be completed yet it is put
+     * back at the head of the queue. Called by the pool with the lock guarding
+     * the request held.
+     */
+    abstract void process();
+
+}
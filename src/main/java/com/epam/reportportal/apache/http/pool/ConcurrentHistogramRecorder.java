@@ -0,0 +1,88 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.pool;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+
+/**
+ * Records values into a {@link Histogram} from multiple threads without
+ * locking or allocating.
+ * <p/>
+ * A snapshot taken while values are being recorded may reflect some of
+ * the concurrent updates but not others.
+ *
+ * @since 4.4
+ */
+@ThreadSafe
+public final class ConcurrentHistogramRecorder {
+
+    private final AtomicLongArray counts;
+    private final AtomicLong sum;
+    private final AtomicLong max;
+
+    public ConcurrentHistogramRecorder() {
+        super();
+        this.counts = new AtomicLongArray(Histogram.BUCKETS);
+        this.sum = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records the given value. Negative values are counted as zero.
+     */
+    public void record(final long value) {
+        final long v = Math.max(0, value);
+        this.counts.incrementAndGet(Histogram.bucketOf(v));
+        this.sum.addAndGet(v);
+        for (;;) {
+            final long current = this.max.get();
+            if (v <= current || this.max.compareAndSet(current, v)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the values recorded so far.
+     */
+    public Histogram snapshot() {
+        final long[] snapshot = new long[Histogram.BUCKETS];
+        long count = 0;
+        for (int i = 0; i < Histogram.BUCKETS; i++) {
+            snapshot[i] = this.counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return Histogram.EMPTY;
+        }
+        return new Histogram(snapshot, count, this.sum.get(), this.max.get());
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.pool;
+
+import com.epam.reportportal.apache.http.annotation.Immutable;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * Immutable snapshot of a distribution of non-negative values.
+ * <p>
+ * Values are counted in buckets with power-of-two bounds: bucket <code>0</code>
+ * counts zero values and bucket <code>i &gt; 0</code> counts values in the range
+ * <code>[2<sup>i-1</sup>, 2<sup>i</sup>)</code>.
+ * </p>
+ *
+ * @since 4.4
+ */
+@Immutable
+public final class Histogram {
+
+    /**
+     * Number of buckets, enough to cover all non-negative <code>long</code> values.
+     */
+    public static final int BUCKETS = 64;
+
+    public static final Histogram EMPTY = new Histogram(new long[BUCKETS], 0, 0, 0);
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    Histogram(final long[] counts, final long count, final long sum, final long max) {
+        super();
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    static int bucketOf(final long value) {
+        return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Returns the largest value counted by the given bucket.
+     */
+    public static long getUpperBound(final int bucket) {
+        Args.check(bucket >= 0 && bucket < BUCKETS, "Invalid bucket index");
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the number of recorded values that fall into the given bucket.
+     */
+    public long getCount(final int bucket) {
+        Args.check(bucket >= 0 && bucket < BUCKETS, "Invalid bucket index");
+        return this.counts[bucket];
+    }
+
+    public long getSum() {
+        return this.sum;
+    }
+
+    public long getMax() {
+        return this.max;
+    }
+
+    public double getMean() {
+        return this.count > 0 ? (double) this.sum / this.count : 0;
+    }
+
+    /**
+     * Returns an upper estimate of the given percentile, that is, the upper
+     * bound of the bucket the percentile falls into, capped at the maximum
+     * recorded value.
+     *
+     * @param percentile percentile in the range <code>(0, 100]</code>.
+     */
+    public long getPercentile(final double percentile) {
+        Args.check(percentile > 0 && percentile <= 100, "Percentile must be in the range (0, 100]");
+        if (this.count == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(this.count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(getUpperBound(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    Histogram merge(final Histogram other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (this.count == 0) {
+            return other;
+        }
+        final long[] merged = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            merged[i] = this.counts[i] + other.counts[i];
+        }
+        return new Histogram(merged, this.count + other.count, this.sum + other.sum,
+                Math.max(this.max, other.max));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[count: ");
+        buffer.append(this.count);
+        buffer.append("; mean: ");
+        buffer.append(getMean());
+        buffer.append("; max: ");
+        buffer.append(this.max);
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.pool;
+
+import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
+
+/**
+ * Records values into a {@link Histogram} without allocating.
+ *
+ * @since 4.4
+ */
+@NotThreadSafe
+class HistogramRecorder {
+
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private long max;
+
+    HistogramRecorder() {
+        super();
+        this.counts = new long[Histogram.BUCKETS];
+    }
+
+    void record(final long value) {
+        final long v = Math.max(0, value);
+        this.counts[Histogram.bucketOf(v)]++;
+        this.count++;
+        this.sum += v;
+        if (v > this.max) {
+            this.max = v;
+        }
+    }
+
+    Histogram snapshot() {
+        if (this.count == 0) {
+            return Histogram.EMPTY;
+        }
+        return new Histogram(this.counts.clone(), this.count, this.sum, this.max);
+    }
+
+}
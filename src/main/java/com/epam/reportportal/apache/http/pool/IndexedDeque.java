@@ -0,0 +1,219 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.pool;
+
+import java.util.AbstractCollection;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
+import com.epam.reportportal.apache.http.util.Args;
+
+/**
+ * Doubly-linked deque with an identity index of its elements.
+ * <p/>
+ * Unlike {@link java.util.LinkedList}, removal of an arbitrary element and
+ * membership checks run in constant time, which keeps pool bookkeeping
+ * independent of the number of pooled entries and pending requests.
+ * Elements are compared by reference and may be present at most once.
+ *
+ * @param <E> the element type.
+ * @since 4.4
+ */
+@NotThreadSafe
+class IndexedDeque<E> extends AbstractCollection<E> {
+
+    private final Map<E, Node<E>> index;
+    private final Node<E> head;
+    private int modCount;
+
+    IndexedDeque() {
+        super();
+        this.index = new IdentityHashMap<E, Node<E>>();
+        this.head = new Node<E>(null);
+        this.head.prev = this.head;
+        this.head.next = this.head;
+    }
+
+    @Override
+    public int size() {
+        return this.index.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.index.isEmpty();
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return this.index.containsKey(o);
+    }
+
+    /**
+     * Same as {@link #addLast(Object)}.
+     */
+    @Override
+    public boolean add(final E e) {
+        return addLast(e);
+    }
+
+    public boolean addFirst(final E e) {
+        return link(e, this.head);
+    }
+
+    public boolean addLast(final E e) {
+        return link(e, this.head.prev);
+    }
+
+    public E peekFirst() {
+        return this.head.next.item;
+    }
+
+    public E peekLast() {
+        return this.head.prev.item;
+    }
+
+    public E pollFirst() {
+        final Node<E> node = this.head.next;
+        if (node == this.head) {
+            return null;
+        }
+        unlink(node);
+        return node.item;
+    }
+
+    public E pollLast() {
+        final Node<E> node = this.head.prev;
+        if (node == this.head) {
+            return null;
+        }
+        unlink(node);
+        return node.item;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        final Node<E> node = this.index.get(o);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        this.index.clear();
+        this.head.prev = this.head;
+        this.head.next = this.head;
+        this.modCount++;
+    }
+
+    /**
+     * Returns an iterator over the elements from first to last.
+     * The iterator supports element removal.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private Node<E> next = head.next;
+            private Node<E> lastReturned;
+            private int expectedModCount = modCount;
+
+            public boolean hasNext() {
+                return this.next != head;
+            }
+
+            public E next() {
+                if (this.expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (this.next == head) {
+                    throw new NoSuchElementException();
+                }
+                this.lastReturned = this.next;
+                this.next = this.next.next;
+                return this.lastReturned.item;
+            }
+
+            public void remove() {
+                if (this.lastReturned == null) {
+                    throw new IllegalStateException();
+                }
+                if (this.expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                unlink(this.lastReturned);
+                this.lastReturned = null;
+                this.expectedModCount = modCount;
+            }
+
+        };
+    }
+
+    private boolean link(final E e, final Node<E> pred) {
+        Args.notNull(e, "Element");
+        if (this.index.containsKey(e)) {
+            return false;
+        }
+        final Node<E> node = new Node<E>(e);
+        node.prev = pred;
+        node.next = pred.next;
+        pred.next.prev = node;
+        pred.next = node;
+        this.index.put(e, node);
+        this.modCount++;
+        return true;
+    }
+
+    private void unlink(final Node<E> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        this.index.remove(node.item);
+        this.modCount++;
+    }
+
+    static class Node<E> {
+
+        final E item;
+        Node<E> prev;
+        Node<E> next;
+
+        Node(final E item) {
+            this.item = item;
+        }
+
+    }
+
+}
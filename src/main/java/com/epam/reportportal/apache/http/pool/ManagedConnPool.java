@@ -0,0 +1,100 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.pool;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.epam.reportportal.apache.http.concurrent.FutureCallback;
+
+/**
+ * {@link ConnPool} that also exposes its runtime limits through
+ * {@link ConnPoolControl} and manages the life cycle of pooled connections.
+ *
+ * @param <T> the route type that represents the opposite endpoint of a pooled
+ *   connection.
+ * @param <E> the type of the pool entry containing a pooled connection.
+ * @since 4.4
+ */
+public interface ManagedConnPool<T, E> extends ConnPool<T, E>, ConnPoolControl<T> {
+
+    /**
+     * Attempts to lease a connection for the given route and with the given
+     * state from the pool without requiring a thread to block in
+     * {@link Future#get()}. The request is queued along with blocking ones
+     * and completed by the pool as soon as a connection is released to it or
+     * can be created; the callback is notified upon completion. Cancelling
+     * the returned future withdraws the request from the queue.
+     *
+     * @param route route of the connection.
+     * @param state arbitrary object that represents a particular state
+     *  (usually a security principal or a unique token identifying
+     *  the user whose credentials have been used while establishing the connection).
+     *  May be <code>null</code>.
+     * @param callback operation completion callback.
+     *
+     * @return future for a leased pool entry.
+     */
+    Future<E> leaseAsync(final T route, final Object state, final FutureCallback<E> callback);
+
+    /**
+     * Leases a newly created connection for the given route if the per route
+     * and total limits leave room for one. Unlike
+     * {@link #leaseAsync(Object, Object, FutureCallback)} this neither takes
+     * a connection available in the pool nor closes one to make room, and it
+     * does not wait.
+     *
+     * @param route route of the connection.
+     *
+     * @return the leased pool entry or <code>null</code> if the limits have
+     *   been reached.
+     */
+    E leaseNew(final T route) throws IOException;
+
+    boolean isShutdown();
+
+    /**
+     * Shuts down the pool.
+     */
+    void shutdown() throws IOException;
+
+    /**
+     * Closes connections that have been idle longer than the given period
+     * of time and evicts them from the pool.
+     *
+     * @param idletime maximum idle time.
+     * @param tunit time unit.
+     */
+    void closeIdle(long idletime, TimeUnit tunit);
+
+    /**
+     * Closes expired connections and evicts them from the pool.
+     */
+    void closeExpired();
+
+}
@@ -0,0 +1,49 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.pool;
+
+/**
+ * Locking strategy of a connection pool.
+ *
+ * @since 4.4
+ */
+public enum PoolConcurrencyPolicy {
+
+    /**
+     * All pool operations are serialized by a single pool-wide lock
+     * (see {@link AbstractConnPool}).
+     */
+    GLOBAL_LOCK,
+
+    /**
+     * Each route is guarded by its own lock and the total number of
+     * connections is enforced atomically, so that operations on one route
+     * never block operations on another (see {@link StripedConnPool}).
+     */
+    PER_ROUTE_LOCK
+
+}
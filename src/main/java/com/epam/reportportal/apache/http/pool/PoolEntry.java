@@ -162,6 +162,19 @@ public abstract class PoolEntry<T, C> {
      */
     public abstract void close();
 
+    /**
+     * Invalidates a pool entry that is available in the pool, i.e. not leased,
+     * and closes the pooled connection associated with it. As no other thread
+     * can be using the connection, resources held by it may be recycled.
+     * <p/>
+     * Default implementation calls {@link #close()}.
+     *
+     * @since 4.4
+     */
+    public void closeAvailable() {
+        close();
+    }
+
     /**
      * Returns <code>true</code> if the pool entry has been invalidated.
      */
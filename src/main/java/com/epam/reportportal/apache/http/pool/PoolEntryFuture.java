@@ -27,7 +27,6 @@
 package com.epam.reportportal.apache.http.pool;
 
 import java.io.IOException;
-import java.util.Date;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -43,20 +42,51 @@ import com.epam.reportportal.apache.http.util.Args;
 abstract class PoolEntryFuture<T> implements Future<T> {
 
     private final Lock lock;
+    private final Object state;
     private final FutureCallback<T> callback;
     private final Condition condition;
     private volatile boolean cancelled;
     private volatile boolean completed;
     private T result;
+    private Exception ex;
+    private T delivered;
+    private boolean notified;
 
-    PoolEntryFuture(final Lock lock, final FutureCallback<T> callback) {
+    PoolEntryFuture(final Lock lock, final Object state, final FutureCallback<T> callback) {
         super();
         this.lock = lock;
+        this.state = state;
         this.condition = lock.newCondition();
         this.callback = callback;
     }
 
+    PoolEntryFuture(final Lock lock, final FutureCallback<T> callback) {
+        this(lock, null, callback);
+    }
+
+    /**
+     * Returns the state requested by the lease operation.
+     */
+    public Object getState() {
+        return this.state;
+    }
+
     public boolean cancel(final boolean mayInterruptIfRunning) {
+        if (!markCancelled()) {
+            return false;
+        }
+        notifyCallback();
+        return true;
+    }
+
+    /**
+     * Cancels the operation on behalf of the pool without notifying
+     * the callback.
+     *
+     * @return <code>false</code> if the operation has already been completed
+     *   or cancelled.
+     */
+    boolean markCancelled() {
         this.lock.lock();
         try {
             if (this.completed) {
@@ -64,9 +94,6 @@ abstract class PoolEntryFuture<T> implements Future<T> {
             }
             this.completed = true;
             this.cancelled = true;
-            if (this.callback != null) {
-                this.callback.cancelled();
-            }
             this.condition.signalAll();
             return true;
         } finally {
@@ -94,41 +121,178 @@ abstract class PoolEntryFuture<T> implements Future<T> {
             final long timeout,
             final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
         Args.notNull(unit, "Time unit");
+        try {
+            this.lock.lock();
+            try {
+                if (this.completed) {
+                    return getResult();
+                }
+                final T entry = getPoolEntry(timeout, unit);
+                if (this.completed) {
+                    return getResult();
+                }
+                this.result = entry;
+                this.completed = true;
+                return entry;
+            } catch (final IOException ex) {
+                this.completed = true;
+                this.result = null;
+                this.ex = ex;
+                throw new ExecutionException(ex);
+            } finally {
+                this.lock.unlock();
+            }
+        } finally {
+            notifyCallback();
+        }
+    }
+
+    T getResult() throws ExecutionException {
+        if (this.ex != null) {
+            throw new ExecutionException(this.ex);
+        }
+        return this.result;
+    }
+
+    protected abstract T getPoolEntry(
+            long timeout, TimeUnit unit) throws IOException, InterruptedException, TimeoutException;
+
+    /**
+     * Completes the operation with the given pool entry on behalf of the pool
+     * without notifying the callback.
+     *
+     * @return <code>false</code> if the operation has already been completed
+     *   or cancelled.
+     */
+    boolean completed(final T entry) {
         this.lock.lock();
         try {
             if (this.completed) {
-                return this.result;
+                return false;
             }
-            this.result = getPoolEntry(timeout, unit);
             this.completed = true;
-            if (this.callback != null) {
-                this.callback.completed(this.result);
+            this.result = entry;
+            this.condition.signalAll();
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Fails the operation on behalf of the pool without notifying the callback.
+     *
+     * @return <code>false</code> if the operation has already been completed
+     *   or cancelled.
+     */
+    boolean failed(final Exception exception) {
+        this.lock.lock();
+        try {
+            if (this.completed) {
+                return false;
             }
-            return result;
-        } catch (final IOException ex) {
             this.completed = true;
-            this.result = null;
-            if (this.callback != null) {
-                this.callback.failed(ex);
+            this.ex = exception;
+            this.condition.signalAll();
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Notifies the callback of the outcome of the operation once it has been
+     * completed. The callback is notified only once however many times this
+     * method gets called. As the callback may call back into the pool this
+     * method must not be called with the lock of the pool held.
+     */
+    void notifyCallback() {
+        final boolean wasCancelled;
+        final T entry;
+        final Exception exception;
+        this.lock.lock();
+        try {
+            if (!this.completed || this.notified) {
+                return;
             }
-            throw new ExecutionException(ex);
+            this.notified = true;
+            wasCancelled = this.cancelled;
+            entry = this.result;
+            exception = this.ex;
         } finally {
             this.lock.unlock();
         }
+        if (this.callback == null) {
+            return;
+        }
+        if (wasCancelled) {
+            this.callback.cancelled();
+        } else if (exception != null) {
+            this.callback.failed(exception);
+        } else {
+            this.callback.completed(entry);
+        }
     }
 
-    protected abstract T getPoolEntry(
-            long timeout, TimeUnit unit) throws IOException, InterruptedException, TimeoutException;
+    /**
+     * Waits until the operation is completed by the pool or the given time
+     * elapses. Elapsing the time cancels the operation unless it has been
+     * completed in the meantime.
+     */
+    T awaitCompletion(
+            final long timeout, final TimeUnit unit) throws InterruptedException, TimeoutException {
+        boolean timedOut = false;
+        this.lock.lock();
+        try {
+            final long deadline = timeout > 0 ? System.nanoTime() + unit.toNanos(timeout) : 0;
+            while (!this.completed) {
+                if (timeout > 0) {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timedOut = true;
+                        break;
+                    }
+                    this.condition.awaitNanos(remaining);
+                } else {
+                    this.condition.await();
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        // Cancelling notifies the callback, which must not happen with the lock held
+        if (timedOut && cancel(true)) {
+            throw new TimeoutException("Timeout waiting for connection");
+        }
+        this.lock.lock();
+        try {
+            if (this.cancelled) {
+                throw new InterruptedException("Operation interrupted");
+            }
+            return this.result;
+        } finally {
+            this.lock.unlock();
+        }
+    }
 
-    public boolean await(final Date deadline) throws InterruptedException {
+    /**
+     * Waits until woken up, handed a pool entry or the given time elapses.
+     *
+     * @param nanosTimeout maximum time to wait in nanoseconds. A negative value
+     *   means no time limit.
+     * @return <code>false</code> if the waiting time elapsed, <code>true</code> otherwise.
+     */
+    public boolean await(final long nanosTimeout) throws InterruptedException {
         this.lock.lock();
         try {
             if (this.cancelled) {
                 throw new InterruptedException("Operation interrupted");
             }
             final boolean success;
-            if (deadline != null) {
-                success = this.condition.awaitUntil(deadline);
+            if (this.delivered != null) {
+                success = true;
+            } else if (nanosTimeout >= 0) {
+                success = nanosTimeout > 0 && this.condition.awaitNanos(nanosTimeout) > 0;
             } else {
                 this.condition.await();
                 success = true;
@@ -143,6 +307,42 @@ abstract class PoolEntryFuture<T> implements Future<T> {
 
     }
 
+    /**
+     * Hands the given pool entry directly over to the waiting lease operation
+     * and wakes it up.
+     *
+     * @return <code>false</code> if the operation has already been completed
+     *   or cancelled and cannot accept the entry.
+     */
+    public boolean deliver(final T entry) {
+        this.lock.lock();
+        try {
+            if (this.completed || this.delivered != null) {
+                return false;
+            }
+            this.delivered = entry;
+            this.condition.signalAll();
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the pool entry handed over by {@link #deliver(Object)}, if any,
+     * and resets it.
+     */
+    public T takeDelivered() {
+        this.lock.lock();
+        try {
+            final T entry = this.delivered;
+            this.delivered = null;
+            return entry;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
     public void wakeup() {
         this.lock.lock();
         try {
@@ -43,13 +43,26 @@ public class PoolStats {
     private final int pending;
     private final int available;
     private final int max;
+    private final Histogram waitTimes;
+    private final Histogram queueDepths;
 
     public PoolStats(final int leased, final int pending, final int free, final int max) {
+        this(leased, pending, free, max, Histogram.EMPTY, Histogram.EMPTY);
+    }
+
+    /**
+     * @since 4.4
+     */
+    public PoolStats(
+            final int leased, final int pending, final int free, final int max,
+            final Histogram waitTimes, final Histogram queueDepths) {
         super();
         this.leased = leased;
         this.pending = pending;
         this.available = free;
         this.max = max;
+        this.waitTimes = waitTimes != null ? waitTimes : Histogram.EMPTY;
+        this.queueDepths = queueDepths != null ? queueDepths : Histogram.EMPTY;
     }
 
     /**
@@ -96,6 +109,28 @@ public class PoolStats {
         return this.max;
     }
 
+    /**
+     * Gets the distribution of the time lease requests have spent waiting for a connection,
+     * in microseconds. Requests served without waiting are counted as zero.
+     *
+     * @return the distribution of lease wait times.
+     * @since 4.4
+     */
+    public Histogram getWaitTimes() {
+        return this.waitTimes;
+    }
+
+    /**
+     * Gets the distribution of the number of requests already waiting at the time
+     * a lease request had to join the queue of pending requests.
+     *
+     * @return the distribution of observed queue depths.
+     * @since 4.4
+     */
+    public Histogram getQueueDepths() {
+        return this.queueDepths;
+    }
+
     @Override
     public String toString() {
         final StringBuilder buffer = new StringBuilder();
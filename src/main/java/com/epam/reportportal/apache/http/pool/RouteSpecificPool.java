@@ -28,8 +28,8 @@ package com.epam.reportportal.apache.http.pool;
 
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import com.epam.reportportal.apache.http.annotation.NotThreadSafe;
 import com.epam.reportportal.apache.http.util.Args;
@@ -40,15 +40,19 @@ abstract class RouteSpecificPool<T, C, E extends PoolEntry<T, C>> {
 
     private final T route;
     private final Set<E> leased;
-    private final LinkedList<E> available;
-    private final LinkedList<PoolEntryFuture<E>> pending;
+    private final IndexedDeque<E> available;
+    private final IndexedDeque<PoolEntryFuture<E>> pending;
+    private final HistogramRecorder waitTimes;
+    private final HistogramRecorder queueDepths;
 
     RouteSpecificPool(final T route) {
         super();
         this.route = route;
         this.leased = new HashSet<E>();
-        this.available = new LinkedList<E>();
-        this.pending = new LinkedList<PoolEntryFuture<E>>();
+        this.available = new IndexedDeque<E>();
+        this.pending = new IndexedDeque<PoolEntryFuture<E>>();
+        this.waitTimes = new HistogramRecorder();
+        this.queueDepths = new HistogramRecorder();
     }
 
     protected abstract E createEntry(C conn);
@@ -100,11 +104,7 @@ abstract class RouteSpecificPool<T, C, E extends PoolEntry<T, C>> {
     }
 
     public E getLastUsed() {
-        if (!this.available.isEmpty()) {
-            return this.available.getLast();
-        } else {
-            return null;
-        }
+        return this.available.peekLast();
     }
 
     public boolean remove(final E entry) {
@@ -126,6 +126,10 @@ abstract class RouteSpecificPool<T, C, E extends PoolEntry<T, C>> {
         }
     }
 
+    public boolean isLeased(final E entry) {
+        return this.leased.contains(entry);
+    }
+
     public E add(final C conn) {
         final E entry = createEntry(conn);
         this.leased.add(entry);
@@ -136,11 +140,54 @@ abstract class RouteSpecificPool<T, C, E extends PoolEntry<T, C>> {
         if (future == null) {
             return;
         }
-        this.pending.add(future);
+        this.queueDepths.record(this.pending.size());
+        this.pending.addLast(future);
+    }
+
+    /**
+     * Puts a request that has been woken up without obtaining an entry back
+     * at the head of the queue, so that it does not lose its turn.
+     */
+    public void requeue(final PoolEntryFuture<E> future) {
+        if (future == null) {
+            return;
+        }
+        this.pending.addFirst(future);
     }
 
     public PoolEntryFuture<E> nextPending() {
-        return this.pending.poll();
+        return this.pending.pollFirst();
+    }
+
+    /**
+     * Removes and returns the longest waiting request that can accept an entry
+     * with the given state.
+     */
+    public PoolEntryFuture<E> nextPending(final Object state) {
+        final Iterator<PoolEntryFuture<E>> it = this.pending.iterator();
+        while (it.hasNext()) {
+            final PoolEntryFuture<E> future = it.next();
+            if (state == null || state.equals(future.getState())) {
+                it.remove();
+                return future;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records the time a lease request has spent waiting for an entry.
+     */
+    public void recordWaitTime(final long nanos) {
+        this.waitTimes.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public Histogram getWaitTimes() {
+        return this.waitTimes.snapshot();
+    }
+
+    public Histogram getQueueDepths() {
+        return this.queueDepths.snapshot();
     }
 
     public void unqueue(final PoolEntryFuture<E> future) {
@@ -151,13 +198,47 @@ abstract class RouteSpecificPool<T, C, E extends PoolEntry<T, C>> {
         this.pending.remove(future);
     }
 
+    /**
+     * Passes all available entries to the callback and evicts those
+     * that have been closed by it.
+     *
+     * @return number of evicted entries.
+     */
+    public int enumAvailable(final PoolEntryCallback<T, C> callback) {
+        return enumEntries(this.available.iterator(), callback);
+    }
+
+    /**
+     * Passes all leased entries to the callback and evicts those
+     * that have been closed by it.
+     *
+     * @return number of evicted entries.
+     */
+    public int enumLeased(final PoolEntryCallback<T, C> callback) {
+        return enumEntries(this.leased.iterator(), callback);
+    }
+
+    private int enumEntries(final Iterator<E> it, final PoolEntryCallback<T, C> callback) {
+        int count = 0;
+        while (it.hasNext()) {
+            final E entry = it.next();
+            callback.process(entry);
+            if (entry.isClosed()) {
+                it.remove();
+                count++;
+            }
+        }
+        return count;
+    }
+
     public void shutdown() {
-        for (final PoolEntryFuture<E> future: this.pending) {
+        // Cancelling may unqueue the request
+        PoolEntryFuture<E> future;
+        while ((future = this.pending.pollFirst()) != null) {
             future.cancel(true);
         }
-        this.pending.clear();
         for (final E entry: this.available) {
-            entry.close();
+            entry.closeAvailable();
         }
         this.available.clear();
         for (final E entry: this.leased) {
@@ -0,0 +1,877 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.pool;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.epam.reportportal.apache.http.annotation.ThreadSafe;
+import com.epam.reportportal.apache.http.concurrent.FutureCallback;
+import com.epam.reportportal.apache.http.util.Args;
+import com.epam.reportportal.apache.http.util.Asserts;
+
+/**
+ * Synchronous (blocking) pool of connections that guards each route with
+ * its own lock.
+ * <p/>
+ * Unlike {@link AbstractConnPool}, which serializes all operations on a single
+ * pool-wide lock, this pool keeps a separate {@link RouteSpecificPool} and lock
+ * per route and enforces the maximum total number of connections with an
+ * atomic counter. Leasing or releasing a connection for one route therefore
+ * never blocks callers working with another route. Once the total limit has
+ * been reached, idle connections of other routes are reclaimed on a best effort
+ * basis, skipping routes whose lock is held at the time.
+ * <p/>
+ * Lease requests that have to wait are served in FIFO order per route:
+ * a connection released back to the pool is handed over directly to
+ * the longest waiting request that can use it. Waiting times are measured
+ * with {@link System#nanoTime()} and reported through {@link PoolStats}.
+ * <p/>
+ * Please note that this class does not maintain its own pool of execution {@link Thread}s.
+ * Therefore, one <b>must</b> call {@link Future#get()} or {@link Future#get(long, TimeUnit)}
+ * method on the {@link Future} object returned by the
+ * {@link #lease(Object, Object, FutureCallback)} method in order for the lease operation
+ * to complete. Requests made with {@link #leaseAsync(Object, Object, FutureCallback)}
+ * are completed by the pool itself and notify their callback instead.
+ *
+ * @param <T> the route type that represents the opposite endpoint of a pooled
+ *   connection.
+ * @param <C> the connection type.
+ * @param <E> the type of the pool entry containing a pooled connection.
+ * @since 4.4
+ */
+@ThreadSafe
+public abstract class StripedConnPool<T, C, E extends PoolEntry<T, C>> implements ManagedConnPool<T, E> {
+
+    /**
+     * Maximum time a lease request waits before trying again when idle
+     * connections of other routes could not be reclaimed because those
+     * routes were busy.
+     */
+    private static final long RECLAIM_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final ConnFactory<T, C> connFactory;
+    private final ConcurrentMap<T, RoutePool> routeToPool;
+    private final ConcurrentMap<T, Integer> maxPerRoute;
+    private final AtomicInteger allocated;
+    private final AtomicInteger pending;
+    private final Queue<PoolEntryFuture<E>> completed;
+
+    private volatile boolean isShutDown;
+    private volatile int defaultMaxPerRoute;
+    private volatile int maxTotal;
+
+    public StripedConnPool(
+            final ConnFactory<T, C> connFactory,
+            final int defaultMaxPerRoute,
+            final int maxTotal) {
+        super();
+        this.connFactory = Args.notNull(connFactory, "Connection factory");
+        this.defaultMaxPerRoute = Args.notNegative(defaultMaxPerRoute, "Max per route value");
+        this.maxTotal = Args.notNegative(maxTotal, "Max total value");
+        this.routeToPool = new ConcurrentHashMap<T, RoutePool>();
+        this.maxPerRoute = new ConcurrentHashMap<T, Integer>();
+        this.allocated = new AtomicInteger();
+        this.pending = new AtomicInteger();
+        this.completed = new ConcurrentLinkedQueue<PoolEntryFuture<E>>();
+    }
+
+    /**
+     * Creates a new entry for the given connection with the given route.
+     */
+    protected abstract E createEntry(T route, C conn);
+
+    protected void onLease(final E entry) {
+    }
+
+    protected void onRelease(final E entry) {
+    }
+
+    public boolean isShutdown() {
+        return this.isShutDown;
+    }
+
+    /**
+     * Shuts down the pool.
+     */
+    public void shutdown() throws IOException {
+        if (this.isShutDown) {
+            return ;
+        }
+        this.isShutDown = true;
+        for (final RoutePool pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                cancelPending(pool);
+                pool.shutdown();
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+        this.routeToPool.clear();
+        this.allocated.set(0);
+        notifyCompleted();
+    }
+
+    private RoutePool getPool(final T route) {
+        RoutePool pool = this.routeToPool.get(route);
+        if (pool == null) {
+            final RoutePool newPool = new RoutePool(route);
+            pool = this.routeToPool.putIfAbsent(route, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Please note that this class does not maintain its own pool of execution
+     * {@link Thread}s. Therefore, one <b>must</b> call {@link Future#get()}
+     * or {@link Future#get(long, TimeUnit)} method on the {@link Future}
+     * returned by this method in order for the lease operation to complete.
+     */
+    public Future<E> lease(final T route, final Object state, final FutureCallback<E> callback) {
+        Args.notNull(route, "Route");
+        Asserts.check(!this.isShutDown, "Connection pool shut down");
+        final RoutePool pool = getPool(route);
+        return new PoolEntryFuture<E>(pool.lock, state, callback) {
+
+            @Override
+            public E getPoolEntry(
+                    final long timeout,
+                    final TimeUnit tunit)
+                        throws InterruptedException, TimeoutException, IOException {
+                final E entry = getPoolEntryBlocking(pool, state, timeout, tunit, this);
+                onLease(entry);
+                return entry;
+            }
+
+            @Override
+            public E get(
+                    final long timeout,
+                    final TimeUnit tunit)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+                try {
+                    return super.get(timeout, tunit);
+                } finally {
+                    // Do not lose a connection handed over just before
+                    // an interruption. It is given back with no lock held,
+                    // as releasing may take the locks of other routes
+                    final E delivered = takeDelivered();
+                    if (delivered != null) {
+                        releaseEntry(delivered, true);
+                    }
+                    // Asynchronous requests may have been completed
+                    // with the lock of the route held
+                    notifyCompleted();
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Attempts to lease a connection for the given route and with the given
+     * state from the pool.
+     *
+     * @see #lease(Object, Object, FutureCallback)
+     */
+    public Future<E> lease(final T route, final Object state) {
+        return lease(route, state, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The request is completed by the thread that makes it if an entry can
+     * be leased right away, otherwise by the thread that releases an entry
+     * or frees capacity for it. The callback is invoked once that thread
+     * has released the lock of the route.
+     */
+    public Future<E> leaseAsync(final T route, final Object state, final FutureCallback<E> callback) {
+        Args.notNull(route, "Route");
+        Asserts.check(!this.isShutDown, "Connection pool shut down");
+        final RoutePool pool = getPool(route);
+        final AsyncPoolEntryFuture<E> future = new AsyncPoolEntryFuture<E>(pool.lock, state, callback) {
+
+            @Override
+            void process() {
+                pool.unqueue(this);
+                if (!tryComplete(pool, this)) {
+                    pool.requeue(this);
+                }
+            }
+
+            @Override
+            public boolean cancel(final boolean mayInterruptIfRunning) {
+                pool.lock.lock();
+                try {
+                    pool.unqueue(this);
+                } finally {
+                    pool.lock.unlock();
+                }
+                return super.cancel(mayInterruptIfRunning);
+            }
+
+        };
+        pool.lock.lock();
+        try {
+            if (!tryComplete(pool, future)) {
+                pool.queue(future);
+            }
+        } finally {
+            pool.lock.unlock();
+        }
+        notifyCompleted();
+        return future;
+    }
+
+    public E leaseNew(final T route) throws IOException {
+        Args.notNull(route, "Route");
+        Asserts.check(!this.isShutDown, "Connection pool shut down");
+        final RoutePool pool = getPool(route);
+        final E entry;
+        pool.lock.lock();
+        try {
+            if (pool.getAllocatedCount() >= getMax(route) || !reserveCapacity()) {
+                return null;
+            }
+            boolean success = false;
+            try {
+                final C conn = this.connFactory.create(route);
+                entry = pool.add(conn);
+                success = true;
+            } finally {
+                if (!success) {
+                    this.allocated.decrementAndGet();
+                }
+            }
+            onLease(entry);
+        } finally {
+            pool.lock.unlock();
+        }
+        return entry;
+    }
+
+    private E getPoolEntryBlocking(
+            final RoutePool pool, final Object state,
+            final long timeout, final TimeUnit tunit,
+            final PoolEntryFuture<E> future)
+                throws IOException, InterruptedException, TimeoutException {
+
+        final long started = System.nanoTime();
+        final long deadline = timeout > 0 ? started + tunit.toNanos(timeout) : 0;
+
+        pool.lock.lock();
+        try {
+            E entry = null;
+            boolean woken = false;
+            while (entry == null) {
+                Asserts.check(!this.isShutDown, "Connection pool shut down");
+                entry = tryLease(pool, state);
+                if (entry != null) {
+                    if (woken) {
+                        // The wake-up may have been meant for another request
+                        // while this one was retrying on its own
+                        wakeupNext(pool);
+                    }
+                    pool.recordWaitTime(System.nanoTime() - started);
+                    return entry;
+                }
+
+                long nanosTimeout = timeout > 0 ? Math.max(0, deadline - System.nanoTime()) : -1;
+                if (pool.contended && (nanosTimeout < 0 || nanosTimeout > RECLAIM_RETRY_NANOS)) {
+                    nanosTimeout = RECLAIM_RETRY_NANOS;
+                }
+                boolean success = false;
+                try {
+                    // A request that has been woken up without getting
+                    // a connection keeps its place at the head of the queue
+                    if (woken) {
+                        pool.requeue(future);
+                    } else {
+                        pool.queue(future);
+                    }
+                    success = future.await(nanosTimeout);
+                } finally {
+                    pool.unqueue(future);
+                }
+                woken = true;
+                // A connection released by another thread may have been
+                // handed over to us directly
+                entry = future.takeDelivered();
+                if (entry != null) {
+                    pool.recordWaitTime(System.nanoTime() - started);
+                    return entry;
+                }
+                // check for spurious wakeup vs. timeout
+                if (!success && timeout > 0 && deadline - System.nanoTime() <= 0) {
+                    break;
+                }
+            }
+            pool.recordWaitTime(System.nanoTime() - started);
+            throw new TimeoutException("Timeout waiting for connection");
+        } finally {
+            pool.lock.unlock();
+        }
+    }
+
+    /**
+     * Leases an available entry or creates a new one if there is enough
+     * capacity. Returns <code>null</code> if the request has to wait.
+     * Must be called with the lock of the given route held.
+     */
+    private E tryLease(final RoutePool pool, final Object state) throws IOException {
+        pool.contended = false;
+        for (;;) {
+            E entry;
+            for (;;) {
+                entry = pool.getFree(state);
+                if (entry == null) {
+                    break;
+                }
+                if (entry.isClosed() || entry.isExpired(System.currentTimeMillis())) {
+                    entry.closeAvailable();
+                    pool.free(entry, false);
+                    this.allocated.decrementAndGet();
+                } else {
+                    break;
+                }
+            }
+            if (entry != null) {
+                return entry;
+            }
+
+            // New connection is needed
+            final int maxPerRoute = getMax(pool.getRoute());
+            // Shrink the pool prior to allocating a new connection
+            final int excess = Math.max(0, pool.getAllocatedCount() + 1 - maxPerRoute);
+            for (int i = 0; i < excess; i++) {
+                if (!evictLastUsed(pool)) {
+                    break;
+                }
+            }
+
+            if (pool.getAllocatedCount() < maxPerRoute) {
+                if (reserveCapacity()) {
+                    boolean success = false;
+                    try {
+                        final C conn = this.connFactory.create(pool.getRoute());
+                        entry = pool.add(conn);
+                        success = true;
+                    } finally {
+                        if (!success) {
+                            this.allocated.decrementAndGet();
+                        }
+                    }
+                    return entry;
+                }
+                final Reclaim outcome = reclaimIdle(pool);
+                if (outcome == Reclaim.EVICTED) {
+                    continue;
+                }
+                pool.contended = outcome == Reclaim.CONTENDED;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reserves a slot for a new connection unless the total limit
+     * has been reached.
+     */
+    private boolean reserveCapacity() {
+        for (;;) {
+            final int current = this.allocated.get();
+            if (current >= this.maxTotal) {
+                return false;
+            }
+            if (this.allocated.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used idle connection of the given route
+     * or, failing that, of any other route whose lock is not currently held.
+     * Must be called with the lock of the given route held.
+     */
+    private Reclaim reclaimIdle(final RoutePool pool) {
+        if (evictLastUsed(pool)) {
+            return Reclaim.EVICTED;
+        }
+        boolean contended = false;
+        for (final RoutePool otherpool: this.routeToPool.values()) {
+            if (otherpool == pool) {
+                continue;
+            }
+            if (otherpool.lock.tryLock()) {
+                try {
+                    if (evictLastUsed(otherpool)) {
+                        return Reclaim.EVICTED;
+                    }
+                } finally {
+                    otherpool.lock.unlock();
+                }
+            } else {
+                contended = true;
+            }
+        }
+        return contended ? Reclaim.CONTENDED : Reclaim.NONE;
+    }
+
+    private boolean evictLastUsed(final RoutePool pool) {
+        final E lastUsed = pool.getLastUsed();
+        if (lastUsed == null) {
+            return false;
+        }
+        lastUsed.closeAvailable();
+        pool.remove(lastUsed);
+        this.allocated.decrementAndGet();
+        return true;
+    }
+
+    public void release(final E entry, final boolean reusable) {
+        releaseEntry(entry, reusable);
+        notifyCompleted();
+    }
+
+    private void releaseEntry(final E entry, final boolean reusable) {
+        final RoutePool pool = this.routeToPool.get(entry.getRoute());
+        if (pool == null) {
+            return;
+        }
+        PoolEntryFuture<E> future = null;
+        pool.lock.lock();
+        try {
+            if (!pool.isLeased(entry)) {
+                return;
+            }
+            if (reusable && !this.isShutDown) {
+                onRelease(entry);
+                if (handOver(pool, entry)) {
+                    return;
+                }
+                pool.free(entry, true);
+            } else {
+                pool.free(entry, false);
+                entry.close();
+                this.allocated.decrementAndGet();
+            }
+            future = wakeupNext(pool);
+        } finally {
+            pool.lock.unlock();
+        }
+        if (future == null && this.pending.get() > 0) {
+            wakeupOtherRoute(pool);
+        }
+    }
+
+    /**
+     * Hands the released entry directly over to the longest waiting request
+     * for the same route that can accept it, so that the entry cannot be taken
+     * by a request that has arrived later. Must be called with the lock of
+     * the given route held.
+     */
+    private boolean handOver(final RoutePool pool, final E entry) {
+        for (;;) {
+            final PoolEntryFuture<E> future = pool.nextPending(entry.getState());
+            if (future == null) {
+                return false;
+            }
+            if (future instanceof AsyncPoolEntryFuture) {
+                if (!future.isDone()) {
+                    complete(pool, (AsyncPoolEntryFuture<E>) future, entry);
+                    return true;
+                }
+            } else if (future.deliver(entry)) {
+                return true;
+            }
+        }
+    }
+
+    private void complete(final RoutePool pool, final AsyncPoolEntryFuture<E> future, final E entry) {
+        onLease(entry);
+        pool.recordWaitTime(System.nanoTime() - future.getStarted());
+        if (future.completed(entry)) {
+            this.completed.add(future);
+        }
+    }
+
+    /**
+     * Attempts to complete the given asynchronous request without blocking.
+     * Returns <code>true</code> if the request is done. Must be called with
+     * the lock of the given route held.
+     */
+    private boolean tryComplete(final RoutePool pool, final AsyncPoolEntryFuture<E> future) {
+        if (future.isDone()) {
+            return true;
+        }
+        if (this.isShutDown) {
+            if (future.markCancelled()) {
+                this.completed.add(future);
+            }
+            return true;
+        }
+        final E entry;
+        try {
+            entry = tryLease(pool, future.getState());
+        } catch (final IOException ex) {
+            if (future.failed(ex)) {
+                this.completed.add(future);
+            }
+            return true;
+        }
+        if (entry == null) {
+            return false;
+        }
+        complete(pool, future, entry);
+        return true;
+    }
+
+    /**
+     * Cancels all requests pending on the given route leaving their callbacks
+     * to be notified once the lock of the route has been released. Must be
+     * called with the lock of the given route held.
+     */
+    private void cancelPending(final RoutePool pool) {
+        PoolEntryFuture<E> future;
+        while ((future = pool.nextPending()) != null) {
+            if (future.markCancelled()) {
+                this.completed.add(future);
+            }
+        }
+    }
+
+    /**
+     * Notifies the callbacks of asynchronous requests that have been
+     * completed with the lock of a route held. Must be called with no
+     * lock held, as the callbacks may call back into the pool.
+     */
+    private void notifyCompleted() {
+        PoolEntryFuture<E> future;
+        while ((future = this.completed.poll()) != null) {
+            future.notifyCallback();
+        }
+    }
+
+    /**
+     * Wakes up the longest waiting request for the given route or, if it
+     * has been made asynchronously, attempts to complete it. Must be called
+     * with the lock of the given route held.
+     */
+    private PoolEntryFuture<E> wakeupNext(final RoutePool pool) {
+        final PoolEntryFuture<E> future = pool.nextPending();
+        if (future instanceof AsyncPoolEntryFuture) {
+            ((AsyncPoolEntryFuture<E>) future).process();
+        } else if (future != null) {
+            future.wakeup();
+        }
+        return future;
+    }
+
+    /**
+     * Wakes up a request pending on a route other than the given one.
+     * Such requests may be waiting for the total number of connections
+     * to drop below the limit. Must be called with no lock held.
+     */
+    private void wakeupOtherRoute(final RoutePool pool) {
+        for (final RoutePool otherpool: this.routeToPool.values()) {
+            if (otherpool == pool) {
+                continue;
+            }
+            otherpool.lock.lock();
+            try {
+                if (wakeupNext(otherpool) != null) {
+                    return;
+                }
+            } finally {
+                otherpool.lock.unlock();
+            }
+        }
+    }
+
+    private int getMax(final T route) {
+        final Integer v = this.maxPerRoute.get(route);
+        if (v != null) {
+            return v.intValue();
+        } else {
+            return this.defaultMaxPerRoute;
+        }
+    }
+
+    public void setMaxTotal(final int max) {
+        Args.notNegative(max, "Max value");
+        this.maxTotal = max;
+    }
+
+    public int getMaxTotal() {
+        return this.maxTotal;
+    }
+
+    public void setDefaultMaxPerRoute(final int max) {
+        Args.notNegative(max, "Max per route value");
+        this.defaultMaxPerRoute = max;
+    }
+
+    public int getDefaultMaxPerRoute() {
+        return this.defaultMaxPerRoute;
+    }
+
+    public void setMaxPerRoute(final T route, final int max) {
+        Args.notNull(route, "Route");
+        Args.notNegative(max, "Max per route value");
+        this.maxPerRoute.put(route, Integer.valueOf(max));
+    }
+
+    public int getMaxPerRoute(final T route) {
+        Args.notNull(route, "Route");
+        return getMax(route);
+    }
+
+    public PoolStats getTotalStats() {
+        int leased = 0;
+        int pending = 0;
+        int available = 0;
+        Histogram waitTimes = Histogram.EMPTY;
+        Histogram queueDepths = Histogram.EMPTY;
+        for (final RoutePool pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                leased += pool.getLeasedCount();
+                pending += pool.getPendingCount();
+                available += pool.getAvailableCount();
+                waitTimes = waitTimes.merge(pool.getWaitTimes());
+                queueDepths = queueDepths.merge(pool.getQueueDepths());
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+        return new PoolStats(leased, pending, available, this.maxTotal, waitTimes, queueDepths);
+    }
+
+    public PoolStats getStats(final T route) {
+        Args.notNull(route, "Route");
+        final RoutePool pool = getPool(route);
+        pool.lock.lock();
+        try {
+            return new PoolStats(
+                    pool.getLeasedCount(),
+                    pool.getPendingCount(),
+                    pool.getAvailableCount(),
+                    getMax(route),
+                    pool.getWaitTimes(),
+                    pool.getQueueDepths());
+        } finally {
+            pool.lock.unlock();
+        }
+    }
+
+    /**
+     * Enumerates all available connections.
+     */
+    protected void enumAvailable(final PoolEntryCallback<T, C> callback) {
+        for (final RoutePool pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                this.allocated.addAndGet(-pool.enumAvailable(callback));
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Enumerates all leased connections.
+     * Leased connections closed by the callback are evicted from the pool;
+     * releasing them afterwards has no effect.
+     */
+    protected void enumLeased(final PoolEntryCallback<T, C> callback) {
+        for (final RoutePool pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                this.allocated.addAndGet(-pool.enumLeased(callback));
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Closes connections that have been idle longer than the given period
+     * of time and evicts them from the pool.
+     * <p/>
+     * Released connections are kept in the order they have been returned
+     * to the pool, so only the connections being evicted and one more
+     * per route are examined rather than the whole pool.
+     *
+     * @param idletime maximum idle time.
+     * @param tunit time unit.
+     */
+    public void closeIdle(final long idletime, final TimeUnit tunit) {
+        Args.notNull(tunit, "Time unit");
+        long time = tunit.toMillis(idletime);
+        if (time < 0) {
+            time = 0;
+        }
+        final long deadline = System.currentTimeMillis() - time;
+        for (final RoutePool pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                for (;;) {
+                    final E lastUsed = pool.getLastUsed();
+                    if (lastUsed == null || lastUsed.getUpdated() > deadline) {
+                        break;
+                    }
+                    evictLastUsed(pool);
+                }
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Closes expired connections and evicts them from the pool.
+     */
+    public void closeExpired() {
+        final long now = System.currentTimeMillis();
+        enumAvailable(new PoolEntryCallback<T, C>() {
+
+            public void process(final PoolEntry<T, C> entry) {
+                if (entry.isExpired(now)) {
+                    entry.closeAvailable();
+                }
+            }
+
+        });
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[allocated: ");
+        buffer.append(this.allocated.get());
+        buffer.append("][pending: ");
+        buffer.append(this.pending.get());
+        buffer.append("][routes: ");
+        buffer.append(this.routeToPool.values());
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+    private enum Reclaim {
+
+        EVICTED, NONE, CONTENDED
+
+    }
+
+    private class RoutePool extends RouteSpecificPool<T, C, E> {
+
+        final Lock lock;
+
+        /**
+         * Set by the last lease attempt if idle connections of other routes
+         * could not be reclaimed because those routes were busy.
+         */
+        boolean contended;
+
+        RoutePool(final T route) {
+            super(route);
+            this.lock = new ReentrantLock();
+        }
+
+        @Override
+        protected E createEntry(final C conn) {
+            return StripedConnPool.this.createEntry(getRoute(), conn);
+        }
+
+        // Keep the number of requests pending on all routes up to date
+
+        @Override
+        public void queue(final PoolEntryFuture<E> future) {
+            final int count = getPendingCount();
+            super.queue(future);
+            pending.addAndGet(getPendingCount() - count);
+        }
+
+        @Override
+        public void requeue(final PoolEntryFuture<E> future) {
+            final int count = getPendingCount();
+            super.requeue(future);
+            pending.addAndGet(getPendingCount() - count);
+        }
+
+        @Override
+        public void unqueue(final PoolEntryFuture<E> future) {
+            final int count = getPendingCount();
+            super.unqueue(future);
+            pending.addAndGet(getPendingCount() - count);
+        }
+
+        @Override
+        public PoolEntryFuture<E> nextPending() {
+            final PoolEntryFuture<E> future = super.nextPending();
+            if (future != null) {
+                pending.decrementAndGet();
+            }
+            return future;
+        }
+
+        @Override
+        public PoolEntryFuture<E> nextPending(final Object state) {
+            final PoolEntryFuture<E> future = super.nextPending(state);
+            if (future != null) {
+                pending.decrementAndGet();
+            }
+            return future;
+        }
+
+        @Override
+        public void shutdown() {
+            final int count = getPendingCount();
+            super.shutdown();
+            pending.addAndGet(getPendingCount() - count);
+        }
+
+    }
+
+}
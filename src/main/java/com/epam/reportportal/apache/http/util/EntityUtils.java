@@ -29,11 +29,11 @@ package com.epam.reportportal.apache.http.util;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.epam.reportportal.apache.http.HeaderElement;
 import com.epam.reportportal.apache.http.HttpEntity;
@@ -50,6 +50,9 @@ import com.epam.reportportal.apache.http.protocol.HTTP;
  */
 public final class EntityUtils {
 
+    private static final int MIN_CHUNK_SIZE = 4096;
+    private static final int MAX_CHUNK_SIZE = 1024 * 1024;
+
     private EntityUtils() {
     }
 
@@ -126,22 +129,114 @@ public final class EntityUtils {
         try {
             Args.check(entity.getContentLength() <= Integer.MAX_VALUE,
                     "HTTP entity too large to be buffered in memory");
-            int i = (int)entity.getContentLength();
-            if (i < 0) {
-                i = 4096;
-            }
-            final ByteArrayBuffer buffer = new ByteArrayBuffer(i);
-            final byte[] tmp = new byte[4096];
-            int l;
-            while((l = instream.read(tmp)) != -1) {
-                buffer.append(tmp, 0, l);
-            }
-            return buffer.toByteArray();
+            final Chunks chunks = readFully(instream, (int) entity.getContentLength());
+            return chunks.toByteArray();
         } finally {
             instream.close();
         }
     }
 
+    /**
+     * Reads the stream to the end. If the content length is known the content
+     * is read straight into an array of that size, otherwise into a list of
+     * chunks of growing size.
+     */
+    private static Chunks readFully(final InputStream instream, final int contentLength) throws IOException {
+        final Chunks chunks = new Chunks();
+        if (contentLength >= 0) {
+            final byte[] b = new byte[contentLength];
+            final int n = fill(instream, b);
+            chunks.add(b, n);
+            if (n < contentLength) {
+                return chunks;
+            }
+            // make sure the content does not exceed the declared length
+            final int next = instream.read();
+            if (next == -1) {
+                return chunks;
+            }
+            final byte[] chunk = new byte[MIN_CHUNK_SIZE];
+            chunk[0] = (byte) next;
+            chunks.add(chunk, 1 + fill(instream, chunk, 1));
+            if (chunks.last < chunk.length) {
+                return chunks;
+            }
+        }
+        int size = MIN_CHUNK_SIZE;
+        for (;;) {
+            final byte[] chunk = new byte[size];
+            final int n = fill(instream, chunk);
+            if (n == 0) {
+                return chunks;
+            }
+            chunks.add(chunk, n);
+            if (n < chunk.length) {
+                return chunks;
+            }
+            if (size < MAX_CHUNK_SIZE) {
+                size <<= 1;
+            }
+        }
+    }
+
+    private static int fill(final InputStream instream, final byte[] b) throws IOException {
+        return fill(instream, b, 0);
+    }
+
+    private static int fill(final InputStream instream, final byte[] b, final int off) throws IOException {
+        int pos = off;
+        while (pos < b.length) {
+            final int l = instream.read(b, pos, b.length - pos);
+            if (l == -1) {
+                break;
+            }
+            pos += l;
+        }
+        return pos - off;
+    }
+
+    /**
+     * Content read as a sequence of byte arrays, copied into a single
+     * array only if there is more than one of them or the only one is
+     * not full.
+     */
+    static class Chunks {
+
+        private final List<byte[]> chunks = new ArrayList<byte[]>(1);
+        private int total;
+        private int last;
+
+        void add(final byte[] chunk, final int len) {
+            this.chunks.add(chunk);
+            this.total += len;
+            this.last = len;
+        }
+
+        byte[] toByteArray() {
+            final int n = this.chunks.size();
+            if (n == 1 && this.chunks.get(0).length == this.total) {
+                return this.chunks.get(0);
+            }
+            final byte[] b = new byte[this.total];
+            int off = 0;
+            for (int i = 0; i < n; i++) {
+                final byte[] chunk = this.chunks.get(i);
+                final int len = i < n - 1 ? chunk.length : this.last;
+                System.arraycopy(chunk, 0, b, off, len);
+                off += len;
+            }
+            return b;
+        }
+
+        String toString(final Charset charset) {
+            if (this.chunks.size() == 1) {
+                return new String(this.chunks.get(0), 0, this.total, charset);
+            }
+            return new String(toByteArray(), charset);
+        }
+
+    }
+
     /**
      * Obtains character set of the entity, if known.
      *
@@ -218,10 +313,6 @@ public final class EntityUtils {
         try {
             Args.check(entity.getContentLength() <= Integer.MAX_VALUE,
                     "HTTP entity too large to be buffered in memory");
-            int i = (int)entity.getContentLength();
-            if (i < 0) {
-                i = 4096;
-            }
             Charset charset = null;
             try {
                 final ContentType contentType = ContentType.get(entity);
@@ -237,14 +328,9 @@ public final class EntityUtils {
             if (charset == null) {
                 charset = HTTP.DEF_CONTENT_CHARSET;
             }
-            final Reader reader = new InputStreamReader(instream, charset);
-            final CharArrayBuffer buffer = new CharArrayBuffer(i);
-            final char[] tmp = new char[1024];
-            int l;
-            while((l = reader.read(tmp)) != -1) {
-                buffer.append(tmp, 0, l);
-            }
-            return buffer.toString();
+            // decode straight from the content bytes instead of through a reader
+            final Chunks chunks = readFully(instream, (int) entity.getContentLength());
+            return chunks.toString(charset);
         } finally {
             instream.close();
         }
@@ -92,6 +92,11 @@ public class TestDecompressingEntity {
         Assert.assertEquals(639479525L, crc32.getValue());
     }
 
+    @Test(expected=IllegalArgumentException.class)
+    public void testNullInputStreamFactory() throws Exception {
+        new DecompressingEntity(new StringEntity("1234567890", "ASCII"), null);
+    }
+
     static class ChecksumEntity extends DecompressingEntity {
 
         private final Checksum checksum;
@@ -27,10 +27,15 @@
 
 package com.epam.reportportal.apache.http.client.entity;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
 
 import com.epam.reportportal.apache.http.client.entity.GzipCompressingEntity;
 import com.epam.reportportal.apache.http.client.entity.GzipDecompressingEntity;
@@ -96,4 +101,120 @@ public class TestGZip {
         }
     }
 
+    private static byte[] createContent(final int len) {
+        // compressible but not trivially so
+        final byte[] content = new byte[len];
+        final Random random = new Random(len);
+        for (int i = 0; i < len; i++) {
+            content[i] = (byte) ('a' + random.nextInt(4) + (i / 1000) % 16);
+        }
+        return content;
+    }
+
+    private static byte[] gunzip(final byte[] compressed) throws IOException {
+        final GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed));
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] tmp = new byte[4096];
+            int l;
+            while ((l = in.read(tmp)) != -1) {
+                out.write(tmp, 0, l);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] writeOut(final HttpEntity entity) throws IOException {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        entity.writeTo(buf);
+        return buf.toByteArray();
+    }
+
+    @Test
+    public void testCompressionLevel() throws Exception {
+        final byte[] content = createContent(100000);
+        final byte[] stored = writeOut(new GzipCompressingEntity(
+                new ByteArrayEntity(content), Deflater.NO_COMPRESSION, 4096));
+        final byte[] best = writeOut(new GzipCompressingEntity(
+                new ByteArrayEntity(content), Deflater.BEST_COMPRESSION, 4096));
+        Assert.assertTrue(stored.length > content.length);
+        Assert.assertTrue(best.length < content.length / 2);
+        Assert.assertArrayEquals(content, gunzip(stored));
+        Assert.assertArrayEquals(content, gunzip(best));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidCompressionLevel() throws Exception {
+        new GzipCompressingEntity(new ByteArrayEntity(new byte[] {}), 10, 512);
+    }
+
+    @Test
+    public void testParallelCompression() throws Exception {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (final int len: new int[] {0, 1, 1024, 4096, 4097, 3 * 4096, 100000}) {
+                final byte[] content = createContent(len);
+                final GzipCompressingEntity gzipe = new GzipCompressingEntity(
+                        new ByteArrayEntity(content), Deflater.DEFAULT_COMPRESSION, 512, pool, 4096);
+                Assert.assertTrue(gzipe.isChunked());
+                Assert.assertEquals(-1, gzipe.getContentLength());
+                final byte[] compressed = writeOut(gzipe);
+                Assert.assertArrayEquals("Length " + len, content, gunzip(compressed));
+                final GzipDecompressingEntity gunzipe = new GzipDecompressingEntity(
+                        new ByteArrayEntity(compressed));
+                Assert.assertArrayEquals("Length " + len, content, EntityUtils.toByteArray(gunzipe));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelCompressionUsesDictionary() throws Exception {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            // every block repeats the previous one
+            final byte[] content = new byte[8 * 4096];
+            final byte[] block = createContent(4096);
+            for (int i = 0; i < 8; i++) {
+                System.arraycopy(block, 0, content, i * 4096, 4096);
+            }
+            final byte[] compressed = writeOut(new GzipCompressingEntity(
+                    new ByteArrayEntity(content), Deflater.DEFAULT_COMPRESSION, 512, pool, 4096));
+            Assert.assertArrayEquals(content, gunzip(compressed));
+            Assert.assertTrue(compressed.length < 2 * 4096);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testCompressedUpFront() throws Exception {
+        final byte[] content = createContent(10000);
+        final GzipCompressingEntity gzipe = new GzipCompressingEntity(
+                new ByteArrayEntity(content), Deflater.BEST_SPEED, 512, null,
+                GzipCompressingEntity.DEFAULT_BLOCK_SIZE, 10000);
+        Assert.assertFalse(gzipe.isChunked());
+        Assert.assertFalse(gzipe.isStreaming());
+        Assert.assertTrue(gzipe.isRepeatable());
+        final byte[] compressed = writeOut(gzipe);
+        Assert.assertEquals(compressed.length, gzipe.getContentLength());
+        Assert.assertArrayEquals(compressed, writeOut(gzipe));
+        Assert.assertArrayEquals(compressed, EntityUtils.toByteArray(gzipe));
+        Assert.assertArrayEquals(content, gunzip(compressed));
+    }
+
+    @Test
+    public void testNotCompressedUpFrontOverThreshold() throws Exception {
+        final byte[] content = createContent(10001);
+        final GzipCompressingEntity gzipe = new GzipCompressingEntity(
+                new ByteArrayEntity(content), Deflater.BEST_SPEED, 512, null,
+                GzipCompressingEntity.DEFAULT_BLOCK_SIZE, 10000);
+        Assert.assertTrue(gzipe.isChunked());
+        Assert.assertEquals(-1, gzipe.getContentLength());
+        Assert.assertArrayEquals(content, gunzip(writeOut(gzipe)));
+    }
+
 }
@@ -0,0 +1,194 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.client.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestInflatingInputStream {
+
+    private static byte[] createContent(final int len) {
+        final byte[] content = new byte[len];
+        final Random random = new Random(len);
+        for (int i = 0; i < len; i++) {
+            content[i] = (byte) ('a' + random.nextInt(6));
+        }
+        return content;
+    }
+
+    private static byte[] gzip(final byte[] content) throws IOException {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        final GZIPOutputStream out = new GZIPOutputStream(buf);
+        out.write(content);
+        out.close();
+        return buf.toByteArray();
+    }
+
+    private static byte[] deflate(final byte[] content, final boolean nowrap) throws IOException {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        final DeflaterOutputStream out = new DeflaterOutputStream(buf, new Deflater(6, nowrap));
+        out.write(content);
+        out.close();
+        return buf.toByteArray();
+    }
+
+    private static byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        final byte[] tmp = new byte[1000];
+        int l;
+        while ((l = in.read(tmp)) != -1) {
+            buf.write(tmp, 0, l);
+        }
+        return buf.toByteArray();
+    }
+
+    @Test
+    public void testGzipInflaterReused() throws Exception {
+        final InflaterPool pool = new InflaterPool(4);
+        final byte[] content = createContent(100000);
+        final byte[] compressed = gzip(content);
+        for (int i = 0; i < 3; i++) {
+            final InputStream in = new InflatingInputStream(
+                    new ByteArrayInputStream(compressed), pool, 512, true);
+            Assert.assertEquals(0, pool.getPooled());
+            Assert.assertArrayEquals(content, readAll(in));
+            // released on reaching the end of the content
+            Assert.assertEquals(1, pool.getPooled());
+            Assert.assertEquals(-1, in.read());
+            in.close();
+            Assert.assertEquals(1, pool.getPooled());
+        }
+    }
+
+    @Test
+    public void testInflaterReleasedOnClose() throws Exception {
+        final InflaterPool pool = new InflaterPool(1);
+        final byte[] compressed = gzip(createContent(100000));
+        final InputStream in1 = new InflatingInputStream(
+                new ByteArrayInputStream(compressed), pool, 512, true);
+        final InputStream in2 = new InflatingInputStream(
+                new ByteArrayInputStream(compressed), pool, 512, true);
+        Assert.assertTrue(in1.read() != -1);
+        Assert.assertTrue(in2.read() != -1);
+        in1.close();
+        in2.close();
+        // the pool is full, the second inflater has been ended
+        Assert.assertEquals(1, pool.getPooled());
+        try {
+            in1.read();
+            Assert.fail("IOException expected");
+        } catch (final IOException expected) {
+        }
+    }
+
+    @Test
+    public void testGzipConcatenatedMembers() throws Exception {
+        final byte[] content1 = createContent(1000);
+        final byte[] content2 = createContent(3000);
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        buf.write(gzip(content1));
+        buf.write(gzip(content2));
+        final InputStream in = new InflatingInputStream(
+                new ByteArrayInputStream(buf.toByteArray()), new InflaterPool(1), 512, true);
+        final byte[] expected = new byte[content1.length + content2.length];
+        System.arraycopy(content1, 0, expected, 0, content1.length);
+        System.arraycopy(content2, 0, expected, content1.length, content2.length);
+        Assert.assertArrayEquals(expected, readAll(in));
+    }
+
+    @Test
+    public void testGzipOptionalHeaderFields() throws Exception {
+        final byte[] content = createContent(1000);
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        // FHCRC | FEXTRA | FNAME | FCOMMENT
+        buf.write(new byte[] { 0x1f, (byte) 0x8b, 8, 2 | 4 | 8 | 16, 0, 0, 0, 0, 0, 3 });
+        buf.write(new byte[] { 3, 0, 'x', 'y', 'z' });
+        buf.write("name.txt\0".getBytes("US-ASCII"));
+        buf.write("comment\0".getBytes("US-ASCII"));
+        buf.write(new byte[] { 0, 0 });
+        buf.write(deflate(content, true));
+        final long v = crc.getValue();
+        buf.write(new byte[] { (byte) v, (byte) (v >> 8), (byte) (v >> 16), (byte) (v >> 24) });
+        final int n = content.length;
+        buf.write(new byte[] { (byte) n, (byte) (n >> 8), (byte) (n >> 16), (byte) (n >> 24) });
+        final InputStream in = new InflatingInputStream(
+                new ByteArrayInputStream(buf.toByteArray()), new InflaterPool(1), 512, true);
+        Assert.assertArrayEquals(content, readAll(in));
+    }
+
+    @Test(expected=ZipException.class)
+    public void testGzipCorruptTrailer() throws Exception {
+        final byte[] compressed = gzip(createContent(1000));
+        compressed[compressed.length - 5]++;
+        readAll(new InflatingInputStream(
+                new ByteArrayInputStream(compressed), new InflaterPool(1), 512, true));
+    }
+
+    @Test(expected=ZipException.class)
+    public void testNotGzip() throws Exception {
+        new InflatingInputStream(
+                new ByteArrayInputStream(new byte[] {1, 2, 3, 4}), new InflaterPool(1), 512, true);
+    }
+
+    @Test(expected=EOFException.class)
+    public void testTruncated() throws Exception {
+        final byte[] compressed = gzip(createContent(100000));
+        readAll(new InflatingInputStream(
+                new ByteArrayInputStream(Arrays.copyOf(compressed, compressed.length / 2)),
+                new InflaterPool(1), 512, true));
+    }
+
+    @Test
+    public void testDeflateZlibAndRaw() throws Exception {
+        final InflaterPool pool = new InflaterPool(1);
+        for (final int len: new int[] {1, 1000, 100000}) {
+            final byte[] content = createContent(len);
+            Assert.assertArrayEquals(content, readAll(new InflatingInputStream(
+                    new ByteArrayInputStream(deflate(content, false)), pool, 512, false)));
+            Assert.assertArrayEquals(content, readAll(new InflatingInputStream(
+                    new ByteArrayInputStream(deflate(content, true)), pool, 512, false)));
+        }
+        Assert.assertEquals(2, pool.getPooled());
+    }
+
+}
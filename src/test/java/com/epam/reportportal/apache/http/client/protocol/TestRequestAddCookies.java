@@ -46,11 +46,13 @@ import com.epam.reportportal.apache.http.config.RegistryBuilder;
 import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
 import com.epam.reportportal.apache.http.conn.routing.RouteInfo.LayerType;
 import com.epam.reportportal.apache.http.conn.routing.RouteInfo.TunnelType;
+import com.epam.reportportal.apache.http.cookie.ClientCookie;
 import com.epam.reportportal.apache.http.cookie.CookieOrigin;
 import com.epam.reportportal.apache.http.cookie.CookieSpec;
 import com.epam.reportportal.apache.http.cookie.CookieSpecProvider;
 import com.epam.reportportal.apache.http.cookie.SM;
 import com.epam.reportportal.apache.http.impl.client.BasicCookieStore;
+import com.epam.reportportal.apache.http.impl.client.ConcurrentCookieStore;
 import com.epam.reportportal.apache.http.impl.cookie.BasicClientCookie;
 import com.epam.reportportal.apache.http.impl.cookie.BasicClientCookie2;
 import com.epam.reportportal.apache.http.impl.cookie.BestMatchSpecFactory;
@@ -504,4 +506,78 @@ public class TestRequestAddCookies {
         Assert.assertEquals("$Version=1", headers2[0].getValue());
     }
 
+    private static String formatCookies(
+            final CookieStore cookieStore,
+            final Lookup<CookieSpecProvider> cookieSpecRegistry,
+            final String policy,
+            final HttpHost target,
+            final String uri) throws Exception {
+        final HttpRequest request = new BasicHttpRequest("GET", uri);
+
+        final HttpRoute route = new HttpRoute(target, null, false);
+
+        final HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(HttpClientContext.HTTP_TARGET_HOST, target);
+        context.setAttribute(HttpClientContext.HTTP_ROUTE, route);
+        context.setAttribute(HttpClientContext.COOKIE_STORE, cookieStore);
+        context.setAttribute(HttpClientContext.COOKIESPEC_REGISTRY, cookieSpecRegistry);
+        context.setAttribute(HttpClientContext.REQUEST_CONFIG,
+                RequestConfig.custom().setCookieSpec(policy).build());
+
+        final HttpRequestInterceptor interceptor = new RequestAddCookies();
+        interceptor.process(request, context);
+
+        final StringBuilder buf = new StringBuilder();
+        for (final Header header : request.getAllHeaders()) {
+            buf.append(header.getName()).append(": ").append(header.getValue()).append('\n');
+        }
+        return buf.toString();
+    }
+
+    @Test
+    public void testIndexedCookieStoreMatchesBasicCookieStore() throws Exception {
+        final CookieStore basicStore = new BasicCookieStore();
+        final CookieStore indexedStore = new ConcurrentCookieStore();
+        final String[] domains = new String[] {
+                "localhost.local", ".local", "localhost", "somehost", "www.example.com",
+                ".example.com", "example.com", ".a.example.com", "b.a.example.com",
+                "other.com", ".com", "com", "127.0.0.1" };
+        final String[] paths = new String[] { null, "/", "/foo", "/foo/", "/foo/bar", "/foobar" };
+        int n = 0;
+        for (final String domain : domains) {
+            for (final String path : paths) {
+                final BasicClientCookie cookie = new BasicClientCookie("name" + (n % 3), "value" + n);
+                cookie.setDomain(domain);
+                cookie.setPath(path);
+                cookie.setAttribute(ClientCookie.DOMAIN_ATTR, domain);
+                basicStore.addCookie(cookie);
+                indexedStore.addCookie(cookie);
+                n++;
+            }
+        }
+        final String[] hosts = new String[] {
+                "localhost.local", "localhost", "somehost", "www.example.com", "example.com",
+                "b.a.example.com", "c.b.a.example.com", "other.com", "127.0.0.1", "unknown.org" };
+        final String[] uris = new String[] { "/", "/foo", "/foo/bar/baz", "/foobar", "/bar" };
+        final String[] policies = new String[] {
+                CookieSpecs.BEST_MATCH, CookieSpecs.STANDARD, CookieSpecs.BROWSER_COMPATIBILITY,
+                CookieSpecs.NETSCAPE };
+        int nonEmpty = 0;
+        for (final String policy : policies) {
+            for (final String host : hosts) {
+                for (final String uri : uris) {
+                    final HttpHost target = new HttpHost(host, 80);
+                    final String expected = formatCookies(
+                            basicStore, this.cookieSpecRegistry, policy, target, uri);
+                    Assert.assertEquals(policy + " " + host + uri, expected,
+                            formatCookies(indexedStore, this.cookieSpecRegistry, policy, target, uri));
+                    if (expected.length() > 0) {
+                        nonEmpty++;
+                    }
+                }
+            }
+        }
+        Assert.assertTrue(nonEmpty > 0);
+    }
+
 }
@@ -27,6 +27,10 @@
 package com.epam.reportportal.apache.http.client.protocol;
 
 import com.epam.reportportal.apache.http.client.protocol.ResponseContentEncoding;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -35,12 +39,16 @@ import com.epam.reportportal.apache.http.HttpException;
 import com.epam.reportportal.apache.http.HttpResponse;
 import com.epam.reportportal.apache.http.HttpResponseInterceptor;
 import com.epam.reportportal.apache.http.HttpVersion;
+import com.epam.reportportal.apache.http.client.entity.DecompressingEntity;
 import com.epam.reportportal.apache.http.client.entity.DeflateDecompressingEntity;
 import com.epam.reportportal.apache.http.client.entity.GzipDecompressingEntity;
+import com.epam.reportportal.apache.http.client.entity.InputStreamFactory;
+import com.epam.reportportal.apache.http.config.RegistryBuilder;
 import com.epam.reportportal.apache.http.entity.StringEntity;
 import com.epam.reportportal.apache.http.message.BasicHttpResponse;
 import com.epam.reportportal.apache.http.protocol.BasicHttpContext;
 import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.apache.http.util.EntityUtils;
 
 public class TestResponseContentEncoding {
 
@@ -156,4 +164,59 @@ public class TestResponseContentEncoding {
         interceptor.process(response, context);
     }
 
+    @Test
+    public void testCustomContentDecoder() throws Exception {
+        final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        final StringEntity original = new StringEntity("ENCODED STUFF");
+        original.setContentEncoding("x-lower");
+        response.setEntity(original);
+        final HttpContext context = new BasicHttpContext();
+
+        final InputStreamFactory lowerCase = new InputStreamFactory() {
+
+            public InputStream create(final InputStream instream) throws IOException {
+                return new FilterInputStream(instream) {
+
+                    @Override
+                    public int read() throws IOException {
+                        final int b = super.read();
+                        return b != -1 ? Character.toLowerCase(b) : -1;
+                    }
+
+                    @Override
+                    public int read(final byte[] b, final int off, final int len) throws IOException {
+                        final int n = super.read(b, off, len);
+                        for (int i = 0; i < n; i++) {
+                            b[off + i] = (byte) Character.toLowerCase(b[off + i]);
+                        }
+                        return n;
+                    }
+
+                };
+            }
+
+        };
+        final HttpResponseInterceptor interceptor = new ResponseContentEncoding(
+                RegistryBuilder.<InputStreamFactory>create().register("x-lower", lowerCase).build());
+        interceptor.process(response, context);
+        final HttpEntity entity = response.getEntity();
+        Assert.assertNotNull(entity);
+        Assert.assertTrue(entity instanceof DecompressingEntity);
+        Assert.assertNull(entity.getContentEncoding());
+        Assert.assertEquals("encoded stuff", EntityUtils.toString(entity));
+    }
+
+    @Test(expected=HttpException.class)
+    public void testDefaultCodingNotInCustomRegistry() throws Exception {
+        final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        final StringEntity original = new StringEntity("encoded stuff");
+        original.setContentEncoding("gzip");
+        response.setEntity(original);
+        final HttpContext context = new BasicHttpContext();
+
+        final HttpResponseInterceptor interceptor = new ResponseContentEncoding(
+                RegistryBuilder.<InputStreamFactory>create().build());
+        interceptor.process(response, context);
+    }
+
 }
@@ -0,0 +1,135 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.epam.reportportal.apache.http.Consts;
+import com.epam.reportportal.apache.http.util.EntityUtils;
+
+/**
+ * Unit tests for {@link FileBufferedHttpEntity}.
+ *
+ */
+public class TestFileBufferedHttpEntity {
+
+    @Test
+    public void testBufferingInMemory() throws Exception {
+        final byte[] bytes = "Message content".getBytes(Consts.ASCII.name());
+        final InputStreamEntity httpentity = new InputStreamEntity(new ByteArrayInputStream(bytes), -1);
+        final FileBufferedHttpEntity bufentity = new FileBufferedHttpEntity(httpentity, 1024);
+        try {
+            Assert.assertFalse(bufentity.isSpilled());
+            Assert.assertEquals(bytes.length, bufentity.getContentLength());
+            Assert.assertTrue(bufentity.isRepeatable());
+            Assert.assertFalse(bufentity.isChunked());
+            Assert.assertFalse(bufentity.isStreaming());
+            Assert.assertArrayEquals(bytes, EntityUtils.toByteArray(bufentity));
+            Assert.assertArrayEquals(bytes, EntityUtils.toByteArray(bufentity));
+        } finally {
+            bufentity.close();
+        }
+    }
+
+    @Test
+    public void testSpillingToFile() throws Exception {
+        final byte[] bytes = new byte[100000];
+        new Random().nextBytes(bytes);
+        final File dir = File.createTempFile("spill", "");
+        Assert.assertTrue(dir.delete() && dir.mkdir());
+        final InputStreamEntity httpentity = new InputStreamEntity(new ByteArrayInputStream(bytes), -1);
+        httpentity.setChunked(true);
+        final FileBufferedHttpEntity bufentity = new FileBufferedHttpEntity(httpentity, 1000, dir);
+        try {
+            Assert.assertTrue(bufentity.isSpilled());
+            Assert.assertEquals(bytes.length, bufentity.getContentLength());
+            Assert.assertTrue(bufentity.isRepeatable());
+            Assert.assertFalse(bufentity.isChunked());
+            Assert.assertFalse(bufentity.isStreaming());
+
+            // test if we can obtain content multiple times
+            Assert.assertArrayEquals(bytes, EntityUtils.toByteArray(bufentity));
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            bufentity.writeTo(out);
+            Assert.assertArrayEquals(bytes, out.toByteArray());
+            Assert.assertArrayEquals(bytes, EntityUtils.toByteArray(bufentity));
+        } finally {
+            bufentity.close();
+        }
+        Assert.assertEquals(0, dir.list().length);
+        dir.delete();
+        try {
+            bufentity.getContent();
+            Assert.fail("IllegalStateException should have been thrown");
+        } catch (final IllegalStateException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSpillingKnownLength() throws Exception {
+        final byte[] bytes = new byte[5000];
+        new Random().nextBytes(bytes);
+        final InputStreamEntity httpentity = new InputStreamEntity(
+                new ByteArrayInputStream(bytes), bytes.length);
+        final FileBufferedHttpEntity bufentity = new FileBufferedHttpEntity(httpentity, 4096);
+        try {
+            Assert.assertTrue(bufentity.isSpilled());
+            Assert.assertEquals(bytes.length, bufentity.getContentLength());
+            Assert.assertArrayEquals(bytes, EntityUtils.toByteArray(bufentity));
+        } finally {
+            bufentity.close();
+        }
+    }
+
+    @Test
+    public void testWrappingRepeatableEntity() throws Exception {
+        final byte[] bytes = "Message content".getBytes(Consts.ASCII.name());
+        final ByteArrayEntity httpentity = new ByteArrayEntity(bytes);
+        httpentity.setChunked(true);
+        final FileBufferedHttpEntity bufentity = new FileBufferedHttpEntity(httpentity, 0);
+        Assert.assertFalse(bufentity.isSpilled());
+        Assert.assertEquals(bytes.length, bufentity.getContentLength());
+        Assert.assertTrue(bufentity.isRepeatable());
+        Assert.assertTrue(bufentity.isChunked());
+        Assert.assertArrayEquals(bytes, EntityUtils.toByteArray(bufentity));
+        bufentity.close();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testIllegalConstructorArgs() throws Exception {
+        new FileBufferedHttpEntity(null, 1024);
+    }
+
+}
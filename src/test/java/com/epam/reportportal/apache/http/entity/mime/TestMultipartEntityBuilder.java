@@ -28,6 +28,7 @@
 package com.epam.reportportal.apache.http.entity.mime;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.util.List;
 
@@ -74,4 +75,21 @@ public class TestMultipartEntityBuilder {
         Assert.assertEquals(4, bodyParts.size());
     }
 
+    @Test
+    public void testStreaming() throws Exception {
+        final MultipartFormEntity entity = MultipartEntityBuilder.create()
+                .setLaxMode()
+                .setStreaming(true)
+                .addTextBody("p1", "stuff")
+                .addBinaryBody("p2", new byte[] {1, 2, 3})
+                .buildEntity();
+        Assert.assertTrue(entity.getMultipart() instanceof StreamingMultipartForm);
+        Assert.assertTrue(((StreamingMultipartForm) entity.getMultipart()).getForm()
+                instanceof HttpBrowserCompatibleMultipart);
+        Assert.assertEquals(2, entity.getMultipart().getBodyParts().size());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        Assert.assertEquals(out.size(), entity.getContentLength());
+    }
+
 }
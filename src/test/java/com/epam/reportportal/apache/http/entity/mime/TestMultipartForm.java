@@ -27,6 +27,7 @@
 
 package com.epam.reportportal.apache.http.entity.mime;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -34,6 +35,8 @@ import java.io.FileWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import com.epam.reportportal.apache.http.entity.mime.FormBodyPart;
 import com.epam.reportportal.apache.http.entity.mime.HttpBrowserCompatibleMultipart;
@@ -45,6 +48,7 @@ import org.junit.Test;
 
 import com.epam.reportportal.apache.http.Consts;
 import com.epam.reportportal.apache.http.entity.ContentType;
+import com.epam.reportportal.apache.http.entity.mime.content.ByteArrayBody;
 import com.epam.reportportal.apache.http.entity.mime.content.FileBody;
 import com.epam.reportportal.apache.http.entity.mime.content.InputStreamBody;
 import com.epam.reportportal.apache.http.entity.mime.content.StringBody;
@@ -369,4 +373,93 @@ public class TestMultipartForm {
         Assert.assertEquals(expected.length, multipart.getTotalLength());
     }
 
+    private static List<FormBodyPart> createNonASCIIParts(final File file) {
+        final String s1 = constructString(SWISS_GERMAN_HELLO);
+        final String s2 = constructString(RUSSIAN_HELLO);
+        return Arrays.asList(
+                new FormBodyPart("field1", new StringBody(s1, ContentType.create("text/plain", Consts.UTF_8))),
+                new FormBodyPart(s2, new StringBody(s2, ContentType.create("text/plain", Consts.UTF_8))),
+                new FormBodyPart("field3", new FileBody(file, ContentType.DEFAULT_BINARY, s1 + ".tmp")),
+                new FormBodyPart("field4", new ByteArrayBody(new byte[] {}, "empty")));
+    }
+
+    private static void assertSameContent(
+            final AbstractMultipartForm expected, final AbstractMultipartForm actual) throws Exception {
+        final ByteArrayOutputStream out1 = new ByteArrayOutputStream();
+        expected.writeTo(out1);
+        final ByteArrayOutputStream out2 = new ByteArrayOutputStream();
+        actual.writeTo(out2);
+        Assert.assertArrayEquals(out1.toByteArray(), out2.toByteArray());
+        Assert.assertEquals(expected.getTotalLength(), actual.getTotalLength());
+        Assert.assertEquals(out2.size(), actual.getTotalLength());
+        // content may be written out repeatedly
+        final ByteArrayOutputStream out3 = new ByteArrayOutputStream();
+        actual.writeTo(out3);
+        Assert.assertArrayEquals(out2.toByteArray(), out3.toByteArray());
+    }
+
+    @Test
+    public void testStreamingMultipartFormAllModes() throws Exception {
+        tmpfile = File.createTempFile("tmp", ".bin");
+        final Writer writer = new FileWriter(tmpfile);
+        try {
+            writer.append("some random whatever");
+        } finally {
+            writer.close();
+        }
+        final List<FormBodyPart> parts = createNonASCIIParts(tmpfile);
+
+        final AbstractMultipartForm strict = new HttpStrictMultipart("form-data", null, "foo", parts);
+        assertSameContent(strict, new StreamingMultipartForm(strict));
+        final AbstractMultipartForm lax = new HttpBrowserCompatibleMultipart(
+                "form-data", Consts.UTF_8, "foo", parts);
+        assertSameContent(lax, new StreamingMultipartForm(lax));
+        final AbstractMultipartForm rfc6532 = new HttpRFC6532Multipart(
+                "form-data", Consts.UTF_8, "foo", parts);
+        assertSameContent(rfc6532, new StreamingMultipartForm(rfc6532));
+    }
+
+    @Test
+    public void testStreamingMultipartFormNoParts() throws Exception {
+        final AbstractMultipartForm form = new HttpStrictMultipart(
+                "form-data", null, "foo", Collections.<FormBodyPart>emptyList());
+        final StreamingMultipartForm multipart = new StreamingMultipartForm(form);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        multipart.writeTo(out);
+        Assert.assertEquals("--foo--\r\n", out.toString("US-ASCII"));
+        Assert.assertEquals(out.size(), multipart.getTotalLength());
+    }
+
+    @Test
+    public void testStreamingMultipartFormUnknownLength() throws Exception {
+        final FormBodyPart p1 = new FormBodyPart(
+                "field1",
+                new StringBody("this stuff", ContentType.DEFAULT_TEXT));
+        final FormBodyPart p2 = new FormBodyPart(
+                "field2",
+                new InputStreamBody(new ByteArrayInputStream("that stuff".getBytes("US-ASCII")), "file.tmp"));
+        final StreamingMultipartForm multipart = new StreamingMultipartForm(
+                new HttpStrictMultipart("form-data", null, "foo", Arrays.asList(p1, p2)));
+        Assert.assertEquals(-1, multipart.getTotalLength());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        multipart.writeTo(out);
+
+        final String expected =
+            "--foo\r\n" +
+            "Content-Disposition: form-data; name=\"field1\"\r\n" +
+            "Content-Type: text/plain; charset=ISO-8859-1\r\n" +
+            "Content-Transfer-Encoding: 8bit\r\n" +
+            "\r\n" +
+            "this stuff\r\n" +
+            "--foo\r\n" +
+            "Content-Disposition: form-data; name=\"field2\"; filename=\"file.tmp\"\r\n" +
+            "Content-Type: application/octet-stream\r\n" +
+            "Content-Transfer-Encoding: binary\r\n" +
+            "\r\n" +
+            "that stuff\r\n" +
+            "--foo--\r\n";
+        Assert.assertEquals(expected, out.toString("US-ASCII"));
+    }
+
 }
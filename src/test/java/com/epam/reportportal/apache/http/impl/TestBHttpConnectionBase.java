@@ -57,7 +57,9 @@ import com.epam.reportportal.apache.http.impl.io.ContentLengthInputStream;
 import com.epam.reportportal.apache.http.impl.io.ContentLengthOutputStream;
 import com.epam.reportportal.apache.http.impl.io.IdentityInputStream;
 import com.epam.reportportal.apache.http.impl.io.IdentityOutputStream;
+import com.epam.reportportal.apache.http.io.BufferRecycler;
 import com.epam.reportportal.apache.http.message.BasicHttpResponse;
+import com.epam.reportportal.apache.http.util.ByteArrayBuffer;
 
 public class TestBHttpConnectionBase {
 
@@ -140,6 +142,41 @@ public class TestBHttpConnectionBase {
                 Mockito.<byte []>any(), Mockito.anyInt(), Mockito.anyInt());
     }
 
+    @Test
+    public void testReleaseBuffers() throws Exception {
+        final BufferRecycler recycler = Mockito.mock(BufferRecycler.class);
+        Mockito.when(recycler.acquire(Mockito.anyInt())).thenReturn(
+                new ByteArrayBuffer(1024), new ByteArrayBuffer(1024), new ByteArrayBuffer(1024));
+        conn = new BHttpConnectionBase(1024, 1024,
+            null, null,
+            MessageConstraints.DEFAULT,
+            LaxContentLengthStrategy.INSTANCE,
+            StrictContentLengthStrategy.INSTANCE,
+            recycler);
+        final InputStream instream = new ByteArrayInputStream(new byte[] {1, 2, 3});
+        final OutputStream outstream = Mockito.mock(OutputStream.class);
+
+        Mockito.when(socket.getInputStream()).thenReturn(instream);
+        Mockito.when(socket.getOutputStream()).thenReturn(outstream);
+
+        conn.bind(socket);
+        conn.ensureOpen();
+        conn.getSessionOutputBuffer().write(0);
+        conn.getSessionInputBuffer().read();
+
+        // Buffers of an open connection are never released
+        conn.releaseBuffers();
+        Mockito.verify(recycler, Mockito.never()).release(Mockito.<ByteArrayBuffer>any());
+
+        // Another thread may still be using the buffers of a closed connection
+        conn.close();
+        Assert.assertFalse(conn.isOpen());
+        Mockito.verify(recycler, Mockito.never()).release(Mockito.<ByteArrayBuffer>any());
+
+        conn.releaseBuffers();
+        Mockito.verify(recycler, Mockito.times(3)).release(Mockito.<ByteArrayBuffer>any());
+    }
+
     @Test
     public void testConnectionShutdown() throws Exception {
         final InputStream instream = Mockito.mock(InputStream.class);
@@ -350,6 +387,20 @@ public class TestBHttpConnectionBase {
         Assert.assertFalse(conn.isStale());
     }
 
+    @Test
+    public void testNotStaleWhenDataAvailableWithoutProbe() throws Exception {
+        final InputStream instream = Mockito.mock(InputStream.class);
+        Mockito.when(socket.getInputStream()).thenReturn(instream);
+        Mockito.when(instream.available()).thenReturn(1);
+
+        conn.bind(socket);
+        conn.ensureOpen();
+
+        Assert.assertFalse(conn.isStale());
+        Mockito.verify(socket, Mockito.never()).setSoTimeout(Mockito.anyInt());
+        Mockito.verify(instream, Mockito.never()).read(Mockito.<byte []>any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
     @Test
     public void testStaleWhenEndOfStream() throws Exception {
         final InputStream instream = Mockito.mock(InputStream.class);
@@ -29,8 +29,12 @@ package com.epam.reportportal.apache.http.impl.auth;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.security.MessageDigest;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.epam.reportportal.apache.http.impl.auth.DigestScheme;
 import com.epam.reportportal.apache.http.impl.auth.HttpEntityDigester;
@@ -56,6 +60,7 @@ import com.epam.reportportal.apache.http.message.BasicHttpRequest;
 import com.epam.reportportal.apache.http.protocol.BasicHttpContext;
 import com.epam.reportportal.apache.http.protocol.HTTP;
 import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.apache.http.util.EncodingUtils;
 
 /**
  * Test Methods for DigestScheme Authentication.
@@ -459,6 +464,132 @@ public class TestDigestScheme {
         Assert.assertEquals("00000001", table4.get("nc"));
     }
 
+    @Test
+    public void testDigestNouceCountSharedScheme() throws Exception {
+        final String challenge = "Digest realm=\"realm1\", nonce=\"f2a3f18799759d4f1a1c068b92b573cb\", qop=auth";
+        final Header authChallenge = new BasicHeader(AUTH.WWW_AUTH, challenge);
+        final Credentials cred = new UsernamePasswordCredentials("username","password");
+        final DigestScheme authscheme = new DigestScheme();
+        authscheme.processChallenge(authChallenge);
+
+        final Set<String> ncs = Collections.synchronizedSet(new HashSet<String>());
+        final Thread[] threads = new Thread[4];
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+
+                @Override
+                public void run() {
+                    try {
+                        for (int n = 0; n < 50; n++) {
+                            final HttpRequest request = new BasicHttpRequest("GET", "/" + n);
+                            final Header authResponse = authscheme.authenticate(
+                                    cred, request, new BasicHttpContext());
+                            final Map<String, String> table = parseAuthResponse(authResponse);
+                            Assert.assertEquals("/" + n, table.get("uri"));
+                            ncs.add(table.get("nc"));
+                        }
+                    } catch (final Exception ex) {
+                        failure.set(ex);
+                    }
+                }
+
+            };
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertNull(failure.get());
+        Assert.assertEquals(200, ncs.size());
+        Assert.assertTrue(ncs.contains("00000001"));
+        Assert.assertTrue(ncs.contains("000000c8"));
+    }
+
+    @Test
+    public void testDigestChallengeSharedScheme() throws Exception {
+        final Header authChallenge1 = new BasicHeader(AUTH.WWW_AUTH,
+                "Digest realm=\"realm1\", nonce=\"f2a3f18799759d4f1a1c068b92b573cb\", qop=auth");
+        final Header authChallenge2 = new BasicHeader(AUTH.PROXY_AUTH,
+                "Digest realm=\"realm2\", nonce=\"e273f1776275974f1a120d8b92c5b3cb\", qop=auth");
+        final Credentials cred = new UsernamePasswordCredentials("username","password");
+        final DigestScheme authscheme = new DigestScheme();
+        authscheme.processChallenge(authChallenge1);
+
+        final Thread[] threads = new Thread[4];
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        for (int i = 0; i < threads.length; i++) {
+            final boolean challenger = i == 0;
+            threads[i] = new Thread() {
+
+                @Override
+                public void run() {
+                    try {
+                        for (int n = 0; n < 500; n++) {
+                            if (challenger) {
+                                authscheme.processChallenge(n % 2 == 0 ? authChallenge2 : authChallenge1);
+                                continue;
+                            }
+                            final String realm = authscheme.getRealm();
+                            Assert.assertTrue("realm1".equals(realm) || "realm2".equals(realm));
+                            final Map<String, String> params = authscheme.getParameters();
+                            Assert.assertEquals(3, params.size());
+                            final Header authResponse = authscheme.authenticate(
+                                    cred, new BasicHttpRequest("GET", "/"), new BasicHttpContext());
+                            final Map<String, String> table = parseAuthResponse(authResponse);
+                            Assert.assertEquals("/", table.get("uri"));
+                        }
+                    } catch (final Throwable ex) {
+                        failure.set(ex);
+                    }
+                }
+
+            };
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertNull(failure.get());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testDigestParametersSnapshot() throws Exception {
+        final String challenge = "Digest realm=\"realm1\", nonce=\"f2a3f18799759d4f1a1c068b92b573cb\"";
+        final DigestScheme authscheme = new DigestScheme();
+        authscheme.processChallenge(new BasicHeader(AUTH.WWW_AUTH, challenge));
+        final Map<String, String> params = authscheme.getParameters();
+        authscheme.overrideParamter("realm", "other realm");
+        Assert.assertEquals("realm1", params.get("realm"));
+        Assert.assertEquals("other realm", authscheme.getRealm());
+        params.put("realm", "realm2");
+    }
+
+    @Test
+    public void testDigestCredentialsChange() throws Exception {
+        final String challenge = "Digest realm=\"realm1\", nonce=\"f2a3f18799759d4f1a1c068b92b573cb\", qop=auth";
+        final Header authChallenge = new BasicHeader(AUTH.WWW_AUTH, challenge);
+        final HttpRequest request = new BasicHttpRequest("GET", "/");
+        final DigestScheme authscheme = new DigestScheme();
+        authscheme.processChallenge(authChallenge);
+
+        final MessageDigest md5 = MessageDigest.getInstance("MD5");
+        final String[] passwords = { "password", "password", "secret", "password" };
+        for (final String password : passwords) {
+            final Credentials cred = new UsernamePasswordCredentials("username", password);
+            final Header authResponse = authscheme.authenticate(cred, request, new BasicHttpContext());
+            final Map<String, String> table = parseAuthResponse(authResponse);
+            final String ha1 = DigestScheme.encode(md5.digest(
+                    EncodingUtils.getAsciiBytes("username:realm1:" + password)));
+            final String ha2 = DigestScheme.encode(md5.digest(
+                    EncodingUtils.getAsciiBytes("GET:/")));
+            final String expected = DigestScheme.encode(md5.digest(EncodingUtils.getAsciiBytes(
+                    ha1 + ":f2a3f18799759d4f1a1c068b92b573cb:" + table.get("nc") + ":"
+                    + table.get("cnonce") + ":auth:" + ha2)));
+            Assert.assertEquals(expected, table.get("response"));
+        }
+    }
+
     @Test
     public void testDigestMD5SessA1AndCnonceConsistency() throws Exception {
         final String challenge1 = "Digest qop=\"auth\", algorithm=MD5-sess, nonce=\"1234567890abcdef\", " +
@@ -513,6 +644,26 @@ public class TestDigestScheme {
         Assert.assertFalse(sessionKey1.equals(sessionKey4));
     }
 
+    @Test
+    public void testDigestMD5A1NotStale() throws Exception {
+        final String challenge1 = "Digest qop=\"auth\", algorithm=MD5-sess, nonce=\"1234567890abcdef\", " +
+                "realm=\"subnet.domain.com\"";
+        final String challenge2 = "Digest qop=\"auth\", algorithm=MD5, nonce=\"1234567890abcdef\", " +
+                "realm=\"subnet.domain.com\"";
+        final HttpRequest request = new BasicHttpRequest("GET", "/");
+        final Credentials cred = new UsernamePasswordCredentials("username","password");
+        final HttpContext context = new BasicHttpContext();
+        final DigestScheme authscheme = new DigestScheme();
+        authscheme.processChallenge(new BasicHeader(AUTH.WWW_AUTH, challenge1));
+        authscheme.authenticate(cred, request, context);
+        Assert.assertNotNull(authscheme.getA1());
+
+        authscheme.processChallenge(new BasicHeader(AUTH.WWW_AUTH, challenge2));
+        authscheme.authenticate(cred, request, context);
+        Assert.assertNull(authscheme.getA1());
+        Assert.assertEquals("GET:/", authscheme.getA2());
+    }
+
     @Test
     public void testHttpEntityDigest() throws Exception {
         final HttpEntityDigester digester = new HttpEntityDigester(MessageDigest.getInstance("MD5"));
@@ -0,0 +1,95 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.client;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.auth.AuthScheme;
+
+/**
+ * Unit tests for {@link ConcurrentAuthCache}.
+ */
+public class TestConcurrentAuthCache {
+
+    @Test
+    public void testBasics() throws Exception {
+        final ConcurrentAuthCache cache = new ConcurrentAuthCache();
+        final AuthScheme authScheme = Mockito.mock(AuthScheme.class);
+        cache.put(new HttpHost("localhost", 80), authScheme);
+        Assert.assertSame(authScheme, cache.get(new HttpHost("localhost", 80)));
+        Assert.assertSame(authScheme, cache.get(new HttpHost("localhost", -1, "http")));
+        cache.remove(new HttpHost("localhost", 80));
+        Assert.assertNull(cache.get(new HttpHost("localhost", 80)));
+        cache.put(new HttpHost("localhost", 80), authScheme);
+        cache.put(new HttpHost("localhost", 8080), null);
+        Assert.assertEquals(1, cache.size());
+        cache.clear();
+        Assert.assertNull(cache.get(new HttpHost("localhost", 80)));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testTimeToLive() throws Exception {
+        final ConcurrentAuthCache cache = new ConcurrentAuthCache(10, 50, TimeUnit.MILLISECONDS);
+        final AuthScheme authScheme = Mockito.mock(AuthScheme.class);
+        cache.put(new HttpHost("localhost", 80), authScheme);
+        Assert.assertSame(authScheme, cache.get(new HttpHost("localhost", 80)));
+        Thread.sleep(100);
+        Assert.assertNull(cache.get(new HttpHost("localhost", 80)));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testMaxEntries() throws Exception {
+        final ConcurrentAuthCache cache = new ConcurrentAuthCache(2, -1, TimeUnit.MILLISECONDS);
+        final AuthScheme authScheme = Mockito.mock(AuthScheme.class);
+        cache.put(new HttpHost("host1", 80), authScheme);
+        Thread.sleep(5);
+        cache.put(new HttpHost("host2", 80), authScheme);
+        Thread.sleep(5);
+        cache.put(new HttpHost("host3", 80), authScheme);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get(new HttpHost("host1", 80)));
+        Assert.assertSame(authScheme, cache.get(new HttpHost("host2", 80)));
+        Assert.assertSame(authScheme, cache.get(new HttpHost("host3", 80)));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidMaxEntries() throws Exception {
+        new ConcurrentAuthCache(0, -1, TimeUnit.MILLISECONDS);
+    }
+
+}
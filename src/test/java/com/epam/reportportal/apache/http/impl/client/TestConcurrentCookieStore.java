@@ -0,0 +1,181 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.epam.reportportal.apache.http.cookie.Cookie;
+import com.epam.reportportal.apache.http.cookie.CookieOrigin;
+import com.epam.reportportal.apache.http.impl.cookie.BasicClientCookie;
+
+/**
+ * Unit tests for {@link ConcurrentCookieStore}.
+ */
+public class TestConcurrentCookieStore {
+
+    private static BasicClientCookie cookie(
+            final String name, final String domain, final String path, final Date expiry) {
+        final BasicClientCookie cookie = new BasicClientCookie(name, "value");
+        cookie.setDomain(domain);
+        cookie.setPath(path);
+        cookie.setExpiryDate(expiry);
+        return cookie;
+    }
+
+    @Test
+    public void testBasics() throws Exception {
+        final ConcurrentCookieStore store = new ConcurrentCookieStore();
+        store.addCookie(new BasicClientCookie("name2", "value2"));
+        store.addCookies(new BasicClientCookie[] {new BasicClientCookie("name1", "value1")});
+        List<Cookie> l = store.getCookies();
+        Assert.assertNotNull(l);
+        Assert.assertEquals(2, l.size());
+        Assert.assertEquals("name1", l.get(0).getName());
+        Assert.assertEquals("name2", l.get(1).getName());
+        store.clear();
+        l = store.getCookies();
+        Assert.assertNotNull(l);
+        Assert.assertEquals(0, l.size());
+    }
+
+    @Test
+    public void testReplaceEquivalentCookie() throws Exception {
+        final ConcurrentCookieStore store = new ConcurrentCookieStore();
+        store.addCookie(cookie("name1", "Example.com", "/", null));
+        store.addCookie(cookie("name2", "example.com", "/", null));
+        final BasicClientCookie replacement = cookie("name1", "example.COM", null, null);
+        store.addCookie(replacement);
+        final List<Cookie> l = store.getCookies();
+        Assert.assertEquals(2, l.size());
+        Assert.assertSame(replacement, l.get(0));
+
+        store.addCookie(cookie("name1", "example.com", "/", new Date(0)));
+        Assert.assertEquals(1, store.getCookies().size());
+        store.addCookie(cookie("name2", "example.com", "/", new Date(0)));
+        Assert.assertEquals(0, store.getCookies().size());
+    }
+
+    @Test
+    public void testExpiredCookie() throws Exception {
+        final ConcurrentCookieStore store = new ConcurrentCookieStore();
+        store.addCookie(cookie("name1", "example.com", "/",
+                new Date(System.currentTimeMillis() - 10000)));
+        Assert.assertEquals(0, store.getCookies().size());
+    }
+
+    @Test
+    public void testClearExpired() throws Exception {
+        final ConcurrentCookieStore store = new ConcurrentCookieStore();
+        final long now = System.currentTimeMillis();
+        store.addCookie(cookie("session", "example.com", "/", null));
+        store.addCookie(cookie("short", "example.com", "/", new Date(now + 10000)));
+        store.addCookie(cookie("long", "other.com", "/", new Date(now + 100000)));
+        store.addCookie(cookie("replaced", "example.com", "/", new Date(now + 10000)));
+        store.addCookie(cookie("replaced", "example.com", "/", new Date(now + 100000)));
+
+        Assert.assertFalse(store.clearExpired(null));
+        Assert.assertFalse(store.clearExpired(new Date(now)));
+        Assert.assertEquals(4, store.getCookies().size());
+        Assert.assertTrue(store.clearExpired(new Date(now + 10001)));
+        List<Cookie> l = store.getCookies();
+        Assert.assertEquals(3, l.size());
+        Assert.assertEquals("long", l.get(0).getName());
+        Assert.assertEquals("replaced", l.get(1).getName());
+        Assert.assertEquals("session", l.get(2).getName());
+        Assert.assertFalse(store.clearExpired(new Date(now + 10001)));
+        Assert.assertTrue(store.clearExpired(new Date(now + 100001)));
+        l = store.getCookies();
+        Assert.assertEquals(1, l.size());
+        Assert.assertEquals("session", l.get(0).getName());
+    }
+
+    @Test
+    public void testCookiesForOrigin() throws Exception {
+        final ConcurrentCookieStore store = new ConcurrentCookieStore();
+        store.addCookie(cookie("a", ".example.com", "/", null));
+        store.addCookie(cookie("b", "www.example.com", "/app/", null));
+        store.addCookie(cookie("c", "api.example.com", "/", null));
+        store.addCookie(cookie("d", "example.org", "/", null));
+        store.addCookie(cookie("e", "localhost", null, null));
+        store.addCookie(cookie("f", null, "/", null));
+
+        List<Cookie> l = store.getCookies(new CookieOrigin("www.example.com", 80, "/app/index", false));
+        Assert.assertEquals(2, l.size());
+        Assert.assertEquals("a", l.get(0).getName());
+        Assert.assertEquals("b", l.get(1).getName());
+
+        l = store.getCookies(new CookieOrigin("WWW.example.com", 80, "/other", false));
+        Assert.assertEquals(1, l.size());
+        Assert.assertEquals("a", l.get(0).getName());
+
+        l = store.getCookies(new CookieOrigin("example.org", 80, "/", false));
+        Assert.assertEquals(1, l.size());
+        Assert.assertEquals("d", l.get(0).getName());
+
+        l = store.getCookies(new CookieOrigin("localhost", 80, "/", false));
+        Assert.assertEquals(1, l.size());
+        Assert.assertEquals("e", l.get(0).getName());
+
+        Assert.assertEquals(0, store.getCookies(new CookieOrigin("example.net", 80, "/", false)).size());
+        Assert.assertEquals(6, store.getCookies().size());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        final ConcurrentCookieStore orig = new ConcurrentCookieStore();
+        orig.addCookie(cookie("name1", "example.com", "/", null));
+        orig.addCookie(cookie("name2", "example.com", "/",
+                new Date(System.currentTimeMillis() + 100000)));
+        final ByteArrayOutputStream outbuffer = new ByteArrayOutputStream();
+        final ObjectOutputStream outstream = new ObjectOutputStream(outbuffer);
+        outstream.writeObject(orig);
+        outstream.close();
+        final byte[] raw = outbuffer.toByteArray();
+        final ByteArrayInputStream inbuffer = new ByteArrayInputStream(raw);
+        final ObjectInputStream instream = new ObjectInputStream(inbuffer);
+        final ConcurrentCookieStore clone = (ConcurrentCookieStore) instream.readObject();
+        final List<Cookie> expected = orig.getCookies();
+        final List<Cookie> clones = clone.getCookies();
+        Assert.assertEquals(expected.size(), clones.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getName(), clones.get(i).getName());
+            Assert.assertEquals(expected.get(i).getValue(), clones.get(i).getValue());
+        }
+        Assert.assertTrue(clone.clearExpired(new Date(System.currentTimeMillis() + 200000)));
+        Assert.assertEquals(1, clone.getCookies().size());
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.client;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.HttpVersion;
+import com.epam.reportportal.apache.http.client.methods.HttpGet;
+import com.epam.reportportal.apache.http.client.methods.HttpPost;
+import com.epam.reportportal.apache.http.entity.ByteArrayEntity;
+import com.epam.reportportal.apache.http.entity.ContentType;
+import com.epam.reportportal.apache.http.entity.InputStreamEntity;
+import com.epam.reportportal.apache.http.protocol.BasicHttpContext;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+
+public class TestDefaultRequestCompressionStrategy {
+
+    private final HttpContext context = new BasicHttpContext();
+
+    private static HttpPost post(final HttpEntity entity) {
+        final HttpPost post = new HttpPost("/");
+        post.setEntity(entity);
+        return post;
+    }
+
+    private static HttpEntity entity(final int len, final String contentType) {
+        return new ByteArrayEntity(new byte[len], contentType != null ? ContentType.parse(contentType) : null);
+    }
+
+    @Test
+    public void testDefaults() throws Exception {
+        final DefaultRequestCompressionStrategy strategy = DefaultRequestCompressionStrategy.INSTANCE;
+        Assert.assertFalse(strategy.shouldCompress(new HttpGet("/"), this.context));
+        Assert.assertFalse(strategy.shouldCompress(new HttpPost("/"), this.context));
+        Assert.assertTrue(strategy.shouldCompress(post(entity(1024, "text/plain")), this.context));
+        Assert.assertTrue(strategy.shouldCompress(post(entity(1024, "Text/CSV; charset=UTF-8")), this.context));
+        Assert.assertTrue(strategy.shouldCompress(post(entity(1024, "application/json")), this.context));
+        Assert.assertFalse(strategy.shouldCompress(post(entity(1023, "text/plain")), this.context));
+        Assert.assertFalse(strategy.shouldCompress(post(entity(1024, "image/png")), this.context));
+        Assert.assertFalse(strategy.shouldCompress(post(entity(1024, null)), this.context));
+    }
+
+    @Test
+    public void testUnknownLength() throws Exception {
+        final DefaultRequestCompressionStrategy strategy = DefaultRequestCompressionStrategy.INSTANCE;
+        final HttpPost post = post(new InputStreamEntity(
+                new ByteArrayInputStream(new byte[] {}), -1, ContentType.TEXT_PLAIN));
+        Assert.assertTrue(strategy.shouldCompress(post, this.context));
+        // cannot be sent chunk coded
+        post.setProtocolVersion(HttpVersion.HTTP_1_0);
+        Assert.assertFalse(strategy.shouldCompress(post, this.context));
+        final HttpPost small = post(entity(1024, "text/plain"));
+        small.setProtocolVersion(HttpVersion.HTTP_1_0);
+        Assert.assertTrue(strategy.shouldCompress(small, this.context));
+    }
+
+    @Test
+    public void testCustomMimeTypes() throws Exception {
+        final DefaultRequestCompressionStrategy strategy = new DefaultRequestCompressionStrategy(
+                0, 1, 0, Arrays.asList("multipart/form-data", "application/*"));
+        Assert.assertTrue(strategy.shouldCompress(post(entity(10, "multipart/form-data; boundary=x")), this.context));
+        Assert.assertTrue(strategy.shouldCompress(post(entity(10, "application/octet-stream")), this.context));
+        Assert.assertFalse(strategy.shouldCompress(post(entity(10, "text/plain")), this.context));
+    }
+
+    @Test
+    public void testCompress() throws Exception {
+        final HttpEntity compressed = DefaultRequestCompressionStrategy.INSTANCE.compress(
+                entity(2048, "text/plain"));
+        Assert.assertEquals("gzip", compressed.getContentEncoding().getValue());
+        Assert.assertEquals("text/plain", compressed.getContentType().getValue());
+        Assert.assertFalse(compressed.isChunked());
+        Assert.assertTrue(compressed.getContentLength() > 0);
+    }
+
+}
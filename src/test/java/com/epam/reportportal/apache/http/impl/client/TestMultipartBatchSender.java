@@ -0,0 +1,203 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.HttpEntityEnclosingRequest;
+import com.epam.reportportal.apache.http.client.HttpClient;
+import com.epam.reportportal.apache.http.client.ResponseHandler;
+import com.epam.reportportal.apache.http.client.methods.HttpUriRequest;
+import com.epam.reportportal.apache.http.concurrent.FutureCallback;
+import com.epam.reportportal.apache.http.entity.ContentType;
+import com.epam.reportportal.apache.http.entity.mime.FormBodyPart;
+import com.epam.reportportal.apache.http.entity.mime.content.StringBody;
+
+@SuppressWarnings("unchecked")
+public class TestMultipartBatchSender {
+
+    private HttpClient httpclient;
+    private List<String> batches;
+    private MultipartBatchSender<Integer> sender;
+
+    @Before
+    public void setUp() throws Exception {
+        this.batches = new ArrayList<String>();
+        this.httpclient = Mockito.mock(HttpClient.class);
+        // answers with the number of parts in the batch
+        Mockito.when(this.httpclient.execute(
+                Mockito.any(HttpUriRequest.class),
+                Mockito.any(ResponseHandler.class))).thenAnswer(new Answer<Integer>() {
+
+            public Integer answer(final InvocationOnMock invocation) throws Throwable {
+                final HttpEntity entity = ((HttpEntityEnclosingRequest) invocation.getArguments()[0]).getEntity();
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                entity.writeTo(out);
+                final String content = out.toString("US-ASCII");
+                synchronized (batches) {
+                    batches.add(content);
+                }
+                return Integer.valueOf(content.split("Content-Disposition").length - 1);
+            }
+
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (this.sender != null) {
+            this.sender.close();
+        }
+    }
+
+    private MultipartBatchSender<Integer> createSender(
+            final int maxParts, final long maxSize, final long lingerTime) {
+        return new MultipartBatchSender<Integer>(
+                this.httpclient, URI.create("http://localhost/api/log"),
+                Mockito.mock(ResponseHandler.class), null,
+                maxParts, maxSize, lingerTime, TimeUnit.MILLISECONDS, 2);
+    }
+
+    private static FormBodyPart part(final String content) {
+        return new FormBodyPart("log", new StringBody(content, ContentType.TEXT_PLAIN));
+    }
+
+    private static Integer get(final Future<Integer> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testFlushOnPartCount() throws Exception {
+        this.sender = createSender(3, Long.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+        final List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+        for (int i = 0; i < 7; i++) {
+            futures.add(this.sender.add(part("message " + i)));
+        }
+        for (int i = 0; i < 6; i++) {
+            Assert.assertEquals(Integer.valueOf(3), get(futures.get(i)));
+        }
+        Assert.assertFalse(futures.get(6).isDone());
+        this.sender.flush();
+        Assert.assertEquals(Integer.valueOf(1), get(futures.get(6)));
+        Assert.assertEquals(3, this.batches.size());
+    }
+
+    @Test
+    public void testFlushOnSize() throws Exception {
+        this.sender = createSender(100, 10, TimeUnit.HOURS.toMillis(1));
+        final Future<Integer> f1 = this.sender.add(part("1234"));
+        final Future<Integer> f2 = this.sender.add(part("1234"));
+        final Future<Integer> f3 = this.sender.add(part("1234"));
+        Assert.assertEquals(Integer.valueOf(2), get(f1));
+        Assert.assertEquals(Integer.valueOf(2), get(f2));
+        Assert.assertFalse(f3.isDone());
+        // a part over the budget is sent on its own
+        final Future<Integer> f4 = this.sender.add(part("12345678901234567890"));
+        Assert.assertEquals(Integer.valueOf(1), get(f3));
+        Assert.assertEquals(Integer.valueOf(1), get(f4));
+    }
+
+    @Test
+    public void testFlushOnLingerTime() throws Exception {
+        this.sender = createSender(100, Long.MAX_VALUE, 50);
+        final Future<Integer> f1 = this.sender.add(part("first"));
+        final Future<Integer> f2 = this.sender.add(part("second"));
+        Assert.assertEquals(Integer.valueOf(2), get(f1));
+        Assert.assertEquals(Integer.valueOf(2), get(f2));
+        final Future<Integer> f3 = this.sender.add(part("third"));
+        Assert.assertEquals(Integer.valueOf(1), get(f3));
+        Assert.assertEquals(2, this.batches.size());
+    }
+
+    @Test
+    public void testCancelledPartNotSent() throws Exception {
+        this.sender = createSender(100, Long.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+        final Future<Integer> f1 = this.sender.add(part("first"));
+        final Future<Integer> f2 = this.sender.add(part("second"));
+        Assert.assertTrue(f1.cancel(true));
+        this.sender.flush();
+        Assert.assertEquals(Integer.valueOf(1), get(f2));
+        Assert.assertTrue(this.batches.get(0).contains("second"));
+        Assert.assertFalse(this.batches.get(0).contains("first"));
+    }
+
+    @Test
+    public void testBatchFailure() throws Exception {
+        Mockito.doThrow(new IOException("Oppsie")).when(this.httpclient).execute(
+                Mockito.any(HttpUriRequest.class),
+                Mockito.any(ResponseHandler.class));
+        this.sender = createSender(2, Long.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+        final FutureCallback<Integer> callback = Mockito.mock(FutureCallback.class);
+        final Future<Integer> f1 = this.sender.add(part("first"), callback);
+        final Future<Integer> f2 = this.sender.add(part("second"), callback);
+        final List<Future<Integer>> futures = new ArrayList<Future<Integer>>(2);
+        futures.add(f1);
+        futures.add(f2);
+        for (final Future<Integer> future: futures) {
+            try {
+                get(future);
+                Assert.fail("ExecutionException expected");
+            } catch (final ExecutionException ex) {
+                Assert.assertTrue(ex.getCause() instanceof IOException);
+            }
+        }
+        Mockito.verify(callback, Mockito.timeout(5000).times(2)).failed(Mockito.any(IOException.class));
+        Mockito.verify(callback, Mockito.never()).completed(Mockito.any(Integer.class));
+    }
+
+    @Test
+    public void testCloseSendsPendingParts() throws Exception {
+        this.sender = createSender(100, Long.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+        final Future<Integer> f1 = this.sender.add(part("first"));
+        this.sender.close();
+        Assert.assertTrue(f1.isDone());
+        Assert.assertEquals(Integer.valueOf(1), f1.get());
+        try {
+            this.sender.add(part("second"));
+            Assert.fail("IllegalStateException expected");
+        } catch (final IllegalStateException expected) {
+        }
+    }
+
+}
@@ -0,0 +1,398 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.client.integration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.HttpException;
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.HttpResponse;
+import com.epam.reportportal.apache.http.HttpStatus;
+import com.epam.reportportal.apache.http.client.config.RequestConfig;
+import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
+import com.epam.reportportal.apache.http.client.methods.HttpGet;
+import com.epam.reportportal.apache.http.client.methods.HttpPost;
+import com.epam.reportportal.apache.http.client.protocol.HttpClientContext;
+import com.epam.reportportal.apache.http.config.ConnectionConfig;
+import com.epam.reportportal.apache.http.conn.ManagedHttpClientConnection;
+import com.epam.reportportal.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import com.epam.reportportal.apache.http.entity.ByteArrayEntity;
+import com.epam.reportportal.apache.http.entity.ContentType;
+import com.epam.reportportal.apache.http.entity.FileEntity;
+import com.epam.reportportal.apache.http.entity.StringEntity;
+import com.epam.reportportal.apache.http.entity.mime.MultipartEntityBuilder;
+import com.epam.reportportal.apache.http.impl.client.HttpClients;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.apache.http.protocol.HttpRequestHandler;
+import com.epam.reportportal.apache.http.util.Args;
+import com.epam.reportportal.apache.http.util.EntityUtils;
+
+public class TestChannelTransport extends IntegrationTestBase {
+
+    private TunnelProxy proxy;
+
+    @Before
+    public void setUp() throws Exception {
+        startServer();
+        this.localServer.register("/slow", new HttpRequestHandler() {
+
+            public void handle(
+                    final HttpRequest request,
+                    final HttpResponse response,
+                    final HttpContext context) throws HttpException, IOException {
+                try {
+                    Thread.sleep(1000);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                response.setEntity(new StringEntity("slow"));
+            }
+
+        });
+        this.httpclient = HttpClients.custom()
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setBufferSize(1024)
+                        .setChannelTransport(true)
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setStaleConnectionCheckEnabled(true)
+                        .build())
+                .build();
+    }
+
+    @After
+    public void shutDownProxy() throws Exception {
+        if (this.proxy != null) {
+            this.proxy.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetOverChannel() throws Exception {
+        final HttpHost target = getServerHttp();
+        for (int i = 0; i < 3; i++) {
+            final HttpClientContext context = HttpClientContext.create();
+            final CloseableHttpResponse response = this.httpclient.execute(
+                    target, new HttpGet("/random/100000"), context);
+            try {
+                Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+                final ManagedHttpClientConnection conn = context.getConnection(
+                        ManagedHttpClientConnection.class);
+                final SocketChannel channel = conn.getSocket().getChannel();
+                Assert.assertNotNull(channel);
+                Assert.assertFalse(channel.isBlocking());
+                Assert.assertEquals(100000, EntityUtils.toByteArray(response.getEntity()).length);
+            } finally {
+                response.close();
+            }
+        }
+    }
+
+    @Test
+    public void testPostOverChannel() throws Exception {
+        final HttpHost target = getServerHttp();
+        final byte[] content = new byte[200000];
+        new Random().nextBytes(content);
+        for (int i = 0; i < 3; i++) {
+            final HttpPost post = new HttpPost("/echo/");
+            post.setEntity(new ByteArrayEntity(content));
+            final CloseableHttpResponse response = this.httpclient.execute(target, post);
+            try {
+                Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+                Assert.assertArrayEquals(content, EntityUtils.toByteArray(response.getEntity()));
+            } finally {
+                response.close();
+            }
+        }
+    }
+
+    @Test(expected=SocketTimeoutException.class)
+    public void testSocketTimeoutHonored() throws Exception {
+        final HttpGet get = new HttpGet("/slow");
+        get.setConfig(RequestConfig.custom().setSocketTimeout(100).build());
+        this.httpclient.execute(getServerHttp(), get);
+    }
+
+    private static File createFile(final byte[] content) throws IOException {
+        final File file = File.createTempFile("upload", ".bin");
+        file.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    @Test
+    public void testFileEntityUpload() throws Exception {
+        final byte[] content = new byte[300000];
+        new Random().nextBytes(content);
+        final File file = createFile(content);
+        final HttpPost post = new HttpPost("/echo/");
+        post.setEntity(new FileEntity(file, ContentType.APPLICATION_OCTET_STREAM));
+        final CloseableHttpResponse response = this.httpclient.execute(getServerHttp(), post);
+        try {
+            Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+            Assert.assertArrayEquals(content, EntityUtils.toByteArray(response.getEntity()));
+        } finally {
+            response.close();
+        }
+    }
+
+    @Test
+    public void testMultipartFileUpload() throws Exception {
+        final byte[] content = new byte[100000];
+        new Random().nextBytes(content);
+        final File file = createFile(content);
+        final HttpEntity entity = MultipartEntityBuilder.create()
+                .setBoundary("xxxxxxxxxxxxxxxxxxxxxxxx")
+                .addTextBody("name", "value")
+                .addBinaryBody("file", file)
+                .addTextBody("other", "value")
+                .build();
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        entity.writeTo(expected);
+
+        final HttpPost post = new HttpPost("/echo/");
+        post.setEntity(entity);
+        final CloseableHttpResponse response = this.httpclient.execute(getServerHttp(), post);
+        try {
+            Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+            Assert.assertArrayEquals(expected.toByteArray(), EntityUtils.toByteArray(response.getEntity()));
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Minimal HTTP proxy that only handles CONNECT. Once the tunnel has been
+     * established it expects a "HELLO" line from the client, mimicking the
+     * handshake of a layered protocol, and then relays data as is.
+     */
+    static class TunnelProxy extends Thread {
+
+        private final ServerSocket serversocket;
+
+        TunnelProxy() throws IOException {
+            super();
+            this.serversocket = new ServerSocket(0, 50, InetAddress.getByName("localhost"));
+            setDaemon(true);
+        }
+
+        HttpHost getHost() {
+            return new HttpHost("localhost", this.serversocket.getLocalPort(), "http");
+        }
+
+        void shutdown() throws IOException {
+            this.serversocket.close();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.interrupted()) {
+                    final Socket client = this.serversocket.accept();
+                    final Thread t = new Thread() {
+
+                        @Override
+                        public void run() {
+                            try {
+                                tunnel(client);
+                            } catch (final IOException ignore) {
+                            }
+                        }
+
+                    };
+                    t.setDaemon(true);
+                    t.start();
+                }
+            } catch (final IOException ignore) {
+            }
+        }
+
+        private void tunnel(final Socket client) throws IOException {
+            try {
+                final InputStream clientIn = client.getInputStream();
+                final OutputStream clientOut = client.getOutputStream();
+                final String[] requestLine = readLine(clientIn).split(" ");
+                while (readLine(clientIn).length() > 0) {
+                    // skip headers
+                }
+                if (!"CONNECT".equals(requestLine[0])) {
+                    clientOut.write("HTTP/1.1 405 Method Not Allowed\r\nContent-Length: 0\r\n\r\n".getBytes("US-ASCII"));
+                    return;
+                }
+                final String authority = requestLine[1];
+                final int i = authority.lastIndexOf(':');
+                final Socket server = new Socket(
+                        authority.substring(0, i), Integer.parseInt(authority.substring(i + 1)));
+                try {
+                    clientOut.write("HTTP/1.1 200 Connection established\r\n\r\n".getBytes("US-ASCII"));
+                    clientOut.flush();
+                    if (!"HELLO".equals(readLine(clientIn))) {
+                        return;
+                    }
+                    clientOut.write("HELLO\r\n".getBytes("US-ASCII"));
+                    clientOut.flush();
+                    final Thread upstream = new Thread() {
+
+                        @Override
+                        public void run() {
+                            try {
+                                relay(clientIn, server.getOutputStream());
+                            } catch (final IOException ignore) {
+                            }
+                        }
+
+                    };
+                    upstream.setDaemon(true);
+                    upstream.start();
+                    relay(server.getInputStream(), clientOut);
+                } finally {
+                    server.close();
+                }
+            } finally {
+                client.close();
+            }
+        }
+
+        private static String readLine(final InputStream in) throws IOException {
+            final StringBuilder buf = new StringBuilder();
+            int ch;
+            while ((ch = in.read()) != -1 && ch != '\n') {
+                if (ch != '\r') {
+                    buf.append((char) ch);
+                }
+            }
+            return buf.toString();
+        }
+
+        private static void relay(final InputStream in, final OutputStream out) throws IOException {
+            final byte[] tmp = new byte[4096];
+            int l;
+            while ((l = in.read(tmp)) != -1) {
+                out.write(tmp, 0, l);
+                out.flush();
+            }
+        }
+
+    }
+
+    /**
+     * Layers a socket the way SSL sockets do: through the streams of the
+     * underlying socket, starting with a handshake.
+     */
+    static class HandshakeSocketFactory implements LayeredConnectionSocketFactory {
+
+        public Socket createSocket(final HttpContext context) throws IOException {
+            return new Socket();
+        }
+
+        public Socket connectSocket(
+                final int connectTimeout,
+                final Socket socket,
+                final HttpHost host,
+                final InetSocketAddress remoteAddress,
+                final InetSocketAddress localAddress,
+                final HttpContext context) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        public Socket createLayeredSocket(
+                final Socket socket,
+                final String target,
+                final int port,
+                final HttpContext context) throws IOException {
+            Args.notNull(socket, "Socket");
+            socket.getOutputStream().write("HELLO\r\n".getBytes("US-ASCII"));
+            socket.getOutputStream().flush();
+            if (!"HELLO".equals(TunnelProxy.readLine(socket.getInputStream()))) {
+                throw new IOException("Handshake failed");
+            }
+            return socket;
+        }
+
+    }
+
+    @Test
+    public void testTunnelWithChannelTransport() throws Exception {
+        this.proxy = new TunnelProxy();
+        this.proxy.start();
+        this.httpclient.close();
+        this.httpclient = HttpClients.custom()
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setBufferSize(1024)
+                        .setChannelTransport(true)
+                        .build())
+                .setSSLSocketFactory(new HandshakeSocketFactory())
+                .setProxy(this.proxy.getHost())
+                .build();
+
+        final HttpHost server = getServerHttp();
+        final HttpHost target = new HttpHost(server.getHostName(), server.getPort(), "https");
+        for (int i = 0; i < 3; i++) {
+            final HttpClientContext context = HttpClientContext.create();
+            final CloseableHttpResponse response = this.httpclient.execute(
+                    target, new HttpGet("/random/100000"), context);
+            try {
+                Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+                final ManagedHttpClientConnection conn = context.getConnection(
+                        ManagedHttpClientConnection.class);
+                Assert.assertTrue(context.getHttpRoute().isTunnelled());
+                final SocketChannel channel = conn.getSocket().getChannel();
+                Assert.assertNotNull(channel);
+                Assert.assertTrue(channel.isBlocking());
+                Assert.assertEquals(100000, EntityUtils.toByteArray(response.getEntity()).length);
+            } finally {
+                response.close();
+            }
+        }
+    }
+
+}
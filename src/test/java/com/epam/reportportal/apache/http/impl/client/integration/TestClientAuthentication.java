@@ -60,6 +60,7 @@ import com.epam.reportportal.apache.http.entity.InputStreamEntity;
 import com.epam.reportportal.apache.http.entity.StringEntity;
 import com.epam.reportportal.apache.http.impl.auth.BasicScheme;
 import com.epam.reportportal.apache.http.impl.client.BasicAuthCache;
+import com.epam.reportportal.apache.http.impl.client.ConcurrentAuthCache;
 import com.epam.reportportal.apache.http.impl.client.BasicCredentialsProvider;
 import com.epam.reportportal.apache.http.impl.client.HttpClients;
 import com.epam.reportportal.apache.http.impl.client.TargetAuthenticationStrategy;
@@ -524,6 +525,36 @@ public class TestClientAuthentication extends IntegrationTestBase {
         Assert.assertEquals(1, requestHandler.getCount());
     }
 
+    @Test
+    public void testSharedAuthCache() throws Exception {
+        final CountingAuthHandler requestHandler = new CountingAuthHandler();
+        this.localServer.register("*", requestHandler);
+
+        final BasicCredentialsProvider credsProvider = new BasicCredentialsProvider();
+        credsProvider.setCredentials(AuthScope.ANY,
+                new UsernamePasswordCredentials("test", "test"));
+        final ConcurrentAuthCache authCache = new ConcurrentAuthCache();
+
+        this.httpclient = HttpClients.custom()
+            .setDefaultCredentialsProvider(credsProvider)
+            .setDefaultAuthCache(authCache)
+            .build();
+
+        final HttpHost targethost = getServerHttp();
+
+        for (int i = 0; i < 3; i++) {
+            final HttpGet httpget = new HttpGet("/");
+            final HttpResponse response = this.httpclient.execute(targethost, httpget);
+            Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+            EntityUtils.consume(response.getEntity());
+        }
+
+        // only the first request is challenged
+        Assert.assertEquals(4, requestHandler.getCount());
+        Assert.assertEquals(2, authCache.getHitCount());
+        Assert.assertEquals(1, authCache.size());
+    }
+
     @Test
     public void testPreemptiveAuthenticationFailure() throws Exception {
         final CountingAuthHandler requestHandler = new CountingAuthHandler();
@@ -0,0 +1,128 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.impl.client.integration;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.epam.reportportal.apache.http.HttpException;
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.HttpResponse;
+import com.epam.reportportal.apache.http.HttpStatus;
+import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
+import com.epam.reportportal.apache.http.client.methods.HttpGet;
+import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
+import com.epam.reportportal.apache.http.impl.client.HttpClients;
+import com.epam.reportportal.apache.http.impl.client.InMemoryHttpClientMetrics;
+import com.epam.reportportal.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import com.epam.reportportal.apache.http.pool.PoolStats;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.apache.http.protocol.HttpRequestHandler;
+import com.epam.reportportal.apache.http.util.EntityUtils;
+
+public class TestClientMetrics extends IntegrationTestBase {
+
+    private InMemoryHttpClientMetrics metrics;
+
+    @Before
+    public void setUp() throws Exception {
+        startServer();
+        this.localServer.register("/redirect", new HttpRequestHandler() {
+
+            public void handle(
+                    final HttpRequest request,
+                    final HttpResponse response,
+                    final HttpContext context) throws HttpException, IOException {
+                response.setStatusCode(HttpStatus.SC_MOVED_TEMPORARILY);
+                response.addHeader("Location", "/random/100");
+            }
+
+        });
+        this.metrics = new InMemoryHttpClientMetrics();
+        this.httpclient = HttpClients.custom()
+                .setConnectionManager(new PoolingHttpClientConnectionManager())
+                .setMetrics(this.metrics)
+                .build();
+    }
+
+    @Test
+    public void testRequestTimingsRecorded() throws Exception {
+        final HttpHost target = getServerHttp();
+        final HttpRoute route = new HttpRoute(target);
+        for (int i = 0; i < 3; i++) {
+            final CloseableHttpResponse response = this.httpclient.execute(target, new HttpGet("/random/1000"));
+            try {
+                Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+                Assert.assertEquals(1000, EntityUtils.toByteArray(response.getEntity()).length);
+            } finally {
+                response.close();
+            }
+        }
+
+        Assert.assertTrue(this.metrics.getRoutes().contains(route));
+        Assert.assertEquals(3, this.metrics.getLeaseWaitTimes(route).getCount());
+        Assert.assertEquals(1, this.metrics.getConnectTimes(route).getCount());
+        Assert.assertEquals(0, this.metrics.getHandshakeTimes(route).getCount());
+        Assert.assertEquals(3, this.metrics.getResponseHeadTimes(route).getCount());
+        Assert.assertEquals(3, this.metrics.getResponseBodyTimes(route).getCount());
+        Assert.assertEquals(0, this.metrics.getRetryCount(route));
+        Assert.assertEquals(0, this.metrics.getRedirectCount(route));
+
+        final PoolStats totals = this.metrics.getTotalStats();
+        Assert.assertNotNull(totals);
+        Assert.assertEquals(0, totals.getLeased());
+        Assert.assertEquals(1, totals.getAvailable());
+        Assert.assertEquals(1, this.metrics.getStats(route).getAvailable());
+    }
+
+    @Test
+    public void testRedirectCounted() throws Exception {
+        final HttpHost target = getServerHttp();
+        final HttpRoute route = new HttpRoute(target);
+        final CloseableHttpResponse response = this.httpclient.execute(target, new HttpGet("/redirect"));
+        try {
+            Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+            EntityUtils.consume(response.getEntity());
+        } finally {
+            response.close();
+        }
+        Assert.assertEquals(1, this.metrics.getRedirectCount(route));
+        Assert.assertEquals(2, this.metrics.getResponseHeadTimes(route).getCount());
+    }
+
+    @Test
+    public void testUnknownRoute() throws Exception {
+        final HttpRoute route = new HttpRoute(new HttpHost("somehost"));
+        Assert.assertEquals(0, this.metrics.getLeaseWaitTimes(route).getCount());
+        Assert.assertEquals(0, this.metrics.getRetryCount(route));
+    }
+
+}
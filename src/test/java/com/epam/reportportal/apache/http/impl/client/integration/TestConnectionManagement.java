@@ -28,12 +28,15 @@
 package com.epam.reportportal.apache.http.impl.client.integration;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Assert;
@@ -41,12 +44,16 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.epam.reportportal.apache.http.HttpClientConnection;
+import com.epam.reportportal.apache.http.HttpException;
 import com.epam.reportportal.apache.http.HttpHost;
 import com.epam.reportportal.apache.http.HttpRequest;
 import com.epam.reportportal.apache.http.HttpRequestInterceptor;
 import com.epam.reportportal.apache.http.HttpResponse;
 import com.epam.reportportal.apache.http.HttpStatus;
 import com.epam.reportportal.apache.http.HttpVersion;
+import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
+import com.epam.reportportal.apache.http.client.methods.HttpGet;
+import com.epam.reportportal.apache.http.client.protocol.HttpClientContext;
 import com.epam.reportportal.apache.http.config.Registry;
 import com.epam.reportportal.apache.http.config.RegistryBuilder;
 import com.epam.reportportal.apache.http.conn.ConnectTimeoutException;
@@ -56,17 +63,25 @@ import com.epam.reportportal.apache.http.conn.HttpClientConnectionManager;
 import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
 import com.epam.reportportal.apache.http.conn.socket.ConnectionSocketFactory;
 import com.epam.reportportal.apache.http.conn.socket.PlainConnectionSocketFactory;
+import com.epam.reportportal.apache.http.entity.AbstractHttpEntity;
+import com.epam.reportportal.apache.http.impl.client.CloseableHttpClient;
+import com.epam.reportportal.apache.http.impl.client.HttpClients;
+import com.epam.reportportal.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
 import com.epam.reportportal.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import com.epam.reportportal.apache.http.impl.io.BoundedBufferRecycler;
+import com.epam.reportportal.apache.http.io.BufferRecycler;
 import com.epam.reportportal.apache.http.localserver.LocalServerTestBase;
 import com.epam.reportportal.apache.http.message.BasicHttpRequest;
 import com.epam.reportportal.apache.http.protocol.BasicHttpContext;
 import com.epam.reportportal.apache.http.protocol.HttpContext;
 import com.epam.reportportal.apache.http.protocol.HttpCoreContext;
 import com.epam.reportportal.apache.http.protocol.HttpProcessor;
+import com.epam.reportportal.apache.http.protocol.HttpRequestHandler;
 import com.epam.reportportal.apache.http.protocol.HttpRequestExecutor;
 import com.epam.reportportal.apache.http.protocol.ImmutableHttpProcessor;
 import com.epam.reportportal.apache.http.protocol.RequestConnControl;
 import com.epam.reportportal.apache.http.protocol.RequestContent;
+import com.epam.reportportal.apache.http.util.ByteArrayBuffer;
 import com.epam.reportportal.apache.http.util.EntityUtils;
 
 /**
@@ -374,6 +389,130 @@ public class TestConnectionManagement extends LocalServerTestBase {
         mgr.shutdown();
     }
 
+    /**
+     * Tests that session buffers are only recycled once the connection pool
+     * closes a connection that is not leased.
+     */
+    @Test
+    public void testBuffersRecycledOnlyWhenNotLeased() throws Exception {
+        final CountDownLatch bodyStarted = new CountDownLatch(1);
+        final CountDownLatch bodyResumed = new CountDownLatch(1);
+        this.localServer.register("/stalling", new HttpRequestHandler() {
+
+            public void handle(
+                    final HttpRequest request,
+                    final HttpResponse response,
+                    final HttpContext context) throws HttpException, IOException {
+                response.setEntity(new AbstractHttpEntity() {
+
+                    public boolean isRepeatable() {
+                        return false;
+                    }
+
+                    public long getContentLength() {
+                        return 2048;
+                    }
+
+                    public InputStream getContent() {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    public void writeTo(final OutputStream outstream) throws IOException {
+                        outstream.write(new byte[1024]);
+                        outstream.flush();
+                        bodyStarted.countDown();
+                        try {
+                            bodyResumed.await(5, TimeUnit.SECONDS);
+                        } catch (final InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                        outstream.write(new byte[1024]);
+                    }
+
+                    public boolean isStreaming() {
+                        return false;
+                    }
+
+                });
+            }
+
+        });
+
+        final AtomicInteger released = new AtomicInteger();
+        final BufferRecycler recycler = new BufferRecycler() {
+
+            private final BufferRecycler delegate = new BoundedBufferRecycler(16);
+
+            public ByteArrayBuffer acquire(final int capacity) {
+                return this.delegate.acquire(capacity);
+            }
+
+            public void release(final ByteArrayBuffer buffer) {
+                released.incrementAndGet();
+                this.delegate.release(buffer);
+            }
+
+        };
+        final PoolingHttpClientConnectionManager mgr = new PoolingHttpClientConnectionManager(
+                new ManagedHttpClientConnectionFactory(null, null, recycler));
+        final CloseableHttpClient httpclient = HttpClients.custom()
+                .setConnectionManager(mgr)
+                .build();
+        try {
+            final HttpHost target = getServerHttp();
+
+            // Request executed and connection closed on this thread,
+            // entity read on another one
+            final HttpClientContext context = HttpClientContext.create();
+            final CloseableHttpResponse stalling = httpclient.execute(
+                    target, new HttpGet("/stalling"), context);
+            final AtomicReference<Exception> exRef = new AtomicReference<Exception>();
+            final Thread reader = new Thread() {
+
+                @Override
+                public void run() {
+                    try {
+                        EntityUtils.toByteArray(stalling.getEntity());
+                    } catch (final Exception ex) {
+                        exRef.set(ex);
+                    }
+                }
+
+            };
+            reader.start();
+            Assert.assertTrue(bodyStarted.await(5, TimeUnit.SECONDS));
+            // Let the reader block waiting for the rest of the entity
+            Thread.sleep(200);
+            context.getConnection().close();
+            reader.join(5000);
+            stalling.close();
+            bodyResumed.countDown();
+
+            Assert.assertFalse(reader.isAlive());
+            Assert.assertNotNull(exRef.get());
+            Assert.assertEquals(0, mgr.getTotalStats().getLeased());
+            Assert.assertEquals(0, mgr.getTotalStats().getAvailable());
+            Assert.assertEquals(0, released.get());
+
+            // Idle connection closed by the pool
+            final CloseableHttpResponse response = httpclient.execute(
+                    target, new HttpGet("/random/1000"));
+            try {
+                EntityUtils.consume(response.getEntity());
+            } finally {
+                response.close();
+            }
+            Assert.assertEquals(1, mgr.getTotalStats().getAvailable());
+            Assert.assertEquals(0, released.get());
+            mgr.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(0, mgr.getTotalStats().getAvailable());
+            Assert.assertTrue(released.get() > 0);
+        } finally {
+            bodyResumed.countDown();
+            httpclient.close();
+        }
+    }
+
     /**
      * Tests releasing connection from #abort method called from the
      * main execution thread while there is no blocking I/O operation.
@@ -0,0 +1,176 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.client.integration;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.HttpEntityEnclosingRequest;
+import com.epam.reportportal.apache.http.HttpException;
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.HttpResponse;
+import com.epam.reportportal.apache.http.HttpStatus;
+import com.epam.reportportal.apache.http.client.entity.GzipDecompressingEntity;
+import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
+import com.epam.reportportal.apache.http.client.methods.HttpPost;
+import com.epam.reportportal.apache.http.entity.ByteArrayEntity;
+import com.epam.reportportal.apache.http.entity.ContentType;
+import com.epam.reportportal.apache.http.entity.InputStreamEntity;
+import com.epam.reportportal.apache.http.entity.StringEntity;
+import com.epam.reportportal.apache.http.impl.client.DefaultRequestCompressionStrategy;
+import com.epam.reportportal.apache.http.impl.client.HttpClients;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.apache.http.protocol.HttpRequestHandler;
+import com.epam.reportportal.apache.http.util.EntityUtils;
+
+public class TestRequestCompression extends IntegrationTestBase {
+
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    /**
+     * Echoes the request content and whether it was compressed.
+     */
+    private class EchoHandler implements HttpRequestHandler {
+
+        private final boolean acceptCompressed;
+
+        EchoHandler(final boolean acceptCompressed) {
+            this.acceptCompressed = acceptCompressed;
+        }
+
+        public void handle(
+                final HttpRequest request,
+                final HttpResponse response,
+                final HttpContext context) throws HttpException, IOException {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            final boolean compressed = request.containsHeader("Content-Encoding");
+            if (compressed) {
+                if (!this.acceptCompressed) {
+                    EntityUtils.consume(entity);
+                    rejected.incrementAndGet();
+                    response.setStatusCode(HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE);
+                    return;
+                }
+                Assert.assertEquals("gzip", request.getFirstHeader("Content-Encoding").getValue());
+                entity = new GzipDecompressingEntity(entity);
+            }
+            response.setHeader("X-Compressed", Boolean.toString(compressed));
+            response.setEntity(new ByteArrayEntity(EntityUtils.toByteArray(entity)));
+        }
+
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        startServer();
+        this.localServer.register("/gzip", new EchoHandler(true));
+        this.localServer.register("/nogzip", new EchoHandler(false));
+        this.httpclient = HttpClients.custom()
+                .setRequestCompressionStrategy(DefaultRequestCompressionStrategy.INSTANCE)
+                .build();
+    }
+
+    private static String createText(final int len) {
+        final StringBuilder buffer = new StringBuilder(len);
+        for (int i = 0; buffer.length() < len; i++) {
+            buffer.append("log message ").append(i).append('\n');
+        }
+        return buffer.substring(0, len);
+    }
+
+    private boolean post(final String uri, final HttpEntity entity, final String expected) throws Exception {
+        final HttpHost target = getServerHttp();
+        final HttpPost post = new HttpPost(uri);
+        post.setEntity(entity);
+        final CloseableHttpResponse response = this.httpclient.execute(target, post);
+        try {
+            Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+            Assert.assertEquals(expected, EntityUtils.toString(response.getEntity()));
+            return Boolean.parseBoolean(response.getFirstHeader("X-Compressed").getValue());
+        } finally {
+            response.close();
+        }
+    }
+
+    @Test
+    public void testLargeTextCompressed() throws Exception {
+        final String s = createText(10000);
+        Assert.assertTrue(post("/gzip", new StringEntity(s, ContentType.TEXT_PLAIN), s));
+        Assert.assertTrue(post("/gzip", new StringEntity(s, ContentType.APPLICATION_JSON), s));
+    }
+
+    @Test
+    public void testUnknownLengthCompressed() throws Exception {
+        final String s = createText(200000);
+        final InputStreamEntity entity = new InputStreamEntity(
+                new ByteArrayInputStream(s.getBytes("US-ASCII")), -1, ContentType.TEXT_PLAIN);
+        Assert.assertTrue(post("/gzip", entity, s));
+    }
+
+    @Test
+    public void testSmallOrBinaryNotCompressed() throws Exception {
+        final String s = createText(100);
+        Assert.assertFalse(post("/gzip", new StringEntity(s, ContentType.TEXT_PLAIN), s));
+        final String l = createText(10000);
+        Assert.assertFalse(post("/gzip", new StringEntity(l, ContentType.APPLICATION_OCTET_STREAM), l));
+    }
+
+    @Test
+    public void testFallbackOnUnsupportedMediaType() throws Exception {
+        final String s = createText(10000);
+        Assert.assertFalse(post("/nogzip", new StringEntity(s, ContentType.TEXT_PLAIN), s));
+        Assert.assertEquals(1, this.rejected.get());
+        Assert.assertFalse(post("/nogzip", new StringEntity(s, ContentType.TEXT_PLAIN), s));
+        // the host is remembered as not accepting compressed requests
+        Assert.assertEquals(1, this.rejected.get());
+    }
+
+    @Test
+    public void testNonRepeatableNotRetried() throws Exception {
+        final String s = createText(200000);
+        final HttpPost post = new HttpPost("/nogzip");
+        post.setEntity(new InputStreamEntity(
+                new ByteArrayInputStream(s.getBytes("US-ASCII")), -1, ContentType.TEXT_PLAIN));
+        final CloseableHttpResponse response = this.httpclient.execute(getServerHttp(), post);
+        try {
+            Assert.assertEquals(HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE, response.getStatusLine().getStatusCode());
+        } finally {
+            response.close();
+        }
+        Assert.assertFalse(post("/nogzip", new StringEntity(s, ContentType.TEXT_PLAIN), s));
+        Assert.assertEquals(1, this.rejected.get());
+    }
+
+}
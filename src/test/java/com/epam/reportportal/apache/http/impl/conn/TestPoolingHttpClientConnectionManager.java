@@ -30,9 +30,12 @@ package com.epam.reportportal.apache.http.impl.conn;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.epam.reportportal.apache.http.impl.conn.CPool;
 import com.epam.reportportal.apache.http.impl.conn.CPoolEntry;
@@ -44,10 +47,13 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.epam.reportportal.apache.http.HttpClientConnection;
 import com.epam.reportportal.apache.http.HttpHost;
 import com.epam.reportportal.apache.http.client.protocol.HttpClientContext;
+import com.epam.reportportal.apache.http.concurrent.FutureCallback;
 import com.epam.reportportal.apache.http.config.ConnectionConfig;
 import com.epam.reportportal.apache.http.config.Lookup;
 import com.epam.reportportal.apache.http.config.SocketConfig;
@@ -59,6 +65,7 @@ import com.epam.reportportal.apache.http.conn.SchemePortResolver;
 import com.epam.reportportal.apache.http.conn.routing.HttpRoute;
 import com.epam.reportportal.apache.http.conn.socket.ConnectionSocketFactory;
 import com.epam.reportportal.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import com.epam.reportportal.apache.http.pool.PoolStats;
 import com.epam.reportportal.apache.http.protocol.HttpContext;
 
 /**
@@ -180,6 +187,253 @@ public class TestPoolingHttpClientConnectionManager {
         connRequest1.get(1, TimeUnit.SECONDS);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseAsync() throws Exception {
+        final HttpHost target = new HttpHost("localhost");
+        final HttpRoute route = new HttpRoute(target);
+
+        final CPoolEntry entry = new CPoolEntry(LogFactory.getLog(getClass()), "id", route, conn,
+                -1, TimeUnit.MILLISECONDS);
+        entry.markRouteComplete();
+        Mockito.when(conn.isOpen()).thenReturn(true);
+
+        final AtomicReference<FutureCallback<CPoolEntry>> poolCallback =
+                new AtomicReference<FutureCallback<CPoolEntry>>();
+        Mockito.when(pool.leaseAsync(
+                Mockito.eq(route), Mockito.isNull(), Mockito.<FutureCallback<CPoolEntry>>any())).thenAnswer(
+                        new Answer<Future<CPoolEntry>>() {
+
+            public Future<CPoolEntry> answer(final InvocationOnMock invocation) throws Throwable {
+                poolCallback.set((FutureCallback<CPoolEntry>) invocation.getArguments()[2]);
+                return future;
+            }
+
+        });
+
+        final FutureCallback<HttpClientConnection> callback = Mockito.mock(FutureCallback.class);
+        final ConnectionRequest connRequest1 = mgr.requestConnection(route, null, callback);
+        Assert.assertNotNull(poolCallback.get());
+        Mockito.verify(callback, Mockito.never()).completed(Mockito.<HttpClientConnection>any());
+
+        // Connection released to the pool
+        poolCallback.get().completed(entry);
+        final HttpClientConnection conn1 = connRequest1.get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(conn1);
+        Assert.assertNotSame(conn, conn1);
+        Mockito.verify(callback).completed(Mockito.same(conn1));
+
+        mgr.releaseConnection(conn1, null, 0, TimeUnit.MILLISECONDS);
+
+        Mockito.verify(pool).release(entry, true);
+    }
+
+    @Test(expected=ConnectionPoolTimeoutException.class)
+    public void testLeaseAsyncTimeout() throws Exception {
+        final HttpHost target = new HttpHost("localhost");
+        final HttpRoute route = new HttpRoute(target);
+
+        Mockito.when(future.cancel(true)).thenReturn(Boolean.TRUE);
+        Mockito.when(pool.leaseAsync(
+                Mockito.eq(route), Mockito.isNull(), Mockito.<FutureCallback<CPoolEntry>>any())).thenReturn(future);
+
+        final ConnectionRequest connRequest1 = mgr.requestConnection(route, null, null);
+        try {
+            connRequest1.get(10, TimeUnit.MILLISECONDS);
+        } finally {
+            Mockito.verify(future).cancel(true);
+        }
+    }
+
+    @Test
+    public void testPrewarm() throws Exception {
+        final HttpHost target = new HttpHost("somehost", 80, "http");
+        final InetAddress remote = InetAddress.getByAddress(new byte[] {10, 0, 0, 1});
+        final HttpRoute route = new HttpRoute(target);
+
+        final CPoolEntry entry1 = new CPoolEntry(LogFactory.getLog(getClass()), "id1", route, conn,
+                -1, TimeUnit.MILLISECONDS);
+        // New connection opened by the manager
+        Mockito.when(conn.isOpen()).thenReturn(false, true);
+
+        // One connection already idle, room for one more
+        Mockito.when(pool.getStats(route)).thenReturn(new PoolStats(0, 0, 1, 2));
+        Mockito.when(pool.leaseNew(route)).thenReturn(entry1, (CPoolEntry) null);
+
+        Mockito.when(dnsResolver.resolve("somehost")).thenReturn(new InetAddress[]{remote});
+        Mockito.when(schemePortResolver.resolve(target)).thenReturn(80);
+        Mockito.when(socketFactoryRegistry.lookup("http")).thenReturn(plainSocketFactory);
+        Mockito.when(plainSocketFactory.createSocket(Mockito.<HttpContext>any())).thenReturn(socket);
+        Mockito.when(plainSocketFactory.connectSocket(
+                Mockito.anyInt(),
+                Mockito.eq(socket),
+                Mockito.<HttpHost>any(),
+                Mockito.<InetSocketAddress>any(),
+                Mockito.<InetSocketAddress>any(),
+                Mockito.<HttpContext>any())).thenReturn(socket);
+
+        Assert.assertEquals(1, mgr.prewarm(route, 3));
+
+        Mockito.verify(plainSocketFactory, Mockito.times(1)).connectSocket(
+                Mockito.anyInt(),
+                Mockito.eq(socket),
+                Mockito.eq(target),
+                Mockito.eq(new InetSocketAddress(remote, 80)),
+                Mockito.<InetSocketAddress>any(),
+                Mockito.<HttpContext>any());
+        Mockito.verify(pool, Mockito.times(2)).leaseNew(route);
+        Mockito.verify(pool).release(entry1, true);
+        Assert.assertTrue(entry1.isRouteComplete());
+        // Connections available in the pool are not leased
+        Mockito.verify(pool, Mockito.never()).leaseAsync(
+                Mockito.<HttpRoute>any(), Mockito.any(), Mockito.<FutureCallback<CPoolEntry>>any());
+        Mockito.verify(pool, Mockito.never()).lease(
+                Mockito.<HttpRoute>any(), Mockito.any(), Mockito.<FutureCallback<CPoolEntry>>any());
+    }
+
+    @Test
+    public void testPrewarmEnoughIdle() throws Exception {
+        final HttpRoute route = new HttpRoute(new HttpHost("somehost", 80, "http"));
+
+        Mockito.when(pool.getStats(route)).thenReturn(new PoolStats(1, 0, 2, 4));
+
+        Assert.assertEquals(0, mgr.prewarm(route, 2));
+
+        Mockito.verify(pool, Mockito.never()).leaseNew(Mockito.<HttpRoute>any());
+        Mockito.verify(pool, Mockito.never()).leaseAsync(
+                Mockito.<HttpRoute>any(), Mockito.any(), Mockito.<FutureCallback<CPoolEntry>>any());
+        Mockito.verify(pool, Mockito.never()).release(Mockito.<CPoolEntry>any(), Mockito.anyBoolean());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPrewarmTunnelledRoute() throws Exception {
+        final HttpHost target = new HttpHost("somehost", -1, "https");
+        final HttpHost proxy = new HttpHost("someproxy", 8080);
+        final HttpRoute route = new HttpRoute(target, null, proxy, true);
+        mgr.prewarm(route, 1);
+    }
+
+    @Test
+    public void testMaintainMinIdle() throws Exception {
+        final HttpRoute route1 = new HttpRoute(new HttpHost("somehost"));
+        final HttpRoute route2 = new HttpRoute(new HttpHost("otherhost"));
+
+        Mockito.when(pool.getStats(route1)).thenReturn(new PoolStats(0, 0, 2, 2));
+        Mockito.when(pool.getStats(route2)).thenReturn(new PoolStats(0, 0, 0, 2));
+        Mockito.when(pool.getTotalStats()).thenReturn(new PoolStats(0, 0, 2, 20));
+        // Pool limits reached
+        Mockito.when(pool.leaseNew(route2)).thenReturn(null);
+
+        mgr.setMinIdlePerRoute(route1, 2);
+        mgr.setMinIdlePerRoute(route2, 1);
+        Assert.assertEquals(2, mgr.getMinIdlePerRoute(route1));
+        Assert.assertEquals(1, mgr.getMinIdlePerRoute(route2));
+        try {
+            mgr.maintainMinIdle();
+
+            Mockito.verify(pool, Mockito.never()).leaseNew(route1);
+            Mockito.verify(pool, Mockito.atLeastOnce()).leaseNew(route2);
+        } finally {
+            mgr.shutdown();
+        }
+        mgr.setMinIdlePerRoute(route2, 0);
+        Assert.assertEquals(0, mgr.getMinIdlePerRoute(route2));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseRevalidatesAfterInactivity() throws Exception {
+        final HttpHost target = new HttpHost("localhost");
+        final HttpRoute route = new HttpRoute(target);
+
+        final ManagedHttpClientConnection conn2 = Mockito.mock(ManagedHttpClientConnection.class);
+        final CPoolEntry entry1 = new CPoolEntry(LogFactory.getLog(getClass()), "id1", route, conn,
+                -1, TimeUnit.MILLISECONDS);
+        entry1.markRouteComplete();
+        final CPoolEntry entry2 = new CPoolEntry(LogFactory.getLog(getClass()), "id2", route, conn2,
+                -1, TimeUnit.MILLISECONDS);
+        entry2.markRouteComplete();
+        Mockito.when(conn.isOpen()).thenReturn(Boolean.TRUE, Boolean.FALSE);
+        Mockito.when(conn.isStale()).thenReturn(Boolean.TRUE);
+        Mockito.when(conn2.isOpen()).thenReturn(Boolean.TRUE);
+
+        final Future<CPoolEntry> future2 = Mockito.mock(Future.class);
+        Mockito.when(future.get(1, TimeUnit.SECONDS)).thenReturn(entry1);
+        Mockito.when(future2.get(Mockito.anyLong(), Mockito.eq(TimeUnit.MILLISECONDS))).thenReturn(entry2);
+        Mockito.when(pool.lease(route, null, null)).thenReturn(future, future2);
+
+        mgr.setValidateAfterInactivity(50);
+        Assert.assertEquals(50, mgr.getValidateAfterInactivity());
+        Thread.sleep(100);
+        entry2.updateExpiry(0, TimeUnit.MILLISECONDS);
+
+        final ConnectionRequest connRequest1 = mgr.requestConnection(route, null);
+        final HttpClientConnection conn1 = connRequest1.get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(conn1);
+
+        // Stale connection has been closed and replaced
+        Mockito.verify(conn).shutdown();
+        Mockito.verify(pool).release(entry1, false);
+        Mockito.verify(conn2, Mockito.never()).isStale();
+
+        mgr.releaseConnection(conn1, null, 0, TimeUnit.MILLISECONDS);
+        Mockito.verify(pool).release(entry2, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseAsyncRevalidatesAfterInactivity() throws Exception {
+        final HttpHost target = new HttpHost("localhost");
+        final HttpRoute route = new HttpRoute(target);
+
+        final ManagedHttpClientConnection conn2 = Mockito.mock(ManagedHttpClientConnection.class);
+        final CPoolEntry entry1 = new CPoolEntry(LogFactory.getLog(getClass()), "id1", route, conn,
+                -1, TimeUnit.MILLISECONDS);
+        entry1.markRouteComplete();
+        final CPoolEntry entry2 = new CPoolEntry(LogFactory.getLog(getClass()), "id2", route, conn2,
+                -1, TimeUnit.MILLISECONDS);
+        entry2.markRouteComplete();
+        Mockito.when(conn.isOpen()).thenReturn(Boolean.TRUE, Boolean.FALSE);
+        Mockito.when(conn.isStale()).thenReturn(Boolean.TRUE);
+        Mockito.when(conn2.isOpen()).thenReturn(Boolean.TRUE);
+
+        final List<FutureCallback<CPoolEntry>> poolCallbacks = new ArrayList<FutureCallback<CPoolEntry>>();
+        Mockito.when(pool.leaseAsync(
+                Mockito.eq(route), Mockito.isNull(), Mockito.<FutureCallback<CPoolEntry>>any())).thenAnswer(
+                        new Answer<Future<CPoolEntry>>() {
+
+            public Future<CPoolEntry> answer(final InvocationOnMock invocation) throws Throwable {
+                poolCallbacks.add((FutureCallback<CPoolEntry>) invocation.getArguments()[2]);
+                return future;
+            }
+
+        });
+
+        mgr.setValidateAfterInactivity(50);
+        Thread.sleep(100);
+        entry2.updateExpiry(0, TimeUnit.MILLISECONDS);
+
+        final FutureCallback<HttpClientConnection> callback = Mockito.mock(FutureCallback.class);
+        final ConnectionRequest connRequest1 = mgr.requestConnection(route, null, callback);
+        Assert.assertEquals(1, poolCallbacks.size());
+
+        // Stale connection is closed and the request is queued again
+        poolCallbacks.get(0).completed(entry1);
+        Mockito.verify(conn).shutdown();
+        Mockito.verify(pool).release(entry1, false);
+        Mockito.verify(callback, Mockito.never()).completed(Mockito.<HttpClientConnection>any());
+        Assert.assertEquals(2, poolCallbacks.size());
+
+        poolCallbacks.get(1).completed(entry2);
+        final HttpClientConnection conn1 = connRequest1.get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(conn1);
+        Mockito.verify(callback).completed(Mockito.same(conn1));
+        Mockito.verify(conn2, Mockito.never()).isStale();
+
+        mgr.releaseConnection(conn1, null, 0, TimeUnit.MILLISECONDS);
+        Mockito.verify(pool).release(entry2, true);
+    }
+
     @Test
     public void testReleaseReusable() throws Exception {
         final HttpHost target = new HttpHost("localhost");
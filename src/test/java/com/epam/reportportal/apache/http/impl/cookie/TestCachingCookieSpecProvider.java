@@ -0,0 +1,111 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.cookie;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.epam.reportportal.apache.http.Header;
+import com.epam.reportportal.apache.http.cookie.Cookie;
+import com.epam.reportportal.apache.http.cookie.CookieOrigin;
+import com.epam.reportportal.apache.http.cookie.CookieSpec;
+import com.epam.reportportal.apache.http.cookie.CookieSpecProvider;
+import com.epam.reportportal.apache.http.message.BasicHeader;
+import com.epam.reportportal.apache.http.protocol.BasicHttpContext;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+
+public class TestCachingCookieSpecProvider {
+
+    @Test
+    public void testSpecCreatedOnce() throws Exception {
+        final CookieSpecProvider provider = Mockito.mock(CookieSpecProvider.class);
+        final CookieSpec spec = Mockito.mock(CookieSpec.class);
+        Mockito.when(provider.create(Mockito.<HttpContext>any())).thenReturn(spec);
+        Mockito.when(spec.getVersion()).thenReturn(1);
+
+        final CachingCookieSpecProvider cachingProvider = new CachingCookieSpecProvider(provider);
+        final CookieSpec spec1 = cachingProvider.create(new BasicHttpContext());
+        final CookieSpec spec2 = cachingProvider.create(new BasicHttpContext());
+        Assert.assertSame(spec1, spec2);
+        Assert.assertFalse(spec1 instanceof AbstractCookieSpec);
+        Assert.assertEquals(1, spec1.getVersion());
+        Mockito.verify(provider, Mockito.times(1)).create(Mockito.<HttpContext>any());
+    }
+
+    @Test
+    public void testSharedSpecConcurrentUse() throws Exception {
+        final CookieSpec spec = new CachingCookieSpecProvider(new BestMatchSpecFactory())
+                .create(new BasicHttpContext());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Callable<String> task = new Callable<String>() {
+
+                public String call() throws Exception {
+                    String result = null;
+                    for (int i = 0; i < 200; i++) {
+                        final CookieOrigin origin = new CookieOrigin("www.example.com", 80, "/", false);
+                        final Header header = new BasicHeader("Set-Cookie",
+                                i % 2 == 0 ? "name=value; path=/; domain=.example.com"
+                                        : "name=value; Version=1; Path=/; Domain=.example.com");
+                        final List<Cookie> cookies = spec.parse(header, origin);
+                        for (final Cookie cookie : cookies) {
+                            spec.validate(cookie, origin);
+                            Assert.assertTrue(spec.match(cookie, origin));
+                        }
+                        result = spec.formatCookies(cookies).get(0).getValue();
+                    }
+                    return result;
+                }
+
+            };
+            final Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(task);
+            }
+            for (final Future<?> future : futures) {
+                Assert.assertEquals(
+                        "$Version=1; name=\"value\"; $Path=\"/\"; $Domain=\".example.com\"", future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNullProvider() throws Exception {
+        new CachingCookieSpecProvider(null);
+    }
+
+}
@@ -102,4 +102,27 @@ public class TestPublicSuffixListParser {
         Assert.assertTrue(filter.match(cookie, new CookieOrigin("apache.zz", 80, "/stuff", false)));
     }
 
+    @Test
+    public void testParseMatcher() throws Exception {
+        final Reader r = new InputStreamReader(getClass().getResourceAsStream(LIST_FILE), "UTF-8");
+        final PublicSuffixMatcher matcher;
+        try {
+            matcher = new PublicSuffixListParser().parseMatcher(r);
+        } finally {
+            r.close();
+        }
+        Assert.assertTrue(matcher.matches(".ac.jp"));
+        Assert.assertTrue(matcher.matches("any.tokyo.jp"));
+        Assert.assertFalse(matcher.matches("metro.tokyo.jp"));
+        Assert.assertTrue(matcher.matches("xn--h-2fa.no"));
+        Assert.assertFalse(matcher.matches("yy"));
+
+        final BasicClientCookie cookie = new BasicClientCookie("name", "value");
+        final PublicSuffixFilter shared = new PublicSuffixFilter(new RFC2109DomainHandler(), matcher);
+        cookie.setDomain(".ac.jp");
+        Assert.assertFalse(shared.match(cookie, new CookieOrigin("apache.ac.jp", 80, "/stuff", false)));
+        cookie.setDomain(".apache.ac.jp");
+        Assert.assertTrue(shared.match(cookie, new CookieOrigin("www.apache.ac.jp", 80, "/stuff", false)));
+    }
+
 }
@@ -0,0 +1,94 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package com.epam.reportportal.apache.http.impl.cookie;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPublicSuffixMatcher {
+
+    private PublicSuffixMatcher matcher;
+
+    @Before
+    public void setUp() throws Exception {
+        this.matcher = new PublicSuffixMatcher(
+                Arrays.asList("com", "uk", "co.uk", "jp", "ac.jp", "*.tokyo.jp", "*.ck",
+                        "lib.*.us", "hå.no", "no"),
+                Arrays.asList("metro.tokyo.jp", "!www.ck"));
+    }
+
+    @Test
+    public void testMatches() throws Exception {
+        Assert.assertTrue(this.matcher.matches("com"));
+        Assert.assertTrue(this.matcher.matches(".com"));
+        Assert.assertTrue(this.matcher.matches("CO.UK"));
+        Assert.assertTrue(this.matcher.matches("ac.jp"));
+        Assert.assertTrue(this.matcher.matches("any.tokyo.jp"));
+        Assert.assertTrue(this.matcher.matches("foo.ck"));
+        Assert.assertTrue(this.matcher.matches("lib.ca.us"));
+
+        Assert.assertFalse(this.matcher.matches("example.com"));
+        Assert.assertFalse(this.matcher.matches("example.co.uk"));
+        Assert.assertFalse(this.matcher.matches("tokyo.jp"));
+        Assert.assertFalse(this.matcher.matches("metro.tokyo.jp"));
+        Assert.assertFalse(this.matcher.matches("apache.any.tokyo.jp"));
+        Assert.assertFalse(this.matcher.matches("www.ck"));
+        Assert.assertFalse(this.matcher.matches("ca.us"));
+        Assert.assertFalse(this.matcher.matches("foo.lib.ca.us"));
+        Assert.assertFalse(this.matcher.matches("localhost"));
+        Assert.assertFalse(this.matcher.matches(null));
+    }
+
+    @Test
+    public void testUnicode() throws Exception {
+        Assert.assertTrue(this.matcher.matches("hå.no"));
+        Assert.assertTrue(this.matcher.matches("xn--h-2fa.no"));
+        Assert.assertTrue(this.matcher.matches(".XN--H-2FA.no"));
+        Assert.assertFalse(this.matcher.matches("apache.xn--h-2fa.no"));
+    }
+
+    @Test
+    public void testGetDomainRoot() throws Exception {
+        Assert.assertEquals("example.com", this.matcher.getDomainRoot("www.Example.com"));
+        Assert.assertEquals("example.com", this.matcher.getDomainRoot(".example.com"));
+        Assert.assertEquals("example.co.uk", this.matcher.getDomainRoot("a.b.example.co.uk"));
+        Assert.assertEquals("apache.any.tokyo.jp", this.matcher.getDomainRoot("www.apache.any.tokyo.jp"));
+        Assert.assertEquals("metro.tokyo.jp", this.matcher.getDomainRoot("www.metro.tokyo.jp"));
+        Assert.assertEquals("www.ck", this.matcher.getDomainRoot("www.www.ck"));
+        Assert.assertEquals("foo.lib.ca.us", this.matcher.getDomainRoot("foo.lib.ca.us"));
+        Assert.assertEquals("example.org", this.matcher.getDomainRoot("www.example.org"));
+        Assert.assertNull(this.matcher.getDomainRoot("co.uk"));
+        Assert.assertNull(this.matcher.getDomainRoot("any.tokyo.jp"));
+        Assert.assertNull(this.matcher.getDomainRoot("org"));
+        Assert.assertNull(this.matcher.getDomainRoot(null));
+    }
+
+}
@@ -45,6 +45,7 @@ import org.mockito.stubbing.Answer;
 import com.epam.reportportal.apache.http.Header;
 import com.epam.reportportal.apache.http.HttpEntityEnclosingRequest;
 import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.client.HttpClientMetrics;
 import com.epam.reportportal.apache.http.client.HttpRequestRetryHandler;
 import com.epam.reportportal.apache.http.client.NonRepeatableRequestException;
 import com.epam.reportportal.apache.http.client.entity.EntityBuilder;
@@ -190,4 +191,29 @@ public class TestRetryExec {
         }
     }
 
+    @Test
+    public void testRetryCountedInMetrics() throws Exception {
+        final HttpClientMetrics metrics = Mockito.mock(HttpClientMetrics.class);
+        final RetryExec exec = new RetryExec(requestExecutor, retryHandler, metrics);
+        final HttpRoute route = new HttpRoute(target);
+        final HttpRequestWrapper request = HttpRequestWrapper.wrap(new HttpGet("/test"));
+        final HttpClientContext context = HttpClientContext.create();
+
+        Mockito.when(requestExecutor.execute(
+                Mockito.eq(route),
+                Mockito.same(request),
+                Mockito.<HttpClientContext>any(),
+                Mockito.<HttpExecutionAware>any())).thenThrow(new IOException("Ka-boom"));
+        Mockito.when(retryHandler.retryRequest(
+                Mockito.<IOException>any(),
+                Mockito.anyInt(),
+                Mockito.<HttpContext>any())).thenReturn(Boolean.TRUE, Boolean.TRUE, Boolean.FALSE);
+        try {
+            exec.execute(route, request, context, execAware);
+            Assert.fail("IOException expected");
+        } catch (final IOException expected) {
+        }
+        Mockito.verify(metrics, Mockito.times(2)).requestRetried(route);
+    }
+
 }
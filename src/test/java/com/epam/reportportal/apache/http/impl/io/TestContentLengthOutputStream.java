@@ -28,13 +28,19 @@
 package com.epam.reportportal.apache.http.impl.io;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.epam.reportportal.apache.http.impl.SessionOutputBufferMock;
+import com.epam.reportportal.apache.http.io.FileContentTransfer;
 
 public class TestContentLengthOutputStream {
 
@@ -99,5 +105,65 @@ public class TestContentLengthOutputStream {
         }
     }
 
-}
+    static class TransferCapableStream extends ByteArrayOutputStream implements FileContentTransfer {
+
+        public boolean transfer(final FileChannel src, final long position, final long count) throws IOException {
+            final ByteBuffer dst = ByteBuffer.allocate((int) count);
+            src.read(dst, position);
+            write(dst.array(), 0, dst.position());
+            return true;
+        }
+
+    }
+
+    private static File createFile(final byte[] content) throws IOException {
+        final File file = File.createTempFile("content", ".bin");
+        file.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    @Test
+    public void testFileTransfer() throws Exception {
+        final File file = createFile("0123456789".getBytes("US-ASCII"));
+        final TransferCapableStream stream = new TransferCapableStream();
+        final SessionOutputBufferImpl outbuffer = new SessionOutputBufferImpl(
+                new HttpTransportMetricsImpl(), 16);
+        outbuffer.bind(stream);
+        final ContentLengthOutputStream out = new ContentLengthOutputStream(outbuffer, 8L);
+        out.write("abc".getBytes("US-ASCII"));
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            Assert.assertTrue(out.transfer(raf.getChannel(), 2, 8));
+            Assert.assertTrue(out.transfer(raf.getChannel(), 0, 8));
+        } finally {
+            raf.close();
+        }
+        out.close();
+        // buffered content goes out first; content beyond the content length is discarded
+        Assert.assertEquals("abc23456", new String(stream.toByteArray(), "US-ASCII"));
+        Assert.assertEquals(8, outbuffer.getMetrics().getBytesTransferred());
+    }
 
+    @Test
+    public void testFileTransferNotSupported() throws Exception {
+        final File file = createFile("0123456789".getBytes("US-ASCII"));
+        final SessionOutputBufferMock outbuffer = new SessionOutputBufferMock();
+        final ContentLengthOutputStream out = new ContentLengthOutputStream(outbuffer, 10L);
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            Assert.assertFalse(out.transfer(raf.getChannel(), 0, 10));
+            out.write("0123456789".getBytes("US-ASCII"));
+        } finally {
+            raf.close();
+        }
+        out.close();
+        Assert.assertEquals("0123456789", new String(outbuffer.getData(), "US-ASCII"));
+    }
+
+}
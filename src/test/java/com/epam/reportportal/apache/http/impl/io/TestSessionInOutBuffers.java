@@ -27,6 +27,7 @@
 
 package com.epam.reportportal.apache.http.impl.io;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.CharacterCodingException;
@@ -43,6 +44,7 @@ import com.epam.reportportal.apache.http.config.MessageConstraints;
 import com.epam.reportportal.apache.http.impl.SessionInputBufferMock;
 import com.epam.reportportal.apache.http.impl.SessionOutputBufferMock;
 import com.epam.reportportal.apache.http.io.HttpTransportMetrics;
+import com.epam.reportportal.apache.http.util.ByteArrayBuffer;
 import com.epam.reportportal.apache.http.util.CharArrayBuffer;
 
 public class TestSessionInOutBuffers {
@@ -598,5 +600,81 @@ public class TestSessionInOutBuffers {
         }
     }
 
-}
+    @Test
+    public void testRecycledBuffersAcquiredLazily() throws Exception {
+        final BoundedBufferRecycler recycler = new BoundedBufferRecycler(4);
+        final SessionInputBufferImpl inbuffer = new SessionInputBufferImpl(
+                new HttpTransportMetricsImpl(), 16, 16, null, null, recycler);
+        final SessionOutputBufferImpl outbuffer = new SessionOutputBufferImpl(
+                new HttpTransportMetricsImpl(), 16, 16, null, recycler);
+        Assert.assertEquals(16, inbuffer.capacity());
+        Assert.assertEquals(0, inbuffer.length());
+        Assert.assertEquals(16, outbuffer.capacity());
+        Assert.assertEquals(0, outbuffer.length());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        outbuffer.bind(out);
+        outbuffer.writeLine("Hello there, this line is longer than the buffer");
+        outbuffer.flush();
+        outbuffer.release();
+        Assert.assertFalse(outbuffer.isBound());
+        Assert.assertEquals(1, recycler.getPooled());
+
+        inbuffer.bind(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals("Hello there, this line is longer than the buffer", inbuffer.readLine());
+        Assert.assertEquals(0, recycler.getPooled());
+        inbuffer.release();
+        Assert.assertFalse(inbuffer.isBound());
+        Assert.assertEquals(2, recycler.getPooled());
+    }
+
+    @Test
+    public void testRecycledBuffersReacquiredAfterRelease() throws Exception {
+        final BoundedBufferRecycler recycler = new BoundedBufferRecycler(4);
+        final SessionInputBufferImpl inbuffer = new SessionInputBufferImpl(
+                new HttpTransportMetricsImpl(), 16, 16, null, null, recycler);
+        inbuffer.bind(new ByteArrayInputStream(new byte[] {'a', '\r', '\n', 'b', '\r', '\n'}));
+        Assert.assertEquals("a", inbuffer.readLine());
+        Assert.assertTrue(inbuffer.hasBufferedData());
+        inbuffer.release();
+        Assert.assertFalse(inbuffer.hasBufferedData());
 
+        inbuffer.bind(new ByteArrayInputStream(new byte[] {'c', '\r', '\n'}));
+        Assert.assertEquals("c", inbuffer.readLine());
+        Assert.assertNull(inbuffer.readLine());
+
+        final SessionOutputBufferImpl outbuffer = new SessionOutputBufferImpl(
+                new HttpTransportMetricsImpl(), 16, 16, null, recycler);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        outbuffer.bind(out);
+        outbuffer.write('x');
+        outbuffer.release();
+        outbuffer.bind(out);
+        outbuffer.write('y');
+        outbuffer.flush();
+        Assert.assertEquals("y", new String(out.toByteArray(), "US-ASCII"));
+    }
+
+    @Test
+    public void testBoundedBufferRecycler() throws Exception {
+        final BoundedBufferRecycler recycler = new BoundedBufferRecycler(1);
+        final ByteArrayBuffer b1 = recycler.acquire(32);
+        final ByteArrayBuffer b2 = recycler.acquire(32);
+        Assert.assertNotSame(b1, b2);
+        b1.append(new byte[] {1, 2, 3}, 0, 3);
+        recycler.release(b1);
+        recycler.release(b2);
+        Assert.assertEquals(1, recycler.getPooled());
+
+        final ByteArrayBuffer b3 = recycler.acquire(16);
+        Assert.assertSame(b1, b3);
+        Assert.assertTrue(b3.isEmpty());
+        recycler.release(b3);
+
+        final ByteArrayBuffer b4 = recycler.acquire(64);
+        Assert.assertNotSame(b1, b4);
+        Assert.assertTrue(b4.capacity() >= 64);
+        Assert.assertEquals(0, recycler.getPooled());
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.message;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.epam.reportportal.apache.http.Header;
+import com.epam.reportportal.apache.http.HttpVersion;
+import com.epam.reportportal.apache.http.ParseException;
+import com.epam.reportportal.apache.http.ProtocolVersion;
+import com.epam.reportportal.apache.http.StatusLine;
+import com.epam.reportportal.apache.http.util.CharArrayBuffer;
+
+/**
+ * Tests for {@link InterningLineParser}.
+ */
+public class TestInterningLineParser {
+
+    private final InterningLineParser parser = new InterningLineParser();
+
+    private static CharArrayBuffer toBuffer(final String s) {
+        final CharArrayBuffer buffer = new CharArrayBuffer(s.length());
+        buffer.append(s);
+        return buffer;
+    }
+
+    private StatusLine parseStatusLine(final String s) throws ParseException {
+        final CharArrayBuffer buffer = toBuffer(s);
+        return this.parser.parseStatusLine(buffer, new ParserCursor(0, buffer.length()));
+    }
+
+    @Test
+    public void testProtocolVersionInterned() throws Exception {
+        final CharArrayBuffer buffer = toBuffer("  HTTP/1.1 200 OK");
+        final ParserCursor cursor = new ParserCursor(0, buffer.length());
+        Assert.assertSame(HttpVersion.HTTP_1_1, this.parser.parseProtocolVersion(buffer, cursor));
+        Assert.assertEquals(10, cursor.getPos());
+        Assert.assertSame(HttpVersion.HTTP_1_0, BasicLineParser.parseProtocolVersion("HTTP/1.0", this.parser));
+    }
+
+    @Test
+    public void testProtocolVersionFallback() throws Exception {
+        final ProtocolVersion ver = BasicLineParser.parseProtocolVersion("HTTP/12.34", this.parser);
+        Assert.assertEquals(new HttpVersion(12, 34), ver);
+        Assert.assertSame(HttpVersion.HTTP_0_9, BasicLineParser.parseProtocolVersion("HTTP/0.9", this.parser));
+    }
+
+    @Test
+    public void testStatusLineInterned() throws Exception {
+        final StatusLine statusLine = parseStatusLine("HTTP/1.1 200 OK");
+        Assert.assertSame(HttpVersion.HTTP_1_1, statusLine.getProtocolVersion());
+        Assert.assertEquals(200, statusLine.getStatusCode());
+        Assert.assertEquals("OK", statusLine.getReasonPhrase());
+        Assert.assertSame(statusLine, parseStatusLine("HTTP/1.1 200   OK  "));
+        Assert.assertNotSame(statusLine, parseStatusLine("HTTP/1.0 200 OK"));
+        Assert.assertSame(parseStatusLine("HTTP/1.0 200 OK"), parseStatusLine("HTTP/1.0 200 OK"));
+
+        final StatusLine other = parseStatusLine("HTTP/1.1 200 Fine");
+        Assert.assertEquals("Fine", other.getReasonPhrase());
+        Assert.assertSame(other, parseStatusLine("HTTP/1.1 200 Fine"));
+
+        final StatusLine noReason = parseStatusLine("HTTP/1.1 204");
+        Assert.assertEquals("", noReason.getReasonPhrase());
+        Assert.assertSame(noReason, parseStatusLine("HTTP/1.1 204 "));
+    }
+
+    @Test
+    public void testStatusLineFallback() throws Exception {
+        StatusLine statusLine = parseStatusLine("HTTP/1.1 2000 Odd");
+        Assert.assertEquals(2000, statusLine.getStatusCode());
+        statusLine = parseStatusLine("HTTP/1.1 99 Odd");
+        Assert.assertEquals(99, statusLine.getStatusCode());
+        statusLine = parseStatusLine("HTTP/2.0 200 OK");
+        Assert.assertEquals(new HttpVersion(2, 0), statusLine.getProtocolVersion());
+        Assert.assertEquals(200, statusLine.getStatusCode());
+    }
+
+    @Test
+    public void testStatusLineFailure() throws Exception {
+        final String[] invalid = { "HTTP/1.1 2x0 OK", "HTTP/1.1 200OK", "HTTP/1.1", "xxx 200 OK" };
+        for (final String s: invalid) {
+            try {
+                parseStatusLine(s);
+                Assert.fail("ParseException should have been thrown for " + s);
+            } catch (final ParseException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testHeaderNameInterned() throws Exception {
+        final Header header = this.parser.parseHeader(toBuffer("Content-Type : text/plain; charset=UTF-8 "));
+        Assert.assertSame("Content-Type", header.getName());
+        Assert.assertEquals("text/plain; charset=UTF-8", header.getValue());
+        Assert.assertSame("content-length", this.parser.parseHeader(toBuffer("content-length: 0")).getName());
+
+        final Header custom = this.parser.parseHeader(toBuffer("X-Custom: stuff"));
+        Assert.assertEquals("X-Custom", custom.getName());
+        Assert.assertEquals("stuff", custom.getValue());
+        Assert.assertNull(InterningLineParser.lookupHeaderName(toBuffer("Content-Typo"), 0, 12));
+    }
+
+    @Test
+    public void testHeaderFailure() throws Exception {
+        final String[] invalid = { "no colon", "  : value" };
+        for (final String s: invalid) {
+            try {
+                this.parser.parseHeader(toBuffer(s));
+                Assert.fail("ParseException should have been thrown for " + s);
+            } catch (final ParseException expected) {
+            }
+        }
+    }
+
+}
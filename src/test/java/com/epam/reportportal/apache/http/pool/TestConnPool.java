@@ -27,10 +27,12 @@
 package com.epam.reportportal.apache.http.pool;
 
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.epam.reportportal.apache.http.pool.AbstractConnPool;
 import com.epam.reportportal.apache.http.pool.ConnFactory;
@@ -41,6 +43,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import com.epam.reportportal.apache.http.HttpConnection;
+import com.epam.reportportal.apache.http.concurrent.FutureCallback;
 
 public class TestConnPool {
 
@@ -174,6 +177,93 @@ public class TestConnPool {
         }
     }
 
+    @Test
+    public void testLeaseNew() throws Exception {
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        final HttpConnection conn3 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn3.isOpen()).thenReturn(true);
+
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1, conn2);
+        Mockito.when(connFactory.create(Mockito.eq("otherhost"))).thenReturn(conn3);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 3);
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        pool.release(entry1, true);
+
+        // The available connection is left alone
+        final LocalPoolEntry entry2 = pool.leaseNew("somehost");
+        Assert.assertNotNull(entry2);
+        Assert.assertSame(conn2, entry2.getConnection());
+        PoolStats stats = pool.getStats("somehost");
+        Assert.assertEquals(1, stats.getAvailable());
+        Assert.assertEquals(1, stats.getLeased());
+
+        // Per route limit
+        Assert.assertNull(pool.leaseNew("somehost"));
+
+        final LocalPoolEntry entry3 = pool.leaseNew("otherhost");
+        Assert.assertNotNull(entry3);
+        // Total limit
+        Assert.assertNull(pool.leaseNew("otherhost"));
+        Mockito.verify(connFactory, Mockito.times(2)).create(Mockito.eq("somehost"));
+        Mockito.verify(connFactory, Mockito.times(1)).create(Mockito.eq("otherhost"));
+        Mockito.verify(conn1, Mockito.never()).close();
+
+        pool.release(entry2, true);
+        pool.release(entry3, true);
+        stats = pool.getTotalStats();
+        Assert.assertEquals(3, stats.getAvailable());
+        Assert.assertEquals(0, stats.getLeased());
+    }
+
+    @Test
+    public void testEnumLeasedEvictsClosed() throws Exception {
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        final HttpConnection conn3 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn3.isOpen()).thenReturn(true);
+
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1, conn2, conn3);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 2);
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        final LocalPoolEntry entry2 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+
+        pool.enumLeased(new PoolEntryCallback<String, HttpConnection>() {
+
+            public void process(final PoolEntry<String, HttpConnection> entry) {
+                if (entry == entry1) {
+                    entry.close();
+                }
+            }
+
+        });
+
+        PoolStats stats = pool.getStats("somehost");
+        Assert.assertEquals(1, stats.getLeased());
+        Assert.assertEquals(0, stats.getAvailable());
+
+        // The evicted entry no longer counts against the limits
+        final LocalPoolEntry entry3 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry3);
+        Assert.assertSame(conn3, entry3.getConnection());
+
+        // Releasing the evicted entry has no effect
+        pool.release(entry1, true);
+        pool.release(entry2, true);
+        pool.release(entry3, true);
+        stats = pool.getTotalStats();
+        Assert.assertEquals(0, stats.getLeased());
+        Assert.assertEquals(2, stats.getAvailable());
+    }
+
     @Test
     public void testReleaseUnknownEntry() throws Exception {
         final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
@@ -606,6 +696,300 @@ public class TestConnPool {
         Assert.assertFalse(future2.isCancelled());
     }
 
+    @Test
+    public void testLeaseTimeoutElapsedBeforeWaiting() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry1);
+
+        // the deadline is bound to have passed by the time the request gets queued
+        final Future<LocalPoolEntry> future2 = pool.lease("somehost", null);
+        final GetPoolEntryThread t2 = new GetPoolEntryThread(future2, 1, TimeUnit.NANOSECONDS);
+        t2.start();
+
+        t2.join(GRACE_PERIOD);
+        Assert.assertFalse(t2.isAlive());
+        Assert.assertTrue(t2.getException() instanceof TimeoutException);
+        Assert.assertEquals(0, pool.getTotalStats().getPending());
+    }
+
+    @Test
+    public void testWaitingRequestsServedInOrder() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry1);
+
+        final Future<LocalPoolEntry> future2 = pool.lease("somehost", null);
+        final GetPoolEntryThread t2 = new GetPoolEntryThread(future2);
+        t2.start();
+        Thread.sleep(50);
+        final Future<LocalPoolEntry> future3 = pool.lease("somehost", null);
+        final GetPoolEntryThread t3 = new GetPoolEntryThread(future3);
+        t3.start();
+        Thread.sleep(50);
+
+        Assert.assertEquals(2, pool.getStats("somehost").getPending());
+
+        pool.release(entry1, true);
+        t2.join(GRACE_PERIOD);
+        Assert.assertSame(entry1, t2.getEntry());
+        Assert.assertFalse(future3.isDone());
+
+        // The released connection has been handed over, not returned to the pool
+        final Future<LocalPoolEntry> future4 = pool.lease("somehost", null);
+        try {
+            future4.get(10, TimeUnit.MILLISECONDS);
+            Assert.fail("TimeoutException should have been thrown");
+        } catch (final TimeoutException expected) {
+        }
+
+        pool.release(entry1, true);
+        t3.join(GRACE_PERIOD);
+        Assert.assertSame(entry1, t3.getEntry());
+
+        Mockito.verify(connFactory, Mockito.times(1)).create(Mockito.eq("somehost"));
+
+        final PoolStats stats = pool.getStats("somehost");
+        Assert.assertEquals(0, stats.getPending());
+        Assert.assertEquals(1, stats.getLeased());
+        Assert.assertEquals(0, stats.getAvailable());
+        Assert.assertEquals(4, stats.getWaitTimes().getCount());
+        Assert.assertTrue(stats.getWaitTimes().getMax() >= TimeUnit.MILLISECONDS.toMicros(50));
+        Assert.assertEquals(3, stats.getQueueDepths().getCount());
+        Assert.assertEquals(1, stats.getQueueDepths().getMax());
+        Assert.assertEquals(4, pool.getTotalStats().getWaitTimes().getCount());
+    }
+
+    @Test
+    public void testHandOverRespectsState() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1, conn2);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 2);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        final LocalPoolEntry entry2 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+
+        final Future<LocalPoolEntry> future3 = pool.lease("somehost", "user1");
+        final GetPoolEntryThread t3 = new GetPoolEntryThread(future3);
+        t3.start();
+        Thread.sleep(50);
+        final Future<LocalPoolEntry> future4 = pool.lease("somehost", "user2");
+        final GetPoolEntryThread t4 = new GetPoolEntryThread(future4);
+        t4.start();
+        Thread.sleep(50);
+
+        entry1.setState("user2");
+        pool.release(entry1, true);
+        t4.join(GRACE_PERIOD);
+        Assert.assertSame(entry1, t4.getEntry());
+        Assert.assertFalse(future3.isDone());
+
+        pool.release(entry2, true);
+        t3.join(GRACE_PERIOD);
+        Assert.assertSame(entry2, t3.getEntry());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseAsync() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1, conn2);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final FutureCallback<LocalPoolEntry> callback1 = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future1 = pool.leaseAsync("somehost", null, callback1);
+        Assert.assertTrue(future1.isDone());
+        final LocalPoolEntry entry1 = future1.get();
+        Assert.assertNotNull(entry1);
+        Mockito.verify(callback1).completed(entry1);
+
+        final FutureCallback<LocalPoolEntry> callback2 = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future2 = pool.leaseAsync("somehost", null, callback2);
+        final FutureCallback<LocalPoolEntry> callback3 = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future3 = pool.leaseAsync("somehost", null, callback3);
+        Assert.assertFalse(future2.isDone());
+        Assert.assertFalse(future3.isDone());
+        Assert.assertEquals(2, pool.getStats("somehost").getPending());
+
+        // Released connection is handed over to the oldest request
+        pool.release(entry1, true);
+        Assert.assertTrue(future2.isDone());
+        Assert.assertSame(entry1, future2.get());
+        Mockito.verify(callback2).completed(entry1);
+        Assert.assertFalse(future3.isDone());
+
+        // Freed capacity is used to create a new connection for the next one
+        pool.release(entry1, false);
+        Assert.assertTrue(future3.isDone());
+        final LocalPoolEntry entry3 = future3.get();
+        Assert.assertNotNull(entry3);
+        Assert.assertSame(conn2, entry3.getConnection());
+        Mockito.verify(callback3).completed(entry3);
+
+        final PoolStats stats = pool.getStats("somehost");
+        Assert.assertEquals(0, stats.getPending());
+        Assert.assertEquals(1, stats.getLeased());
+        Assert.assertEquals(3, stats.getWaitTimes().getCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseAsyncCancel() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.leaseAsync("somehost", null, null).get();
+        Assert.assertNotNull(entry1);
+
+        final FutureCallback<LocalPoolEntry> callback2 = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future2 = pool.leaseAsync("somehost", null, callback2);
+        Assert.assertTrue(future2.cancel(true));
+        Assert.assertTrue(future2.isCancelled());
+        Mockito.verify(callback2).cancelled();
+        Assert.assertEquals(0, pool.getStats("somehost").getPending());
+
+        // Elapsed timeout cancels the request
+        final Future<LocalPoolEntry> future3 = pool.leaseAsync("somehost", null, null);
+        try {
+            future3.get(10, TimeUnit.MILLISECONDS);
+            Assert.fail("TimeoutException should have been thrown");
+        } catch (final TimeoutException expected) {
+        }
+        Assert.assertTrue(future3.isCancelled());
+        Assert.assertEquals(0, pool.getStats("somehost").getPending());
+
+        pool.release(entry1, true);
+        Mockito.verify(callback2, Mockito.never()).completed(Mockito.<LocalPoolEntry>any());
+        final PoolStats stats = pool.getStats("somehost");
+        Assert.assertEquals(0, stats.getLeased());
+        Assert.assertEquals(1, stats.getAvailable());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseAsyncIOException() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        final IOException ioex = new IOException("Oppsie");
+        Mockito.doThrow(ioex).when(connFactory).create(Mockito.eq("somehost"));
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 10);
+
+        final FutureCallback<LocalPoolEntry> callback = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future = pool.leaseAsync("somehost", null, callback);
+        Assert.assertTrue(future.isDone());
+        Mockito.verify(callback).failed(ioex);
+        try {
+            future.get();
+            Assert.fail("ExecutionException should have been thrown");
+        } catch (final ExecutionException ex) {
+            Assert.assertSame(ioex, ex.getCause());
+        }
+        Assert.assertEquals(0, pool.getStats("somehost").getPending());
+    }
+
+    @Test
+    public void testLeaseAsyncCallbackWithoutLock() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.leaseAsync("somehost", null, null).get();
+        Assert.assertNotNull(entry1);
+
+        final AtomicBoolean unlocked = new AtomicBoolean();
+        final FutureCallback<LocalPoolEntry> callback = new FutureCallback<LocalPoolEntry>() {
+
+            public void completed(final LocalPoolEntry entry) {
+                // Another thread cannot read the stats while the releasing
+                // thread holds the lock
+                final CountDownLatch statsRead = new CountDownLatch(1);
+                new Thread() {
+
+                    @Override
+                    public void run() {
+                        pool.getTotalStats();
+                        statsRead.countDown();
+                    }
+
+                }.start();
+                try {
+                    unlocked.set(statsRead.await(5, TimeUnit.SECONDS));
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            public void failed(final Exception ex) {
+            }
+
+            public void cancelled() {
+            }
+
+        };
+        final Future<LocalPoolEntry> future2 = pool.leaseAsync("somehost", null, callback);
+        Assert.assertFalse(future2.isDone());
+
+        pool.release(entry1, true);
+        Assert.assertTrue(unlocked.get());
+        Assert.assertSame(entry1, future2.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseAsyncShutdown() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.leaseAsync("somehost", null, null).get();
+        Assert.assertNotNull(entry1);
+        final FutureCallback<LocalPoolEntry> callback = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future = pool.leaseAsync("somehost", null, callback);
+
+        pool.shutdown();
+        Assert.assertTrue(future.isCancelled());
+        Mockito.verify(callback).cancelled();
+    }
+
     @Test
     public void testLeaseIOException() throws Exception {
         final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
@@ -0,0 +1,153 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.pool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHistogram {
+
+    @Test
+    public void testEmpty() throws Exception {
+        final Histogram histogram = new HistogramRecorder().snapshot();
+        Assert.assertSame(Histogram.EMPTY, histogram);
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getMean(), 0.0);
+        Assert.assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void testBuckets() throws Exception {
+        Assert.assertEquals(0, Histogram.getUpperBound(0));
+        Assert.assertEquals(1, Histogram.getUpperBound(1));
+        Assert.assertEquals(3, Histogram.getUpperBound(2));
+        Assert.assertEquals(1023, Histogram.getUpperBound(10));
+        Assert.assertEquals(Long.MAX_VALUE, Histogram.getUpperBound(Histogram.BUCKETS - 1));
+
+        final HistogramRecorder recorder = new HistogramRecorder();
+        recorder.record(0);
+        recorder.record(-5);
+        recorder.record(1);
+        recorder.record(2);
+        recorder.record(3);
+        recorder.record(1000);
+        recorder.record(Long.MAX_VALUE);
+        final Histogram histogram = recorder.snapshot();
+        Assert.assertEquals(7, histogram.getCount());
+        Assert.assertEquals(2, histogram.getCount(0));
+        Assert.assertEquals(1, histogram.getCount(1));
+        Assert.assertEquals(2, histogram.getCount(2));
+        Assert.assertEquals(1, histogram.getCount(10));
+        Assert.assertEquals(1, histogram.getCount(Histogram.BUCKETS - 1));
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getMax());
+    }
+
+    @Test
+    public void testPercentiles() throws Exception {
+        final HistogramRecorder recorder = new HistogramRecorder();
+        for (int i = 0; i < 90; i++) {
+            recorder.record(5);
+        }
+        for (int i = 0; i < 10; i++) {
+            recorder.record(600);
+        }
+        final Histogram histogram = recorder.snapshot();
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(6450, histogram.getSum());
+        Assert.assertEquals(64.5, histogram.getMean(), 0.001);
+        Assert.assertEquals(7, histogram.getPercentile(50));
+        Assert.assertEquals(7, histogram.getPercentile(90));
+        Assert.assertEquals(600, histogram.getPercentile(99));
+        Assert.assertEquals(600, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testSnapshotIsolation() throws Exception {
+        final HistogramRecorder recorder = new HistogramRecorder();
+        recorder.record(1);
+        final Histogram histogram = recorder.snapshot();
+        recorder.record(1);
+        Assert.assertEquals(1, histogram.getCount());
+        Assert.assertEquals(2, recorder.snapshot().getCount());
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        final HistogramRecorder recorder1 = new HistogramRecorder();
+        recorder1.record(1);
+        recorder1.record(100);
+        final HistogramRecorder recorder2 = new HistogramRecorder();
+        recorder2.record(3);
+        final Histogram merged = recorder1.snapshot().merge(recorder2.snapshot());
+        Assert.assertEquals(3, merged.getCount());
+        Assert.assertEquals(104, merged.getSum());
+        Assert.assertEquals(100, merged.getMax());
+        Assert.assertEquals(1, merged.getCount(2));
+        final Histogram h = recorder2.snapshot();
+        Assert.assertSame(h, h.merge(Histogram.EMPTY));
+        Assert.assertSame(h, Histogram.EMPTY.merge(h));
+    }
+
+    @Test
+    public void testConcurrentRecorder() throws Exception {
+        final ConcurrentHistogramRecorder recorder = new ConcurrentHistogramRecorder();
+        Assert.assertSame(Histogram.EMPTY, recorder.snapshot());
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final long value = i + 1;
+            threads[i] = new Thread(new Runnable() {
+
+                public void run() {
+                    for (int n = 0; n < 1000; n++) {
+                        recorder.record(value);
+                    }
+                }
+
+            });
+            threads[i].start();
+        }
+        for (final Thread thread: threads) {
+            thread.join();
+        }
+        recorder.record(-1);
+        final Histogram histogram = recorder.snapshot();
+        Assert.assertEquals(4001, histogram.getCount());
+        Assert.assertEquals(10000, histogram.getSum());
+        Assert.assertEquals(4, histogram.getMax());
+        Assert.assertEquals(1, histogram.getCount(0));
+        Assert.assertEquals(1000, histogram.getCount(1));
+        Assert.assertEquals(2000, histogram.getCount(2));
+        Assert.assertEquals(1000, histogram.getCount(3));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidPercentile() throws Exception {
+        Histogram.EMPTY.getPercentile(0);
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.pool;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestIndexedDeque {
+
+    @Test
+    public void testEmpty() throws Exception {
+        final IndexedDeque<String> deque = new IndexedDeque<String>();
+        Assert.assertTrue(deque.isEmpty());
+        Assert.assertEquals(0, deque.size());
+        Assert.assertNull(deque.peekFirst());
+        Assert.assertNull(deque.peekLast());
+        Assert.assertNull(deque.pollFirst());
+        Assert.assertNull(deque.pollLast());
+        Assert.assertFalse(deque.remove("a"));
+        Assert.assertEquals("[]", deque.toString());
+    }
+
+    @Test
+    public void testOrdering() throws Exception {
+        final IndexedDeque<String> deque = new IndexedDeque<String>();
+        deque.addLast("b");
+        deque.addFirst("a");
+        deque.add("c");
+        Assert.assertEquals(3, deque.size());
+        Assert.assertEquals("[a, b, c]", deque.toString());
+        Assert.assertEquals("a", deque.peekFirst());
+        Assert.assertEquals("c", deque.peekLast());
+        Assert.assertEquals("c", deque.pollLast());
+        Assert.assertEquals("a", deque.pollFirst());
+        Assert.assertEquals("[b]", deque.toString());
+    }
+
+    @Test
+    public void testIdentitySemantics() throws Exception {
+        final IndexedDeque<String> deque = new IndexedDeque<String>();
+        final String s1 = new String("stuff");
+        final String s2 = new String("stuff");
+        Assert.assertTrue(deque.addFirst(s1));
+        Assert.assertFalse(deque.addFirst(s1));
+        Assert.assertFalse(deque.addLast(s1));
+        Assert.assertTrue(deque.addLast(s2));
+        Assert.assertEquals(2, deque.size());
+        Assert.assertTrue(deque.contains(s2));
+        Assert.assertTrue(deque.remove(s2));
+        Assert.assertFalse(deque.contains(s2));
+        Assert.assertTrue(deque.contains(s1));
+        Assert.assertSame(s1, deque.peekLast());
+    }
+
+    @Test
+    public void testRemoveFromMiddle() throws Exception {
+        final IndexedDeque<Integer> deque = new IndexedDeque<Integer>();
+        final Integer[] items = new Integer[1000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Integer(i);
+            deque.addLast(items[i]);
+        }
+        for (int i = 1; i < items.length - 1; i++) {
+            Assert.assertTrue(deque.remove(items[i]));
+        }
+        Assert.assertEquals(2, deque.size());
+        Assert.assertSame(items[0], deque.peekFirst());
+        Assert.assertSame(items[items.length - 1], deque.peekLast());
+        deque.clear();
+        Assert.assertTrue(deque.isEmpty());
+        Assert.assertNull(deque.peekFirst());
+        Assert.assertTrue(deque.addFirst(items[0]));
+    }
+
+    @Test
+    public void testIteratorRemove() throws Exception {
+        final IndexedDeque<String> deque = new IndexedDeque<String>();
+        deque.add("a");
+        deque.add("b");
+        deque.add("c");
+        final Iterator<String> it = deque.iterator();
+        Assert.assertEquals("a", it.next());
+        Assert.assertEquals("b", it.next());
+        it.remove();
+        try {
+            it.remove();
+            Assert.fail("IllegalStateException should have been thrown");
+        } catch (final IllegalStateException expected) {
+        }
+        Assert.assertEquals("c", it.next());
+        Assert.assertFalse(it.hasNext());
+        Assert.assertEquals("[a, c]", deque.toString());
+        Assert.assertFalse(deque.contains("b"));
+    }
+
+    @Test(expected=ConcurrentModificationException.class)
+    public void testIteratorConcurrentModification() throws Exception {
+        final IndexedDeque<String> deque = new IndexedDeque<String>();
+        deque.add("a");
+        deque.add("b");
+        final Iterator<String> it = deque.iterator();
+        it.next();
+        deque.remove("b");
+        it.next();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddNull() throws Exception {
+        final IndexedDeque<String> deque = new IndexedDeque<String>();
+        deque.add(null);
+    }
+
+}
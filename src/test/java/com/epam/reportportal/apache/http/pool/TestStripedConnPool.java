@@ -0,0 +1,1114 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package com.epam.reportportal.apache.http.pool;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.epam.reportportal.apache.http.HttpConnection;
+import com.epam.reportportal.apache.http.concurrent.FutureCallback;
+
+public class TestStripedConnPool {
+
+    private static final int GRACE_PERIOD = 10000;
+
+    static interface LocalConnFactory extends ConnFactory<String, HttpConnection> {
+    }
+
+    static class LocalPoolEntry extends PoolEntry<String, HttpConnection> {
+
+        private boolean closed;
+
+        public LocalPoolEntry(final String route, final HttpConnection conn) {
+            super(null, route, conn);
+        }
+
+        @Override
+        public void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            try {
+                getConnection().close();
+            } catch (final IOException ignore) {
+            }
+        }
+
+        @Override
+        public boolean isClosed() {
+            return this.closed;
+        }
+
+    }
+
+    static class LocalConnPool extends StripedConnPool<String, HttpConnection, LocalPoolEntry> {
+
+        public LocalConnPool(
+                final ConnFactory<String, HttpConnection> connFactory,
+                final int defaultMaxPerRoute, final int maxTotal) {
+            super(connFactory, defaultMaxPerRoute, maxTotal);
+        }
+
+        @Override
+        protected LocalPoolEntry createEntry(final String route, final HttpConnection conn) {
+            return new LocalPoolEntry(route, conn);
+        }
+
+    }
+
+    static class GetPoolEntryThread extends Thread {
+
+        private final Future<LocalPoolEntry> future;
+        private final long time;
+        private final TimeUnit tunit;
+
+        private volatile LocalPoolEntry entry;
+        private volatile Exception ex;
+
+        GetPoolEntryThread(final Future<LocalPoolEntry> future, final long time, final TimeUnit tunit) {
+            super();
+            this.future = future;
+            this.time = time;
+            this.tunit = tunit;
+            setDaemon(true);
+        }
+
+        GetPoolEntryThread(final Future<LocalPoolEntry> future) {
+            this(future, 1000, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.entry = this.future.get(this.time, this.tunit);
+            } catch (final Exception ex) {
+                this.ex = ex;
+            }
+        }
+
+        public boolean isDone() {
+            return this.future.isDone();
+        }
+
+        public LocalPoolEntry getEntry() {
+            return this.entry;
+        }
+
+        public Exception getException() {
+            return this.ex;
+        }
+
+    }
+
+    @Test
+    public void testEmptyPool() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 10);
+        pool.setDefaultMaxPerRoute(5);
+        pool.setMaxPerRoute("somehost", 3);
+        final PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(0, totals.getAvailable());
+        Assert.assertEquals(0, totals.getLeased());
+        Assert.assertEquals(10, totals.getMax());
+        final PoolStats stats = pool.getStats("somehost");
+        Assert.assertEquals(0, stats.getAvailable());
+        Assert.assertEquals(0, stats.getLeased());
+        Assert.assertEquals(3, stats.getMax());
+        Assert.assertEquals(5, pool.getMaxPerRoute("otherhost"));
+    }
+
+    @Test
+    public void testInvalidConstruction() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        try {
+            new LocalConnPool(connFactory, -1, 1);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException expected) {
+        }
+        try {
+            new LocalConnPool(connFactory, 1, -1);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testLeaseRelease() throws Exception {
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+        Mockito.when(connFactory.create(Mockito.eq("otherhost"))).thenReturn(conn2);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 10);
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry1);
+        final LocalPoolEntry entry2 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry2);
+        final LocalPoolEntry entry3 = pool.lease("otherhost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry3);
+
+        PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(0, totals.getAvailable());
+        Assert.assertEquals(3, totals.getLeased());
+
+        pool.release(entry1, true);
+        pool.release(entry2, true);
+        pool.release(entry3, false);
+        Mockito.verify(conn1, Mockito.never()).close();
+        Mockito.verify(conn2, Mockito.times(1)).close();
+
+        totals = pool.getTotalStats();
+        Assert.assertEquals(2, totals.getAvailable());
+        Assert.assertEquals(0, totals.getLeased());
+
+        final LocalPoolEntry entry4 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertTrue(entry4 == entry1 || entry4 == entry2);
+        Mockito.verify(connFactory, Mockito.times(2)).create(Mockito.eq("somehost"));
+    }
+
+    @Test
+    public void testLeaseNew() throws Exception {
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        final HttpConnection conn3 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn3.isOpen()).thenReturn(true);
+
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1, conn2);
+        Mockito.when(connFactory.create(Mockito.eq("otherhost"))).thenReturn(conn3);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 3);
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        pool.release(entry1, true);
+
+        // The available connection is left alone
+        final LocalPoolEntry entry2 = pool.leaseNew("somehost");
+        Assert.assertNotNull(entry2);
+        Assert.assertSame(conn2, entry2.getConnection());
+        PoolStats stats = pool.getStats("somehost");
+        Assert.assertEquals(1, stats.getAvailable());
+        Assert.assertEquals(1, stats.getLeased());
+
+        // Per route limit
+        Assert.assertNull(pool.leaseNew("somehost"));
+
+        final LocalPoolEntry entry3 = pool.leaseNew("otherhost");
+        Assert.assertNotNull(entry3);
+        // Total limit
+        Assert.assertNull(pool.leaseNew("otherhost"));
+        Mockito.verify(connFactory, Mockito.times(2)).create(Mockito.eq("somehost"));
+        Mockito.verify(connFactory, Mockito.times(1)).create(Mockito.eq("otherhost"));
+        Mockito.verify(conn1, Mockito.never()).close();
+
+        pool.release(entry2, true);
+        pool.release(entry3, true);
+        stats = pool.getTotalStats();
+        Assert.assertEquals(3, stats.getAvailable());
+        Assert.assertEquals(0, stats.getLeased());
+    }
+
+    @Test
+    public void testEnumLeasedEvictsClosed() throws Exception {
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        final HttpConnection conn3 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn3.isOpen()).thenReturn(true);
+
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1, conn2, conn3);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 2);
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        final LocalPoolEntry entry2 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+
+        pool.enumLeased(new PoolEntryCallback<String, HttpConnection>() {
+
+            public void process(final PoolEntry<String, HttpConnection> entry) {
+                if (entry == entry1) {
+                    entry.close();
+                }
+            }
+
+        });
+
+        PoolStats stats = pool.getStats("somehost");
+        Assert.assertEquals(1, stats.getLeased());
+        Assert.assertEquals(0, stats.getAvailable());
+
+        // The evicted entry no longer counts against the limits
+        final LocalPoolEntry entry3 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry3);
+        Assert.assertSame(conn3, entry3.getConnection());
+
+        // Releasing the evicted entry has no effect
+        pool.release(entry1, true);
+        pool.release(entry2, true);
+        pool.release(entry3, true);
+        stats = pool.getTotalStats();
+        Assert.assertEquals(0, stats.getLeased());
+        Assert.assertEquals(2, stats.getAvailable());
+    }
+
+    @Test
+    public void testInterruptedWaitersOnTwoRoutes() throws Exception {
+        final HttpConnection conn = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn.isOpen()).thenReturn(true);
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        Mockito.when(connFactory.create(Mockito.anyString())).thenReturn(conn);
+
+        final Map<String, Thread> interruptOnRelease = new ConcurrentHashMap<String, Thread>();
+        final Set<Thread> waiters = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        final CountDownLatch handedBack = new CountDownLatch(2);
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 2) {
+
+            @Override
+            protected void onRelease(final LocalPoolEntry entry) {
+                final Thread waiter = interruptOnRelease.remove(entry.getRoute());
+                if (waiter != null) {
+                    // Interrupt the waiter before the entry is handed over to it
+                    waiter.interrupt();
+                    try {
+                        Thread.sleep(200);
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                } else if (waiters.contains(Thread.currentThread())) {
+                    // Both interrupted waiters give back their entry at the same time
+                    handedBack.countDown();
+                    try {
+                        handedBack.await(1, TimeUnit.SECONDS);
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+
+        };
+        final LocalPoolEntry entry1 = pool.lease("a", null).get(1, TimeUnit.SECONDS);
+        final LocalPoolEntry entry2 = pool.lease("b", null).get(1, TimeUnit.SECONDS);
+
+        final GetPoolEntryThread t1 = new GetPoolEntryThread(pool.lease("a", null));
+        final GetPoolEntryThread t2 = new GetPoolEntryThread(pool.lease("b", null));
+        final GetPoolEntryThread t3 = new GetPoolEntryThread(pool.lease("c", null));
+        waiters.add(t1);
+        waiters.add(t2);
+        t1.start();
+        t2.start();
+        t3.start();
+        Thread.sleep(100);
+        Assert.assertEquals(3, pool.getTotalStats().getPending());
+
+        interruptOnRelease.put("a", t1);
+        interruptOnRelease.put("b", t2);
+        pool.release(entry1, true);
+        pool.release(entry2, true);
+
+        t1.join(GRACE_PERIOD);
+        t2.join(GRACE_PERIOD);
+        Assert.assertFalse(t1.isAlive());
+        Assert.assertFalse(t2.isAlive());
+        Assert.assertTrue(t1.getException() instanceof InterruptedException);
+        Assert.assertTrue(t2.getException() instanceof InterruptedException);
+
+        // The entries given back free capacity for the third route
+        t3.join(GRACE_PERIOD);
+        Assert.assertNotNull(t3.getEntry());
+        final PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(1, totals.getLeased());
+        Assert.assertEquals(0, totals.getPending());
+    }
+
+    @Test
+    public void testReleaseUnknownEntry() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 10);
+        pool.release(new LocalPoolEntry("somehost", Mockito.mock(HttpConnection.class)), true);
+        pool.getStats("somehost");
+        pool.release(new LocalPoolEntry("somehost", Mockito.mock(HttpConnection.class)), true);
+    }
+
+    @Test
+    public void testLeaseOnOtherRouteNotBlocked() throws Exception {
+        final CountDownLatch connecting = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenAnswer(new Answer<HttpConnection>() {
+
+            public HttpConnection answer(final InvocationOnMock invocation) throws Throwable {
+                connecting.countDown();
+                proceed.await();
+                return conn1;
+            }
+
+        });
+        Mockito.when(connFactory.create(Mockito.eq("otherhost"))).thenReturn(conn2);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 10);
+
+        final Future<LocalPoolEntry> future1 = pool.lease("somehost", null);
+        final GetPoolEntryThread t1 = new GetPoolEntryThread(future1);
+        t1.start();
+        Assert.assertTrue(connecting.await(GRACE_PERIOD, TimeUnit.MILLISECONDS));
+
+        final LocalPoolEntry entry2 = pool.lease("otherhost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry2);
+        Assert.assertFalse(future1.isDone());
+
+        final PoolStats stats = pool.getStats("otherhost");
+        Assert.assertEquals(1, stats.getLeased());
+
+        proceed.countDown();
+        t1.join(GRACE_PERIOD);
+        Assert.assertTrue(future1.isDone());
+        Assert.assertNotNull(t1.getEntry());
+    }
+
+    @Test
+    public void testMaxLimits() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("otherhost"))).thenReturn(conn2);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 10);
+        pool.setMaxPerRoute("somehost", 2);
+        pool.setMaxPerRoute("otherhost", 1);
+        pool.setMaxTotal(3);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        final LocalPoolEntry entry2 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        final LocalPoolEntry entry3 = pool.lease("otherhost", null).get(1, TimeUnit.SECONDS);
+
+        final Future<LocalPoolEntry> future4 = pool.lease("somehost", null);
+        final GetPoolEntryThread t4 = new GetPoolEntryThread(future4);
+        t4.start();
+        final Future<LocalPoolEntry> future5 = pool.lease("otherhost", null);
+        final GetPoolEntryThread t5 = new GetPoolEntryThread(future5);
+        t5.start();
+
+        Thread.sleep(50);
+        Assert.assertFalse(t4.isDone());
+        Assert.assertFalse(t5.isDone());
+
+        Mockito.verify(connFactory, Mockito.times(3)).create(Mockito.any(String.class));
+
+        pool.release(entry1, true);
+        pool.release(entry3, false);
+
+        t4.join(GRACE_PERIOD);
+        Assert.assertTrue(future4.isDone());
+        Assert.assertSame(entry1, t4.getEntry());
+        t5.join(GRACE_PERIOD);
+        Assert.assertTrue(future5.isDone());
+        Assert.assertNotNull(t5.getEntry());
+
+        Mockito.verify(connFactory, Mockito.times(4)).create(Mockito.any(String.class));
+
+        pool.release(entry2, true);
+        final PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(1, totals.getAvailable());
+        Assert.assertEquals(2, totals.getLeased());
+    }
+
+    @Test
+    public void testConnectionRedistributionOnTotalMaxLimit() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1, conn2);
+
+        final HttpConnection conn3 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn3.isOpen()).thenReturn(true);
+        final HttpConnection conn4 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn4.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("otherhost"))).thenReturn(conn3, conn4);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 10);
+        pool.setMaxPerRoute("somehost", 2);
+        pool.setMaxPerRoute("otherhost", 2);
+        pool.setMaxTotal(2);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        final LocalPoolEntry entry2 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+
+        final Future<LocalPoolEntry> future3 = pool.lease("otherhost", null);
+        final GetPoolEntryThread t3 = new GetPoolEntryThread(future3);
+        t3.start();
+        final Future<LocalPoolEntry> future4 = pool.lease("otherhost", null);
+        final GetPoolEntryThread t4 = new GetPoolEntryThread(future4);
+        t4.start();
+
+        Thread.sleep(50);
+        Assert.assertFalse(t3.isDone());
+        Assert.assertFalse(t4.isDone());
+        Mockito.verify(connFactory, Mockito.never()).create(Mockito.eq("otherhost"));
+
+        PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(0, totals.getAvailable());
+        Assert.assertEquals(2, totals.getLeased());
+        Assert.assertEquals(2, totals.getPending());
+
+        pool.release(entry1, true);
+        pool.release(entry2, true);
+
+        t3.join(GRACE_PERIOD);
+        Assert.assertTrue(future3.isDone());
+        Assert.assertNotNull(t3.getEntry());
+        t4.join(GRACE_PERIOD);
+        Assert.assertTrue(future4.isDone());
+        Assert.assertNotNull(t4.getEntry());
+
+        Mockito.verify(conn1).close();
+        Mockito.verify(conn2).close();
+        Mockito.verify(connFactory, Mockito.times(2)).create(Mockito.eq("otherhost"));
+
+        totals = pool.getTotalStats();
+        Assert.assertEquals(0, totals.getAvailable());
+        Assert.assertEquals(2, totals.getLeased());
+        Assert.assertEquals(0, totals.getPending());
+    }
+
+    @Test
+    public void testStatefulConnectionRedistributionOnPerRouteMaxLimit() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        final HttpConnection conn3 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn3.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1, conn2, conn3);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 10);
+        pool.setMaxPerRoute("somehost", 2);
+        pool.setMaxTotal(2);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        final LocalPoolEntry entry2 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+
+        entry1.setState("some-stuff");
+        pool.release(entry1, true);
+        entry2.setState("some-stuff");
+        pool.release(entry2, true);
+
+        final LocalPoolEntry entry3 = pool.lease("somehost", "some-other-stuff").get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry3);
+
+        Mockito.verify(connFactory, Mockito.times(3)).create(Mockito.eq("somehost"));
+        Mockito.verify(conn1).close();
+        Mockito.verify(conn2, Mockito.never()).close();
+
+        final PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(1, totals.getAvailable());
+        Assert.assertEquals(1, totals.getLeased());
+    }
+
+    @Test
+    public void testCreateNewIfExpired() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 2);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        entry1.updateExpiry(1, TimeUnit.MILLISECONDS);
+        pool.release(entry1, true);
+
+        Thread.sleep(200L);
+
+        final LocalPoolEntry entry2 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry2);
+        Assert.assertNotSame(entry1, entry2);
+
+        Mockito.verify(connFactory, Mockito.times(2)).create(Mockito.eq("somehost"));
+
+        final PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(0, totals.getAvailable());
+        Assert.assertEquals(1, totals.getLeased());
+    }
+
+    @Test
+    public void testLeaseTimeout() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry1);
+
+        final Future<LocalPoolEntry> future2 = pool.lease("somehost", null);
+        final GetPoolEntryThread t2 = new GetPoolEntryThread(future2, 50, TimeUnit.MILLISECONDS);
+        t2.start();
+
+        t2.join(GRACE_PERIOD);
+        Assert.assertTrue(t2.getException() instanceof TimeoutException);
+        Assert.assertFalse(future2.isDone());
+        Assert.assertFalse(future2.isCancelled());
+        Assert.assertEquals(0, pool.getTotalStats().getPending());
+    }
+
+    @Test
+    public void testLeaseTimeoutElapsedBeforeWaiting() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry1);
+
+        // the deadline is bound to have passed by the time the request gets queued
+        final Future<LocalPoolEntry> future2 = pool.lease("somehost", null);
+        final GetPoolEntryThread t2 = new GetPoolEntryThread(future2, 1, TimeUnit.NANOSECONDS);
+        t2.start();
+
+        t2.join(GRACE_PERIOD);
+        Assert.assertFalse(t2.isAlive());
+        Assert.assertTrue(t2.getException() instanceof TimeoutException);
+        Assert.assertEquals(0, pool.getTotalStats().getPending());
+    }
+
+    @Test
+    public void testWaitingRequestsServedInOrder() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry1);
+
+        final Future<LocalPoolEntry> future2 = pool.lease("somehost", null);
+        final GetPoolEntryThread t2 = new GetPoolEntryThread(future2);
+        t2.start();
+        Thread.sleep(50);
+        final Future<LocalPoolEntry> future3 = pool.lease("somehost", null);
+        final GetPoolEntryThread t3 = new GetPoolEntryThread(future3);
+        t3.start();
+        Thread.sleep(50);
+
+        Assert.assertEquals(2, pool.getStats("somehost").getPending());
+
+        pool.release(entry1, true);
+        t2.join(GRACE_PERIOD);
+        Assert.assertSame(entry1, t2.getEntry());
+        Assert.assertFalse(future3.isDone());
+
+        // The released connection has been handed over, not returned to the pool
+        final Future<LocalPoolEntry> future4 = pool.lease("somehost", null);
+        try {
+            future4.get(10, TimeUnit.MILLISECONDS);
+            Assert.fail("TimeoutException should have been thrown");
+        } catch (final TimeoutException expected) {
+        }
+
+        pool.release(entry1, true);
+        t3.join(GRACE_PERIOD);
+        Assert.assertSame(entry1, t3.getEntry());
+
+        Mockito.verify(connFactory, Mockito.times(1)).create(Mockito.eq("somehost"));
+
+        final PoolStats stats = pool.getStats("somehost");
+        Assert.assertEquals(0, stats.getPending());
+        Assert.assertEquals(1, stats.getLeased());
+        Assert.assertEquals(0, stats.getAvailable());
+        Assert.assertEquals(4, stats.getWaitTimes().getCount());
+        Assert.assertTrue(stats.getWaitTimes().getMax() >= TimeUnit.MILLISECONDS.toMicros(50));
+        Assert.assertEquals(3, stats.getQueueDepths().getCount());
+        Assert.assertEquals(1, stats.getQueueDepths().getMax());
+        Assert.assertEquals(4, pool.getTotalStats().getWaitTimes().getCount());
+    }
+
+    @Test
+    public void testHandOverRespectsState() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1, conn2);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 2);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        final LocalPoolEntry entry2 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+
+        final Future<LocalPoolEntry> future3 = pool.lease("somehost", "user1");
+        final GetPoolEntryThread t3 = new GetPoolEntryThread(future3);
+        t3.start();
+        Thread.sleep(50);
+        final Future<LocalPoolEntry> future4 = pool.lease("somehost", "user2");
+        final GetPoolEntryThread t4 = new GetPoolEntryThread(future4);
+        t4.start();
+        Thread.sleep(50);
+
+        entry1.setState("user2");
+        pool.release(entry1, true);
+        t4.join(GRACE_PERIOD);
+        Assert.assertSame(entry1, t4.getEntry());
+        Assert.assertFalse(future3.isDone());
+
+        pool.release(entry2, true);
+        t3.join(GRACE_PERIOD);
+        Assert.assertSame(entry2, t3.getEntry());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseAsync() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1, conn2);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final FutureCallback<LocalPoolEntry> callback1 = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future1 = pool.leaseAsync("somehost", null, callback1);
+        Assert.assertTrue(future1.isDone());
+        final LocalPoolEntry entry1 = future1.get();
+        Assert.assertNotNull(entry1);
+        Mockito.verify(callback1).completed(entry1);
+
+        final FutureCallback<LocalPoolEntry> callback2 = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future2 = pool.leaseAsync("somehost", null, callback2);
+        final FutureCallback<LocalPoolEntry> callback3 = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future3 = pool.leaseAsync("somehost", null, callback3);
+        Assert.assertFalse(future2.isDone());
+        Assert.assertFalse(future3.isDone());
+        Assert.assertEquals(2, pool.getStats("somehost").getPending());
+
+        // Released connection is handed over to the oldest request
+        pool.release(entry1, true);
+        Assert.assertTrue(future2.isDone());
+        Assert.assertSame(entry1, future2.get());
+        Mockito.verify(callback2).completed(entry1);
+        Assert.assertFalse(future3.isDone());
+
+        // Freed capacity is used to create a new connection for the next one
+        pool.release(entry1, false);
+        Assert.assertTrue(future3.isDone());
+        final LocalPoolEntry entry3 = future3.get();
+        Assert.assertNotNull(entry3);
+        Assert.assertSame(conn2, entry3.getConnection());
+        Mockito.verify(callback3).completed(entry3);
+
+        final PoolStats stats = pool.getStats("somehost");
+        Assert.assertEquals(0, stats.getPending());
+        Assert.assertEquals(1, stats.getLeased());
+        Assert.assertEquals(3, stats.getWaitTimes().getCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseAsyncCancel() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.leaseAsync("somehost", null, null).get();
+        Assert.assertNotNull(entry1);
+
+        final FutureCallback<LocalPoolEntry> callback2 = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future2 = pool.leaseAsync("somehost", null, callback2);
+        Assert.assertTrue(future2.cancel(true));
+        Assert.assertTrue(future2.isCancelled());
+        Mockito.verify(callback2).cancelled();
+        Assert.assertEquals(0, pool.getStats("somehost").getPending());
+
+        // Elapsed timeout cancels the request
+        final Future<LocalPoolEntry> future3 = pool.leaseAsync("somehost", null, null);
+        try {
+            future3.get(10, TimeUnit.MILLISECONDS);
+            Assert.fail("TimeoutException should have been thrown");
+        } catch (final TimeoutException expected) {
+        }
+        Assert.assertTrue(future3.isCancelled());
+        Assert.assertEquals(0, pool.getStats("somehost").getPending());
+
+        pool.release(entry1, true);
+        Mockito.verify(callback2, Mockito.never()).completed(Mockito.<LocalPoolEntry>any());
+        final PoolStats stats = pool.getStats("somehost");
+        Assert.assertEquals(0, stats.getLeased());
+        Assert.assertEquals(1, stats.getAvailable());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseAsyncIOException() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        final IOException ioex = new IOException("Oppsie");
+        Mockito.doThrow(ioex).when(connFactory).create(Mockito.eq("somehost"));
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 10);
+
+        final FutureCallback<LocalPoolEntry> callback = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future = pool.leaseAsync("somehost", null, callback);
+        Assert.assertTrue(future.isDone());
+        Mockito.verify(callback).failed(ioex);
+        try {
+            future.get();
+            Assert.fail("ExecutionException should have been thrown");
+        } catch (final ExecutionException ex) {
+            Assert.assertSame(ioex, ex.getCause());
+        }
+        Assert.assertEquals(0, pool.getStats("somehost").getPending());
+    }
+
+    @Test
+    public void testLeaseAsyncCallbackWithoutLock() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.leaseAsync("somehost", null, null).get();
+        Assert.assertNotNull(entry1);
+
+        final AtomicBoolean unlocked = new AtomicBoolean();
+        final FutureCallback<LocalPoolEntry> callback = new FutureCallback<LocalPoolEntry>() {
+
+            public void completed(final LocalPoolEntry entry) {
+                // Another thread cannot read the stats while the releasing
+                // thread holds the lock
+                final CountDownLatch statsRead = new CountDownLatch(1);
+                new Thread() {
+
+                    @Override
+                    public void run() {
+                        pool.getTotalStats();
+                        statsRead.countDown();
+                    }
+
+                }.start();
+                try {
+                    unlocked.set(statsRead.await(5, TimeUnit.SECONDS));
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            public void failed(final Exception ex) {
+            }
+
+            public void cancelled() {
+            }
+
+        };
+        final Future<LocalPoolEntry> future2 = pool.leaseAsync("somehost", null, callback);
+        Assert.assertFalse(future2.isDone());
+
+        pool.release(entry1, true);
+        Assert.assertTrue(unlocked.get());
+        Assert.assertSame(entry1, future2.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseAsyncShutdown() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.leaseAsync("somehost", null, null).get();
+        Assert.assertNotNull(entry1);
+        final FutureCallback<LocalPoolEntry> callback = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future = pool.leaseAsync("somehost", null, callback);
+
+        pool.shutdown();
+        Assert.assertTrue(future.isCancelled());
+        Mockito.verify(callback).cancelled();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLeaseAsyncOnOtherRoute() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("otherhost"))).thenReturn(conn2);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.leaseAsync("somehost", null, null).get();
+        Assert.assertNotNull(entry1);
+
+        final FutureCallback<LocalPoolEntry> callback = Mockito.mock(FutureCallback.class);
+        final Future<LocalPoolEntry> future2 = pool.leaseAsync("otherhost", null, callback);
+        Assert.assertFalse(future2.isDone());
+        Assert.assertEquals(1, pool.getTotalStats().getPending());
+
+        // Releasing a connection of another route frees total capacity
+        pool.release(entry1, false);
+        Assert.assertTrue(future2.isDone());
+        final LocalPoolEntry entry2 = future2.get();
+        Assert.assertSame(conn2, entry2.getConnection());
+        Mockito.verify(callback).completed(entry2);
+
+        final PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(0, totals.getPending());
+        Assert.assertEquals(1, totals.getLeased());
+    }
+
+    @Test
+    public void testLeaseIOException() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        Mockito.doThrow(new IOException("Oppsie")).when(connFactory).create("somehost");
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final Future<LocalPoolEntry> future1 = pool.lease("somehost", null);
+        try {
+            future1.get(1, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException should have been thrown");
+        } catch (final ExecutionException expected) {
+            Assert.assertTrue(expected.getCause() instanceof IOException);
+        }
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.doReturn(conn1).when(connFactory).create("otherhost");
+        // The failed attempt must not hold on to the only slot
+        final LocalPoolEntry entry2 = pool.lease("otherhost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry2);
+    }
+
+    @Test
+    public void testLeaseCancel() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 1, 1);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry1);
+
+        final Future<LocalPoolEntry> future2 = pool.lease("somehost", null);
+        final GetPoolEntryThread t2 = new GetPoolEntryThread(future2);
+        t2.start();
+
+        Thread.sleep(5);
+
+        Assert.assertFalse(future2.isDone());
+        Assert.assertFalse(future2.isCancelled());
+
+        future2.cancel(true);
+        t2.join(GRACE_PERIOD);
+        Assert.assertTrue(future2.isDone());
+        Assert.assertTrue(future2.isCancelled());
+    }
+
+    @Test
+    public void testCloseIdle() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+        Mockito.when(connFactory.create(Mockito.eq("otherhost"))).thenReturn(conn2);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 2);
+
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        final LocalPoolEntry entry2 = pool.lease("otherhost", null).get(1, TimeUnit.SECONDS);
+
+        entry1.updateExpiry(0, TimeUnit.MILLISECONDS);
+        pool.release(entry1, true);
+
+        Thread.sleep(200L);
+
+        entry2.updateExpiry(0, TimeUnit.MILLISECONDS);
+        pool.release(entry2, true);
+
+        pool.closeIdle(50, TimeUnit.MILLISECONDS);
+
+        Mockito.verify(conn1).close();
+        Mockito.verify(conn2, Mockito.never()).close();
+
+        PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(1, totals.getAvailable());
+        Assert.assertEquals(0, totals.getLeased());
+
+        pool.closeIdle(-1, TimeUnit.MILLISECONDS);
+
+        Mockito.verify(conn2).close();
+
+        totals = pool.getTotalStats();
+        Assert.assertEquals(0, totals.getAvailable());
+        Assert.assertEquals(0, totals.getLeased());
+
+        // Evicted connections must free up their slots
+        Assert.assertNotNull(pool.lease("somehost", null).get(1, TimeUnit.SECONDS));
+        Assert.assertNotNull(pool.lease("otherhost", null).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCloseIdleInvalid() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 2);
+        pool.closeIdle(50, null);
+    }
+
+    @Test
+    public void testSetMaxInvalid() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 2);
+        try {
+            pool.setMaxTotal(-1);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException expected) {
+        }
+        try {
+            pool.setMaxPerRoute(null, 1);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException expected) {
+        }
+        try {
+            pool.setMaxPerRoute("somehost", -1);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException expected) {
+        }
+        try {
+            pool.setDefaultMaxPerRoute(-1);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn1.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("somehost"))).thenReturn(conn1);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+        Mockito.when(conn2.isOpen()).thenReturn(true);
+        Mockito.when(connFactory.create(Mockito.eq("otherhost"))).thenReturn(conn2);
+
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 2);
+        final LocalPoolEntry entry1 = pool.lease("somehost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry1);
+        final LocalPoolEntry entry2 = pool.lease("otherhost", null).get(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(entry2);
+
+        pool.release(entry2, true);
+
+        final PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(1, totals.getAvailable());
+        Assert.assertEquals(1, totals.getLeased());
+
+        pool.shutdown();
+        Assert.assertTrue(pool.isShutdown());
+        pool.shutdown();
+
+        Mockito.verify(conn1, Mockito.atLeastOnce()).close();
+        Mockito.verify(conn2, Mockito.atLeastOnce()).close();
+
+        try {
+            pool.lease("somehost", null);
+            Assert.fail("IllegalStateException should have been thrown");
+        } catch (final IllegalStateException expected) {
+        }
+        // Ignored if shut down
+        pool.release(entry1, true);
+    }
+
+}
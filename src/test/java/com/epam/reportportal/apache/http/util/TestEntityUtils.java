@@ -29,6 +29,7 @@ package com.epam.reportportal.apache.http.util;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.Random;
 
 import com.epam.reportportal.apache.http.util.EntityUtils;
 import org.junit.Assert;
@@ -205,6 +206,49 @@ public class TestEntityUtils {
         Assert.assertEquals(content, s);
     }
 
+    @Test
+    public void testLargeUnknownLengthContentToByteArray() throws Exception {
+        final byte[] bytes = new byte[100000];
+        new Random().nextBytes(bytes);
+        final BasicHttpEntity httpentity = new BasicHttpEntity();
+        httpentity.setContent(new ByteArrayInputStream(bytes));
+        httpentity.setContentLength(-1L);
+        Assert.assertArrayEquals(bytes, EntityUtils.toByteArray(httpentity));
+    }
+
+    @Test
+    public void testContentShorterThanContentLengthToByteArray() throws Exception {
+        final byte[] bytes = "Message content".getBytes("ISO-8859-1");
+        final BasicHttpEntity httpentity = new BasicHttpEntity();
+        httpentity.setContent(new ByteArrayInputStream(bytes));
+        httpentity.setContentLength(bytes.length + 10);
+        Assert.assertArrayEquals(bytes, EntityUtils.toByteArray(httpentity));
+    }
+
+    @Test
+    public void testContentLongerThanContentLengthToByteArray() throws Exception {
+        final byte[] bytes = new byte[10000];
+        new Random().nextBytes(bytes);
+        final BasicHttpEntity httpentity = new BasicHttpEntity();
+        httpentity.setContent(new ByteArrayInputStream(bytes));
+        httpentity.setContentLength(100);
+        Assert.assertArrayEquals(bytes, EntityUtils.toByteArray(httpentity));
+    }
+
+    @Test
+    public void testLargeUnknownLengthContentToString() throws Exception {
+        final String s = constructString(SWISS_GERMAN_HELLO);
+        final StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            buffer.append(s);
+        }
+        final String content = buffer.toString();
+        final BasicHttpEntity httpentity = new BasicHttpEntity();
+        httpentity.setContent(new ByteArrayInputStream(content.getBytes("UTF-8")));
+        httpentity.setContentType(new BasicHeader("Content-Type", "text/plain; charset=UTF-8"));
+        Assert.assertEquals(content, EntityUtils.toString(httpentity));
+    }
+
     /**
      * Helper class that returns <code>null</code> as the content.
      */